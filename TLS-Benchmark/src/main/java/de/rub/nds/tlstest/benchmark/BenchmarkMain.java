@@ -0,0 +1,156 @@
+/**
+ * TLS-Benchmark - Performance benchmarks for TLS-Anvil
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.benchmark;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Entrypoint of the end-to-end benchmark. Runs every selected scenario at every parallelHandshakes
+ * setting against an in-process TLS-Attacker peer, prints and stores the results and optionally
+ * compares them against a baseline report. The process exits with 1 if a regression was found,
+ * which makes the benchmark usable as a gate in CI.
+ */
+public class BenchmarkMain {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    @Parameter(names = "-scenarios", description = "The scenarios to run, comma separated.")
+    private List<BenchmarkScenario> scenarios = Arrays.asList(BenchmarkScenario.values());
+
+    @Parameter(
+            names = "-parallelHandshakes",
+            description = "The parallelHandshakes settings to run each scenario with.")
+    private List<Integer> parallelHandshakes = List.of(1, 4, 8);
+
+    @Parameter(names = "-strength", description = "The test strength used for all scenarios.")
+    private int strength = 1;
+
+    @Parameter(
+            names = "-connectionTimeout",
+            description =
+                    "The connection timeout in ms. The in-process peers answer immediately, so a"
+                            + " low value keeps tests expecting a timeout from dominating.")
+    private int connectionTimeout = 500;
+
+    @Parameter(names = "-outputFolder", description = "Folder for the report and test results.")
+    private String outputFolder = "benchmark-results";
+
+    @Parameter(
+            names = "-baseline",
+            description = "A report of an earlier run to compare the results against.")
+    private String baseline = null;
+
+    @Parameter(
+            names = "-tolerance",
+            description = "Accepted relative deviation from the baseline, e.g. 0.1 for 10%.")
+    private double tolerance = 0.1;
+
+    @Parameter(
+            names = "-jvmArgs",
+            description = "Additional arguments for the JVMs the scenarios are run in.",
+            variableArity = true)
+    private List<String> jvmArgs = new ArrayList<>();
+
+    @Parameter(names = "-help", help = true)
+    private boolean help = false;
+
+    public static void main(String[] args) {
+        BenchmarkMain benchmark = new BenchmarkMain();
+        JCommander commander = JCommander.newBuilder().addObject(benchmark).build();
+        try {
+            commander.parse(args);
+        } catch (ParameterException e) {
+            LOGGER.error("Could not parse provided parameters", e);
+            commander.usage();
+            System.exit(2);
+        }
+        if (benchmark.help) {
+            commander.usage();
+            return;
+        }
+        try {
+            System.exit(benchmark.run());
+        } catch (Exception e) {
+            LOGGER.error("Benchmark failed", e);
+            System.exit(2);
+        }
+    }
+
+    private int run() throws IOException, InterruptedException {
+        Path output = Paths.get(outputFolder).toAbsolutePath();
+        Files.createDirectories(output);
+        BenchmarkReport report = new BenchmarkReport();
+        for (BenchmarkScenario scenario : scenarios) {
+            List<Integer> settings =
+                    parallelHandshakes.stream()
+                            .map(scenario::effectiveParallelHandshakes)
+                            .distinct()
+                            .toList();
+            for (int setting : settings) {
+                BenchmarkResult result = runForked(scenario, setting, output);
+                if (result != null) {
+                    report.getResults().add(result);
+                }
+            }
+        }
+        report.write(output.resolve("benchmark_report.json"));
+        System.out.print(report.toTable());
+
+        if (baseline == null) {
+            return 0;
+        }
+        List<String> regressions =
+                report.findRegressions(BenchmarkReport.read(Paths.get(baseline)), tolerance);
+        regressions.forEach(regression -> LOGGER.error("Regression: {}", regression));
+        return regressions.isEmpty() ? 0 : 1;
+    }
+
+    private BenchmarkResult runForked(BenchmarkScenario scenario, int setting, Path output)
+            throws IOException, InterruptedException {
+        String name = scenario.name().toLowerCase() + "_" + setting;
+        Path scenarioFolder = output.resolve(name);
+        Path resultFile = output.resolve(name + ".json");
+        Files.deleteIfExists(resultFile);
+
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(ScenarioRunner.class.getName());
+        command.add(scenario.name());
+        command.add(Integer.toString(setting));
+        command.add(Integer.toString(strength));
+        command.add(Integer.toString(connectionTimeout));
+        command.add(scenarioFolder.toString());
+        command.add(resultFile.toString());
+
+        LOGGER.info("Running {} with {} parallel handshakes", scenario, setting);
+        Process process =
+                new ProcessBuilder(command)
+                        .redirectErrorStream(true)
+                        .redirectOutput(output.resolve(name + ".log").toFile())
+                        .start();
+        int exitCode = process.waitFor();
+        if (exitCode != 0 || !Files.exists(resultFile)) {
+            LOGGER.error("Scenario {} failed with exit code {}, see {}.log", name, exitCode, name);
+            return null;
+        }
+        return BenchmarkReport.readResult(resultFile);
+    }
+}
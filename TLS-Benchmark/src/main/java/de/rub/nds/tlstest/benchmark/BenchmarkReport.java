@@ -0,0 +1,161 @@
+/**
+ * TLS-Benchmark - Performance benchmarks for TLS-Anvil
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.benchmark;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * All results of a benchmark run. A report can be compared against the report of an earlier run to
+ * detect performance regressions.
+ */
+public class BenchmarkReport {
+
+    private static final ObjectMapper MAPPER =
+            new ObjectMapper()
+                    .enable(SerializationFeature.INDENT_OUTPUT)
+                    .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private String javaVersion = System.getProperty("java.version");
+    private int availableProcessors = Runtime.getRuntime().availableProcessors();
+    private List<BenchmarkResult> results = new ArrayList<>();
+
+    public static BenchmarkReport read(Path path) throws IOException {
+        return MAPPER.readValue(path.toFile(), BenchmarkReport.class);
+    }
+
+    public void write(Path path) throws IOException {
+        MAPPER.writeValue(path.toFile(), this);
+    }
+
+    static BenchmarkResult readResult(Path path) throws IOException {
+        return MAPPER.readValue(path.toFile(), BenchmarkResult.class);
+    }
+
+    static void writeResult(BenchmarkResult result, Path path) throws IOException {
+        MAPPER.writeValue(path.toFile(), result);
+    }
+
+    /**
+     * Compares this report against a baseline. A result regressed if its throughput dropped or its
+     * p95 latency or allocations per handshake grew by more than the tolerance. Results without a
+     * counterpart in the baseline are ignored.
+     *
+     * @param baseline the report of an earlier run
+     * @param tolerance the accepted relative deviation, e.g. 0.1 for 10%
+     * @return a description of every regression found
+     */
+    public List<String> findRegressions(BenchmarkReport baseline, double tolerance) {
+        Map<String, BenchmarkResult> baselineResults = new HashMap<>();
+        for (BenchmarkResult result : baseline.getResults()) {
+            baselineResults.put(result.getKey(), result);
+        }
+        List<String> regressions = new ArrayList<>();
+        for (BenchmarkResult result : results) {
+            BenchmarkResult expected = baselineResults.get(result.getKey());
+            if (expected == null) {
+                continue;
+            }
+            if (result.getHandshakesPerSecond()
+                    < expected.getHandshakesPerSecond() * (1 - tolerance)) {
+                regressions.add(
+                        String.format(
+                                "%s: throughput dropped from %.1f to %.1f handshakes/s",
+                                result.getKey(),
+                                expected.getHandshakesPerSecond(),
+                                result.getHandshakesPerSecond()));
+            }
+            if (expected.getLatencyP95Millis() > 0
+                    && result.getLatencyP95Millis()
+                            > expected.getLatencyP95Millis() * (1 + tolerance)) {
+                regressions.add(
+                        String.format(
+                                "%s: p95 latency grew from %d ms to %d ms",
+                                result.getKey(),
+                                expected.getLatencyP95Millis(),
+                                result.getLatencyP95Millis()));
+            }
+            if (expected.getAllocatedBytesPerHandshake() > 0
+                    && result.getAllocatedBytesPerHandshake()
+                            > expected.getAllocatedBytesPerHandshake() * (1 + tolerance)) {
+                regressions.add(
+                        String.format(
+                                "%s: allocations grew from %.0f to %.0f bytes per handshake",
+                                result.getKey(),
+                                expected.getAllocatedBytesPerHandshake(),
+                                result.getAllocatedBytesPerHandshake()));
+            }
+        }
+        return regressions;
+    }
+
+    /**
+     * @return a human readable table of all results
+     */
+    public String toTable() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(
+                String.format(
+                        "%-14s %4s %7s %10s %9s %9s %9s %10s %8s%n",
+                        "Scenario",
+                        "Par",
+                        "HS",
+                        "HS/s",
+                        "p50 ms",
+                        "p95 ms",
+                        "p99 ms",
+                        "Alloc MB/s",
+                        "GC ms"));
+        for (BenchmarkResult result : results) {
+            builder.append(
+                    String.format(
+                            "%-14s %4d %7d %10.1f %9d %9d %9d %10.1f %8d%n",
+                            result.getScenario(),
+                            result.getParallelHandshakes(),
+                            result.getHandshakes(),
+                            result.getHandshakesPerSecond(),
+                            result.getLatencyP50Millis(),
+                            result.getLatencyP95Millis(),
+                            result.getLatencyP99Millis(),
+                            result.getAllocationRateMbPerSecond(),
+                            result.getGcMillis()));
+        }
+        return builder.toString();
+    }
+
+    public String getJavaVersion() {
+        return javaVersion;
+    }
+
+    public void setJavaVersion(String javaVersion) {
+        this.javaVersion = javaVersion;
+    }
+
+    public int getAvailableProcessors() {
+        return availableProcessors;
+    }
+
+    public void setAvailableProcessors(int availableProcessors) {
+        this.availableProcessors = availableProcessors;
+    }
+
+    public List<BenchmarkResult> getResults() {
+        return results;
+    }
+
+    public void setResults(List<BenchmarkResult> results) {
+        this.results = results;
+    }
+}
@@ -0,0 +1,168 @@
+/**
+ * TLS-Benchmark - Performance benchmarks for TLS-Anvil
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/** Measurements of one scenario at one parallelHandshakes setting. */
+public class BenchmarkResult {
+
+    private BenchmarkScenario scenario;
+    private int parallelHandshakes;
+    private long testCases;
+    private long handshakes;
+    private long preparationMillis;
+    private long executionMillis;
+    private double handshakesPerSecond;
+    private long latencyP50Millis;
+    private long latencyP95Millis;
+    private long latencyP99Millis;
+    private long allocatedBytes;
+    private double allocationRateMbPerSecond;
+    private long gcCount;
+    private long gcMillis;
+
+    public BenchmarkResult() {}
+
+    public BenchmarkResult(BenchmarkScenario scenario, int parallelHandshakes) {
+        this.scenario = scenario;
+        this.parallelHandshakes = parallelHandshakes;
+    }
+
+    /**
+     * @return a key identifying the scenario and parallelization of this result
+     */
+    @JsonIgnore
+    public String getKey() {
+        return scenario + "@" + parallelHandshakes;
+    }
+
+    /**
+     * @return the bytes allocated per handshake, which unlike the allocation rate does not depend
+     *     on the throughput
+     */
+    @JsonIgnore
+    public double getAllocatedBytesPerHandshake() {
+        if (handshakes == 0 || allocatedBytes < 0) {
+            return 0;
+        }
+        return (double) allocatedBytes / handshakes;
+    }
+
+    public BenchmarkScenario getScenario() {
+        return scenario;
+    }
+
+    public void setScenario(BenchmarkScenario scenario) {
+        this.scenario = scenario;
+    }
+
+    public int getParallelHandshakes() {
+        return parallelHandshakes;
+    }
+
+    public void setParallelHandshakes(int parallelHandshakes) {
+        this.parallelHandshakes = parallelHandshakes;
+    }
+
+    public long getTestCases() {
+        return testCases;
+    }
+
+    public void setTestCases(long testCases) {
+        this.testCases = testCases;
+    }
+
+    public long getHandshakes() {
+        return handshakes;
+    }
+
+    public void setHandshakes(long handshakes) {
+        this.handshakes = handshakes;
+    }
+
+    public long getPreparationMillis() {
+        return preparationMillis;
+    }
+
+    public void setPreparationMillis(long preparationMillis) {
+        this.preparationMillis = preparationMillis;
+    }
+
+    public long getExecutionMillis() {
+        return executionMillis;
+    }
+
+    public void setExecutionMillis(long executionMillis) {
+        this.executionMillis = executionMillis;
+    }
+
+    public double getHandshakesPerSecond() {
+        return handshakesPerSecond;
+    }
+
+    public void setHandshakesPerSecond(double handshakesPerSecond) {
+        this.handshakesPerSecond = handshakesPerSecond;
+    }
+
+    public long getLatencyP50Millis() {
+        return latencyP50Millis;
+    }
+
+    public void setLatencyP50Millis(long latencyP50Millis) {
+        this.latencyP50Millis = latencyP50Millis;
+    }
+
+    public long getLatencyP95Millis() {
+        return latencyP95Millis;
+    }
+
+    public void setLatencyP95Millis(long latencyP95Millis) {
+        this.latencyP95Millis = latencyP95Millis;
+    }
+
+    public long getLatencyP99Millis() {
+        return latencyP99Millis;
+    }
+
+    public void setLatencyP99Millis(long latencyP99Millis) {
+        this.latencyP99Millis = latencyP99Millis;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public void setAllocatedBytes(long allocatedBytes) {
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    public double getAllocationRateMbPerSecond() {
+        return allocationRateMbPerSecond;
+    }
+
+    public void setAllocationRateMbPerSecond(double allocationRateMbPerSecond) {
+        this.allocationRateMbPerSecond = allocationRateMbPerSecond;
+    }
+
+    public long getGcCount() {
+        return gcCount;
+    }
+
+    public void setGcCount(long gcCount) {
+        this.gcCount = gcCount;
+    }
+
+    public long getGcMillis() {
+        return gcMillis;
+    }
+
+    public void setGcMillis(long gcMillis) {
+        this.gcMillis = gcMillis;
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * TLS-Benchmark - Performance benchmarks for TLS-Anvil
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.benchmark;
+
+import de.rub.nds.anvilcore.constants.TestEndpointType;
+import de.rub.nds.tlsattacker.core.constants.ProtocolVersion;
+
+/**
+ * The representative template subsets the benchmark runs. Each scenario selects a small test
+ * package of the testsuite so that a full benchmark completes within minutes.
+ */
+public enum BenchmarkScenario {
+    SERVER_TLS12(TestEndpointType.SERVER, ProtocolVersion.TLS12, "server.tls12.rfc5246"),
+    SERVER_TLS13(TestEndpointType.SERVER, ProtocolVersion.TLS13, "server.tls13.rfc8701"),
+    SERVER_DTLS12(TestEndpointType.SERVER, ProtocolVersion.DTLS12, "server.dtls12.rfc6347"),
+    CLIENT_TLS12(TestEndpointType.CLIENT, ProtocolVersion.TLS12, "client.tls12.rfc8701"),
+    CLIENT_TLS13(TestEndpointType.CLIENT, ProtocolVersion.TLS13, "client.tls13.rfc8701");
+
+    private static final String SUITE_PACKAGE = "de.rub.nds.tlstest.suite.tests.";
+
+    private final TestEndpointType endpointMode;
+    private final ProtocolVersion peerVersion;
+    private final String testPackage;
+
+    BenchmarkScenario(
+            TestEndpointType endpointMode, ProtocolVersion peerVersion, String testPackage) {
+        this.endpointMode = endpointMode;
+        this.peerVersion = peerVersion;
+        this.testPackage = SUITE_PACKAGE + testPackage;
+    }
+
+    public TestEndpointType getEndpointMode() {
+        return endpointMode;
+    }
+
+    public ProtocolVersion getPeerVersion() {
+        return peerVersion;
+    }
+
+    public String getTestPackage() {
+        return testPackage;
+    }
+
+    public boolean isDtls() {
+        return peerVersion.isDTLS();
+    }
+
+    /**
+     * The DTLS peer serves one handshake at a time, higher settings would only measure
+     * retransmission timeouts.
+     *
+     * @param parallelHandshakes the requested number of parallel handshakes
+     * @return the number of parallel handshakes the scenario is run with
+     */
+    public int effectiveParallelHandshakes(int parallelHandshakes) {
+        return isDtls() ? 1 : parallelHandshakes;
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * TLS-Benchmark - Performance benchmarks for TLS-Anvil
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.benchmark;
+
+import de.rub.nds.anvilcore.context.AnvilTestConfig;
+import de.rub.nds.anvilcore.execution.AnvilListener;
+import de.rub.nds.anvilcore.teststate.AnvilTestCase;
+import de.rub.nds.anvilcore.teststate.AnvilTestRun;
+import de.rub.nds.anvilcore.teststate.reporting.AnvilReport;
+import org.junit.platform.launcher.TestPlan;
+
+/**
+ * Forwards all callbacks to TLS-Anvil's listener and takes resource snapshots around the test
+ * execution. The feature extraction in {@link #beforeStart} is excluded from the measurement.
+ */
+public class MeasuringListener implements AnvilListener {
+
+    private final AnvilListener delegate;
+    private ResourceSnapshot preparationStart;
+    private ResourceSnapshot executionStart;
+    private ResourceSnapshot executionEnd;
+
+    public MeasuringListener(AnvilListener delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void gotConfig(AnvilTestConfig anvilConfig, String additionalConfig) {
+        delegate.gotConfig(anvilConfig, additionalConfig);
+    }
+
+    @Override
+    public void onAborted() {
+        delegate.onAborted();
+    }
+
+    @Override
+    public boolean beforeStart(TestPlan testPlan, long totalTests) {
+        preparationStart = ResourceSnapshot.take();
+        boolean start = delegate.beforeStart(testPlan, totalTests);
+        executionStart = ResourceSnapshot.take();
+        return start;
+    }
+
+    @Override
+    public void onStarted() {
+        delegate.onStarted();
+    }
+
+    @Override
+    public void onReportFinished(AnvilReport report) {
+        executionEnd = ResourceSnapshot.take();
+        delegate.onReportFinished(report);
+    }
+
+    @Override
+    public void onTestRunFinished(AnvilTestRun testRun) {
+        delegate.onTestRunFinished(testRun);
+    }
+
+    @Override
+    public void onTestCaseFinished(AnvilTestCase testCase, String testId) {
+        delegate.onTestCaseFinished(testCase, testId);
+    }
+
+    @Override
+    public void onPcapCaptured(AnvilTestCase testCase, byte[] pcapData) {
+        delegate.onPcapCaptured(testCase, pcapData);
+    }
+
+    public ResourceSnapshot getPreparationStart() {
+        return preparationStart;
+    }
+
+    public ResourceSnapshot getExecutionStart() {
+        return executionStart;
+    }
+
+    public ResourceSnapshot getExecutionEnd() {
+        return executionEnd;
+    }
+}
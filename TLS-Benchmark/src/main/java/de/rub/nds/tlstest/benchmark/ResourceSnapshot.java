@@ -0,0 +1,72 @@
+/**
+ * TLS-Benchmark - Performance benchmarks for TLS-Anvil
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.benchmark;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+/** Point in time reading of the JVM counters the benchmark reports as differences. */
+public class ResourceSnapshot {
+
+    private final long nanoTime;
+    private final long allocatedBytes;
+    private final long gcCount;
+    private final long gcMillis;
+
+    ResourceSnapshot(long nanoTime, long allocatedBytes, long gcCount, long gcMillis) {
+        this.nanoTime = nanoTime;
+        this.allocatedBytes = allocatedBytes;
+        this.gcCount = gcCount;
+        this.gcMillis = gcMillis;
+    }
+
+    public static ResourceSnapshot take() {
+        long gcCount = 0;
+        long gcMillis = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += Math.max(0, bean.getCollectionCount());
+            gcMillis += Math.max(0, bean.getCollectionTime());
+        }
+        return new ResourceSnapshot(System.nanoTime(), readAllocatedBytes(), gcCount, gcMillis);
+    }
+
+    private static long readAllocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threadBean =
+                    (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            if (threadBean.isThreadAllocatedMemorySupported()
+                    && threadBean.isThreadAllocatedMemoryEnabled()) {
+                return threadBean.getTotalThreadAllocatedBytes();
+            }
+        }
+        return -1;
+    }
+
+    public long millisSince(ResourceSnapshot start) {
+        return (nanoTime - start.nanoTime) / 1_000_000;
+    }
+
+    /**
+     * @return the bytes allocated since the given snapshot or -1 if the JVM does not track
+     *     allocations
+     */
+    public long allocatedBytesSince(ResourceSnapshot start) {
+        if (allocatedBytes < 0 || start.allocatedBytes < 0) {
+            return -1;
+        }
+        return allocatedBytes - start.allocatedBytes;
+    }
+
+    public long gcCountSince(ResourceSnapshot start) {
+        return gcCount - start.gcCount;
+    }
+
+    public long gcMillisSince(ResourceSnapshot start) {
+        return gcMillis - start.gcMillis;
+    }
+}
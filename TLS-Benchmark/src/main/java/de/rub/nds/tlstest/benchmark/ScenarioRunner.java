@@ -0,0 +1,191 @@
+/**
+ * TLS-Benchmark - Performance benchmarks for TLS-Anvil
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.rub.nds.anvilcore.constants.TestEndpointType;
+import de.rub.nds.anvilcore.context.AnvilContext;
+import de.rub.nds.anvilcore.context.AnvilTestConfig;
+import de.rub.nds.anvilcore.execution.TestRunner;
+import de.rub.nds.tlsattacker.core.util.ProviderUtil;
+import de.rub.nds.tlstest.benchmark.peer.InProcessTlsClient;
+import de.rub.nds.tlstest.benchmark.peer.InProcessTlsPeer;
+import de.rub.nds.tlstest.benchmark.peer.InProcessTlsServer;
+import de.rub.nds.tlstest.framework.TestContext;
+import de.rub.nds.tlstest.framework.anvil.TlsParameterIdentifierProvider;
+import de.rub.nds.tlstest.framework.config.TlsAnvilConfig;
+import de.rub.nds.tlstest.framework.config.delegates.TestClientDelegate;
+import de.rub.nds.tlstest.framework.config.delegates.TestServerDelegate;
+import de.rub.nds.tlstest.framework.metrics.ExecutionPhase;
+import de.rub.nds.tlstest.framework.metrics.LatencyHistogram;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Runs a single benchmark scenario against an in-process peer. TLS-Anvil's contexts are singletons,
+ * so every scenario is run in a JVM of its own, started by {@link BenchmarkMain}.
+ */
+public class ScenarioRunner {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    static {
+        System.setProperty("java.util.logging.manager", "org.apache.logging.log4j.jul.LogManager");
+        ProviderUtil.addBouncyCastleProvider();
+    }
+
+    private final BenchmarkScenario scenario;
+    private final int parallelHandshakes;
+    private final int strength;
+    private final int connectionTimeout;
+    private final Path outputFolder;
+
+    public ScenarioRunner(
+            BenchmarkScenario scenario,
+            int parallelHandshakes,
+            int strength,
+            int connectionTimeout,
+            Path outputFolder) {
+        this.scenario = scenario;
+        this.parallelHandshakes = scenario.effectiveParallelHandshakes(parallelHandshakes);
+        this.strength = strength;
+        this.connectionTimeout = connectionTimeout;
+        this.outputFolder = outputFolder;
+    }
+
+    /**
+     * Expects the scenario, the parallelHandshakes setting, the strength, the output folder and the
+     * file to write the result to.
+     *
+     * @param args the command line arguments passed by {@link BenchmarkMain}
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length != 6) {
+            System.err.println(
+                    "Usage: ScenarioRunner <scenario> <parallelHandshakes> <strength>"
+                            + " <connectionTimeout> <outputFolder> <resultFile>");
+            System.exit(2);
+        }
+        BenchmarkResult result =
+                new ScenarioRunner(
+                                BenchmarkScenario.valueOf(args[0]),
+                                Integer.parseInt(args[1]),
+                                Integer.parseInt(args[2]),
+                                Integer.parseInt(args[3]),
+                                Paths.get(args[4]))
+                        .run();
+        BenchmarkReport.writeResult(result, Paths.get(args[5]));
+        // the test framework leaves non-daemon threads behind
+        System.exit(0);
+    }
+
+    public BenchmarkResult run() throws IOException {
+        Files.createDirectories(outputFolder);
+        AnvilTestConfig anvilTestConfig = new AnvilTestConfig();
+        anvilTestConfig.setEndpointMode(scenario.getEndpointMode());
+        anvilTestConfig.setDisableTcpDump(true);
+        anvilTestConfig.setIgnoreCache(true);
+        anvilTestConfig.setIdentifier(scenario.name());
+        anvilTestConfig.setOutputFolder(outputFolder.toAbsolutePath().toString());
+        anvilTestConfig.setTestPackage(scenario.getTestPackage());
+        anvilTestConfig.setStrength(strength);
+        anvilTestConfig.setConnectionTimeout(connectionTimeout);
+
+        TlsAnvilConfig tlsConfig = new TlsAnvilConfig();
+        tlsConfig.setAnvilTestConfig(anvilTestConfig);
+        tlsConfig.setTestEndpointMode(scenario.getEndpointMode());
+        tlsConfig.setUseDTLS(scenario.isDtls());
+        tlsConfig.setParallelHandshakes(parallelHandshakes);
+        tlsConfig.restrictParallelization();
+        tlsConfig.setParsedArgs(true);
+
+        try (InProcessTlsPeer peer = startPeer(tlsConfig)) {
+            TestContext testContext = TestContext.getInstance();
+            testContext.setConfig(tlsConfig);
+            TestRunner runner =
+                    new TestRunner(
+                            anvilTestConfig,
+                            new ObjectMapper().writeValueAsString(tlsConfig),
+                            new TlsParameterIdentifierProvider());
+            MeasuringListener listener = new MeasuringListener(testContext);
+            runner.setListener(listener);
+            runner.runTests();
+            LOGGER.info(
+                    "Peer took part in {} handshakes, {} did not complete",
+                    peer.getHandshakes(),
+                    peer.getFailedHandshakes());
+            return collectResult(testContext, listener, tlsConfig.getParallelHandshakes());
+        }
+    }
+
+    private InProcessTlsPeer startPeer(TlsAnvilConfig tlsConfig) throws IOException {
+        if (scenario.getEndpointMode() == TestEndpointType.SERVER) {
+            InProcessTlsServer server = new InProcessTlsServer(scenario.getPeerVersion());
+            TestServerDelegate serverDelegate = new TestServerDelegate();
+            serverDelegate.setHost("127.0.0.1:" + server.getPort());
+            tlsConfig.setTestServerDelegate(serverDelegate);
+            return server;
+        }
+        int port;
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            port = socket.getLocalPort();
+        }
+        InProcessTlsClient client = new InProcessTlsClient(scenario.getPeerVersion(), port);
+        TestClientDelegate clientDelegate = new TestClientDelegate();
+        clientDelegate.setPort(port);
+        clientDelegate.setTriggerScript(
+                state -> {
+                    client.connect();
+                    return 0;
+                });
+        tlsConfig.setTestClientDelegate(clientDelegate);
+        return client;
+    }
+
+    private BenchmarkResult collectResult(
+            TestContext testContext, MeasuringListener listener, int effectiveParallelHandshakes) {
+        BenchmarkResult result = new BenchmarkResult(scenario, effectiveParallelHandshakes);
+        result.setTestCases(
+                AnvilContext.getInstance().getResultsTestRuns().values().stream()
+                        .mapToLong(Set::size)
+                        .sum());
+        LatencyHistogram network =
+                testContext.getExecutionMetrics().getHistogram(ExecutionPhase.NETWORK);
+        result.setHandshakes(network.getCount());
+        result.setLatencyP50Millis(TimeUnit.MICROSECONDS.toMillis(network.getQuantile(0.5)));
+        result.setLatencyP95Millis(TimeUnit.MICROSECONDS.toMillis(network.getQuantile(0.95)));
+        result.setLatencyP99Millis(TimeUnit.MICROSECONDS.toMillis(network.getQuantile(0.99)));
+
+        if (listener.getExecutionStart() == null || listener.getExecutionEnd() == null) {
+            LOGGER.error("Scenario {} did not execute any tests", scenario);
+            return result;
+        }
+        ResourceSnapshot start = listener.getExecutionStart();
+        ResourceSnapshot end = listener.getExecutionEnd();
+        long executionMillis = Math.max(1, end.millisSince(start));
+        result.setPreparationMillis(start.millisSince(listener.getPreparationStart()));
+        result.setExecutionMillis(executionMillis);
+        result.setHandshakesPerSecond(network.getCount() * 1000.0 / executionMillis);
+        long allocatedBytes = end.allocatedBytesSince(start);
+        result.setAllocatedBytes(allocatedBytes);
+        if (allocatedBytes >= 0) {
+            result.setAllocationRateMbPerSecond(
+                    allocatedBytes / (1024.0 * 1024.0) * 1000.0 / executionMillis);
+        }
+        result.setGcCount(end.gcCountSince(start));
+        result.setGcMillis(end.gcMillisSince(start));
+        return result;
+    }
+}
@@ -0,0 +1,33 @@
+/**
+ * TLS-Benchmark - Performance benchmarks for TLS-Anvil
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.benchmark.peer;
+
+import de.rub.nds.tlsattacker.core.constants.ProtocolVersion;
+import de.rub.nds.tlsattacker.core.constants.RunningModeType;
+
+/**
+ * TLS client peer connecting to a TLS-Anvil server socket on loopback. Each call of {@link
+ * #connect()} starts one handshake in the background, which makes the client usable as an
+ * in-process trigger script.
+ */
+public class InProcessTlsClient extends InProcessTlsPeer {
+
+    public InProcessTlsClient(ProtocolVersion version, int port) {
+        super(PeerConfigFactory.createPeerConfig(version), RunningModeType.CLIENT, "tls-client");
+        config.getDefaultClientConnection().setHostname("127.0.0.1");
+        config.getDefaultClientConnection().setIp("127.0.0.1");
+        config.getDefaultClientConnection().setPort(port);
+    }
+
+    /** Starts a handshake against the configured port without waiting for it to finish. */
+    public void connect() {
+        if (running) {
+            handshakeExecutor.execute(() -> executeHandshake(null));
+        }
+    }
+}
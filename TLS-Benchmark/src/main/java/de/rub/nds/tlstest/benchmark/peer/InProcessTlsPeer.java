@@ -0,0 +1,113 @@
+/**
+ * TLS-Benchmark - Performance benchmarks for TLS-Anvil
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.benchmark.peer;
+
+import de.rub.nds.tlsattacker.core.config.Config;
+import de.rub.nds.tlsattacker.core.constants.RunningModeType;
+import de.rub.nds.tlsattacker.core.state.State;
+import de.rub.nds.tlsattacker.core.workflow.WorkflowExecutor;
+import de.rub.nds.tlsattacker.core.workflow.WorkflowExecutorFactory;
+import de.rub.nds.tlsattacker.core.workflow.factory.WorkflowConfigurationFactory;
+import de.rub.nds.tlsattacker.core.workflow.factory.WorkflowTraceType;
+import de.rub.nds.tlsattacker.transport.TransportHandler;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A TLS-Attacker based TLS peer running inside the benchmark JVM. The peer executes a plain
+ * handshake workflow for every connection and shares one config between all connections, so it adds
+ * as little overhead as possible to the measurement.
+ */
+public abstract class InProcessTlsPeer implements AutoCloseable {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    protected final Config config;
+    protected final ExecutorService handshakeExecutor;
+    private final RunningModeType runningMode;
+    private final AtomicLong handshakes = new AtomicLong();
+    private final AtomicLong failedHandshakes = new AtomicLong();
+    protected volatile boolean running = true;
+
+    protected InProcessTlsPeer(Config config, RunningModeType runningMode, String name) {
+        this.config = config;
+        this.runningMode = runningMode;
+        config.setDefaultRunningMode(runningMode);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.handshakeExecutor =
+                Executors.newCachedThreadPool(
+                        runnable -> {
+                            Thread thread =
+                                    new Thread(
+                                            runnable, name + "-" + threadCount.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+    }
+
+    /**
+     * Executes a single handshake.
+     *
+     * @param transportHandler the transport handler to use or null to let TLS-Attacker create one
+     *     from the default connection of the config
+     */
+    protected void executeHandshake(TransportHandler transportHandler) {
+        try {
+            State state =
+                    new State(
+                            config,
+                            new WorkflowConfigurationFactory(config)
+                                    .createWorkflowTrace(WorkflowTraceType.HANDSHAKE, runningMode));
+            if (transportHandler != null) {
+                state.getTlsContext().setTransportHandler(transportHandler);
+            }
+            WorkflowExecutor executor =
+                    WorkflowExecutorFactory.createWorkflowExecutor(
+                            config.getWorkflowExecutorType(), state);
+            executor.executeWorkflow();
+            if (!state.getWorkflowTrace().executedAsPlanned()) {
+                failedHandshakes.incrementAndGet();
+            }
+        } catch (Exception e) {
+            // most test cases deliberately break the handshake
+            LOGGER.trace("Peer handshake aborted", e);
+            failedHandshakes.incrementAndGet();
+        } finally {
+            handshakes.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return the number of handshakes the peer took part in
+     */
+    public long getHandshakes() {
+        return handshakes.get();
+    }
+
+    /**
+     * @return the number of handshakes that did not complete as a regular handshake
+     */
+    public long getFailedHandshakes() {
+        return failedHandshakes.get();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        handshakeExecutor.shutdownNow();
+        try {
+            handshakeExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * TLS-Benchmark - Performance benchmarks for TLS-Anvil
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.benchmark.peer;
+
+import de.rub.nds.tlsattacker.core.constants.ProtocolVersion;
+import de.rub.nds.tlsattacker.core.constants.RunningModeType;
+import de.rub.nds.tlsattacker.transport.tcp.ServerTcpTransportHandler;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * TLS server peer listening on loopback. TCP connections are handled concurrently, one thread per
+ * accepted socket. DTLS handshakes are served one after another on a fixed UDP port, since
+ * TLS-Attacker binds the datagram socket per handshake.
+ */
+public class InProcessTlsServer extends InProcessTlsPeer {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private final ServerSocket serverSocket;
+    private final int port;
+    private final Thread acceptThread;
+
+    public InProcessTlsServer(ProtocolVersion version) {
+        super(PeerConfigFactory.createPeerConfig(version), RunningModeType.SERVER, "tls-server");
+        try {
+            if (version.isDTLS()) {
+                serverSocket = null;
+                port = findFreeUdpPort();
+                config.getDefaultServerConnection().setPort(port);
+                acceptThread = new Thread(this::serveDatagrams, "tls-server-udp");
+            } else {
+                serverSocket = new ServerSocket(0, 128, InetAddress.getLoopbackAddress());
+                port = serverSocket.getLocalPort();
+                acceptThread = new Thread(this::acceptConnections, "tls-server-accept");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+        LOGGER.info("In-process {} server listening on port {}", version, port);
+    }
+
+    private static int findFreeUdpPort() throws IOException {
+        try (DatagramSocket socket = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private void acceptConnections() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                handshakeExecutor.execute(
+                        () -> {
+                            try (socket) {
+                                executeHandshake(
+                                        new ServerTcpTransportHandler(
+                                                config.getDefaultServerConnection(), socket));
+                            } catch (IOException | RuntimeException e) {
+                                LOGGER.debug("Failed to serve connection", e);
+                            }
+                        });
+            } catch (IOException e) {
+                if (running) {
+                    LOGGER.warn("Failed to accept connection", e);
+                }
+            }
+        }
+    }
+
+    private void serveDatagrams() {
+        while (running) {
+            executeHandshake(null);
+        }
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (serverSocket != null) {
+            try {
+                serverSocket.close();
+            } catch (IOException ignored) {
+            }
+        }
+        acceptThread.interrupt();
+        super.close();
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * TLS-Benchmark - Performance benchmarks for TLS-Anvil
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.benchmark.peer;
+
+import de.rub.nds.tlsattacker.core.config.Config;
+import de.rub.nds.tlsattacker.core.constants.CipherSuite;
+import de.rub.nds.tlsattacker.core.constants.NamedGroup;
+import de.rub.nds.tlsattacker.core.constants.ProtocolVersion;
+import de.rub.nds.tlsattacker.core.layer.constant.StackConfiguration;
+import de.rub.nds.tlsattacker.core.workflow.action.executor.WorkflowExecutorType;
+import de.rub.nds.tlsattacker.transport.TransportHandlerType;
+import java.util.List;
+
+/** Creates the TLS-Attacker configs used by the in-process peers. */
+public final class PeerConfigFactory {
+
+    private static final int TIMEOUT = 500;
+
+    private PeerConfigFactory() {}
+
+    /**
+     * Creates a config for a peer that only negotiates the given protocol version.
+     *
+     * @param version TLS 1.2, TLS 1.3 or DTLS 1.2
+     * @return a fresh config
+     */
+    public static Config createPeerConfig(ProtocolVersion version) {
+        Config config = new Config();
+        config.setHighestProtocolVersion(version);
+        config.setDefaultSelectedProtocolVersion(version);
+        config.setSupportedVersions(version);
+        config.setEnforceSettings(false);
+        config.setStopActionsAfterFatal(true);
+        config.setStopReceivingAfterFatal(true);
+        config.setStopActionsAfterIOException(true);
+        // close right away instead of waiting for messages that will not arrive
+        config.setStopTraceAfterUnexpected(true);
+        config.setWorkflowExecutorShouldClose(true);
+        config.getDefaultServerConnection().setTimeout(TIMEOUT);
+        config.getDefaultServerConnection().setUseIpv6(false);
+        config.getDefaultClientConnection().setUseIpv6(false);
+        config.getDefaultClientConnection().setTimeout(TIMEOUT);
+        config.getDefaultClientConnection().setConnectionTimeout(TIMEOUT);
+
+        if (version == ProtocolVersion.TLS13) {
+            List<CipherSuite> cipherSuites =
+                    List.of(
+                            CipherSuite.TLS_AES_128_GCM_SHA256,
+                            CipherSuite.TLS_AES_256_GCM_SHA384,
+                            CipherSuite.TLS_CHACHA20_POLY1305_SHA256);
+            List<NamedGroup> groups = List.of(NamedGroup.ECDH_X25519, NamedGroup.SECP256R1);
+            config.setAddEllipticCurveExtension(true);
+            config.setAddECPointFormatExtension(false);
+            config.setAddKeyShareExtension(true);
+            config.setAddSignatureAndHashAlgorithmsExtension(true);
+            config.setAddSupportedVersionsExtension(true);
+            config.setAddRenegotiationInfoExtension(false);
+            config.setDefaultServerSupportedCipherSuites(cipherSuites);
+            config.setDefaultClientSupportedCipherSuites(cipherSuites);
+            config.setDefaultSelectedCipherSuite(CipherSuite.TLS_AES_128_GCM_SHA256);
+            config.setDefaultClientNamedGroups(groups);
+            config.setDefaultServerNamedGroups(groups);
+            config.setDefaultClientKeyShareNamedGroups(NamedGroup.ECDH_X25519);
+            config.setDefaultSelectedNamedGroup(NamedGroup.ECDH_X25519);
+        } else {
+            // a small set keeps the feature extraction and the derived test inputs comparable
+            // to a typical target instead of covering every cipher suite TLS-Attacker implements
+            List<CipherSuite> cipherSuites =
+                    List.of(
+                            CipherSuite.TLS_ECDHE_RSA_WITH_AES_128_GCM_SHA256,
+                            CipherSuite.TLS_ECDHE_RSA_WITH_AES_256_GCM_SHA384,
+                            CipherSuite.TLS_RSA_WITH_AES_128_CBC_SHA256);
+            List<NamedGroup> groups = List.of(NamedGroup.SECP256R1, NamedGroup.ECDH_X25519);
+            config.setDefaultServerSupportedCipherSuites(cipherSuites);
+            config.setDefaultClientSupportedCipherSuites(cipherSuites);
+            config.setDefaultSelectedCipherSuite(CipherSuite.TLS_ECDHE_RSA_WITH_AES_128_GCM_SHA256);
+            config.setDefaultClientNamedGroups(groups);
+            config.setDefaultServerNamedGroups(groups);
+            config.setDefaultSelectedNamedGroup(NamedGroup.SECP256R1);
+            config.setAddEllipticCurveExtension(true);
+            config.setAddECPointFormatExtension(true);
+        }
+        if (version.isDTLS()) {
+            config.getDefaultClientConnection().setTransportHandlerType(TransportHandlerType.UDP);
+            config.getDefaultServerConnection().setTransportHandlerType(TransportHandlerType.UDP);
+            config.setWorkflowExecutorType(WorkflowExecutorType.DTLS);
+            config.setDefaultLayerConfiguration(StackConfiguration.DTLS);
+            config.setFinishWithCloseNotify(true);
+            config.setIgnoreRetransmittedCssInDtls(true);
+            // the peer does not reassemble its own fragmented certificate reliably
+            config.setDtlsMaximumFragmentLength(16384);
+        }
+        return config;
+    }
+}
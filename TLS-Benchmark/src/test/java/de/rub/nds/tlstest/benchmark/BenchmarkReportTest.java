@@ -0,0 +1,77 @@
+package de.rub.nds.tlstest.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class BenchmarkReportTest {
+
+    private static BenchmarkResult result(
+            BenchmarkScenario scenario,
+            int parallelHandshakes,
+            double handshakesPerSecond,
+            long p95,
+            long allocatedBytes) {
+        BenchmarkResult result = new BenchmarkResult(scenario, parallelHandshakes);
+        result.setHandshakes(100);
+        result.setHandshakesPerSecond(handshakesPerSecond);
+        result.setLatencyP95Millis(p95);
+        result.setAllocatedBytes(allocatedBytes);
+        return result;
+    }
+
+    private static BenchmarkReport report(BenchmarkResult... results) {
+        BenchmarkReport report = new BenchmarkReport();
+        report.getResults().addAll(List.of(results));
+        return report;
+    }
+
+    @Test
+    public void testNoRegressionWithinTolerance() {
+        BenchmarkReport baseline =
+                report(result(BenchmarkScenario.SERVER_TLS12, 4, 100, 50, 1_000_000));
+        BenchmarkReport current =
+                report(result(BenchmarkScenario.SERVER_TLS12, 4, 95, 54, 1_050_000));
+
+        assertTrue(current.findRegressions(baseline, 0.1).isEmpty());
+    }
+
+    @Test
+    public void testRegressionsAreReported() {
+        BenchmarkReport baseline =
+                report(
+                        result(BenchmarkScenario.SERVER_TLS12, 4, 100, 50, 1_000_000),
+                        result(BenchmarkScenario.CLIENT_TLS13, 1, 100, 50, 1_000_000));
+        BenchmarkReport current =
+                report(
+                        result(BenchmarkScenario.SERVER_TLS12, 4, 80, 60, 1_200_000),
+                        result(BenchmarkScenario.CLIENT_TLS13, 1, 100, 50, 1_000_000),
+                        result(BenchmarkScenario.SERVER_TLS13, 8, 1, 1000, 1_000_000_000));
+
+        List<String> regressions = current.findRegressions(baseline, 0.1);
+
+        assertEquals(3, regressions.size());
+        assertTrue(regressions.stream().allMatch(r -> r.startsWith("SERVER_TLS12@4")));
+    }
+
+    @Test
+    public void testReportRoundTrip(@TempDir Path tempDir) throws Exception {
+        BenchmarkReport report =
+                report(result(BenchmarkScenario.SERVER_DTLS12, 1, 12.5, 200, 4_000_000));
+        Path file = tempDir.resolve("report.json");
+
+        report.write(file);
+        BenchmarkReport read = BenchmarkReport.read(file);
+
+        assertEquals(1, read.getResults().size());
+        BenchmarkResult result = read.getResults().get(0);
+        assertEquals(BenchmarkScenario.SERVER_DTLS12, result.getScenario());
+        assertEquals(12.5, result.getHandshakesPerSecond());
+        assertEquals(40_000, result.getAllocatedBytesPerHandshake());
+        assertTrue(read.findRegressions(report, 0).isEmpty());
+    }
+}
@@ -0,0 +1,219 @@
+/**
+ * TLS-Microbenchmark - JMH microbenchmarks for the TLS-Test-Framework
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.microbenchmark;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExecutableInvoker;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.MediaType;
+import org.junit.jupiter.api.extension.TestInstances;
+import org.junit.jupiter.api.function.ThrowingConsumer;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+/**
+ * Minimal {@link ExtensionContext} of a single test method, which allows calling the framework code
+ * that resolves annotations and stores outside of a JUnit run. Stores are backed by maps and live
+ * as long as the context.
+ */
+public class BenchmarkExtensionContext implements ExtensionContext {
+
+    private final Class<?> testClass;
+    private final Method testMethod;
+    private final Map<Namespace, Store> stores = new ConcurrentHashMap<>();
+
+    public BenchmarkExtensionContext(Class<?> testClass, Method testMethod) {
+        this.testClass = testClass;
+        this.testMethod = testMethod;
+    }
+
+    /**
+     * @param reference the test method as {@code fully.qualified.Class#method}
+     * @return the context of the referenced test method
+     */
+    public static BenchmarkExtensionContext forTestMethod(String reference) {
+        int separator = reference.indexOf('#');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Expected Class#method but got " + reference);
+        }
+        String methodName = reference.substring(separator + 1);
+        try {
+            Class<?> testClass = Class.forName(reference.substring(0, separator));
+            Method testMethod =
+                    Arrays.stream(testClass.getMethods())
+                            .filter(method -> method.getName().equals(methodName))
+                            .findFirst()
+                            .orElseThrow(
+                                    () ->
+                                            new IllegalArgumentException(
+                                                    "Unknown test method " + reference));
+            return new BenchmarkExtensionContext(testClass, testMethod);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Unknown test class " + reference, e);
+        }
+    }
+
+    @Override
+    public Optional<ExtensionContext> getParent() {
+        return Optional.empty();
+    }
+
+    @Override
+    public ExtensionContext getRoot() {
+        return this;
+    }
+
+    @Override
+    public String getUniqueId() {
+        return "[benchmark]/" + testClass.getName() + "#" + testMethod.getName();
+    }
+
+    @Override
+    public String getDisplayName() {
+        return testMethod.getName();
+    }
+
+    @Override
+    public Set<String> getTags() {
+        return Set.of();
+    }
+
+    @Override
+    public Optional<AnnotatedElement> getElement() {
+        return Optional.of(testMethod);
+    }
+
+    @Override
+    public Optional<Class<?>> getTestClass() {
+        return Optional.of(testClass);
+    }
+
+    @Override
+    public List<Class<?>> getEnclosingTestClasses() {
+        return List.of();
+    }
+
+    @Override
+    public Optional<TestInstance.Lifecycle> getTestInstanceLifecycle() {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<Object> getTestInstance() {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<TestInstances> getTestInstances() {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<Method> getTestMethod() {
+        return Optional.of(testMethod);
+    }
+
+    @Override
+    public Optional<Throwable> getExecutionException() {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<String> getConfigurationParameter(String key) {
+        return Optional.empty();
+    }
+
+    @Override
+    public <T> Optional<T> getConfigurationParameter(String key, Function<String, T> transformer) {
+        return Optional.empty();
+    }
+
+    @Override
+    public void publishReportEntry(Map<String, String> map) {}
+
+    @Override
+    public void publishFile(String name, MediaType mediaType, ThrowingConsumer<Path> action) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void publishDirectory(String name, ThrowingConsumer<Path> action) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Store getStore(Namespace namespace) {
+        return stores.computeIfAbsent(namespace, key -> new MapStore());
+    }
+
+    @Override
+    public Store getStore(StoreScope scope, Namespace namespace) {
+        return getStore(namespace);
+    }
+
+    @Override
+    public ExecutionMode getExecutionMode() {
+        return ExecutionMode.SAME_THREAD;
+    }
+
+    @Override
+    public ExecutableInvoker getExecutableInvoker() {
+        throw new UnsupportedOperationException();
+    }
+
+    private static class MapStore implements Store {
+        private final Map<Object, Object> values = new HashMap<>();
+
+        @Override
+        public synchronized Object get(Object key) {
+            return values.get(key);
+        }
+
+        @Override
+        public synchronized <V> V get(Object key, Class<V> requiredType) {
+            return requiredType.cast(values.get(key));
+        }
+
+        @Override
+        public synchronized <K, V> Object getOrComputeIfAbsent(
+                K key, Function<K, V> defaultCreator) {
+            return values.computeIfAbsent(key, ignored -> defaultCreator.apply(key));
+        }
+
+        @Override
+        public synchronized <K, V> V getOrComputeIfAbsent(
+                K key, Function<K, V> defaultCreator, Class<V> requiredType) {
+            return requiredType.cast(getOrComputeIfAbsent(key, defaultCreator));
+        }
+
+        @Override
+        public synchronized void put(Object key, Object value) {
+            values.put(key, value);
+        }
+
+        @Override
+        public synchronized Object remove(Object key) {
+            return values.remove(key);
+        }
+
+        @Override
+        public synchronized <V> V remove(Object key, Class<V> requiredType) {
+            return requiredType.cast(values.remove(key));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * TLS-Microbenchmark - JMH microbenchmarks for the TLS-Test-Framework
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.microbenchmark;
+
+import de.rub.nds.tlsattacker.core.config.Config;
+import de.rub.nds.tlstest.framework.anvil.TlsParameterCombination;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Creation of the config every test case starts from and the application of a parameter combination
+ * to it. {@link #copyConfig} is the share of {@link #applyCombination} that is spent copying the
+ * template.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConfigBenchmark {
+
+    @State(Scope.Thread)
+    public static class Template {
+        Config config;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp(FrameworkState state) {
+            config = state.createConfig();
+        }
+    }
+
+    @Benchmark
+    public Config createConfig(FrameworkState state) {
+        return state.tlsAnvilConfig.createConfig();
+    }
+
+    @Benchmark
+    public Config createTls13Config(FrameworkState state) {
+        return state.tlsAnvilConfig.createTls13Config();
+    }
+
+    @Benchmark
+    public Config copyConfig(Template template) {
+        return template.config.createCopy();
+    }
+
+    @Benchmark
+    public Config applyCombination(FrameworkState state, Template template) {
+        Config config = template.config.createCopy();
+        TlsParameterCombination combination =
+                state.combinations.get(template.next++ % state.combinations.size());
+        combination.applyToConfig(config);
+        return config;
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * TLS-Microbenchmark - JMH microbenchmarks for the TLS-Test-Framework
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.microbenchmark;
+
+import de.rub.nds.anvilcore.model.constraint.ConditionalConstraint;
+import de.rub.nds.anvilcore.model.parameter.DerivationParameter;
+import de.rub.nds.anvilcore.model.parameter.ParameterIdentifier;
+import de.rub.nds.tlsattacker.core.constants.CipherSuite;
+import de.rub.nds.tlstest.framework.annotations.KeyExchange;
+import de.rub.nds.tlstest.framework.anvil.TlsParameterCombination;
+import de.rub.nds.tlstest.framework.constants.KeyX;
+import de.rub.nds.tlstest.framework.model.TlsParameterType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Resolution of the annotations and parameter values that make up the input parameter model of a
+ * test, and the evaluation of its constraints for the combinations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DerivationBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Constraints {
+        List<ConditionalConstraint> applicable;
+
+        @Setup(Level.Trial)
+        public void setUp(FrameworkState state) {
+            applicable = collectApplicableConstraints(state);
+        }
+    }
+
+    @Benchmark
+    public KeyExchange resolveKexAnnotation(FrameworkState state) {
+        return KeyX.resolveKexAnnotation(state.extensionContext);
+    }
+
+    @Benchmark
+    public Set<CipherSuite> getCipherSuites(FrameworkState state) {
+        return state.featureExtractionResult.getCipherSuites();
+    }
+
+    @Benchmark
+    public List<DerivationParameter> getCipherSuiteValues(FrameworkState state) {
+        return new ParameterIdentifier(TlsParameterType.CIPHER_SUITE)
+                .getInstance()
+                .getParameterValues(state.derivationScope);
+    }
+
+    @Benchmark
+    public void getModelParameterValues(FrameworkState state, Blackhole blackhole) {
+        for (ParameterIdentifier identifier : state.parameterValues.keySet()) {
+            blackhole.consume(
+                    identifier.getInstance().getConstrainedParameterValues(state.derivationScope));
+        }
+    }
+
+    @Benchmark
+    public List<ConditionalConstraint> collectConstraints(FrameworkState state) {
+        return collectApplicableConstraints(state);
+    }
+
+    @Benchmark
+    public int checkConstraints(FrameworkState state, Constraints constraints) {
+        int satisfied = 0;
+        for (TlsParameterCombination combination : state.combinations) {
+            for (ConditionalConstraint constraint : constraints.applicable) {
+                List<DerivationParameter> values = new ArrayList<>();
+                for (String name : constraint.getConstraint().getParameterNames()) {
+                    values.add(combination.getParameter(ParameterIdentifier.fromName(name)));
+                }
+                if (constraint.getConstraint().getConstraintFunction().check(values)) {
+                    satisfied++;
+                }
+            }
+        }
+        return satisfied;
+    }
+
+    private static List<ConditionalConstraint> collectApplicableConstraints(FrameworkState state) {
+        List<ParameterIdentifier> modeled = new ArrayList<>(state.parameterValues.keySet());
+        List<ConditionalConstraint> applicable = new ArrayList<>();
+        for (ParameterIdentifier identifier : modeled) {
+            List<ConditionalConstraint> constraints =
+                    identifier
+                            .getInstance()
+                            .getDefaultConditionalConstraints(state.derivationScope);
+            for (ConditionalConstraint constraint : constraints) {
+                if (constraint.isApplicableTo(modeled, state.derivationScope)) {
+                    applicable.add(constraint);
+                }
+            }
+        }
+        return applicable;
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * TLS-Microbenchmark - JMH microbenchmarks for the TLS-Test-Framework
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.microbenchmark;
+
+import de.rub.nds.scanner.core.probe.result.TestResults;
+import de.rub.nds.tlsattacker.core.config.delegate.GeneralDelegate;
+import de.rub.nds.tlsattacker.core.constants.ProtocolVersion;
+import de.rub.nds.tlsattacker.core.workflow.ParallelExecutor;
+import de.rub.nds.tlsscanner.core.constants.TlsAnalyzedProperty;
+import de.rub.nds.tlsscanner.serverscanner.report.ServerReport;
+import de.rub.nds.tlstest.benchmark.peer.InProcessTlsServer;
+import de.rub.nds.tlstest.framework.FeatureExtractionResult;
+import de.rub.nds.tlstest.framework.ServerFeatureExtractionResult;
+import de.rub.nds.tlstest.framework.config.delegates.TestServerDelegate;
+import de.rub.nds.tlstest.framework.execution.TestPreparator;
+import de.rub.nds.tlstest.framework.replay.TransportRecordingStore;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Provides the serialized feature extraction result the benchmarks are run with. The system
+ * property {@value #FIXTURE_PROPERTY} may point to the folder of a run recorded with
+ * -recordTransport to benchmark against the features of a real target. Otherwise, the in-process
+ * server of the given version is scanned once and its result is serialized to {@value
+ * #FIXTURE_FOLDER_PROPERTY} (default {@value #DEFAULT_FIXTURE_FOLDER}) for later runs.
+ */
+public class FeatureExtractionFixture {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    public static final String FIXTURE_PROPERTY = "tlsanvil.microbenchmark.fixture";
+    public static final String FIXTURE_FOLDER_PROPERTY = "tlsanvil.microbenchmark.fixtureFolder";
+    public static final String DEFAULT_FIXTURE_FOLDER = "benchmark-fixtures";
+
+    private static final int SCAN_TIMEOUT = 500;
+
+    private FeatureExtractionFixture() {}
+
+    public static FeatureExtractionResult load(ProtocolVersion version) {
+        String recorded = System.getProperty(FIXTURE_PROPERTY);
+        if (recorded != null) {
+            FeatureExtractionResult result =
+                    new TransportRecordingStore(Paths.get(recorded)).loadFeatureExtractionResult();
+            if (result == null) {
+                throw new IllegalStateException(
+                        "No feature extraction result found in " + recorded);
+            }
+            return result;
+        }
+
+        Path folder =
+                Paths.get(System.getProperty(FIXTURE_FOLDER_PROPERTY, DEFAULT_FIXTURE_FOLDER))
+                        .resolve(version.name().toLowerCase());
+        TransportRecordingStore store = new TransportRecordingStore(folder);
+        FeatureExtractionResult result = store.loadFeatureExtractionResult();
+        if (result == null) {
+            // missing or written by an incompatible build
+            LOGGER.info("Generating {} fixture in {}", version, folder);
+            store.saveFeatureExtractionResult(scanInProcessServer(version));
+            result = store.loadFeatureExtractionResult();
+        }
+        return result;
+    }
+
+    static FeatureExtractionResult scanInProcessServer(ProtocolVersion version) {
+        try (InProcessTlsServer server = new InProcessTlsServer(version)) {
+            TestServerDelegate serverDelegate = new TestServerDelegate();
+            serverDelegate.setHost("127.0.0.1:" + server.getPort());
+            ParallelExecutor executor = ParallelExecutor.create(1, 1);
+            try {
+                ServerReport report =
+                        TestPreparator.getServerScanner(
+                                        new GeneralDelegate(),
+                                        serverDelegate,
+                                        executor,
+                                        SCAN_TIMEOUT,
+                                        version.isDTLS(),
+                                        false)
+                                .scan();
+                report.putResult(TlsAnalyzedProperty.HTTPS_HEADER, TestResults.ERROR_DURING_TEST);
+                return ServerFeatureExtractionResult.fromServerScanReport(report);
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * TLS-Microbenchmark - JMH microbenchmarks for the TLS-Test-Framework
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.microbenchmark;
+
+import de.rub.nds.anvilcore.constants.TestEndpointType;
+import de.rub.nds.anvilcore.context.AnvilContext;
+import de.rub.nds.anvilcore.context.AnvilTestConfig;
+import de.rub.nds.anvilcore.model.DerivationScope;
+import de.rub.nds.anvilcore.model.parameter.DerivationParameter;
+import de.rub.nds.anvilcore.model.parameter.ParameterIdentifier;
+import de.rub.nds.tlsattacker.core.config.Config;
+import de.rub.nds.tlsattacker.core.constants.ProtocolVersion;
+import de.rub.nds.tlsattacker.core.util.ProviderUtil;
+import de.rub.nds.tlstest.framework.FeatureExtractionResult;
+import de.rub.nds.tlstest.framework.TestContext;
+import de.rub.nds.tlstest.framework.anvil.TlsParameterCombination;
+import de.rub.nds.tlstest.framework.anvil.TlsParameterIdentifierProvider;
+import de.rub.nds.tlstest.framework.config.TlsAnvilConfig;
+import de.rub.nds.tlstest.framework.config.delegates.TestServerDelegate;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Prepares the test and anvil contexts like a server test run would after the feature extraction,
+ * with the feature extraction result taken from {@link FeatureExtractionFixture}. The derivation
+ * scope is the one of a representative test of the suite for the benchmarked protocol version.
+ */
+@State(Scope.Benchmark)
+public class FrameworkState {
+
+    static {
+        System.setProperty("java.util.logging.manager", "org.apache.logging.log4j.jul.LogManager");
+        ProviderUtil.addBouncyCastleProvider();
+    }
+
+    private static final String TEST_PACKAGE = "de.rub.nds.tlstest.suite.tests.";
+    private static final int STRENGTH = 2;
+    private static final int COMBINATIONS = 4;
+
+    @Param({"TLS12", "TLS13"})
+    public String version;
+
+    public TlsAnvilConfig tlsAnvilConfig;
+    public FeatureExtractionResult featureExtractionResult;
+    public BenchmarkExtensionContext extensionContext;
+    public DerivationScope derivationScope;
+    public Map<ParameterIdentifier, List<DerivationParameter>> parameterValues;
+    public List<TlsParameterCombination> combinations;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ProtocolVersion protocolVersion = ProtocolVersion.valueOf(version);
+        featureExtractionResult = FeatureExtractionFixture.load(protocolVersion);
+
+        AnvilTestConfig anvilTestConfig = new AnvilTestConfig();
+        anvilTestConfig.setEndpointMode(TestEndpointType.SERVER);
+        anvilTestConfig.setDisableTcpDump(true);
+        anvilTestConfig.setIgnoreCache(true);
+        anvilTestConfig.setIdentifier("microbenchmark");
+        anvilTestConfig.setStrength(STRENGTH);
+        anvilTestConfig.setOutputFolder(
+                Files.createTempDirectory("tls-anvil-microbenchmark").toString());
+
+        tlsAnvilConfig = new TlsAnvilConfig();
+        tlsAnvilConfig.setAnvilTestConfig(anvilTestConfig);
+        tlsAnvilConfig.setTestEndpointMode(TestEndpointType.SERVER);
+        TestServerDelegate serverDelegate = new TestServerDelegate();
+        // never contacted, the benchmarks do not execute handshakes against this target
+        serverDelegate.setHost("127.0.0.1:4433");
+        tlsAnvilConfig.setTestServerDelegate(serverDelegate);
+        tlsAnvilConfig.setParsedArgs(true);
+
+        TestContext testContext = TestContext.getInstance();
+        testContext.setConfig(tlsAnvilConfig);
+        testContext.setFeatureExtractionResult(featureExtractionResult);
+        AnvilContext.createInstance(anvilTestConfig, "", new TlsParameterIdentifierProvider());
+
+        extensionContext =
+                BenchmarkExtensionContext.forTestMethod(
+                        TEST_PACKAGE + testMethodOf(protocolVersion));
+        derivationScope = DerivationScope.fromExtensionContext(extensionContext);
+        parameterValues = new LinkedHashMap<>();
+        for (ParameterIdentifier identifier :
+                AnvilContext.getInstance()
+                        .getParameterIdentifierProvider()
+                        .getModelParameterIdentifiers(derivationScope)) {
+            List<DerivationParameter> values =
+                    identifier.getInstance().getConstrainedParameterValues(derivationScope);
+            if (!values.isEmpty()) {
+                parameterValues.put(identifier, values);
+            }
+        }
+        combinations = buildCombinations();
+    }
+
+    /**
+     * @return a fresh config as the test templates start from it
+     */
+    public Config createConfig() {
+        if (ProtocolVersion.TLS13.name().equals(version)) {
+            return tlsAnvilConfig.createTls13Config();
+        }
+        return tlsAnvilConfig.createConfig();
+    }
+
+    private static String testMethodOf(ProtocolVersion protocolVersion) {
+        if (protocolVersion == ProtocolVersion.TLS13) {
+            return "server.tls13.rfc8446.ServerHello#testSessionIdEchoed";
+        }
+        return "server.tls12.rfc5246.AlertProtocol#closeNotify";
+    }
+
+    /**
+     * Picks different values of every parameter for each combination, which resembles the spread of
+     * the combinations generated for the test without running the generator.
+     */
+    private List<TlsParameterCombination> buildCombinations() {
+        List<TlsParameterCombination> built = new ArrayList<>();
+        for (int i = 0; i < COMBINATIONS; i++) {
+            List<DerivationParameter> selected = new ArrayList<>();
+            for (List<DerivationParameter> values : parameterValues.values()) {
+                selected.add(values.get(i % values.size()));
+            }
+            built.add(new TlsParameterCombination(selected, derivationScope));
+        }
+        return built;
+    }
+}
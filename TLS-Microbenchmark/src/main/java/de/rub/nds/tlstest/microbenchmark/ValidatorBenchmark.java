@@ -0,0 +1,112 @@
+/**
+ * TLS-Microbenchmark - JMH microbenchmarks for the TLS-Test-Framework
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.microbenchmark;
+
+import de.rub.nds.anvilcore.teststate.AnvilTestCase;
+import de.rub.nds.tlsattacker.core.config.Config;
+import de.rub.nds.tlsattacker.core.constants.AlertDescription;
+import de.rub.nds.tlsattacker.core.constants.AlertLevel;
+import de.rub.nds.tlsattacker.core.constants.ProtocolVersion;
+import de.rub.nds.tlsattacker.core.constants.RunningModeType;
+import de.rub.nds.tlsattacker.core.protocol.message.AlertMessage;
+import de.rub.nds.tlsattacker.core.state.State;
+import de.rub.nds.tlsattacker.core.workflow.WorkflowExecutorFactory;
+import de.rub.nds.tlsattacker.core.workflow.WorkflowTrace;
+import de.rub.nds.tlsattacker.core.workflow.action.ReceiveAction;
+import de.rub.nds.tlsattacker.core.workflow.action.SendAction;
+import de.rub.nds.tlsattacker.core.workflow.factory.WorkflowConfigurationFactory;
+import de.rub.nds.tlsattacker.core.workflow.factory.WorkflowTraceType;
+import de.rub.nds.tlsattacker.transport.Connection;
+import de.rub.nds.tlstest.benchmark.peer.InProcessTlsServer;
+import de.rub.nds.tlstest.framework.Validator;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Validation of executed handshakes. The states are recorded once per trial against the in-process
+ * server: a complete handshake, which takes the shortcut for traces executed as planned, and a
+ * handshake followed by an unanswered alert, which checks every action.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidatorBenchmark {
+
+    private static final int RECORDING_TIMEOUT = 500;
+
+    @org.openjdk.jmh.annotations.State(Scope.Benchmark)
+    public static class RecordedStates {
+        State completeHandshake;
+        State unansweredAlert;
+
+        @Setup(Level.Trial)
+        public void setUp(FrameworkState state) {
+            try (InProcessTlsServer server =
+                    new InProcessTlsServer(ProtocolVersion.valueOf(state.version))) {
+                completeHandshake = record(state, server.getPort(), false);
+                unansweredAlert = record(state, server.getPort(), true);
+            }
+        }
+
+        private static State record(FrameworkState frameworkState, int port, boolean sendAlert) {
+            Config config = frameworkState.createConfig();
+            Connection connection = config.getDefaultClientConnection();
+            connection.setHostname("127.0.0.1");
+            connection.setIp("127.0.0.1");
+            connection.setPort(port);
+            connection.setUseIpv6(false);
+            connection.setTimeout(RECORDING_TIMEOUT);
+
+            WorkflowTrace trace =
+                    new WorkflowConfigurationFactory(config)
+                            .createWorkflowTrace(
+                                    WorkflowTraceType.HANDSHAKE, RunningModeType.CLIENT);
+            if (sendAlert) {
+                AlertMessage alert = new AlertMessage();
+                alert.setLevel(AlertLevel.WARNING.getValue());
+                alert.setDescription(AlertDescription.CLOSE_NOTIFY.getValue());
+                trace.addTlsAction(new SendAction(alert));
+                trace.addTlsAction(new ReceiveAction(new AlertMessage()));
+            }
+            State state = new State(config, trace);
+            WorkflowExecutorFactory.createWorkflowExecutor(config.getWorkflowExecutorType(), state)
+                    .executeWorkflow();
+            return state;
+        }
+    }
+
+    @Benchmark
+    public boolean smartExecutedAsPlannedComplete(RecordedStates recorded) {
+        return validate(recorded.completeHandshake);
+    }
+
+    @Benchmark
+    public boolean smartExecutedAsPlannedUnansweredAlert(RecordedStates recorded) {
+        return validate(recorded.unansweredAlert);
+    }
+
+    private static boolean validate(State state) {
+        try {
+            Validator.smartExecutedAsPlanned(state, new AnvilTestCase());
+            return true;
+        } catch (AssertionError e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * TLS-Microbenchmark - JMH microbenchmarks for the TLS-Test-Framework
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.microbenchmark;
+
+import de.rub.nds.tlsattacker.core.config.Config;
+import de.rub.nds.tlsattacker.core.constants.HandshakeMessageType;
+import de.rub.nds.tlsattacker.core.workflow.WorkflowTrace;
+import de.rub.nds.tlsattacker.core.workflow.factory.WorkflowTraceType;
+import de.rub.nds.tlstest.framework.anvil.TlsParameterCombination;
+import de.rub.nds.tlstest.framework.execution.WorkflowRunner;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Generation of the workflow traces of a test case and their adaption before the execution. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WorkflowTraceBenchmark {
+
+    @State(Scope.Thread)
+    public static class PreparedRunner {
+        WorkflowRunner runner;
+        Config config;
+        WorkflowTrace handshakeTrace;
+
+        @Setup(Level.Trial)
+        public void setUp(FrameworkState state) {
+            TlsParameterCombination combination = state.combinations.get(0);
+            config = state.createConfig();
+            combination.applyToConfig(config);
+            runner = new WorkflowRunner(state.extensionContext, config);
+            runner.setTlsParameterCombination(combination);
+            handshakeTrace = runner.generateWorkflowTrace(WorkflowTraceType.HANDSHAKE);
+        }
+    }
+
+    @Benchmark
+    public WorkflowTrace generateHandshakeTrace(PreparedRunner prepared) {
+        return prepared.runner.generateWorkflowTrace(WorkflowTraceType.HANDSHAKE);
+    }
+
+    @Benchmark
+    public WorkflowTrace generateTraceUntilServerHello(PreparedRunner prepared) {
+        return prepared.runner.generateWorkflowTraceUntilMessage(
+                WorkflowTraceType.HANDSHAKE, HandshakeMessageType.SERVER_HELLO);
+    }
+
+    @Benchmark
+    public WorkflowTrace generateAndAdaptHandshakeTrace(PreparedRunner prepared) {
+        WorkflowTrace trace = prepared.runner.generateWorkflowTrace(WorkflowTraceType.HANDSHAKE);
+        prepared.runner.adaptWorkflowTrace(trace, prepared.config);
+        return trace;
+    }
+
+    /**
+     * Baseline for caching generated traces, a cached template would have to be copied for every
+     * test case.
+     */
+    @Benchmark
+    public WorkflowTrace copyHandshakeTrace(PreparedRunner prepared) {
+        return WorkflowTrace.copy(prepared.handshakeTrace);
+    }
+}
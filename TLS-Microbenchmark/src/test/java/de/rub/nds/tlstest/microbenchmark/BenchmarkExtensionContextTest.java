@@ -0,0 +1,56 @@
+package de.rub.nds.tlstest.microbenchmark;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.rub.nds.tlstest.framework.annotations.KeyExchange;
+import de.rub.nds.tlstest.framework.constants.KeyExchangeType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+public class BenchmarkExtensionContextTest {
+
+    @KeyExchange(supported = KeyExchangeType.ECDH)
+    public void annotatedTest() {}
+
+    @Test
+    public void testResolvesReferencedMethod() {
+        ExtensionContext context =
+                BenchmarkExtensionContext.forTestMethod(
+                        BenchmarkExtensionContextTest.class.getName() + "#annotatedTest");
+
+        assertEquals(BenchmarkExtensionContextTest.class, context.getRequiredTestClass());
+        assertEquals("annotatedTest", context.getRequiredTestMethod().getName());
+        assertTrue(context.getRequiredTestMethod().isAnnotationPresent(KeyExchange.class));
+    }
+
+    @Test
+    public void testRejectsUnknownReferences() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> BenchmarkExtensionContext.forTestMethod("NoSeparator"));
+        assertThrows(
+                IllegalArgumentException.class,
+                () ->
+                        BenchmarkExtensionContext.forTestMethod(
+                                BenchmarkExtensionContextTest.class.getName() + "#missing"));
+    }
+
+    @Test
+    public void testStoresAreKeptPerNamespace() {
+        ExtensionContext context =
+                BenchmarkExtensionContext.forTestMethod(
+                        BenchmarkExtensionContextTest.class.getName() + "#annotatedTest");
+        ExtensionContext.Namespace first = ExtensionContext.Namespace.create("first");
+        ExtensionContext.Namespace second = ExtensionContext.Namespace.create("second");
+
+        context.getStore(first).put("key", "value");
+
+        assertEquals("value", context.getStore(first).get("key", String.class));
+        assertNull(context.getStore(second).get("key"));
+        assertEquals(
+                "computed",
+                context.getStore(second)
+                        .getOrComputeIfAbsent("key", key -> "computed", String.class));
+        assertEquals("computed", context.getStore(second).get("key"));
+    }
+}
@@ -22,6 +22,9 @@ import de.rub.nds.tlsscanner.core.probe.result.VersionSuiteListPair;
 import de.rub.nds.tlsscanner.core.report.TlsScanReport;
 import de.rub.nds.tlstest.framework.exceptions.FeatureExtractionFailedException;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -220,6 +223,60 @@ public abstract class FeatureExtractionResult implements Serializable {
         this.testReport = testReport;
     }
 
+    /**
+     * Computes a stable fingerprint of the extracted features. Two extraction results of a target
+     * that behaves identically yield the same fingerprint, independent of the host, port, and
+     * timing values.
+     *
+     * @return hex encoded SHA-256 over the canonicalized features
+     */
+    @JsonIgnore
+    public String getFingerprint() {
+        StringBuilder canonical = new StringBuilder();
+        appendSorted(canonical, "cipherSuites", supportedCipherSuites);
+        appendSorted(canonical, "versions", supportedVersions);
+        appendSorted(canonical, "groups", supportedNamedGroups);
+        appendSorted(canonical, "tls13Groups", supportedTls13Groups);
+        appendSorted(canonical, "compression", supportedCompressionMethods);
+        if (resultMap != null) {
+            SortedMap<String, String> results = new TreeMap<>();
+            resultMap.forEach(
+                    (property, result) -> {
+                        String value;
+                        if (result instanceof CollectionResult) {
+                            value =
+                                    ((CollectionResult<?>) result)
+                                            .getCollection().stream()
+                                                    .map(String::valueOf)
+                                                    .sorted()
+                                                    .collect(Collectors.joining(","));
+                        } else {
+                            value = result == null ? "null" : result.getName();
+                        }
+                        results.put(property.toString(), value);
+                    });
+            results.forEach(
+                    (key, value) -> canonical.append(key).append('=').append(value).append(';'));
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of()
+                    .formatHex(
+                            digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void appendSorted(StringBuilder builder, String name, Collection<?> values) {
+        builder.append(name).append('=');
+        if (values != null) {
+            builder.append(
+                    values.stream().map(String::valueOf).sorted().collect(Collectors.joining(",")));
+        }
+        builder.append(';');
+    }
+
     protected static void checkCrucialCollections(
             TlsScanReport report, TlsAnalyzedProperty... properties) {
         List<TlsAnalyzedProperty> malformedProperties = new LinkedList<>();
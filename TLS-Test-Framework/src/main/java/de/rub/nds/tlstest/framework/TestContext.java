@@ -7,14 +7,57 @@
  */
 package de.rub.nds.tlstest.framework;
 
+import de.rub.nds.anvilcore.annotation.AnvilTest;
+import de.rub.nds.anvilcore.annotation.NonCombinatorialAnvilTest;
+import de.rub.nds.anvilcore.constants.TestEndpointType;
+import de.rub.nds.anvilcore.context.AnvilContext;
 import de.rub.nds.anvilcore.context.AnvilTestConfig;
 import de.rub.nds.anvilcore.execution.AnvilListener;
+import de.rub.nds.anvilcore.teststate.AnvilTestCase;
+import de.rub.nds.anvilcore.teststate.AnvilTestRun;
+import de.rub.nds.anvilcore.teststate.reporting.AnvilReport;
+import de.rub.nds.anvilcore.util.TestIdResolver;
+import de.rub.nds.tlsattacker.core.connection.OutboundConnection;
 import de.rub.nds.tlsattacker.core.protocol.message.ClientHelloMessage;
 import de.rub.nds.tlsattacker.core.workflow.ParallelExecutor;
+import de.rub.nds.tlstest.framework.capture.PcapngCaptureWriter;
 import de.rub.nds.tlstest.framework.config.TlsAnvilConfig;
+import de.rub.nds.tlstest.framework.escalation.StrengthEscalation;
+import de.rub.nds.tlstest.framework.execution.DurationHistory;
+import de.rub.nds.tlstest.framework.execution.MemoryGovernor;
+import de.rub.nds.tlstest.framework.execution.ResumptionSessionPool;
+import de.rub.nds.tlstest.framework.execution.TargetHealthMonitor;
 import de.rub.nds.tlstest.framework.execution.TestPreparator;
+import de.rub.nds.tlstest.framework.incremental.IncrementalResultStore;
+import de.rub.nds.tlstest.framework.incremental.TestCaseFingerprint;
+import de.rub.nds.tlstest.framework.journal.JournalEntry;
+import de.rub.nds.tlstest.framework.journal.TestCaseJournal;
+import de.rub.nds.tlstest.framework.localization.FailureLocalizationProcessor;
+import de.rub.nds.tlstest.framework.logging.TestCaseLogBuffer;
+import de.rub.nds.tlstest.framework.metrics.ExecutionMetrics;
+import de.rub.nds.tlstest.framework.metrics.MetricsHttpServer;
+import de.rub.nds.tlstest.framework.replay.TransportRecordingStore;
+import de.rub.nds.tlstest.framework.reporting.ResultRecord;
+import de.rub.nds.tlstest.framework.reporting.ResultStreamSink;
+import de.rub.nds.tlstest.framework.sharding.ShardPlan;
+import de.rub.nds.tlstest.framework.testIndex.TestIndex;
+import de.rub.nds.tlstest.framework.testIndex.TestIndexEntry;
+import de.rub.nds.tlstest.framework.traceArchive.TraceArchive;
+import de.rub.nds.tlstest.framework.worker.WarmWorkerCache;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.TestIdentifier;
 import org.junit.platform.launcher.TestPlan;
 
 /**
@@ -23,10 +66,14 @@ import org.junit.platform.launcher.TestPlan;
  */
 public class TestContext implements AnvilListener {
     private static final Logger LOGGER = LogManager.getLogger();
+
+    /** maximum number of parameters of the tuples localized after a run */
+    private static final int LOCALIZATION_STRENGTH = 2;
+
     private TlsAnvilConfig config;
 
     private static TestContext instance = null;
-    private ParallelExecutor stateExecutor;
+    private volatile ParallelExecutor stateExecutor;
 
     private FeatureExtractionResult featureExtractionResult = null;
     private ClientHelloMessage receivedClientHelloMessage;
@@ -34,6 +81,39 @@ public class TestContext implements AnvilListener {
     private int serverHandshakesSinceRestart = 0;
     private boolean aborted = false;
 
+    private IncrementalResultStore incrementalResultStore;
+
+    private DurationHistory durationHistory;
+
+    private TargetHealthMonitor targetHealthMonitor;
+
+    private ResumptionSessionPool resumptionSessionPool;
+
+    private TestCaseLogBuffer testCaseLogBuffer;
+
+    private MemoryGovernor memoryGovernor;
+
+    private PcapngCaptureWriter packetCaptureWriter;
+
+    private ResultStreamSink resultStreamSink;
+
+    private TraceArchive traceArchive;
+
+    private volatile ExecutionMetrics executionMetrics = new ExecutionMetrics();
+    private MetricsHttpServer metricsHttpServer;
+
+    private TransportRecordingStore transportRecordingStore;
+    private final Map<String, Long> pendingTemplateMillis = new ConcurrentHashMap<>();
+
+    private ShardPlan shardPlan;
+
+    private TestCaseJournal journal;
+    private Map<String, JournalEntry> journaledTestCases = new HashMap<>();
+
+    private WarmWorkerCache warmWorkerCache;
+
+    private StrengthEscalation strengthEscalation;
+
     public static synchronized TestContext getInstance() {
         if (TestContext.instance == null) {
             TestContext.instance = new TestContext();
@@ -41,6 +121,25 @@ public class TestContext implements AnvilListener {
         return TestContext.instance;
     }
 
+    /**
+     * Replaces the context by a fresh one for the next run in this JVM, such as the next target of
+     * a batch. Nothing of the previous run is carried over; target-independent data such as the
+     * certificate chains and the cipher suite tables is cached statically and kept.
+     *
+     * @param config the config of the next run
+     * @return the context of the next run
+     */
+    public static synchronized TestContext startRun(TlsAnvilConfig config) {
+        if (instance != null) {
+            // normally stopped once the report is finished, unless the run did not get that far
+            instance.shutdownStateExecutor();
+        }
+        TestContext context = new TestContext();
+        context.setConfig(config);
+        TestContext.instance = context;
+        return context;
+    }
+
     private TestContext() {
         super();
         this.config = new TlsAnvilConfig();
@@ -74,10 +173,25 @@ public class TestContext implements AnvilListener {
         return stateExecutor;
     }
 
-    public void setStateExecutor(ParallelExecutor stateExecutor) {
+    /**
+     * @param stateExecutor the executor of the handshakes of the run, replacing and stopping the
+     *     one of a previous run
+     */
+    public synchronized void setStateExecutor(ParallelExecutor stateExecutor) {
+        if (this.stateExecutor != null && this.stateExecutor != stateExecutor) {
+            this.stateExecutor.shutdown();
+        }
         this.stateExecutor = stateExecutor;
     }
 
+    /** Stops the handshake threads of the run, they would otherwise keep the JVM alive. */
+    private synchronized void shutdownStateExecutor() {
+        if (stateExecutor != null) {
+            stateExecutor.shutdown();
+            stateExecutor = null;
+        }
+    }
+
     public synchronized int getServerHandshakesSinceRestart() {
         return serverHandshakesSinceRestart;
     }
@@ -93,14 +207,489 @@ public class TestContext implements AnvilListener {
     @Override
     public void gotConfig(AnvilTestConfig anvilConfig, String tlsConfig) {
         getConfig().fromWorker(anvilConfig, tlsConfig);
+        if (warmWorkerCache != null) {
+            warmWorkerCache.beginJob(getConfig());
+        } else {
+            // the job may target another implementation than the previous one
+            getConfig().setCachedConfig(null);
+        }
     }
 
     @Override
     public boolean beforeStart(TestPlan testPlan, long totalTests) {
         // print out test counts before each run
         TestPreparator.printTestInfo(testPlan);
+        resetRunState();
+        collectScheduledTemplates(testPlan);
         // run TestPreparator before each run
-        return new TestPreparator(getConfig(), this).prepareTestExecution();
+        boolean prepared = new TestPreparator(getConfig(), this).prepareTestExecution();
+        if (!prepared) {
+            return false;
+        }
+        if (warmWorkerCache != null) {
+            // reported to the controller with the logs of the job
+            LOGGER.info(warmWorkerCache.describeJob());
+        }
+        if (getConfig().getIncrementalStore() != null) {
+            incrementalResultStore =
+                    new IncrementalResultStore(
+                            Paths.get(getConfig().getIncrementalStore()),
+                            getConfig().getIncrementalSampleRate(),
+                            featureExtractionResult.getFingerprint(),
+                            getConfig().getAnvilTestConfig().getIdentifier());
+        }
+        openJournal();
+        startMetrics();
+        targetHealthMonitor = createTargetHealthMonitor();
+        if (getConfig().isBufferTestCaseLogs()) {
+            testCaseLogBuffer = TestCaseLogBuffer.install();
+        }
+        if (getConfig().getMemoryWatermark() > 0) {
+            memoryGovernor =
+                    new MemoryGovernor(
+                            getConfig().getMemoryWatermark(),
+                            getConfig().getThrottledParallelism());
+            if (testCaseLogBuffer != null) {
+                memoryGovernor.addSpillAction(testCaseLogBuffer::spill);
+            }
+            memoryGovernor.start();
+        }
+        if (getConfig().isResumptionFastPath()
+                && getConfig().getTestEndpointMode() == TestEndpointType.SERVER) {
+            resumptionSessionPool =
+                    ResumptionSessionPool.fromFeatureExtraction(featureExtractionResult);
+        }
+        if (getConfig().isInJvmCapture()) {
+            packetCaptureWriter =
+                    new PcapngCaptureWriter(
+                            Paths.get(getConfig().getAnvilTestConfig().getOutputFolder()));
+        }
+        if (getConfig().isResultStream()) {
+            resultStreamSink =
+                    new ResultStreamSink(
+                            Paths.get(
+                                    getConfig().getAnvilTestConfig().getOutputFolder(),
+                                    ResultStreamSink.FOLDER_NAME),
+                            getConfig().isCompressResultStream(),
+                            ResultStreamSink.DEFAULT_SEGMENT_SIZE);
+        }
+        if (getConfig().isExportTraces()) {
+            try {
+                traceArchive =
+                        new TraceArchive(
+                                Paths.get(
+                                        getConfig().getAnvilTestConfig().getOutputFolder(),
+                                        TraceArchive.FOLDER_NAME));
+            } catch (IOException e) {
+                LOGGER.error("Failed to create trace archive, traces will not be exported", e);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Discards the state of the previous run, a worker executes several jobs using the same
+     * context. The artifacts of the previous run have been closed when its report was finished.
+     */
+    private void resetRunState() {
+        featureExtractionResult = null;
+        receivedClientHelloMessage = null;
+        resetServerHandshakesSinceRestart();
+        aborted = false;
+        incrementalResultStore = null;
+        durationHistory = null;
+        targetHealthMonitor = null;
+        resumptionSessionPool = null;
+        testCaseLogBuffer = null;
+        memoryGovernor = null;
+        packetCaptureWriter = null;
+        resultStreamSink = null;
+        traceArchive = null;
+        executionMetrics = new ExecutionMetrics();
+        transportRecordingStore = null;
+        pendingTemplateMillis.clear();
+        shardPlan = null;
+        journal = null;
+        journaledTestCases = new HashMap<>();
+    }
+
+    private void startMetrics() {
+        executionMetrics.registerMBean();
+        if (getConfig().getMetricsPort() > 0 && metricsHttpServer == null) {
+            try {
+                metricsHttpServer =
+                        new MetricsHttpServer(executionMetrics, getConfig().getMetricsPort());
+                metricsHttpServer.start();
+            } catch (IOException e) {
+                LOGGER.error("Failed to start metrics endpoint", e);
+            }
+        }
+    }
+
+    private TargetHealthMonitor createTargetHealthMonitor() {
+        // the probe relies on TCP connections, UDP based targets can not be probed reliably
+        if (getConfig().getTargetFailureThreshold() <= 0
+                || getConfig().getTestEndpointMode() != TestEndpointType.SERVER
+                || getConfig().isUseDTLS()) {
+            return null;
+        }
+        OutboundConnection connection = getConfig().createConfig().getDefaultClientConnection();
+        String host = connection.getIp() != null ? connection.getIp() : connection.getHostname();
+        return new TargetHealthMonitor(
+                getConfig().getTargetFailureThreshold(),
+                getConfig().getTargetMaxDowntime() * 1000L,
+                TargetHealthMonitor.tcpProbe(
+                        host,
+                        connection.getPort(),
+                        getConfig().getAnvilTestConfig().getConnectionTimeout()),
+                getConfig().getTimeoutActionScript());
+    }
+
+    private void collectScheduledTemplates(TestPlan testPlan) {
+        TestIndex testIndex = TestIndex.getInstance().orElse(null);
+        pendingTemplateMillis.clear();
+        for (TestIdentifier root : testPlan.getRoots()) {
+            for (TestIdentifier identifier : testPlan.getDescendants(root)) {
+                if (identifier.getSource().isEmpty()
+                        || !(identifier.getSource().get() instanceof MethodSource)) {
+                    continue;
+                }
+                MethodSource methodSource = (MethodSource) identifier.getSource().get();
+                String testId = null;
+                TestIndexEntry indexEntry =
+                        testIndex == null
+                                ? null
+                                : testIndex.getEntry(
+                                        methodSource.getClassName(), methodSource.getMethodName());
+                if (indexEntry != null) {
+                    testId = indexEntry.getId();
+                } else if (methodSource.getJavaMethod().isAnnotationPresent(AnvilTest.class)
+                        || methodSource
+                                .getJavaMethod()
+                                .isAnnotationPresent(NonCombinatorialAnvilTest.class)) {
+                    testId = TestIdResolver.resolveTestId(methodSource.getJavaMethod());
+                }
+                if (testId != null) {
+                    pendingTemplateMillis.put(
+                            testId, getDurationHistory().getExpectedTemplateMillis(testId));
+                }
+            }
+        }
+        if (getConfig().isSharded()) {
+            planShards();
+        }
+        if (!getDurationHistory().isEmpty()) {
+            LOGGER.info("Estimated run time: {}", formatEstimate(getEstimatedRemainingMillis()));
+        }
+    }
+
+    private void planShards() {
+        if (getConfig().getShardPlan() == null) {
+            // the duration histories of the shards may differ, only a shared plan can use them
+            shardPlan = ShardPlan.hashed(getConfig().getShardCount());
+        } else {
+            ShardPlan computed =
+                    ShardPlan.compute(pendingTemplateMillis, getConfig().getShardCount());
+            try {
+                shardPlan =
+                        ShardPlan.loadOrPublish(Paths.get(getConfig().getShardPlan()), computed);
+            } catch (IOException e) {
+                // a local plan may differ from the one the other shards use
+                throw new RuntimeException(
+                        "Failed to access shared shard plan " + getConfig().getShardPlan(), e);
+            }
+        }
+        int shardIndex = getConfig().getShardIndex();
+        // only the templates of this shard remain to be executed
+        pendingTemplateMillis.keySet().removeIf(testId -> shardPlan.getShard(testId) != shardIndex);
+        LOGGER.info(
+                "Executing shard {} of {} with {} templates",
+                shardIndex,
+                shardPlan.getShardCount(),
+                pendingTemplateMillis.size());
+    }
+
+    /**
+     * @return the plan of a sharded run, null if the run is not sharded
+     */
+    public ShardPlan getShardPlan() {
+        return shardPlan;
+    }
+
+    /**
+     * @return the expected remaining run time based on the duration history, assuming that the
+     *     remaining templates are evenly distributed across the parallel test slots
+     */
+    public long getEstimatedRemainingMillis() {
+        long remaining = pendingTemplateMillis.values().stream().mapToLong(Long::longValue).sum();
+        return remaining / Math.max(1, getConfig().getAnvilTestConfig().getParallelTests());
+    }
+
+    private static String formatEstimate(long millis) {
+        long seconds = millis / 1000;
+        return String.format("%d:%02d:%02d", seconds / 3600, (seconds / 60) % 60, seconds % 60);
+    }
+
+    public synchronized DurationHistory getDurationHistory() {
+        if (durationHistory == null) {
+            String historyFile = getConfig().getDurationHistory();
+            durationHistory =
+                    new DurationHistory(historyFile == null ? null : Paths.get(historyFile));
+        }
+        return durationHistory;
+    }
+
+    private void openJournal() {
+        Path outputFolder = Paths.get(getConfig().getAnvilTestConfig().getOutputFolder());
+        try {
+            if (getConfig().getResumeFolder() != null) {
+                journaledTestCases = TestCaseJournal.read(outputFolder);
+                LOGGER.info(
+                        "Resuming run in {}, {} test cases have already been completed",
+                        outputFolder,
+                        journaledTestCases.size());
+            }
+            journal = new TestCaseJournal(outputFolder);
+        } catch (IOException e) {
+            LOGGER.error("Failed to open test case journal in {}", outputFolder, e);
+        }
+    }
+
+    @Override
+    public void onTestCaseFinished(AnvilTestCase testCase, String testId) {
+        if (resultStreamSink != null) {
+            resultStreamSink.append(ResultRecord.fromTestCase(testCase, testId));
+        }
+        if (packetCaptureWriter != null) {
+            writePacketCapture(testCase, testId);
+        }
+        if (testCaseLogBuffer != null) {
+            writeTestCaseLog(testCase, testId);
+        }
+        if (testCase.getParameterCombination() == null) {
+            return;
+        }
+        String caseKey = TestCaseFingerprint.caseKey(testId, testCase.getParameterCombination());
+        if (strengthEscalation != null) {
+            strengthEscalation.record(
+                    testId,
+                    caseKey,
+                    testCase.getParameterCombination(),
+                    testCase.getTestResult(),
+                    testCase.getAdditionalResultInformation());
+        }
+        if (journal != null && !journaledTestCases.containsKey(caseKey)) {
+            JournalEntry entry = new JournalEntry();
+            entry.setTestId(testId);
+            entry.setCaseKey(caseKey);
+            entry.setParameterCombination(testCase.getParameterCombination().toString());
+            entry.setTestResult(testCase.getTestResult());
+            entry.setAdditionalResultInformation(
+                    new LinkedList<>(testCase.getAdditionalResultInformation()));
+            entry.setCompletedAt(System.currentTimeMillis());
+            journal.append(entry);
+        }
+
+        if (incrementalResultStore != null
+                && testCase.getExtensionContext() != null
+                && testCase.getExtensionContext().getTestMethod().isPresent()) {
+            Method testMethod = testCase.getExtensionContext().getRequiredTestMethod();
+            incrementalResultStore.record(
+                    caseKey,
+                    TestCaseFingerprint.compute(
+                            testMethod,
+                            testCase.getParameterCombination().getDerivationScope(),
+                            testCase.getParameterCombination(),
+                            incrementalResultStore.getTargetFingerprint()),
+                    testCase.getTestResult(),
+                    testCase.getAdditionalResultInformation());
+        }
+    }
+
+    /**
+     * Writes the in-JVM capture of the test case next to its results, where tcpdump would have
+     * placed it, and hands it to the worker client when running as a worker.
+     */
+    private void writePacketCapture(AnvilTestCase testCase, String testId) {
+        byte[] capture = packetCaptureWriter.extract(testCase.getUuid());
+        if (capture.length == 0) {
+            return;
+        }
+        String fileName =
+                testCase.getTemporaryPcapFileName().replaceAll("\\.pcap$", "") + ".pcapng";
+        testCase.setTemporaryPcapFileName(fileName);
+        Path captureFile =
+                Paths.get(
+                        getConfig().getAnvilTestConfig().getOutputFolder(),
+                        "results",
+                        testId,
+                        fileName);
+        try {
+            Files.createDirectories(captureFile.getParent());
+            Files.write(captureFile, capture);
+        } catch (IOException e) {
+            LOGGER.error("Failed to write the capture of test case {}", testCase.getUuid(), e);
+        }
+        AnvilListener listener = AnvilContext.getInstance().getListener();
+        if (listener != null && listener != this) {
+            listener.onPcapCaptured(testCase, capture);
+        }
+    }
+
+    private void writeTestCaseLog(AnvilTestCase testCase, String testId) {
+        if (!TestCaseLogBuffer.isWorthKeeping(
+                testCase.getTestResult(),
+                testId,
+                getConfig().getAnvilTestConfig().getExpectedResultsMap())) {
+            testCaseLogBuffer.discard(testCase.getUuid());
+            return;
+        }
+        Path logFile =
+                Paths.get(
+                        getConfig().getAnvilTestConfig().getOutputFolder(),
+                        "results",
+                        testId,
+                        TestCaseLogBuffer.FOLDER_NAME,
+                        testCase.getUuid() + ".log");
+        try {
+            testCaseLogBuffer.flush(testCase.getUuid(), logFile);
+        } catch (IOException e) {
+            LOGGER.error("Failed to write the log of test case {}", testCase.getUuid(), e);
+        }
+    }
+
+    @Override
+    public void onTestRunFinished(AnvilTestRun testRun) {
+        if (testRun.getTestId() == null) {
+            return;
+        }
+        if (shardPlan != null
+                && shardPlan.getShard(testRun.getTestId()) != getConfig().getShardIndex()) {
+            // executed by another shard, which records its duration
+            return;
+        }
+        getDurationHistory()
+                .recordTemplate(
+                        testRun.getTestId(),
+                        testRun.getExecutionTimeMillis(),
+                        testRun.getTestCases() == null ? 0 : testRun.getTestCases().size());
+        if (pendingTemplateMillis.remove(testRun.getTestId()) != null
+                && !getDurationHistory().isEmpty()) {
+            LOGGER.info(
+                    "Estimated remaining time: {}", formatEstimate(getEstimatedRemainingMillis()));
+        }
+    }
+
+    @Override
+    public void onReportFinished(AnvilReport report) {
+        getDurationHistory().save();
+        AnvilContext.getInstance()
+                .getMapper()
+                .saveExtraFileToPath(executionMetrics.summary(), "phase_timings");
+        if (metricsHttpServer != null) {
+            metricsHttpServer.stop();
+            metricsHttpServer = null;
+        }
+        if (packetCaptureWriter != null) {
+            packetCaptureWriter.close();
+        }
+        if (resultStreamSink != null) {
+            writeResultStreamSummary();
+        }
+        if (traceArchive != null) {
+            traceArchive.close();
+            LOGGER.info(
+                    "Exported traces using {} distinct blobs, {}% of the plain XML size",
+                    traceArchive.getBlobCount(),
+                    Math.round(traceArchive.getCompressionRatio() * 100));
+        }
+        if (targetHealthMonitor != null && !targetHealthMonitor.getOutages().isEmpty()) {
+            LOGGER.warn(
+                    "Server under test was unavailable {} time(s) for a total of {} seconds",
+                    targetHealthMonitor.getOutages().size(),
+                    targetHealthMonitor.getTotalDowntimeMillis() / 1000);
+            AnvilContext.getInstance()
+                    .getMapper()
+                    .saveExtraFileToPath(targetHealthMonitor.getOutages(), "target_outages");
+        }
+        if (memoryGovernor != null) {
+            memoryGovernor.stop();
+            List<MemoryGovernor.ThrottlingEvent> throttlingEvents = memoryGovernor.getEvents();
+            if (!throttlingEvents.isEmpty()) {
+                LOGGER.warn(
+                        "Execution was throttled {} time(s) due to the memory occupancy",
+                        throttlingEvents.size());
+                AnvilContext.getInstance()
+                        .getMapper()
+                        .saveExtraFileToPath(throttlingEvents, "memory_throttling");
+            }
+        }
+        // after the memory governor, which may still spill the buffer
+        if (testCaseLogBuffer != null) {
+            testCaseLogBuffer.uninstall();
+        }
+        if (resumptionSessionPool != null) {
+            ResumptionSessionPool.Statistics statistics = resumptionSessionPool.getStatistics();
+            LOGGER.info(
+                    "Resumed {} handshake(s), {} full handshake(s), {} fallback(s) after a failed resumption",
+                    statistics.getResumedHandshakes(),
+                    statistics.getFullHandshakes(),
+                    statistics.getFallbacks());
+            AnvilContext.getInstance()
+                    .getMapper()
+                    .saveExtraFileToPath(statistics, "resumption_fast_path");
+        }
+        if (transportRecordingStore != null && getConfig().getReplayTransport() != null) {
+            List<Map<String, String>> divergences = transportRecordingStore.getDivergences();
+            if (!divergences.isEmpty()) {
+                LOGGER.warn(
+                        "{} handshake(s) diverged from the recording, their results may not be meaningful",
+                        divergences.size());
+            }
+            AnvilContext.getInstance()
+                    .getMapper()
+                    .saveExtraFileToPath(divergences, "replay_divergences");
+        }
+        if (incrementalResultStore != null) {
+            incrementalResultStore.save();
+        }
+        if (journal != null) {
+            journal.close();
+        }
+        if (warmWorkerCache != null) {
+            AnvilContext.getInstance()
+                    .getMapper()
+                    .saveExtraFileToPath(warmWorkerCache.getJobStatus(), "worker_cache");
+        }
+        if (getConfig().isLocalizeFailures()) {
+            try {
+                new FailureLocalizationProcessor(LOCALIZATION_STRENGTH)
+                        .process(Paths.get(getConfig().getAnvilTestConfig().getOutputFolder()));
+            } catch (IOException e) {
+                LOGGER.error("Failed to localize the failure-inducing tuples", e);
+            }
+        }
+        shutdownStateExecutor();
+    }
+
+    private void writeResultStreamSummary() {
+        resultStreamSink.close();
+        LOGGER.info(
+                "Streamed {} test case results: {}",
+                resultStreamSink.getRecordCount(),
+                resultStreamSink.getResultCounters());
+        try {
+            AnvilContext.getInstance()
+                    .getMapper()
+                    .saveExtraFileToPath(
+                            ResultStreamSink.summarize(
+                                    Paths.get(
+                                            getConfig().getAnvilTestConfig().getOutputFolder(),
+                                            ResultStreamSink.FOLDER_NAME)),
+                            "result_stream_summary");
+        } catch (IOException e) {
+            LOGGER.error("Failed to summarize result stream", e);
+        }
     }
 
     @Override
@@ -111,4 +700,91 @@ public class TestContext implements AnvilListener {
     public boolean isAborted() {
         return aborted;
     }
+
+    /**
+     * @return the store of the transport recordings used by -recordTransport and -replayTransport,
+     *     null if neither is set
+     */
+    public synchronized TransportRecordingStore getTransportRecordingStore() {
+        if (transportRecordingStore == null) {
+            String folder =
+                    getConfig().getReplayTransport() != null
+                            ? getConfig().getReplayTransport()
+                            : getConfig().getRecordTransport();
+            if (folder != null) {
+                transportRecordingStore = new TransportRecordingStore(Paths.get(folder));
+            }
+        }
+        return transportRecordingStore;
+    }
+
+    public ExecutionMetrics getExecutionMetrics() {
+        return executionMetrics;
+    }
+
+    public TraceArchive getTraceArchive() {
+        return traceArchive;
+    }
+
+    public PcapngCaptureWriter getPacketCaptureWriter() {
+        return packetCaptureWriter;
+    }
+
+    public TargetHealthMonitor getTargetHealthMonitor() {
+        return targetHealthMonitor;
+    }
+
+    public TestCaseLogBuffer getTestCaseLogBuffer() {
+        return testCaseLogBuffer;
+    }
+
+    public MemoryGovernor getMemoryGovernor() {
+        return memoryGovernor;
+    }
+
+    public ResumptionSessionPool getResumptionSessionPool() {
+        return resumptionSessionPool;
+    }
+
+    public IncrementalResultStore getIncrementalResultStore() {
+        return incrementalResultStore;
+    }
+
+    public boolean isResumed() {
+        return !journaledTestCases.isEmpty();
+    }
+
+    /**
+     * Keeps the preparation artifacts of the targets across the jobs of a worker.
+     *
+     * @param capacity the number of targets whose artifacts are kept
+     */
+    public synchronized void enableWarmWorkerCache(int capacity) {
+        warmWorkerCache = new WarmWorkerCache(capacity);
+    }
+
+    /**
+     * @return the cache of the worker jobs, null if not running as a worker or disabled
+     */
+    public synchronized WarmWorkerCache getWarmWorkerCache() {
+        return warmWorkerCache;
+    }
+
+    public synchronized StrengthEscalation getStrengthEscalation() {
+        return strengthEscalation;
+    }
+
+    /**
+     * Enables the adaptive escalation of the strength. The same instance is passed on to the
+     * context of the escalation phase.
+     *
+     * @param strengthEscalation the escalation of the run
+     */
+    public synchronized void setStrengthEscalation(StrengthEscalation strengthEscalation) {
+        this.strengthEscalation = strengthEscalation;
+    }
+
+    public JournalEntry getJournaledTestCase(String caseKey) {
+        return journaledTestCases.get(caseKey);
+    }
 }
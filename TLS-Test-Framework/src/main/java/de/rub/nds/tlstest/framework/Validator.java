@@ -46,6 +46,7 @@ import de.rub.nds.tlsattacker.core.workflow.action.TlsAction;
 import de.rub.nds.tlsattacker.core.workflow.action.executor.ActionOption;
 import de.rub.nds.tlsattacker.transport.socket.SocketState;
 import de.rub.nds.tlstest.framework.constants.AssertMsgs;
+import de.rub.nds.tlstest.framework.jfr.ValidationEvent;
 import de.rub.nds.tlstest.framework.model.derivationParameter.TcpFragmentationDerivation;
 import java.io.ByteArrayInputStream;
 import java.math.BigInteger;
@@ -70,6 +71,14 @@ public class Validator {
 
     public static void receivedFatalAlert(
             State state, AnvilTestCase testCase, boolean checkExecutedAsPlanned) {
+        ValidationEvent.observe(
+                "receivedFatalAlert",
+                testCase,
+                () -> checkReceivedFatalAlert(state, testCase, checkExecutedAsPlanned));
+    }
+
+    private static void checkReceivedFatalAlert(
+            State state, AnvilTestCase testCase, boolean checkExecutedAsPlanned) {
         WorkflowTrace trace = state.getWorkflowTrace();
         SocketState socketState = getSocketState(state);
         boolean lastActionFailed = false;
@@ -208,6 +217,11 @@ public class Validator {
     }
 
     public static void executedAsPlanned(State state, AnvilTestCase testCase) {
+        ValidationEvent.observe(
+                "executedAsPlanned", testCase, () -> checkExecutedAsPlanned(state, testCase));
+    }
+
+    private static void checkExecutedAsPlanned(State state, AnvilTestCase testCase) {
         checkForUnknownMessage(state, testCase);
         assertTrue(
                 executedAsPlannedWithDetails(state.getWorkflowTrace(), testCase),
@@ -248,6 +262,11 @@ public class Validator {
     }
 
     public static void receivedWarningAlert(State state, AnvilTestCase testCase) {
+        ValidationEvent.observe(
+                "receivedWarningAlert", testCase, () -> checkReceivedWarningAlert(state, testCase));
+    }
+
+    private static void checkReceivedWarningAlert(State state, AnvilTestCase testCase) {
         checkForUnknownMessage(state, testCase);
         WorkflowTrace trace = state.getWorkflowTrace();
         smartExecutedAsPlanned(state, testCase);
@@ -267,6 +286,14 @@ public class Validator {
 
     public static void testAlertDescription(
             State state, AnvilTestCase testCase, AlertDescription[] expected, AlertMessage msg) {
+        ValidationEvent.observe(
+                "testAlertDescription",
+                testCase,
+                () -> checkAlertDescription(state, testCase, expected, msg));
+    }
+
+    private static void checkAlertDescription(
+            State state, AnvilTestCase testCase, AlertDescription[] expected, AlertMessage msg) {
         if (msg == null) {
             testCase.addAdditionalResultInfo("No alert received to test description for");
             return;
@@ -303,6 +330,13 @@ public class Validator {
     }
 
     public static void smartExecutedAsPlanned(State state, AnvilTestCase testCase) {
+        ValidationEvent.observe(
+                "smartExecutedAsPlanned",
+                testCase,
+                () -> checkSmartExecutedAsPlanned(state, testCase));
+    }
+
+    private static void checkSmartExecutedAsPlanned(State state, AnvilTestCase testCase) {
         checkForUnknownMessage(state, testCase);
         WorkflowTrace trace = state.getWorkflowTrace();
         if (state.getTlsContext().isReceivedMessageWithWrongTls13KeyType()
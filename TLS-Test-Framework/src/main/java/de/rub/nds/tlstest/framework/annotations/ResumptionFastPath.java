@@ -0,0 +1,22 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks server tests that only evaluate the behavior after the handshake. If enabled with
+ * -resumptionFastPath, their complete handshakes may be replaced by an abbreviated handshake
+ * resuming a session of a previous test case with the same negotiated parameters.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+public @interface ResumptionFastPath {}
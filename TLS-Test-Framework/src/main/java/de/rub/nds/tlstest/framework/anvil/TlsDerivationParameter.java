@@ -4,10 +4,14 @@ import com.fasterxml.jackson.annotation.JsonValue;
 import de.rub.nds.anvilcore.model.DerivationScope;
 import de.rub.nds.anvilcore.model.parameter.DerivationParameter;
 import de.rub.nds.anvilcore.model.parameter.ParameterIdentifier;
+import de.rub.nds.anvilcore.util.TestIdResolver;
 import de.rub.nds.modifiablevariable.util.ArrayConverter;
 import de.rub.nds.tlsattacker.core.config.Config;
 import de.rub.nds.tlstest.framework.TestContext;
+import de.rub.nds.tlstest.framework.escalation.StrengthEscalation;
 import de.rub.nds.tlstest.framework.model.TlsParameterType;
+import java.util.List;
+import java.util.stream.Collectors;
 
 public abstract class TlsDerivationParameter<TypeT> extends DerivationParameter<Config, TypeT> {
 
@@ -30,6 +34,40 @@ public abstract class TlsDerivationParameter<TypeT> extends DerivationParameter<
     @Override
     protected abstract TlsDerivationParameter<TypeT> generateValue(TypeT selectedValue);
 
+    /**
+     * Restricts the values to the pinned one while escalating the strength of a template, if the
+     * parameter is not suspected to induce its failures.
+     */
+    @Override
+    public List<DerivationParameter<Config, TypeT>> getConstrainedParameterValues(
+            DerivationScope derivationScope) {
+        List<DerivationParameter<Config, TypeT>> values =
+                super.getConstrainedParameterValues(derivationScope);
+        StrengthEscalation escalation = TestContext.getInstance().getStrengthEscalation();
+        if (escalation == null
+                || !escalation.isEscalating()
+                || derivationScope.getExtensionContext() == null
+                || derivationScope.getExtensionContext().getTestMethod().isEmpty()) {
+            return values;
+        }
+        String pinnedValue =
+                escalation.getPinnedValue(
+                        TestIdResolver.resolveTestId(
+                                derivationScope.getExtensionContext().getRequiredTestMethod()),
+                        getParameterIdentifier().name());
+        if (pinnedValue == null) {
+            return values;
+        }
+        List<DerivationParameter<Config, TypeT>> pinned =
+                values.stream()
+                        .filter(
+                                value ->
+                                        pinnedValue.equals(StrengthEscalation.describeValue(value)))
+                        .collect(Collectors.toList());
+        // the pinned value may not be applicable anymore, e.g. due to a changed feature set
+        return pinned.isEmpty() ? values : pinned;
+    }
+
     @JsonValue
     public String jsonValue() {
         if (getSelectedValue() instanceof byte[]) {
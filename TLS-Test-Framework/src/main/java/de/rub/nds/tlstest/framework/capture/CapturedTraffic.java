@@ -0,0 +1,120 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.capture;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Bytes sent and received by a single transport handler, recorded in the order they passed the
+ * handler.
+ */
+public class CapturedTraffic {
+
+    private static final long NANO_TIME_AT_START = System.nanoTime();
+    private static final long EPOCH_MICROS_AT_START =
+            ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now());
+
+    private final boolean udp;
+    private final List<Segment> segments = new LinkedList<>();
+
+    private String localIp;
+    private int localPort;
+    private String remoteIp;
+    private int remotePort;
+
+    public CapturedTraffic(boolean udp) {
+        this.udp = udp;
+    }
+
+    public synchronized void recordSent(byte[] data) {
+        record(true, data);
+    }
+
+    public synchronized void recordReceived(byte[] data) {
+        record(false, data);
+    }
+
+    private void record(boolean outgoing, byte[] data) {
+        if (data == null || data.length == 0) {
+            return;
+        }
+        segments.add(new Segment(outgoing, currentTimeMicros(), data.clone()));
+    }
+
+    /**
+     * @return microseconds since the epoch, monotonic as it is derived from {@link
+     *     System#nanoTime()} anchored to the wall clock once
+     */
+    static long currentTimeMicros() {
+        return EPOCH_MICROS_AT_START + (System.nanoTime() - NANO_TIME_AT_START) / 1000;
+    }
+
+    public synchronized List<Segment> getSegments() {
+        return Collections.unmodifiableList(new LinkedList<>(segments));
+    }
+
+    public synchronized boolean isEmpty() {
+        return segments.isEmpty();
+    }
+
+    public boolean isUdp() {
+        return udp;
+    }
+
+    public void setEndpoints(String localIp, int localPort, String remoteIp, int remotePort) {
+        this.localIp = localIp;
+        this.localPort = localPort;
+        this.remoteIp = remoteIp;
+        this.remotePort = remotePort;
+    }
+
+    public String getLocalIp() {
+        return localIp;
+    }
+
+    public int getLocalPort() {
+        return localPort;
+    }
+
+    public String getRemoteIp() {
+        return remoteIp;
+    }
+
+    public int getRemotePort() {
+        return remotePort;
+    }
+
+    /** Data passed to or returned by the transport handler in a single call. */
+    public static class Segment {
+        private final boolean outgoing;
+        private final long timestampMicros;
+        private final byte[] data;
+
+        public Segment(boolean outgoing, long timestampMicros, byte[] data) {
+            this.outgoing = outgoing;
+            this.timestampMicros = timestampMicros;
+            this.data = data;
+        }
+
+        public boolean isOutgoing() {
+            return outgoing;
+        }
+
+        public long getTimestampMicros() {
+            return timestampMicros;
+        }
+
+        public byte[] getData() {
+            return data;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.capture;
+
+import de.rub.nds.tlsattacker.transport.Connection;
+import de.rub.nds.tlsattacker.transport.udp.ClientUdpTransportHandler;
+import java.io.IOException;
+
+/**
+ * {@link ClientUdpTransportHandler} recording the transmitted bytes for the in-JVM packet capture.
+ */
+public class CapturingClientUdpTransportHandler extends ClientUdpTransportHandler
+        implements CapturingTransportHandler {
+
+    private final CapturedTraffic capturedTraffic = new CapturedTraffic(true);
+
+    public CapturingClientUdpTransportHandler(Connection connection) {
+        super(connection);
+    }
+
+    @Override
+    public void sendData(byte[] data) throws IOException {
+        super.sendData(data);
+        capturedTraffic.recordSent(data);
+    }
+
+    @Override
+    public byte[] fetchData() throws IOException {
+        byte[] data = super.fetchData();
+        capturedTraffic.recordReceived(data);
+        return data;
+    }
+
+    @Override
+    public byte[] fetchData(int amountOfData) throws IOException {
+        byte[] data = super.fetchData(amountOfData);
+        capturedTraffic.recordReceived(data);
+        return data;
+    }
+
+    @Override
+    public CapturedTraffic getCapturedTraffic() {
+        return capturedTraffic;
+    }
+}
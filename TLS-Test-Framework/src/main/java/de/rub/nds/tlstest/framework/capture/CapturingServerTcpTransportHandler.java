@@ -0,0 +1,51 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.capture;
+
+import de.rub.nds.tlsattacker.transport.tcp.ServerTcpTransportHandler;
+import java.io.IOException;
+import java.net.ServerSocket;
+
+/**
+ * {@link ServerTcpTransportHandler} recording the transmitted bytes for the in-JVM packet capture.
+ */
+public class CapturingServerTcpTransportHandler extends ServerTcpTransportHandler
+        implements CapturingTransportHandler {
+
+    private final CapturedTraffic capturedTraffic = new CapturedTraffic(false);
+
+    public CapturingServerTcpTransportHandler(
+            long firstTimeout, long timeout, ServerSocket serverSocket) {
+        super(firstTimeout, timeout, serverSocket);
+    }
+
+    @Override
+    public void sendData(byte[] data) throws IOException {
+        super.sendData(data);
+        capturedTraffic.recordSent(data);
+    }
+
+    @Override
+    public byte[] fetchData() throws IOException {
+        byte[] data = super.fetchData();
+        capturedTraffic.recordReceived(data);
+        return data;
+    }
+
+    @Override
+    public byte[] fetchData(int amountOfData) throws IOException {
+        byte[] data = super.fetchData(amountOfData);
+        capturedTraffic.recordReceived(data);
+        return data;
+    }
+
+    @Override
+    public CapturedTraffic getCapturedTraffic() {
+        return capturedTraffic;
+    }
+}
@@ -0,0 +1,14 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.capture;
+
+/** A transport handler recording all bytes it sends and receives. */
+public interface CapturingTransportHandler {
+
+    CapturedTraffic getCapturedTraffic();
+}
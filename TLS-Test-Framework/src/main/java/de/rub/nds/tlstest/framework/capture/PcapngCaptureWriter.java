@@ -0,0 +1,360 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.capture;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Writes the traffic recorded by {@link CapturingTransportHandler}s of all test cases into a single
+ * pcapng file. Every recorded connection is written as an independent pcapng section whose header
+ * names the test case. The byte ranges of the sections are kept in an index, so the capture of a
+ * single test case can be extracted without filtering the whole file.
+ *
+ * <p>As only the payload passing the transport handler is known, the IPv4 and TCP/UDP headers are
+ * synthetic. TCP sequence numbers are continuous per connection, but the connection establishment
+ * and teardown are not part of the capture.
+ */
+public class PcapngCaptureWriter implements AutoCloseable {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    public static final String CAPTURE_FILE_NAME = "capture.pcapng";
+    public static final String INDEX_FILE_NAME = "capture_index.json";
+
+    static final int SECTION_HEADER_BLOCK = 0x0A0D0D0A;
+    static final int INTERFACE_DESCRIPTION_BLOCK = 0x00000001;
+    static final int ENHANCED_PACKET_BLOCK = 0x00000006;
+    private static final int BYTE_ORDER_MAGIC = 0x1A2B3C4D;
+    private static final short OPTION_COMMENT = 1;
+    private static final short LINKTYPE_RAW = 101;
+
+    private static final int IP_HEADER_LENGTH = 20;
+    private static final int TCP_HEADER_LENGTH = 20;
+    private static final int UDP_HEADER_LENGTH = 8;
+    // keep packets below the maximum IPv4 packet size
+    private static final int MAX_PAYLOAD_LENGTH = 65000;
+
+    private final Path capturePath;
+    private final Path indexPath;
+    private final Map<String, List<long[]>> sectionIndex = new HashMap<>();
+    private FileChannel channel;
+
+    public PcapngCaptureWriter(Path outputFolder) {
+        this.capturePath = outputFolder.resolve(CAPTURE_FILE_NAME);
+        this.indexPath = outputFolder.resolve(INDEX_FILE_NAME);
+    }
+
+    /**
+     * Appends the traffic as a new section to the capture file.
+     *
+     * @param key identifies the test case the traffic belongs to
+     * @param comment description stored in the section header
+     * @param traffic the recorded traffic
+     */
+    public void write(String key, String comment, CapturedTraffic traffic) {
+        if (traffic.isEmpty()) {
+            return;
+        }
+        byte[] section = buildSection(comment, traffic);
+        synchronized (this) {
+            try {
+                if (channel == null) {
+                    channel =
+                            FileChannel.open(
+                                    capturePath,
+                                    StandardOpenOption.CREATE,
+                                    StandardOpenOption.READ,
+                                    StandardOpenOption.WRITE,
+                                    StandardOpenOption.TRUNCATE_EXISTING);
+                }
+                long offset = channel.size();
+                ByteBuffer buffer = ByteBuffer.wrap(section);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer, offset + buffer.position());
+                }
+                sectionIndex
+                        .computeIfAbsent(key, k -> new LinkedList<>())
+                        .add(new long[] {offset, section.length});
+            } catch (IOException e) {
+                LOGGER.error("Failed to write captured traffic of {}", key, e);
+            }
+        }
+    }
+
+    /**
+     * @param key identifies the test case
+     * @return the capture of the test case as a standalone pcapng file, empty if no traffic was
+     *     recorded for it
+     */
+    public synchronized byte[] extract(String key) {
+        List<long[]> ranges = sectionIndex.get(key);
+        if (ranges == null || channel == null) {
+            return new byte[0];
+        }
+        try {
+            return readRanges(channel, ranges);
+        } catch (IOException e) {
+            LOGGER.error("Failed to extract captured traffic of {}", key, e);
+            return new byte[0];
+        }
+    }
+
+    /**
+     * Extracts the capture of a single test case from a capture file written by a previous run.
+     *
+     * @param outputFolder output folder of the run
+     * @param key identifies the test case
+     * @return the capture of the test case as a standalone pcapng file
+     */
+    public static byte[] extract(Path outputFolder, String key) throws IOException {
+        Map<String, List<long[]>> index =
+                new ObjectMapper()
+                        .readValue(
+                                outputFolder.resolve(INDEX_FILE_NAME).toFile(),
+                                new TypeReference<Map<String, List<long[]>>>() {});
+        List<long[]> ranges = index.get(key);
+        if (ranges == null) {
+            return new byte[0];
+        }
+        try (FileChannel fileChannel =
+                FileChannel.open(
+                        outputFolder.resolve(CAPTURE_FILE_NAME), StandardOpenOption.READ)) {
+            return readRanges(fileChannel, ranges);
+        }
+    }
+
+    private static byte[] readRanges(FileChannel fileChannel, List<long[]> ranges)
+            throws IOException {
+        int totalLength = ranges.stream().mapToInt(range -> (int) range[1]).sum();
+        ByteBuffer buffer = ByteBuffer.allocate(totalLength);
+        for (long[] range : ranges) {
+            long position = range[0];
+            int end = buffer.position() + (int) range[1];
+            buffer.limit(end);
+            while (buffer.position() < end) {
+                int read = fileChannel.read(buffer, position);
+                if (read < 0) {
+                    throw new IOException("Capture file is shorter than indexed");
+                }
+                position += read;
+            }
+        }
+        return buffer.array();
+    }
+
+    /** Closes the capture file and stores the index next to it. */
+    @Override
+    public synchronized void close() {
+        try {
+            if (channel != null) {
+                channel.force(true);
+                channel.close();
+            }
+            new ObjectMapper().writeValue(indexPath.toFile(), sectionIndex);
+        } catch (IOException e) {
+            LOGGER.error("Failed to close packet capture", e);
+        }
+    }
+
+    static byte[] buildSection(String comment, CapturedTraffic traffic) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeSectionHeader(out, comment);
+        writeInterfaceDescription(out);
+
+        byte[] localAddress = toIpv4Address(traffic.getLocalIp(), 1);
+        byte[] remoteAddress = toIpv4Address(traffic.getRemoteIp(), 2);
+        long localSequence = 1;
+        long remoteSequence = 1;
+        for (CapturedTraffic.Segment segment : traffic.getSegments()) {
+            byte[] data = segment.getData();
+            for (int offset = 0; offset < data.length; offset += MAX_PAYLOAD_LENGTH) {
+                int length = Math.min(MAX_PAYLOAD_LENGTH, data.length - offset);
+                byte[] packet;
+                if (segment.isOutgoing()) {
+                    packet =
+                            buildPacket(
+                                    traffic.isUdp(),
+                                    localAddress,
+                                    traffic.getLocalPort(),
+                                    remoteAddress,
+                                    traffic.getRemotePort(),
+                                    localSequence,
+                                    remoteSequence,
+                                    data,
+                                    offset,
+                                    length);
+                    localSequence += length;
+                } else {
+                    packet =
+                            buildPacket(
+                                    traffic.isUdp(),
+                                    remoteAddress,
+                                    traffic.getRemotePort(),
+                                    localAddress,
+                                    traffic.getLocalPort(),
+                                    remoteSequence,
+                                    localSequence,
+                                    data,
+                                    offset,
+                                    length);
+                    remoteSequence += length;
+                }
+                writeEnhancedPacket(out, segment.getTimestampMicros(), packet);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeSectionHeader(ByteArrayOutputStream out, String comment) {
+        byte[] commentBytes = comment.getBytes(StandardCharsets.UTF_8);
+        int optionsLength = 4 + padded(commentBytes.length) + 4;
+        int blockLength = 28 + optionsLength;
+        ByteBuffer buffer = newBuffer(blockLength);
+        buffer.putInt(SECTION_HEADER_BLOCK);
+        buffer.putInt(blockLength);
+        buffer.putInt(BYTE_ORDER_MAGIC);
+        buffer.putShort((short) 1);
+        buffer.putShort((short) 0);
+        // section length is not specified
+        buffer.putLong(-1);
+        buffer.putShort(OPTION_COMMENT);
+        buffer.putShort((short) commentBytes.length);
+        buffer.put(commentBytes);
+        buffer.position(buffer.position() + padded(commentBytes.length) - commentBytes.length);
+        // end of options
+        buffer.putInt(0);
+        buffer.putInt(blockLength);
+        out.writeBytes(buffer.array());
+    }
+
+    private static void writeInterfaceDescription(ByteArrayOutputStream out) {
+        ByteBuffer buffer = newBuffer(20);
+        buffer.putInt(INTERFACE_DESCRIPTION_BLOCK);
+        buffer.putInt(20);
+        buffer.putShort(LINKTYPE_RAW);
+        buffer.putShort((short) 0);
+        // no snapshot length limit
+        buffer.putInt(0);
+        buffer.putInt(20);
+        out.writeBytes(buffer.array());
+    }
+
+    private static void writeEnhancedPacket(
+            ByteArrayOutputStream out, long timestampMicros, byte[] packet) {
+        int blockLength = 32 + padded(packet.length);
+        ByteBuffer buffer = newBuffer(blockLength);
+        buffer.putInt(ENHANCED_PACKET_BLOCK);
+        buffer.putInt(blockLength);
+        buffer.putInt(0);
+        buffer.putInt((int) (timestampMicros >>> 32));
+        buffer.putInt((int) timestampMicros);
+        buffer.putInt(packet.length);
+        buffer.putInt(packet.length);
+        buffer.put(packet);
+        buffer.position(blockLength - 4);
+        buffer.putInt(blockLength);
+        out.writeBytes(buffer.array());
+    }
+
+    private static byte[] buildPacket(
+            boolean udp,
+            byte[] sourceAddress,
+            int sourcePort,
+            byte[] destinationAddress,
+            int destinationPort,
+            long sequenceNumber,
+            long acknowledgementNumber,
+            byte[] data,
+            int offset,
+            int length) {
+        int transportHeaderLength = udp ? UDP_HEADER_LENGTH : TCP_HEADER_LENGTH;
+        int totalLength = IP_HEADER_LENGTH + transportHeaderLength + length;
+        ByteBuffer buffer = ByteBuffer.allocate(totalLength).order(ByteOrder.BIG_ENDIAN);
+
+        buffer.put((byte) 0x45);
+        buffer.put((byte) 0);
+        buffer.putShort((short) totalLength);
+        buffer.putShort((short) 0);
+        // don't fragment
+        buffer.putShort((short) 0x4000);
+        buffer.put((byte) 64);
+        buffer.put((byte) (udp ? 17 : 6));
+        buffer.putShort((short) 0);
+        buffer.put(sourceAddress);
+        buffer.put(destinationAddress);
+        buffer.putShort(10, ipChecksum(buffer.array()));
+
+        buffer.putShort((short) sourcePort);
+        buffer.putShort((short) destinationPort);
+        if (udp) {
+            buffer.putShort((short) (UDP_HEADER_LENGTH + length));
+            // checksum is optional for UDP over IPv4
+            buffer.putShort((short) 0);
+        } else {
+            buffer.putInt((int) sequenceNumber);
+            buffer.putInt((int) acknowledgementNumber);
+            buffer.put((byte) 0x50);
+            // PSH, ACK
+            buffer.put((byte) 0x18);
+            buffer.putShort((short) 0xFFFF);
+            buffer.putShort((short) 0);
+            buffer.putShort((short) 0);
+        }
+        buffer.put(data, offset, length);
+        return buffer.array();
+    }
+
+    private static short ipChecksum(byte[] packet) {
+        int sum = 0;
+        for (int i = 0; i < IP_HEADER_LENGTH; i += 2) {
+            sum += ((packet[i] & 0xFF) << 8) | (packet[i + 1] & 0xFF);
+        }
+        while ((sum >> 16) != 0) {
+            sum = (sum & 0xFFFF) + (sum >> 16);
+        }
+        return (short) ~sum;
+    }
+
+    private static byte[] toIpv4Address(String ip, int fallbackHost) {
+        if (ip != null) {
+            try {
+                InetAddress address = InetAddress.getByName(ip);
+                if (address instanceof Inet4Address) {
+                    return address.getAddress();
+                }
+            } catch (IOException ignored) {
+            }
+        }
+        // IPv6 and unknown addresses are mapped to distinct loopback addresses
+        return new byte[] {127, 0, 0, (byte) fallbackHost};
+    }
+
+    private static int padded(int length) {
+        return (length + 3) & ~3;
+    }
+
+    private static ByteBuffer newBuffer(int length) {
+        return ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -67,6 +67,9 @@ public class TlsAnvilConfig extends TLSDelegateConfig {
 
     private TestExtractorDelegate testExtractorDelegate = null;
     private WorkerDelegate workerDelegate = null;
+    private MergeShardsDelegate mergeShardsDelegate = null;
+    private BatchDelegate batchDelegate = null;
+    private LocalizeFailuresDelegate localizeFailuresDelegate = null;
 
     private JCommander argParser = null;
 
@@ -105,6 +108,154 @@ public class TlsAnvilConfig extends TLSDelegateConfig {
             description = "How many handshakes should be executed in parallel?")
     private int parallelHandshakes = 3;
 
+    @JsonProperty("incrementalStore")
+    @Parameter(
+            names = "-incrementalStore",
+            description =
+                    "Path to a file storing the fingerprints and verdicts of executed test cases. If the file exists, test cases whose fingerprint did not change are not executed again and their previous verdict is carried forward.")
+    private String incrementalStore = null;
+
+    @JsonProperty("incrementalSampleRate")
+    @Parameter(
+            names = "-incrementalSampleRate",
+            description =
+                    "Share of unchanged test cases (0.0 - 1.0) that is executed anyway in incremental mode to detect drifts.")
+    private double incrementalSampleRate = 0.05;
+
+    @JsonProperty("resume")
+    @Parameter(
+            names = "-resume",
+            description =
+                    "Output folder of an interrupted run that should be continued. Test cases recorded in its journal are not executed again.")
+    private String resumeFolder = null;
+
+    @JsonProperty("durationHistory")
+    @Parameter(
+            names = "-durationHistory",
+            description =
+                    "Path to the file storing the durations of previous runs, e.g. cache/test_durations.json. Used to schedule long running tests first and to estimate the remaining run time. The file is read and updated by every run using it. If not set, no history is kept.")
+    private String durationHistory = null;
+
+    @JsonProperty("targetFailureThreshold")
+    @Parameter(
+            names = "-targetFailureThreshold",
+            description =
+                    "Number of consecutive handshakes failing to connect to the server under test after which its availability is probed, e.g. 10. If it is down, the execution is paused until it recovers and the affected handshakes are executed again. 0 disables the monitoring.")
+    private int targetFailureThreshold = 0;
+
+    @JsonProperty("targetMaxDowntime")
+    @Parameter(
+            names = "-targetMaxDowntime",
+            description =
+                    "Seconds to wait for the server under test to recover before the execution is continued anyway.")
+    private int targetMaxDowntime = 300;
+
+    @JsonProperty("inJvmCapture")
+    @Parameter(
+            names = "-inJvmCapture",
+            description =
+                    "Record the traffic of each test case in-JVM instead of using tcpdump. All captures are written to a single pcapng file with an index to extract the capture of a single test case.")
+    private boolean inJvmCapture = false;
+
+    @JsonProperty("resultStream")
+    @Parameter(
+            names = "-resultStream",
+            description =
+                    "Additionally append the result of every test case as a JSON line to a segmented log in the output folder and summarize the run from it. The regular report is written and kept in memory as before, so this adds I/O instead of replacing it. Disabled by default.")
+    private boolean resultStream = false;
+
+    @JsonProperty("compressResultStream")
+    @Parameter(
+            names = "-compressResultStream",
+            description = "Compress the segments of the result stream using gzip.")
+    private boolean compressResultStream = false;
+
+    @JsonProperty("metricsPort")
+    @Parameter(
+            names = "-metricsPort",
+            description =
+                    "Local port serving the per-phase execution metrics in the Prometheus text format under /metrics. 0 disables the endpoint, the metrics are still recorded and exposed via JMX.")
+    private int metricsPort = 0;
+
+    @JsonProperty("recordTransport")
+    @Parameter(
+            names = "-recordTransport",
+            description =
+                    "Folder to store the data sent and received in each handshake in, to replay the run later using -replayTransport. Only supported for server tests over TCP.")
+    private String recordTransport = null;
+
+    @JsonProperty("replayTransport")
+    @Parameter(
+            names = "-replayTransport",
+            description =
+                    "Folder of a run recorded using -recordTransport. The recorded data is replayed instead of connecting to the target to re-validate the results offline. Test cases whose sent data diverges from the recording are reported.")
+    private String replayTransport = null;
+
+    @JsonProperty("shardCount")
+    @Parameter(
+            names = "-shardCount",
+            description =
+                    "Number of processes the test templates of the run are split across. The templates are assigned by their test id, or balanced based on the duration history if -shardPlan is set. Use mergeShards to combine the results.")
+    private int shardCount = 1;
+
+    @JsonProperty("shardIndex")
+    @Parameter(
+            names = "-shardIndex",
+            description = "Index of the shard executed by this process, from 0 to -shardCount - 1.")
+    private int shardIndex = 0;
+
+    @JsonProperty("shardPlan")
+    @Parameter(
+            names = "-shardPlan",
+            description =
+                    "File shared by all shards of a run. The first shard stores an assignment of the templates balanced by their durations there and the others reuse it, so that all shards agree on it even if their duration histories differ.")
+    private String shardPlan = null;
+
+    @JsonProperty("localizeFailures")
+    @Parameter(
+            names = "-localizeFailures",
+            description =
+                    "Rank the parameter tuples inducing the failures of each partially failed template after the run and add them to the results. Use localizeFailures to process the results of a finished run.")
+    private boolean localizeFailures = false;
+
+    @JsonProperty("escalationStrength")
+    @Parameter(
+            names = "-escalationStrength",
+            description =
+                    "Strength to execute the templates with failed or erroneous test cases again with after the run. The covering arrays only grow with the parameters suspected to induce the failures, test cases that have already been executed are not repeated. 0 disables the escalation.")
+    private int escalationStrength = 0;
+
+    @JsonProperty("resumptionFastPath")
+    @Parameter(
+            names = "-resumptionFastPath",
+            description =
+                    "Replace the full handshake of server tests annotated with @ResumptionFastPath by an abbreviated handshake resuming a pooled session or PSK, if the feature extraction found resumption to be supported. A full handshake is performed if the resumption fails.")
+    private boolean resumptionFastPath = false;
+
+    @JsonProperty("bufferTestCaseLogs")
+    @Parameter(
+            names = "-bufferTestCaseLogs",
+            description =
+                    "Keep the debug output of TLS-Attacker and the framework for each test case in memory and only write it to the results folder of the template if the test case failed, ran into an error or did not yield the expected result.")
+    private boolean bufferTestCaseLogs = false;
+
+    @JsonProperty("memoryWatermark")
+    @Parameter(
+            names = "-memoryWatermark",
+            description =
+                    "Occupancy of the old generation after garbage collection, in percent of its maximum size, above which fewer test cases and handshakes are executed in parallel and retained test case data is spilled to disk. The parallelism is restored once the occupancy drops sufficiently. Disabled by default, 85 is a reasonable value for long runs.")
+    private int memoryWatermark = 0;
+
+    @JsonProperty("throttledParallelism")
+    @Parameter(
+            names = "-throttledParallelism",
+            description =
+                    "Number of test cases and handshakes executed in parallel while the execution is throttled due to the memory occupancy.")
+    private int throttledParallelism = 1;
+
+    // parent of the default output folder, the working directory if not set
+    private String outputParentFolder = null;
+
     // we might want to turn these into CLI parameters in the future
     private boolean expectTls13Alerts = false;
     private boolean enforceSenderRestrictions = false;
@@ -115,6 +266,9 @@ public class TlsAnvilConfig extends TLSDelegateConfig {
         this.testClientDelegate = new TestClientDelegate();
         this.testExtractorDelegate = new TestExtractorDelegate();
         this.workerDelegate = new WorkerDelegate();
+        this.mergeShardsDelegate = new MergeShardsDelegate();
+        this.batchDelegate = new BatchDelegate();
+        this.localizeFailuresDelegate = new LocalizeFailuresDelegate();
     }
 
     /**
@@ -162,6 +316,12 @@ public class TlsAnvilConfig extends TLSDelegateConfig {
                                     ConfigDelegates.EXTRACT_TESTS.getCommand(),
                                     testExtractorDelegate)
                             .addCommand(ConfigDelegates.WORKER.getCommand(), workerDelegate)
+                            .addCommand(
+                                    ConfigDelegates.MERGE_SHARDS.getCommand(), mergeShardsDelegate)
+                            .addCommand(ConfigDelegates.BATCH.getCommand(), batchDelegate)
+                            .addCommand(
+                                    ConfigDelegates.LOCALIZE_FAILURES.getCommand(),
+                                    localizeFailuresDelegate)
                             .addObject(getAnvilTestConfig())
                             .addObject(this)
                             .build();
@@ -199,6 +359,27 @@ public class TlsAnvilConfig extends TLSDelegateConfig {
             }
             this.setExportTraces(tlsAnvilConfig.isExportTraces());
             this.setParallelHandshakes(tlsAnvilConfig.getParallelHandshakes());
+            this.setIncrementalStore(tlsAnvilConfig.getIncrementalStore());
+            this.setIncrementalSampleRate(tlsAnvilConfig.getIncrementalSampleRate());
+            this.setTargetFailureThreshold(tlsAnvilConfig.getTargetFailureThreshold());
+            this.setTargetMaxDowntime(tlsAnvilConfig.getTargetMaxDowntime());
+            this.setInJvmCapture(tlsAnvilConfig.isInJvmCapture());
+            this.setResultStream(tlsAnvilConfig.isResultStream());
+            this.setCompressResultStream(tlsAnvilConfig.isCompressResultStream());
+            this.setMetricsPort(tlsAnvilConfig.getMetricsPort());
+            this.setRecordTransport(tlsAnvilConfig.getRecordTransport());
+            this.setReplayTransport(tlsAnvilConfig.getReplayTransport());
+            this.setShardCount(tlsAnvilConfig.getShardCount());
+            this.setShardIndex(tlsAnvilConfig.getShardIndex());
+            this.setShardPlan(tlsAnvilConfig.getShardPlan());
+            this.setLocalizeFailures(tlsAnvilConfig.isLocalizeFailures());
+            this.setEscalationStrength(tlsAnvilConfig.getEscalationStrength());
+            this.setResumptionFastPath(tlsAnvilConfig.isResumptionFastPath());
+            this.setBufferTestCaseLogs(tlsAnvilConfig.isBufferTestCaseLogs());
+            this.setMemoryWatermark(tlsAnvilConfig.getMemoryWatermark());
+            this.setThrottledParallelism(tlsAnvilConfig.getThrottledParallelism());
+            this.setResumeFolder(tlsAnvilConfig.getResumeFolder());
+            this.setDurationHistory(tlsAnvilConfig.getDurationHistory());
             this.anvilTestConfig = tlsAnvilConfig.getAnvilTestConfig();
 
             TestClientDelegate testClientDelegate = tlsAnvilConfig.getTestClientDelegate();
@@ -223,7 +404,11 @@ public class TlsAnvilConfig extends TLSDelegateConfig {
             LOGGER.error("Error: You have to use the client or server command!");
             System.exit(1);
         } else if (argParser.getParsedCommand().equals(ConfigDelegates.EXTRACT_TESTS.getCommand())
-                || argParser.getParsedCommand().equals(ConfigDelegates.WORKER.getCommand())) {
+                || argParser.getParsedCommand().equals(ConfigDelegates.WORKER.getCommand())
+                || argParser.getParsedCommand().equals(ConfigDelegates.MERGE_SHARDS.getCommand())
+                || argParser
+                        .getParsedCommand()
+                        .equals(ConfigDelegates.LOCALIZE_FAILURES.getCommand())) {
             return;
         } else {
             // server or client command
@@ -249,12 +434,18 @@ public class TlsAnvilConfig extends TLSDelegateConfig {
         }
         // restrict parallelization
         restrictParallelization();
+        // continue writing to the output folder of the resumed run
+        if (resumeFolder != null) {
+            getAnvilTestConfig().setOutputFolder(resumeFolder);
+        }
         // output folder if not set
         if (getAnvilTestConfig().getOutputFolder().isEmpty()) {
             getAnvilTestConfig()
                     .setOutputFolder(
                             Paths.get(
-                                            System.getProperty("user.dir"),
+                                            outputParentFolder != null
+                                                    ? outputParentFolder
+                                                    : System.getProperty("user.dir"),
                                             "Results_"
                                                     + getAnvilTestConfig().getIdentifier()
                                                     + "_"
@@ -263,6 +454,39 @@ public class TlsAnvilConfig extends TLSDelegateConfig {
         }
         // set pcap filter correctly
         getAnvilTestConfig().setGeneralPcapFilter(resolvePcapFilter());
+        // the in-JVM capture replaces tcpdump
+        if (inJvmCapture) {
+            getAnvilTestConfig().setDisableTcpDump(true);
+        }
+        if (recordTransport != null || replayTransport != null) {
+            if (recordTransport != null && replayTransport != null) {
+                throw new ParameterException(
+                        "-recordTransport and -replayTransport can not be used together");
+            }
+            if (testEndpointMode != TestEndpointType.SERVER || isUseDTLS()) {
+                throw new ParameterException(
+                        "Transport recordings are only supported for server tests over TCP");
+            }
+        }
+        if (shardCount < 1 || shardIndex < 0 || shardIndex >= shardCount) {
+            throw new ParameterException(
+                    "-shardIndex must be between 0 and "
+                            + (shardCount - 1)
+                            + " for -shardCount "
+                            + shardCount);
+        }
+        if (compressResultStream && !resultStream) {
+            throw new ParameterException("-compressResultStream requires -resultStream");
+        }
+        if (memoryWatermark < 0 || memoryWatermark > 100 || throttledParallelism < 1) {
+            throw new ParameterException(
+                    "-memoryWatermark must be between 0 and 100 and -throttledParallelism at least 1");
+        }
+        if (replayTransport != null) {
+            // there is no traffic to capture and no target to monitor
+            getAnvilTestConfig().setDisableTcpDump(true);
+            targetFailureThreshold = 0;
+        }
 
         try {
             // create parent directories if not present
@@ -337,6 +561,7 @@ public class TlsAnvilConfig extends TLSDelegateConfig {
                 this.testServerDelegate.setSniHostname(null);
             }
             this.setParallelHandshakes(newConfig.getParallelHandshakes());
+            this.setResumeFolder(newConfig.getResumeFolder());
             adjustConfig();
             this.parsedArgs = true;
         } catch (JsonProcessingException e) {
@@ -494,6 +719,23 @@ public class TlsAnvilConfig extends TLSDelegateConfig {
         return config;
     }
 
+    /**
+     * @return the base config created for the current target, null if it has not been created yet
+     */
+    public synchronized Config getCachedConfig() {
+        return cachedConfig;
+    }
+
+    /**
+     * Replaces the base config all configs of the run are copied from. Setting null causes the base
+     * config to be created anew for the current target.
+     *
+     * @param cachedConfig the base config of the current target
+     */
+    public synchronized void setCachedConfig(Config cachedConfig) {
+        this.cachedConfig = cachedConfig;
+    }
+
     public boolean checkRenegotiationInfoOffer() {
         if (TestContext.getInstance().getConfig().getTestEndpointMode() == TestEndpointType.CLIENT
                 && TestContext.getInstance().getFeatureExtractionResult() != null) {
@@ -618,6 +860,186 @@ public class TlsAnvilConfig extends TLSDelegateConfig {
         this.exportTraces = exportTraces;
     }
 
+    public String getIncrementalStore() {
+        return incrementalStore;
+    }
+
+    public void setIncrementalStore(String incrementalStore) {
+        this.incrementalStore = incrementalStore;
+    }
+
+    public double getIncrementalSampleRate() {
+        return incrementalSampleRate;
+    }
+
+    public void setIncrementalSampleRate(double incrementalSampleRate) {
+        this.incrementalSampleRate = incrementalSampleRate;
+    }
+
+    public String getResumeFolder() {
+        return resumeFolder;
+    }
+
+    public void setResumeFolder(String resumeFolder) {
+        this.resumeFolder = resumeFolder;
+    }
+
+    public String getDurationHistory() {
+        return durationHistory;
+    }
+
+    public void setDurationHistory(String durationHistory) {
+        this.durationHistory = durationHistory;
+    }
+
+    public int getTargetFailureThreshold() {
+        return targetFailureThreshold;
+    }
+
+    public void setTargetFailureThreshold(int targetFailureThreshold) {
+        this.targetFailureThreshold = targetFailureThreshold;
+    }
+
+    public int getTargetMaxDowntime() {
+        return targetMaxDowntime;
+    }
+
+    public void setTargetMaxDowntime(int targetMaxDowntime) {
+        this.targetMaxDowntime = targetMaxDowntime;
+    }
+
+    public boolean isInJvmCapture() {
+        return inJvmCapture;
+    }
+
+    public void setInJvmCapture(boolean inJvmCapture) {
+        this.inJvmCapture = inJvmCapture;
+    }
+
+    public boolean isResultStream() {
+        return resultStream;
+    }
+
+    public void setResultStream(boolean resultStream) {
+        this.resultStream = resultStream;
+    }
+
+    public boolean isCompressResultStream() {
+        return compressResultStream;
+    }
+
+    public void setCompressResultStream(boolean compressResultStream) {
+        this.compressResultStream = compressResultStream;
+    }
+
+    public int getMetricsPort() {
+        return metricsPort;
+    }
+
+    public void setMetricsPort(int metricsPort) {
+        this.metricsPort = metricsPort;
+    }
+
+    public String getRecordTransport() {
+        return recordTransport;
+    }
+
+    public void setRecordTransport(String recordTransport) {
+        this.recordTransport = recordTransport;
+    }
+
+    public String getReplayTransport() {
+        return replayTransport;
+    }
+
+    public void setReplayTransport(String replayTransport) {
+        this.replayTransport = replayTransport;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public void setShardCount(int shardCount) {
+        this.shardCount = shardCount;
+    }
+
+    public int getShardIndex() {
+        return shardIndex;
+    }
+
+    public void setShardIndex(int shardIndex) {
+        this.shardIndex = shardIndex;
+    }
+
+    public String getShardPlan() {
+        return shardPlan;
+    }
+
+    public void setShardPlan(String shardPlan) {
+        this.shardPlan = shardPlan;
+    }
+
+    public boolean isLocalizeFailures() {
+        return localizeFailures;
+    }
+
+    public void setLocalizeFailures(boolean localizeFailures) {
+        this.localizeFailures = localizeFailures;
+    }
+
+    public int getEscalationStrength() {
+        return escalationStrength;
+    }
+
+    public void setEscalationStrength(int escalationStrength) {
+        this.escalationStrength = escalationStrength;
+    }
+
+    public boolean isResumptionFastPath() {
+        return resumptionFastPath;
+    }
+
+    public void setResumptionFastPath(boolean resumptionFastPath) {
+        this.resumptionFastPath = resumptionFastPath;
+    }
+
+    public boolean isBufferTestCaseLogs() {
+        return bufferTestCaseLogs;
+    }
+
+    public void setBufferTestCaseLogs(boolean bufferTestCaseLogs) {
+        this.bufferTestCaseLogs = bufferTestCaseLogs;
+    }
+
+    public int getMemoryWatermark() {
+        return memoryWatermark;
+    }
+
+    public void setMemoryWatermark(int memoryWatermark) {
+        this.memoryWatermark = memoryWatermark;
+    }
+
+    public int getThrottledParallelism() {
+        return throttledParallelism;
+    }
+
+    public void setThrottledParallelism(int throttledParallelism) {
+        this.throttledParallelism = throttledParallelism;
+    }
+
+    public String getOutputParentFolder() {
+        return outputParentFolder;
+    }
+
+    public void setOutputParentFolder(String outputParentFolder) {
+        this.outputParentFolder = outputParentFolder;
+    }
+
+    public boolean isSharded() {
+        return shardCount > 1;
+    }
+
     public ConfigDelegates getParsedCommand() {
         return parsedCommand;
     }
@@ -626,6 +1048,18 @@ public class TlsAnvilConfig extends TLSDelegateConfig {
         return testExtractorDelegate;
     }
 
+    public MergeShardsDelegate getMergeShardsDelegate() {
+        return mergeShardsDelegate;
+    }
+
+    public BatchDelegate getBatchDelegate() {
+        return batchDelegate;
+    }
+
+    public LocalizeFailuresDelegate getLocalizeFailuresDelegate() {
+        return localizeFailuresDelegate;
+    }
+
     public boolean isParsedArgs() {
         return parsedArgs;
     }
@@ -0,0 +1,44 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.config.delegates;
+
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
+import java.util.ArrayList;
+import java.util.List;
+
+@Parameters(
+        commandDescription =
+                "Tests several targets one after another in the same process. Each target is described by a TLS-Anvil config file as used with -tlsAnvilConfig.")
+public class BatchDelegate {
+
+    @Parameter(description = "TLS-Anvil config files of the targets", required = true)
+    private List<String> targetConfigs = new ArrayList<>();
+
+    @Parameter(
+            names = "-outputFolder",
+            description =
+                    "Folder containing the result folders of the targets that do not specify an output folder, and the summary of the batch")
+    private String outputFolder = "./";
+
+    public List<String> getTargetConfigs() {
+        return targetConfigs;
+    }
+
+    public void setTargetConfigs(List<String> targetConfigs) {
+        this.targetConfigs = targetConfigs;
+    }
+
+    public String getOutputFolder() {
+        return outputFolder;
+    }
+
+    public void setOutputFolder(String outputFolder) {
+        this.outputFolder = outputFolder;
+    }
+}
@@ -13,7 +13,10 @@ public enum ConfigDelegates {
     SERVER("server"),
     CLIENT("client"),
     EXTRACT_TESTS("extractTests"),
-    WORKER("worker");
+    WORKER("worker"),
+    MERGE_SHARDS("mergeShards"),
+    BATCH("batch"),
+    LOCALIZE_FAILURES("localizeFailures");
 
     private final String commandName;
 
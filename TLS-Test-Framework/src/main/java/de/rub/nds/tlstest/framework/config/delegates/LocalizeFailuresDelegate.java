@@ -0,0 +1,43 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.config.delegates;
+
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
+import java.util.ArrayList;
+import java.util.List;
+
+@Parameters(
+        commandDescription =
+                "Ranks the parameter tuples inducing the failures of each template in the output folders of finished runs.")
+public class LocalizeFailuresDelegate {
+
+    @Parameter(description = "Output folders of finished runs", required = true)
+    private List<String> outputFolders = new ArrayList<>();
+
+    @Parameter(
+            names = "-strength",
+            description = "Maximum number of parameters of a failure-inducing tuple")
+    private int strength = 2;
+
+    public List<String> getOutputFolders() {
+        return outputFolders;
+    }
+
+    public void setOutputFolders(List<String> outputFolders) {
+        this.outputFolders = outputFolders;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    public void setStrength(int strength) {
+        this.strength = strength;
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.config.delegates;
+
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
+import java.util.ArrayList;
+import java.util.List;
+
+@Parameters(
+        commandDescription =
+                "Combines the output folders of the shards of a run started with -shardCount into a single report.")
+public class MergeShardsDelegate {
+
+    @Parameter(description = "Output folders of the shards", required = true)
+    private List<String> shardFolders = new ArrayList<>();
+
+    @Parameter(
+            names = "-mergedFolder",
+            description = "Folder to write the combined results to",
+            required = true)
+    private String mergedFolder;
+
+    public List<String> getShardFolders() {
+        return shardFolders;
+    }
+
+    public void setShardFolders(List<String> shardFolders) {
+        this.shardFolders = shardFolders;
+    }
+
+    public String getMergedFolder() {
+        return mergedFolder;
+    }
+
+    public void setMergedFolder(String mergedFolder) {
+        this.mergedFolder = mergedFolder;
+    }
+}
@@ -8,6 +8,7 @@
 package de.rub.nds.tlstest.framework.config.delegates;
 
 import com.beust.jcommander.Parameter;
+import de.rub.nds.tlstest.framework.extractor.RFCHtml;
 
 public class TestExtractorDelegate {
     @Parameter(names = "-outputFolder", description = "Folder to output annotated RFC HTML files")
@@ -16,6 +17,17 @@ public class TestExtractorDelegate {
     @Parameter(names = "-detailed", description = "Print more detailed test information")
     private boolean detailed = false;
 
+    @Parameter(
+            names = "-rfcFolder",
+            description =
+                    "Folder containing the RFC HTML documents as rfc<number>.html. The documents are not part of the repository and have to be downloaded using rfcs/fetch.sh of the testsuite before the extraction, which fails listing the missing documents otherwise.")
+    private String rfcFolder = RFCHtml.DEFAULT_RFC_FOLDER;
+
+    @Parameter(
+            names = "-parallelDocuments",
+            description = "Number of RFC documents annotated in parallel")
+    private int parallelDocuments = Runtime.getRuntime().availableProcessors();
+
     public String getOutputFolder() {
         return outputFolder;
     }
@@ -31,4 +43,20 @@ public class TestExtractorDelegate {
     public void setDetailed(boolean detailed) {
         this.detailed = detailed;
     }
+
+    public String getRfcFolder() {
+        return rfcFolder;
+    }
+
+    public void setRfcFolder(String rfcFolder) {
+        this.rfcFolder = rfcFolder;
+    }
+
+    public int getParallelDocuments() {
+        return parallelDocuments;
+    }
+
+    public void setParallelDocuments(int parallelDocuments) {
+        this.parallelDocuments = parallelDocuments;
+    }
 }
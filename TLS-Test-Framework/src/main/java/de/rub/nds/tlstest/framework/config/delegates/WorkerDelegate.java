@@ -13,21 +13,52 @@ public class WorkerDelegate extends Delegate {
 
     @Parameter(
             names = "-controller",
-            description = "Hostname or ip address of the Anvil web backend server.",
-            required = true)
+            description = "Hostname or ip address of the Anvil web backend server.")
     private String controller = "backend:5001";
 
     @Parameter(names = "-name", description = "Name of the worker, as seen in the web ui.")
     private String workerName = "worker " + (int) (Math.random() * 1000);
 
+    @Parameter(
+            names = "-warmCacheSize",
+            description =
+                    "Number of targets whose feature extraction and base config are kept across jobs. 0 prepares every job from scratch.")
+    private int warmCacheSize = 4;
+
+    @Parameter(
+            names = "-localJobs",
+            description =
+                    "JSON file with a list of jobs, each with a 'config' and an 'additionalConfig'. The jobs are served by a local controller instead of the Anvil web backend, the worker exits after the last job.")
+    private String localJobs = null;
+
     public String getController() {
         return controller;
     }
 
+    public void setController(String controller) {
+        this.controller = controller;
+    }
+
     public String getWorkerName() {
         return workerName;
     }
 
+    public int getWarmCacheSize() {
+        return warmCacheSize;
+    }
+
+    public void setWarmCacheSize(int warmCacheSize) {
+        this.warmCacheSize = warmCacheSize;
+    }
+
+    public String getLocalJobs() {
+        return localJobs;
+    }
+
+    public void setLocalJobs(String localJobs) {
+        this.localJobs = localJobs;
+    }
+
     @Override
     public void applyDelegate(Config config) throws ConfigurationException {}
 }
@@ -0,0 +1,432 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.escalation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import de.rub.nds.anvilcore.model.ParameterCombination;
+import de.rub.nds.anvilcore.model.parameter.DerivationParameter;
+import de.rub.nds.anvilcore.teststate.TestResult;
+import de.rub.nds.tlstest.framework.localization.FaultLocalizer;
+import de.rub.nds.tlstest.framework.localization.SuspiciousTuple;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Escalates the strength of a run adaptively. All templates are first executed at the configured
+ * strength. Afterwards, only the templates with failed or erroneous test cases are executed again
+ * at a higher strength. The parameters of these templates that do not occur in any failure-inducing
+ * tuple are pinned to a single value, so the covering array of the second phase only grows with the
+ * suspicious parameters. If the failures can not be attributed to tuples of the initial strength,
+ * e.g. since they occur non-deterministically, no parameter is pinned. Test cases that have already
+ * been executed in the first phase are not executed again, their verdict is reused.
+ */
+public class StrengthEscalation {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    public static final String FOLDER_NAME = "escalation";
+    static final String SUMMARY_FILE = "strength_escalation.json";
+    static final String RESULTS_FOLDER = "results";
+    static final String TEST_RUN_FILE = "_testRun.json";
+    static final String REPORT_FILE = "report.json";
+
+    private static final Map<String, String> REPORT_COUNTERS =
+            Map.of(
+                    TestResult.STRICTLY_SUCCEEDED.name(), "StrictlySucceededTests",
+                    TestResult.CONCEPTUALLY_SUCCEEDED.name(), "ConceptuallySucceededTests",
+                    TestResult.DISABLED.name(), "DisabledTests",
+                    TestResult.PARTIALLY_FAILED.name(), "PartiallyFailedTests",
+                    TestResult.FULLY_FAILED.name(), "FullyFailedTests",
+                    TestResult.TEST_SUITE_ERROR.name(), "TestSuiteErrorTests");
+
+    private final int initialStrength;
+    private final int escalatedStrength;
+
+    private final Map<String, Observations> observations = new ConcurrentHashMap<>();
+    private final Map<String, Seed> seeds = new ConcurrentHashMap<>();
+    private final AtomicInteger reusedSeeds = new AtomicInteger();
+    private volatile Map<String, EscalatedTemplate> escalatedTemplates = null;
+
+    /**
+     * @param initialStrength the strength of the first phase
+     * @param escalatedStrength the strength the suspicious templates are executed with afterwards
+     */
+    public StrengthEscalation(int initialStrength, int escalatedStrength) {
+        if (escalatedStrength <= initialStrength) {
+            throw new IllegalArgumentException(
+                    "The escalated strength must be higher than the initial strength");
+        }
+        this.initialStrength = initialStrength;
+        this.escalatedStrength = escalatedStrength;
+    }
+
+    public int getEscalatedStrength() {
+        return escalatedStrength;
+    }
+
+    /**
+     * @return whether the escalated templates are being executed
+     */
+    public boolean isEscalating() {
+        return escalatedTemplates != null;
+    }
+
+    /**
+     * Records a test case of the first phase. Test cases of the second phase are ignored.
+     *
+     * @param testId the id of the template
+     * @param caseKey the key of the test case
+     * @param parameterCombination the combination of the test case
+     * @param testResult the verdict of the test case
+     * @param additionalResultInformation the details of the verdict
+     */
+    public void record(
+            String testId,
+            String caseKey,
+            ParameterCombination parameterCombination,
+            TestResult testResult,
+            List<String> additionalResultInformation) {
+        record(
+                testId,
+                caseKey,
+                describe(parameterCombination),
+                testResult,
+                additionalResultInformation);
+    }
+
+    void record(
+            String testId,
+            String caseKey,
+            Map<String, String> combination,
+            TestResult testResult,
+            List<String> additionalResultInformation) {
+        if (isEscalating() || testResult == null) {
+            return;
+        }
+        observations.computeIfAbsent(testId, id -> new Observations()).add(combination, testResult);
+        seeds.put(
+                caseKey,
+                new Seed(
+                        testResult,
+                        additionalResultInformation == null
+                                ? new LinkedList<>()
+                                : new LinkedList<>(additionalResultInformation)));
+    }
+
+    /**
+     * Ends the first phase and selects the templates to escalate.
+     *
+     * @return the ids of the templates to execute at the escalated strength
+     */
+    public synchronized Set<String> plan() {
+        FaultLocalizer localizer = new FaultLocalizer(initialStrength, Integer.MAX_VALUE, 0);
+        Map<String, EscalatedTemplate> planned = new TreeMap<>();
+        observations.forEach(
+                (testId, observed) -> {
+                    if (observed.failed.isEmpty() && observed.erroneous == 0) {
+                        return;
+                    }
+                    EscalatedTemplate template = new EscalatedTemplate();
+                    FaultLocalizer.Localization localization =
+                            localizer.localize(observed.passed, observed.failed);
+                    if (!localization.getTuples().isEmpty()
+                            && localization.getUnexplainedFailures() == 0
+                            && observed.erroneous == 0) {
+                        for (SuspiciousTuple tuple : localization.getTuples()) {
+                            template.focusParameters.addAll(tuple.getParameters().keySet());
+                        }
+                        template.pinnedValues = observed.pinnedValues(template.focusParameters);
+                    }
+                    // without pinned values, the whole model is escalated
+                    template.reason = observed.failed.isEmpty() ? "errors" : "failures";
+                    planned.put(testId, template);
+                });
+        escalatedTemplates = planned;
+        LOGGER.info(
+                "Escalating {} of {} templates to strength {}",
+                planned.size(),
+                observations.size(),
+                escalatedStrength);
+        return planned.keySet();
+    }
+
+    public boolean isEscalated(String testId) {
+        Map<String, EscalatedTemplate> planned = escalatedTemplates;
+        return planned != null && planned.containsKey(testId);
+    }
+
+    /**
+     * @param testId the id of the template
+     * @param parameterName the name of the parameter identifier
+     * @return the only value the parameter may take in the second phase, null if it is not
+     *     restricted
+     */
+    public String getPinnedValue(String testId, String parameterName) {
+        Map<String, EscalatedTemplate> planned = escalatedTemplates;
+        if (planned == null || !planned.containsKey(testId)) {
+            return null;
+        }
+        return planned.get(testId).pinnedValues.get(parameterName);
+    }
+
+    /**
+     * @param caseKey the key of a test case of the second phase
+     * @return the verdict of the same test case in the first phase, null if it has not been
+     *     executed
+     */
+    public Seed getSeed(String caseKey) {
+        if (!isEscalating()) {
+            return null;
+        }
+        Seed seed = seeds.get(caseKey);
+        if (seed != null) {
+            reusedSeeds.incrementAndGet();
+        }
+        return seed;
+    }
+
+    /**
+     * Replaces the results of the escalated templates in the output folder of the first phase by
+     * those of the second phase, which also contain the reused test cases, and updates the counters
+     * of the report accordingly.
+     *
+     * @param outputFolder the output folder of the first phase
+     */
+    public void mergeResults(Path outputFolder) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        Path results = outputFolder.resolve(RESULTS_FOLDER);
+        Path escalatedResults = outputFolder.resolve(FOLDER_NAME).resolve(RESULTS_FOLDER);
+        Path reportFile = outputFolder.resolve(REPORT_FILE);
+        ObjectNode report =
+                Files.exists(reportFile) ? (ObjectNode) mapper.readTree(reportFile.toFile()) : null;
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("InitialStrength", initialStrength);
+        summary.put("EscalatedStrength", escalatedStrength);
+        summary.put("ReusedTestCases", reusedSeeds.get());
+        Map<String, Object> templates = new TreeMap<>();
+        for (Map.Entry<String, EscalatedTemplate> escalated : escalatedTemplates.entrySet()) {
+            Path source = escalatedResults.resolve(escalated.getKey());
+            Path target = results.resolve(escalated.getKey());
+            if (!Files.exists(source.resolve(TEST_RUN_FILE))) {
+                LOGGER.warn("No escalated results found for {}", escalated.getKey());
+                continue;
+            }
+            JsonNode previous =
+                    Files.exists(target.resolve(TEST_RUN_FILE))
+                            ? mapper.readTree(target.resolve(TEST_RUN_FILE).toFile())
+                            : mapper.createObjectNode();
+            JsonNode current = mapper.readTree(source.resolve(TEST_RUN_FILE).toFile());
+            deleteRecursively(target);
+            copyRecursively(source, target);
+            if (report != null) {
+                updateReport(report, previous, current);
+            }
+
+            Map<String, Object> template = new LinkedHashMap<>();
+            template.put("Reason", escalated.getValue().reason);
+            template.put("FocusParameters", escalated.getValue().focusParameters);
+            template.put("PinnedParameters", escalated.getValue().pinnedValues);
+            template.put("InitialCaseCount", previous.path("CaseCount").asInt());
+            template.put("EscalatedCaseCount", current.path("CaseCount").asInt());
+            template.put("InitialResult", previous.path("Result").asText(null));
+            template.put("EscalatedResult", current.path("Result").asText(null));
+            templates.put(escalated.getKey(), template);
+        }
+        summary.put("Templates", templates);
+        if (report != null) {
+            mapper.writerWithDefaultPrettyPrinter().writeValue(reportFile.toFile(), report);
+        }
+        mapper.writerWithDefaultPrettyPrinter()
+                .writeValue(outputFolder.resolve(SUMMARY_FILE).toFile(), summary);
+        LOGGER.info(
+                "Merged the results of {} escalated templates, {} test cases reused from the initial phase",
+                templates.size(),
+                reusedSeeds.get());
+    }
+
+    private static void updateReport(ObjectNode report, JsonNode previous, JsonNode current) {
+        String previousCounter = REPORT_COUNTERS.get(previous.path("Result").asText());
+        String currentCounter = REPORT_COUNTERS.get(current.path("Result").asText());
+        if (previousCounter != null) {
+            report.put(previousCounter, report.path(previousCounter).asLong() - 1);
+        }
+        if (currentCounter != null) {
+            report.put(currentCounter, report.path(currentCounter).asLong() + 1);
+        }
+        report.put(
+                "TestCaseCount",
+                report.path("TestCaseCount").asLong()
+                        - previous.path("CaseCount").asLong()
+                        + current.path("CaseCount").asLong());
+    }
+
+    /**
+     * @param parameterCombination a combination of a test case
+     * @return the values of the combination by the name of their parameter
+     */
+    public static Map<String, String> describe(ParameterCombination parameterCombination) {
+        Map<String, String> combination = new TreeMap<>();
+        for (DerivationParameter parameter : parameterCombination.getParameterValues()) {
+            combination.put(parameter.getParameterIdentifier().name(), describeValue(parameter));
+        }
+        return combination;
+    }
+
+    /**
+     * @param parameter a parameter with a selected value
+     * @return the selected value as compared when pinning parameters
+     */
+    public static String describeValue(DerivationParameter<?, ?> parameter) {
+        Object value = parameter.getSelectedValue();
+        if (value instanceof byte[]) {
+            return HexFormat.of().formatHex((byte[]) value);
+        }
+        return String.valueOf(value);
+    }
+
+    private static void copyRecursively(Path source, Path target) throws IOException {
+        try (Stream<Path> paths = Files.walk(source)) {
+            paths.forEach(
+                    path -> {
+                        Path destination = target.resolve(source.relativize(path).toString());
+                        try {
+                            if (Files.isDirectory(path)) {
+                                Files.createDirectories(destination);
+                            } else {
+                                Files.copy(path, destination, StandardCopyOption.REPLACE_EXISTING);
+                            }
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void deleteRecursively(Path folder) throws IOException {
+        if (!Files.exists(folder)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(folder)) {
+            paths.sorted(Comparator.reverseOrder())
+                    .forEach(
+                            path -> {
+                                try {
+                                    Files.delete(path);
+                                } catch (IOException e) {
+                                    throw new UncheckedIOException(e);
+                                }
+                            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /** The verdict of a test case of the first phase. */
+    public static class Seed {
+        private final TestResult testResult;
+        private final List<String> additionalResultInformation;
+
+        private Seed(TestResult testResult, List<String> additionalResultInformation) {
+            this.testResult = testResult;
+            this.additionalResultInformation = additionalResultInformation;
+        }
+
+        public TestResult getTestResult() {
+            return testResult;
+        }
+
+        public List<String> getAdditionalResultInformation() {
+            return additionalResultInformation;
+        }
+    }
+
+    private static class EscalatedTemplate {
+        private String reason;
+        private final Set<String> focusParameters = new TreeSet<>();
+        private Map<String, String> pinnedValues = new TreeMap<>();
+    }
+
+    private static class Observations {
+        private final List<Map<String, String>> passed = new ArrayList<>();
+        private final List<Map<String, String>> failed = new ArrayList<>();
+        private int erroneous = 0;
+
+        private synchronized void add(Map<String, String> combination, TestResult testResult) {
+            switch (testResult) {
+                case STRICTLY_SUCCEEDED:
+                case CONCEPTUALLY_SUCCEEDED:
+                    passed.add(combination);
+                    break;
+                case FULLY_FAILED:
+                case PARTIALLY_FAILED:
+                    failed.add(combination);
+                    break;
+                case TEST_SUITE_ERROR:
+                    erroneous++;
+                    break;
+                default:
+            }
+        }
+
+        /**
+         * Pins every parameter apart from the focus parameters to the value it took most often in
+         * the passed test cases.
+         */
+        private synchronized Map<String, String> pinnedValues(Set<String> focusParameters) {
+            Map<String, Map<String, Integer>> valueCounts = new TreeMap<>();
+            for (Map<String, String> combination : passed) {
+                combination.forEach(
+                        (parameter, value) -> {
+                            if (!focusParameters.contains(parameter)) {
+                                valueCounts
+                                        .computeIfAbsent(parameter, key -> new HashMap<>())
+                                        .merge(value, 1, Integer::sum);
+                            }
+                        });
+            }
+            Map<String, String> pinned = new TreeMap<>();
+            valueCounts.forEach(
+                    (parameter, counts) ->
+                            pinned.put(
+                                    parameter,
+                                    counts.entrySet().stream()
+                                            .max(
+                                                    Map.Entry.<String, Integer>comparingByValue()
+                                                            .thenComparing(
+                                                                    Map.Entry.comparingByKey(
+                                                                            Comparator
+                                                                                    .reverseOrder())))
+                                            .get()
+                                            .getKey()));
+            return pinned;
+        }
+    }
+}
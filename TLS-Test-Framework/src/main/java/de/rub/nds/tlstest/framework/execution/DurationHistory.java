@@ -0,0 +1,166 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.execution;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.rub.nds.tlstest.framework.sharding.SharedFileLock;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Durations of test templates observed in previous runs. The history is used to schedule long
+ * running templates first and to estimate the remaining run time. Durations are smoothed using an
+ * exponential moving average so that a single outlier does not dominate the estimate. Shards of a
+ * run share the history, so only the templates observed by this process are written back. Without a
+ * history file, nothing is read or recorded.
+ */
+public class DurationHistory {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    /** weight of the latest observation */
+    static final double SMOOTHING = 0.5;
+
+    private final Path historyPath;
+    private final Map<String, TemplateDuration> templates;
+    private final Set<String> observedTemplates = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param historyPath the file storing the history, null if no history is kept
+     */
+    public DurationHistory(Path historyPath) {
+        this.historyPath = historyPath;
+        this.templates = new ConcurrentHashMap<>(load(historyPath));
+    }
+
+    private static Map<String, TemplateDuration> load(Path historyPath) {
+        if (historyPath == null) {
+            return new HashMap<>();
+        }
+        File historyFile = historyPath.toFile();
+        if (!historyFile.exists()) {
+            return new HashMap<>();
+        }
+        try {
+            return new ObjectMapper()
+                    .readValue(historyFile, new TypeReference<Map<String, TemplateDuration>>() {});
+        } catch (IOException e) {
+            LOGGER.warn("Failed to read duration history {}, ignoring it", historyPath, e);
+            return new HashMap<>();
+        }
+    }
+
+    static long smooth(Long previous, long observed) {
+        if (previous == null) {
+            return observed;
+        }
+        return Math.round(SMOOTHING * observed + (1 - SMOOTHING) * previous);
+    }
+
+    public void recordTemplate(String testId, long durationMillis, int caseCount) {
+        if (historyPath == null) {
+            return;
+        }
+        TemplateDuration duration = templates.computeIfAbsent(testId, id -> new TemplateDuration());
+        observedTemplates.add(testId);
+        synchronized (duration) {
+            duration.setMillis(smooth(duration.getMillis(), durationMillis));
+            duration.setCaseCount(caseCount);
+        }
+    }
+
+    /**
+     * @param testId id of the test template
+     * @return the expected duration or null if the template has not been executed before
+     */
+    public Long getTemplateMillis(String testId) {
+        TemplateDuration duration = templates.get(testId);
+        return duration == null ? null : duration.getMillis();
+    }
+
+    /**
+     * @return the average duration of all known templates, used for templates without history
+     */
+    public long getAverageTemplateMillis() {
+        OptionalDouble average =
+                templates.values().stream()
+                        .filter(duration -> duration.getMillis() != null)
+                        .mapToLong(TemplateDuration::getMillis)
+                        .average();
+        return Math.round(average.orElse(0));
+    }
+
+    public long getExpectedTemplateMillis(String testId) {
+        Long known = getTemplateMillis(testId);
+        return known != null ? known : getAverageTemplateMillis();
+    }
+
+    public boolean isEmpty() {
+        return templates.isEmpty();
+    }
+
+    /**
+     * Writes the observed templates to the history file. Templates stored in the file by other
+     * processes in the meantime are kept.
+     */
+    public synchronized void save() {
+        if (historyPath == null) {
+            return;
+        }
+        try (SharedFileLock ignored = SharedFileLock.acquire(historyPath)) {
+            Path absolutePath = historyPath.toAbsolutePath();
+            Map<String, TemplateDuration> merged = load(historyPath);
+            for (String testId : observedTemplates) {
+                merged.put(testId, templates.get(testId));
+            }
+            Path temporaryPath = absolutePath.resolveSibling(absolutePath.getFileName() + ".tmp");
+            new ObjectMapper().writeValue(temporaryPath.toFile(), merged);
+            Files.move(
+                    temporaryPath,
+                    absolutePath,
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.error("Failed to write duration history to {}", historyPath, e);
+        }
+    }
+
+    // histories written by earlier versions contain the durations of the test cases
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class TemplateDuration {
+        private Long millis;
+        private int caseCount;
+
+        public Long getMillis() {
+            return millis;
+        }
+
+        public void setMillis(Long millis) {
+            this.millis = millis;
+        }
+
+        public int getCaseCount() {
+            return caseCount;
+        }
+
+        public void setCaseCount(int caseCount) {
+            this.caseCount = caseCount;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.execution;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Throttles the test execution when the occupancy of the old generation after garbage collection
+ * crosses a watermark. While throttled, only a limited number of test cases and handshakes are
+ * executed in parallel and the registered spill actions are asked to move retained data to disk.
+ * The parallelism is restored once a garbage collection brings the occupancy below the resume
+ * watermark.
+ *
+ * <p>Crossing the watermark is detected using the collection usage thresholds of the heap pools,
+ * the recovery using the notifications of the garbage collectors.
+ */
+public class MemoryGovernor {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    /** percentage points the occupancy has to drop below the watermark to resume */
+    public static final int RESUME_HYSTERESIS = 15;
+
+    private final double watermark;
+    private final double resumeWatermark;
+    private final int throttledParallelism;
+    private final List<Runnable> spillActions = new CopyOnWriteArrayList<>();
+    private final List<MemoryPoolMXBean> tenuredPools;
+    private final NotificationListener listener = this::handleNotification;
+
+    private boolean throttled = false;
+    private long throttledSince;
+    private double peakOccupancy;
+    private int runningTestCases = 0;
+    private int runningHandshakes = 0;
+    private final List<ThrottlingEvent> events = new LinkedList<>();
+
+    /**
+     * @param watermark occupancy of the old generation in percent above which the execution is
+     *     throttled
+     * @param throttledParallelism number of test cases and handshakes executed in parallel while
+     *     throttled
+     */
+    public MemoryGovernor(int watermark, int throttledParallelism) {
+        this.watermark = watermark / 100.0;
+        this.resumeWatermark = Math.max(0, watermark - RESUME_HYSTERESIS) / 100.0;
+        this.throttledParallelism = throttledParallelism;
+        this.tenuredPools =
+                ManagementFactory.getMemoryPoolMXBeans().stream()
+                        .filter(pool -> pool.getType() == MemoryType.HEAP)
+                        .filter(MemoryPoolMXBean::isUsageThresholdSupported)
+                        .filter(MemoryPoolMXBean::isCollectionUsageThresholdSupported)
+                        .filter(pool -> pool.getUsage().getMax() > 0)
+                        .collect(Collectors.toList());
+    }
+
+    /** Registers the thresholds and listeners, the governor is inactive before. */
+    public void start() {
+        for (MemoryPoolMXBean pool : tenuredPools) {
+            pool.setCollectionUsageThreshold((long) (pool.getUsage().getMax() * watermark));
+        }
+        ((NotificationEmitter) ManagementFactory.getMemoryMXBean())
+                .addNotificationListener(listener, null, null);
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (collector instanceof NotificationEmitter) {
+                ((NotificationEmitter) collector).addNotificationListener(listener, null, null);
+            }
+        }
+        LOGGER.debug(
+                "Throttling the execution above {}% occupancy of {}",
+                Math.round(watermark * 100),
+                tenuredPools.stream().map(MemoryPoolMXBean::getName).collect(Collectors.toList()));
+    }
+
+    public void stop() {
+        for (MemoryPoolMXBean pool : tenuredPools) {
+            // a threshold of 0 disables the notifications
+            pool.setCollectionUsageThreshold(0);
+        }
+        removeListener((NotificationEmitter) ManagementFactory.getMemoryMXBean());
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (collector instanceof NotificationEmitter) {
+                removeListener((NotificationEmitter) collector);
+            }
+        }
+        synchronized (this) {
+            if (throttled) {
+                resume(peakOccupancy);
+            }
+        }
+    }
+
+    private void removeListener(NotificationEmitter emitter) {
+        try {
+            emitter.removeNotificationListener(listener);
+        } catch (ListenerNotFoundException ignored) {
+        }
+    }
+
+    /** Registers an action moving retained data to disk, executed whenever throttling starts. */
+    public void addSpillAction(Runnable spillAction) {
+        spillActions.add(spillAction);
+    }
+
+    private void handleNotification(Notification notification, Object handback) {
+        if (MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(
+                notification.getType())) {
+            MemoryNotificationInfo info =
+                    MemoryNotificationInfo.from((CompositeData) notification.getUserData());
+            reportOccupancy(occupancy(info.getUsage()));
+        } else if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(
+                notification.getType())) {
+            GarbageCollectionNotificationInfo info =
+                    GarbageCollectionNotificationInfo.from(
+                            (CompositeData) notification.getUserData());
+            Map<String, MemoryUsage> usageAfterGc = info.getGcInfo().getMemoryUsageAfterGc();
+            double occupancy = 0;
+            for (MemoryPoolMXBean pool : tenuredPools) {
+                MemoryUsage usage = usageAfterGc.get(pool.getName());
+                if (usage != null) {
+                    occupancy = Math.max(occupancy, occupancy(usage));
+                }
+            }
+            LOGGER.debug(
+                    "Old generation occupancy after {}: {}%",
+                    info.getGcAction(), Math.round(occupancy * 100));
+            reportOccupancy(occupancy);
+        }
+    }
+
+    private static double occupancy(MemoryUsage usage) {
+        return usage.getMax() > 0 ? (double) usage.getUsed() / usage.getMax() : 0;
+    }
+
+    /**
+     * Throttles or resumes the execution based on the occupancy of the old generation after a
+     * garbage collection.
+     *
+     * @param occupancy used fraction of the old generation
+     */
+    void reportOccupancy(double occupancy) {
+        synchronized (this) {
+            if (throttled) {
+                peakOccupancy = Math.max(peakOccupancy, occupancy);
+                if (occupancy <= resumeWatermark) {
+                    resume(occupancy);
+                }
+                return;
+            }
+            if (occupancy < watermark) {
+                return;
+            }
+            throttled = true;
+            throttledSince = System.currentTimeMillis();
+            peakOccupancy = occupancy;
+        }
+        LOGGER.warn(
+                "Old generation occupancy at {}%, limiting the execution to {} parallel test cases and handshakes",
+                Math.round(occupancy * 100), throttledParallelism);
+        for (Runnable spillAction : spillActions) {
+            try {
+                spillAction.run();
+            } catch (RuntimeException e) {
+                LOGGER.error("Failed to spill retained data", e);
+            }
+        }
+    }
+
+    private void resume(double occupancy) {
+        long end = System.currentTimeMillis();
+        events.add(new ThrottlingEvent(throttledSince, end, peakOccupancy));
+        throttled = false;
+        notifyAll();
+        LOGGER.info(
+                "Old generation occupancy at {}%, restoring the parallelism after {} ms",
+                Math.round(occupancy * 100), end - throttledSince);
+    }
+
+    public synchronized boolean isThrottled() {
+        return throttled;
+    }
+
+    /** Blocks while the execution is throttled and the parallel test cases are exhausted. */
+    public synchronized void acquireTestCase() throws InterruptedException {
+        while (throttled && runningTestCases >= throttledParallelism) {
+            wait();
+        }
+        runningTestCases++;
+    }
+
+    public synchronized void releaseTestCase() {
+        runningTestCases--;
+        notifyAll();
+    }
+
+    /** Blocks while the execution is throttled and the parallel handshakes are exhausted. */
+    public synchronized void acquireHandshake() throws InterruptedException {
+        while (throttled && runningHandshakes >= throttledParallelism) {
+            wait();
+        }
+        runningHandshakes++;
+    }
+
+    public synchronized void releaseHandshake() {
+        runningHandshakes--;
+        notifyAll();
+    }
+
+    public synchronized List<ThrottlingEvent> getEvents() {
+        return Collections.unmodifiableList(new LinkedList<>(events));
+    }
+
+    /** A period in which the execution was throttled. */
+    public static class ThrottlingEvent {
+        private final long start;
+        private final long end;
+        private final double peakOccupancy;
+
+        public ThrottlingEvent(long start, long end, double peakOccupancy) {
+            this.start = start;
+            this.end = end;
+            this.peakOccupancy = peakOccupancy;
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        public long getEnd() {
+            return end;
+        }
+
+        public double getPeakOccupancy() {
+            return peakOccupancy;
+        }
+    }
+}
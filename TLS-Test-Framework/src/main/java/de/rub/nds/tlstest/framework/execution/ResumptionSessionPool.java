@@ -0,0 +1,237 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.execution;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import de.rub.nds.scanner.core.probe.result.TestResults;
+import de.rub.nds.tlsattacker.core.config.Config;
+import de.rub.nds.tlsattacker.core.constants.HandshakeMessageType;
+import de.rub.nds.tlsattacker.core.constants.ProtocolVersion;
+import de.rub.nds.tlsattacker.core.layer.context.TlsContext;
+import de.rub.nds.tlsattacker.core.protocol.message.extension.psk.PskSet;
+import de.rub.nds.tlsattacker.core.state.State;
+import de.rub.nds.tlsattacker.core.workflow.WorkflowTraceResultUtil;
+import de.rub.nds.tlsattacker.core.workflow.factory.WorkflowTraceType;
+import de.rub.nds.tlsscanner.core.constants.TlsAnalyzedProperty;
+import de.rub.nds.tlstest.framework.FeatureExtractionResult;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sessions established by full handshakes of tests annotated with @ResumptionFastPath. Subsequent
+ * test cases negotiating the same parameters resume one of them with an abbreviated handshake
+ * instead of repeating the key exchange and the certificate verification.
+ *
+ * <p>TLS 1.2 sessions are resumed using the session ID, TLS 1.3 sessions using the PSK of the last
+ * NewSessionTicket. A session is removed from the pool while it is in use and only returned once
+ * the handshake resuming it succeeded.
+ */
+public class ResumptionSessionPool {
+
+    public static final int MAX_SESSIONS_PER_KEY = 4;
+
+    private final boolean tls12Supported;
+    private final boolean tls13Supported;
+    private final Map<String, Deque<PooledSession>> sessions = new HashMap<>();
+
+    private final AtomicLong resumedHandshakes = new AtomicLong();
+    private final AtomicLong fullHandshakes = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    public ResumptionSessionPool(boolean tls12Supported, boolean tls13Supported) {
+        this.tls12Supported = tls12Supported;
+        this.tls13Supported = tls13Supported;
+    }
+
+    public static ResumptionSessionPool fromFeatureExtraction(FeatureExtractionResult result) {
+        return new ResumptionSessionPool(
+                result.getResult(TlsAnalyzedProperty.SUPPORTS_SESSION_ID_RESUMPTION)
+                        == TestResults.TRUE,
+                result.getResult(TlsAnalyzedProperty.SUPPORTS_TLS13_PSK_DHE) == TestResults.TRUE);
+    }
+
+    public boolean isSupported(ProtocolVersion version) {
+        if (version == ProtocolVersion.TLS12) {
+            return tls12Supported;
+        } else if (version == ProtocolVersion.TLS13) {
+            return tls13Supported;
+        }
+        return false;
+    }
+
+    /**
+     * Sessions can only be resumed by test cases that would negotiate the same parameters in a full
+     * handshake.
+     */
+    public static String key(Config config) {
+        ProtocolVersion version = config.getHighestProtocolVersion();
+        StringBuilder key = new StringBuilder();
+        key.append(version).append(' ').append(config.getDefaultSelectedCipherSuite());
+        if (version == ProtocolVersion.TLS13) {
+            key.append(' ').append(config.getDefaultSelectedNamedGroup());
+        } else {
+            key.append(" EMS=").append(config.isAddExtendedMasterSecretExtension());
+            key.append(" ETM=").append(config.isAddEncryptThenMacExtension());
+        }
+        return key.toString();
+    }
+
+    public static WorkflowTraceType resumptionTraceType(ProtocolVersion version) {
+        return version == ProtocolVersion.TLS13
+                ? WorkflowTraceType.TLS13_PSK
+                : WorkflowTraceType.RESUMPTION;
+    }
+
+    /** Removes a session from the pool, null if none has been established for the key yet. */
+    public synchronized PooledSession take(String key) {
+        Deque<PooledSession> available = sessions.get(key);
+        if (available == null) {
+            return null;
+        }
+        return available.pollFirst();
+    }
+
+    public synchronized void offer(String key, PooledSession session) {
+        Deque<PooledSession> available = sessions.computeIfAbsent(key, k -> new ArrayDeque<>());
+        available.addFirst(session);
+        while (available.size() > MAX_SESSIONS_PER_KEY) {
+            available.pollLast();
+        }
+    }
+
+    public synchronized int size(String key) {
+        Deque<PooledSession> available = sessions.get(key);
+        return available == null ? 0 : available.size();
+    }
+
+    /**
+     * Adds the session established (or successfully resumed) by the given state to the pool.
+     *
+     * @return true if the state contained a resumable session
+     */
+    public boolean harvest(String key, State state) {
+        if (!WorkflowTraceResultUtil.didReceiveMessage(
+                state.getWorkflowTrace(), HandshakeMessageType.FINISHED)) {
+            return false;
+        }
+        PooledSession session = PooledSession.fromContext(state.getTlsContext());
+        if (session == null) {
+            return false;
+        }
+        offer(key, session);
+        return true;
+    }
+
+    public void countResumedHandshake() {
+        resumedHandshakes.incrementAndGet();
+    }
+
+    public void countFullHandshake() {
+        fullHandshakes.incrementAndGet();
+    }
+
+    public void countFallback() {
+        fallbacks.incrementAndGet();
+    }
+
+    public Statistics getStatistics() {
+        return new Statistics(resumedHandshakes.get(), fullHandshakes.get(), fallbacks.get());
+    }
+
+    /** The secrets required to resume a session in a new connection. */
+    public static class PooledSession {
+        private final ProtocolVersion version;
+        private final byte[] sessionId;
+        private final byte[] masterSecret;
+        private final PskSet pskSet;
+
+        PooledSession(
+                ProtocolVersion version, byte[] sessionId, byte[] masterSecret, PskSet pskSet) {
+            this.version = version;
+            this.sessionId = sessionId;
+            this.masterSecret = masterSecret;
+            this.pskSet = pskSet;
+        }
+
+        public static PooledSession fromContext(TlsContext context) {
+            ProtocolVersion version = context.getSelectedProtocolVersion();
+            if (version == ProtocolVersion.TLS13) {
+                List<PskSet> pskSets = context.getPskSets();
+                if (pskSets == null || pskSets.isEmpty()) {
+                    return null;
+                }
+                return new PooledSession(version, null, null, pskSets.get(pskSets.size() - 1));
+            } else if (version == ProtocolVersion.TLS12) {
+                byte[] sessionId = context.getServerSessionId();
+                byte[] masterSecret = context.getMasterSecret();
+                if (sessionId == null || sessionId.length == 0 || masterSecret == null) {
+                    return null;
+                }
+                return new PooledSession(version, sessionId.clone(), masterSecret.clone(), null);
+            }
+            return null;
+        }
+
+        /** Configures the ClientHello of the abbreviated handshake to resume this session. */
+        public void applyTo(Config config) {
+            if (version == ProtocolVersion.TLS13) {
+                config.setDefaultPskSets(List.of(pskSet));
+                config.setAddPreSharedKeyExtension(true);
+                config.setAddPSKKeyExchangeModesExtension(true);
+                config.setAddEarlyDataExtension(false);
+            } else {
+                config.setDefaultClientSessionId(sessionId.clone());
+                config.setDefaultServerSessionId(sessionId.clone());
+                config.setDefaultMasterSecret(masterSecret.clone());
+                config.setAddSessionTicketTLSExtension(false);
+            }
+        }
+
+        public ProtocolVersion getVersion() {
+            return version;
+        }
+
+        public byte[] getSessionId() {
+            return sessionId == null ? null : Arrays.copyOf(sessionId, sessionId.length);
+        }
+    }
+
+    public static class Statistics {
+        @JsonProperty("ResumedHandshakes")
+        private final long resumedHandshakes;
+
+        @JsonProperty("FullHandshakes")
+        private final long fullHandshakes;
+
+        @JsonProperty("Fallbacks")
+        private final long fallbacks;
+
+        public Statistics(long resumedHandshakes, long fullHandshakes, long fallbacks) {
+            this.resumedHandshakes = resumedHandshakes;
+            this.fullHandshakes = fullHandshakes;
+            this.fallbacks = fallbacks;
+        }
+
+        public long getResumedHandshakes() {
+            return resumedHandshakes;
+        }
+
+        public long getFullHandshakes() {
+            return fullHandshakes;
+        }
+
+        public long getFallbacks() {
+            return fallbacks;
+        }
+    }
+}
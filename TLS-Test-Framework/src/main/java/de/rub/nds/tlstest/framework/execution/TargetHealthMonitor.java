@@ -0,0 +1,294 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.execution;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.function.BooleanSupplier;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Detects outages of the server under test during the test execution. After a configurable number
+ * of consecutive handshakes failed to connect to the target, it is probed. If the probe fails, the
+ * target is considered down: new handshakes are held back until the probe succeeds again, and all
+ * handshakes affected by the outage, including the failures that led to its detection, are
+ * re-executed by the {@link WorkflowRunner}.
+ */
+public class TargetHealthMonitor {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    static final long PROBE_INTERVAL_MS = 1000;
+
+    private final int failureThreshold;
+    private final long maxDowntimeMillis;
+    private final BooleanSupplier probe;
+    private final Callable<Integer> recoveryAction;
+
+    private int consecutiveFailures = 0;
+    private int runningHandshakes = 0;
+    private boolean checkingTarget = false;
+    private boolean targetDown = false;
+    private long outageCount = 0;
+    private long lastOutageEnd = 0;
+    // consecutive failures form a series, which is decided as a whole
+    private long currentSeries = 1;
+    private long decidedSeries = 0;
+    private final Set<Long> outageSeries = new HashSet<>();
+    private final List<Outage> outages = new LinkedList<>();
+    // run when a failed handshake starts waiting for the verdict of its series
+    private Runnable awaitingDecisionListener = () -> {};
+
+    /**
+     * @param failureThreshold consecutive connect failures after which the target is probed
+     * @param maxDowntimeMillis time after which the execution continues even if the target did not
+     *     recover
+     * @param probe returns true if the target is reachable
+     * @param recoveryAction optional action executed once when an outage is detected, e.g. a script
+     *     restarting the target
+     */
+    public TargetHealthMonitor(
+            int failureThreshold,
+            long maxDowntimeMillis,
+            BooleanSupplier probe,
+            Callable<Integer> recoveryAction) {
+        this.failureThreshold = failureThreshold;
+        this.maxDowntimeMillis = maxDowntimeMillis;
+        this.probe = probe;
+        this.recoveryAction = recoveryAction;
+    }
+
+    /**
+     * Creates a probe that checks if a TCP connection to the target can be established.
+     *
+     * @param host host of the target
+     * @param port port of the target
+     * @param timeout connect timeout in milliseconds
+     * @return the probe
+     */
+    public static BooleanSupplier tcpProbe(String host, int port, int timeout) {
+        return () -> {
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress(host, port), timeout);
+                return true;
+            } catch (IOException e) {
+                return false;
+            }
+        };
+    }
+
+    /** Blocks while the target is considered down. */
+    public synchronized void awaitTargetAvailable() throws InterruptedException {
+        while (targetDown) {
+            wait();
+        }
+    }
+
+    /**
+     * Blocks while the target is considered down and registers the start of a handshake, which has
+     * to be reported using {@link #reportHandshake(long, boolean)}.
+     *
+     * @return the start time of the handshake
+     */
+    public synchronized long beginHandshake() throws InterruptedException {
+        awaitTargetAvailable();
+        runningHandshakes++;
+        return System.currentTimeMillis();
+    }
+
+    /** Unregisters a handshake that could not be executed. */
+    public synchronized void cancelHandshake() {
+        runningHandshakes--;
+        if (runningHandshakes == 0 && !checkingTarget) {
+            // no handshake is left to decide the pending failures
+            decideSeries(false);
+        }
+    }
+
+    /**
+     * Sets a listener that is run while holding the monitor lock when a failed handshake starts
+     * waiting for the verdict of its series.
+     */
+    synchronized void setAwaitingDecisionListener(Runnable awaitingDecisionListener) {
+        this.awaitingDecisionListener = awaitingDecisionListener;
+    }
+
+    /**
+     * @return the number of outages detected so far
+     */
+    public synchronized long getOutageCount() {
+        return outageCount;
+    }
+
+    public synchronized List<Outage> getOutages() {
+        return Collections.unmodifiableList(new LinkedList<>(outages));
+    }
+
+    /**
+     * Reports the outcome of a handshake and determines if it was affected by an outage. A failed
+     * handshake is affected if it was running while the target was down, or if it belongs to the
+     * series of consecutive failures that led to the detection of an outage. The verdict of such a
+     * series is pending until the target has been probed or a handshake succeeded, so the calling
+     * thread may block until then. The target is probed once the failure threshold is reached or no
+     * other handshake is running anymore that could decide the series.
+     *
+     * @param startMillis start time of the handshake as returned by {@link #beginHandshake()}
+     * @param connectFailure true if the handshake failed to connect to the target
+     * @return true if the handshake was affected by an outage and should be executed again
+     */
+    public boolean reportHandshake(long startMillis, boolean connectFailure) {
+        long series;
+        synchronized (this) {
+            runningHandshakes--;
+            if (!connectFailure) {
+                // the target was reachable, the pending failures were caused by the tests
+                if (!checkingTarget) {
+                    decideSeries(false);
+                }
+                return false;
+            }
+            if (targetDown || startMillis < lastOutageEnd) {
+                return true;
+            }
+            consecutiveFailures++;
+            series = currentSeries;
+            if (checkingTarget
+                    || (consecutiveFailures < failureThreshold && runningHandshakes > 0)) {
+                return awaitDecision(series);
+            }
+            checkingTarget = true;
+        }
+
+        try {
+            if (probe.getAsBoolean()) {
+                synchronized (this) {
+                    decideSeries(false);
+                }
+                return false;
+            }
+            awaitRecovery();
+            return true;
+        } finally {
+            synchronized (this) {
+                checkingTarget = false;
+            }
+        }
+    }
+
+    private synchronized boolean awaitDecision(long series) {
+        awaitingDecisionListener.run();
+        try {
+            while (decidedSeries < series) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return outageSeries.contains(series);
+    }
+
+    /** Ends the current series of consecutive failures and releases its pending handshakes. */
+    private void decideSeries(boolean outage) {
+        if (consecutiveFailures == 0) {
+            return;
+        }
+        if (outage) {
+            outageSeries.add(currentSeries);
+        }
+        decidedSeries = currentSeries;
+        currentSeries++;
+        consecutiveFailures = 0;
+        notifyAll();
+    }
+
+    private void awaitRecovery() {
+        long start = System.currentTimeMillis();
+        int failures;
+        synchronized (this) {
+            targetDown = true;
+            outageCount++;
+            failures = consecutiveFailures;
+            decideSeries(true);
+        }
+        LOGGER.warn(
+                "Target appears to be down after {} consecutive connect failures, pausing test execution",
+                failures);
+        if (recoveryAction != null) {
+            try {
+                recoveryAction.call();
+            } catch (Exception e) {
+                LOGGER.error("Failed to execute recovery action", e);
+            }
+        }
+
+        boolean recovered = false;
+        try {
+            while (System.currentTimeMillis() - start < maxDowntimeMillis) {
+                if (probe.getAsBoolean()) {
+                    recovered = true;
+                    break;
+                }
+                Thread.sleep(PROBE_INTERVAL_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        long end = System.currentTimeMillis();
+        if (recovered) {
+            LOGGER.info("Target recovered after {} ms, resuming test execution", end - start);
+        } else {
+            LOGGER.error(
+                    "Target did not recover within {} ms, resuming test execution anyway",
+                    maxDowntimeMillis);
+        }
+        synchronized (this) {
+            outages.add(new Outage(start, end, recovered));
+            lastOutageEnd = end;
+            targetDown = false;
+            notifyAll();
+        }
+    }
+
+    public synchronized long getTotalDowntimeMillis() {
+        return outages.stream().mapToLong(outage -> outage.getEnd() - outage.getStart()).sum();
+    }
+
+    /** A period in which the target was not reachable. */
+    public static class Outage {
+        private final long start;
+        private final long end;
+        private final boolean recovered;
+
+        public Outage(long start, long end, boolean recovered) {
+            this.start = start;
+            this.end = end;
+            this.recovered = recovered;
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        public long getEnd() {
+            return end;
+        }
+
+        public boolean isRecovered() {
+            return recovered;
+        }
+    }
+}
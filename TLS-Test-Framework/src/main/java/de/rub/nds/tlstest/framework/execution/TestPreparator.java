@@ -36,12 +36,19 @@ import de.rub.nds.tlstest.framework.ClientFeatureExtractionResult;
 import de.rub.nds.tlstest.framework.FeatureExtractionResult;
 import de.rub.nds.tlstest.framework.ServerFeatureExtractionResult;
 import de.rub.nds.tlstest.framework.TestContext;
+import de.rub.nds.tlstest.framework.capture.CapturingServerTcpTransportHandler;
+import de.rub.nds.tlstest.framework.capture.CapturingServerUdpTransportHandler;
 import de.rub.nds.tlstest.framework.config.TlsAnvilConfig;
 import de.rub.nds.tlstest.framework.config.delegates.TestClientDelegate;
 import de.rub.nds.tlstest.framework.config.delegates.TestServerDelegate;
+import de.rub.nds.tlstest.framework.jfr.PreparationPhaseEvent;
 import de.rub.nds.tlstest.framework.junitExtensions.TlsVersionCondition;
 import de.rub.nds.tlstest.framework.parameterExtensions.configurationOptionsExtension.ConfigurationOptionsExtension;
 import de.rub.nds.tlstest.framework.parameterExtensions.configurationOptionsExtension.buildManagement.TestCOMultiClientDelegate;
+import de.rub.nds.tlstest.framework.sharding.SharedFileLock;
+import de.rub.nds.tlstest.framework.testIndex.TestIndex;
+import de.rub.nds.tlstest.framework.testIndex.TestIndexEntry;
+import de.rub.nds.tlstest.framework.worker.WarmWorkerCache;
 import java.io.*;
 import java.lang.reflect.Method;
 import java.net.DatagramPacket;
@@ -52,7 +59,11 @@ import java.net.Socket;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.apache.logging.log4j.LogManager;
@@ -79,12 +90,9 @@ public class TestPreparator {
     }
 
     /**
-     * Save the supplied FeatureExtractionResult to the disk. Two files are created: a JavaObject
-     * .ser and a readable .json file.
-     *
-     * @param report the FeatureExtractionResult created through TLS-Scanner
+     * @return the name of the cache entry of the target without file extension
      */
-    private void saveToCache(FeatureExtractionResult report) {
+    private String getCacheFileName() {
         String fileName;
         if (tlsAnvilConfig.getTestEndpointMode() == TestEndpointType.CLIENT) {
             fileName =
@@ -101,6 +109,17 @@ public class TestPreparator {
                             + "_"
                             + tlsAnvilConfig.getTestServerDelegate().getExtractedPort();
         }
+        return fileName;
+    }
+
+    /**
+     * Save the supplied FeatureExtractionResult to the disk. Two files are created: a JavaObject
+     * .ser and a readable .json file.
+     *
+     * @param report the FeatureExtractionResult created through TLS-Scanner
+     */
+    private void saveToCache(FeatureExtractionResult report) {
+        String fileName = getCacheFileName();
 
         try {
             ObjectMapper mapper = new ObjectMapper();
@@ -111,10 +130,17 @@ public class TestPreparator {
             Files.createDirectories(Paths.get("cache"));
             mapper.writeValue(new File(cachePath + ".json"), report);
 
-            FileOutputStream fos = new FileOutputStream(cachePath + ".ser");
+            // other processes may read the cache concurrently, so it is replaced atomically
+            Path temporaryPath = Paths.get(cachePath + ".ser.tmp");
+            FileOutputStream fos = new FileOutputStream(temporaryPath.toFile());
             ObjectOutputStream oos = new ObjectOutputStream(fos);
             oos.writeObject(report);
             oos.close();
+            Files.move(
+                    temporaryPath,
+                    Paths.get(cachePath + ".ser"),
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -127,23 +153,7 @@ public class TestPreparator {
      * @return the FeatureExtractionResult or null, if not found
      */
     private FeatureExtractionResult loadFromCache() {
-        String fileName;
-        if (tlsAnvilConfig.getTestEndpointMode() == TestEndpointType.CLIENT) {
-            fileName =
-                    "client_"
-                            + HexFormat.of()
-                                    .toHexDigits(
-                                            tlsAnvilConfig
-                                                    .getTestClientDelegate()
-                                                    .getTriggerScriptCommand()
-                                                    .hashCode());
-        } else {
-            fileName =
-                    tlsAnvilConfig.getTestServerDelegate().getExtractedHost()
-                            + "_"
-                            + tlsAnvilConfig.getTestServerDelegate().getExtractedPort();
-        }
-        fileName = fileName + ".ser";
+        String fileName = getCacheFileName() + ".ser";
         File cachedFile = new File(Paths.get("cache", fileName).toString());
         if (cachedFile.exists() && !tlsAnvilConfig.getAnvilTestConfig().isIgnoreCache()) {
             try {
@@ -165,6 +175,76 @@ public class TestPreparator {
         return null;
     }
 
+    /**
+     * Returns the FeatureExtractionResult a previous job of this worker obtained for the target.
+     * Ignoring the cache also bypasses the worker cache, which forces a fresh extraction.
+     *
+     * @return the FeatureExtractionResult or null, if not running as worker or not found
+     */
+    private FeatureExtractionResult loadFromWarmWorkerCache() {
+        WarmWorkerCache warmWorkerCache = testContext.getWarmWorkerCache();
+        if (warmWorkerCache == null || tlsAnvilConfig.getAnvilTestConfig().isIgnoreCache()) {
+            return null;
+        }
+        // another process may have extracted the target anew since
+        File sharedCacheFile = Paths.get("cache", getCacheFileName() + ".ser").toFile();
+        FeatureExtractionResult report =
+                warmWorkerCache.lookupFeatureExtractionResult(
+                        tlsAnvilConfig, sharedCacheFile.lastModified(), this::loadFromCache);
+        if (report != null) {
+            LOGGER.info("Reusing ScanReport of a previous job");
+        }
+        return report;
+    }
+
+    private void storeInWarmWorkerCache(FeatureExtractionResult report) {
+        WarmWorkerCache warmWorkerCache = testContext.getWarmWorkerCache();
+        if (warmWorkerCache != null) {
+            warmWorkerCache.storePreparedTarget(tlsAnvilConfig, report);
+        }
+    }
+
+    /**
+     * Shards of a run share the cache entry of the target. Holding a lock during the feature
+     * extraction ensures that only the first shard scans the target, the others wait and then load
+     * its result from the cache.
+     *
+     * @return the acquired lock, null if the run is not sharded or the cache is ignored
+     */
+    private SharedFileLock lockCacheForShards() {
+        if (!tlsAnvilConfig.isSharded() || tlsAnvilConfig.getAnvilTestConfig().isIgnoreCache()) {
+            return null;
+        }
+        try {
+            LOGGER.info("Waiting for the feature extraction of other shards to finish");
+            return SharedFileLock.acquire(Paths.get("cache", getCacheFileName()));
+        } catch (IOException e) {
+            LOGGER.warn("Failed to lock the feature extraction cache, scanning independently", e);
+            return null;
+        }
+    }
+
+    /** Runs the feature extraction while holding the cache lock shared by the shards. */
+    private void prepareWithCacheLock(Runnable preparation) {
+        SharedFileLock cacheLock = lockCacheForShards();
+        try {
+            preparation.run();
+        } finally {
+            releaseCacheLock(cacheLock);
+        }
+    }
+
+    private static void releaseCacheLock(SharedFileLock cacheLock) {
+        if (cacheLock == null) {
+            return;
+        }
+        try {
+            cacheLock.close();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to release the feature extraction cache lock", e);
+        }
+    }
+
     /**
      * Runs the client trigger script stored in the config until a client connects. Blocks until
      * success.
@@ -278,11 +358,29 @@ public class TestPreparator {
      * extraction scan if necessary.
      */
     private void serverTestPreparation() {
+        if (tlsAnvilConfig.getReplayTransport() != null) {
+            // the target is not contacted during a replay
+            FeatureExtractionResult recordedReport =
+                    testContext.getTransportRecordingStore().loadFeatureExtractionResult();
+            if (recordedReport == null) {
+                throw new RuntimeException(
+                        "The transport recording does not contain a feature extraction result");
+            }
+            testContext.setFeatureExtractionResult(recordedReport);
+            return;
+        }
         waitForServer();
 
+        FeatureExtractionResult warmReport = loadFromWarmWorkerCache();
+        if (warmReport != null) {
+            testContext.setFeatureExtractionResult(warmReport);
+            return;
+        }
+
         FeatureExtractionResult cachedReport = loadFromCache();
         if (cachedReport != null) {
             testContext.setFeatureExtractionResult(cachedReport);
+            storeInWarmWorkerCache(cachedReport);
             return;
         }
 
@@ -304,6 +402,7 @@ public class TestPreparator {
         if (!tlsAnvilConfig.getAnvilTestConfig().isIgnoreCache()) {
             saveToCache(report);
         }
+        storeInWarmWorkerCache(report);
 
         testContext.setFeatureExtractionResult(report);
         LOGGER.debug("TLS-Scanner finished!");
@@ -366,7 +465,13 @@ public class TestPreparator {
         setGlobalClientTestCallbacks(preparedExecutor);
 
         ClientFeatureExtractionResult cachedReport =
-                (ClientFeatureExtractionResult) loadFromCache();
+                (ClientFeatureExtractionResult) loadFromWarmWorkerCache();
+        if (cachedReport == null) {
+            cachedReport = (ClientFeatureExtractionResult) loadFromCache();
+            if (cachedReport != null) {
+                storeInWarmWorkerCache(cachedReport);
+            }
+        }
         if (cachedReport != null) {
             testContext.setFeatureExtractionResult(cachedReport);
             testContext.setReceivedClientHelloMessage(cachedReport.getReceivedClientHello());
@@ -401,6 +506,7 @@ public class TestPreparator {
         if (!tlsAnvilConfig.getAnvilTestConfig().isIgnoreCache()) {
             saveToCache(extractionResult);
         }
+        storeInWarmWorkerCache(extractionResult);
         testContext.setReceivedClientHelloMessage(clientHello);
         testContext.setFeatureExtractionResult(extractionResult);
     }
@@ -518,8 +624,18 @@ public class TestPreparator {
             tlsAnvilConfig.setParallelHandshakes(1);
         }
 
+        // same pool as ParallelExecutor.create(size, reexecutions) but kept accessible for the
+        // queue depth and active handshake metrics
+        ThreadPoolExecutor handshakePool =
+                new ThreadPoolExecutor(
+                        tlsAnvilConfig.getParallelHandshakes(),
+                        tlsAnvilConfig.getParallelHandshakes(),
+                        10,
+                        TimeUnit.DAYS,
+                        new LinkedBlockingDeque<>());
+        testContext.getExecutionMetrics().setExecutor(handshakePool);
         ParallelExecutor executor =
-                ParallelExecutor.create(tlsAnvilConfig.getParallelHandshakes(), 1);
+                ParallelExecutor.create(tlsAnvilConfig.getParallelHandshakes(), 1, handshakePool);
         executor.setTimeoutAction(tlsAnvilConfig.getTimeoutActionScript());
         executor.armTimeoutAction(20000);
         testContext.setStateExecutor(executor);
@@ -528,13 +644,25 @@ public class TestPreparator {
         String configurationOptionsConfigFile = tlsAnvilConfig.getConfigOptionsConfigFile();
         if (!configurationOptionsConfigFile.isEmpty()) {
             LOGGER.info("Preparing configuration options environment");
+            PreparationPhaseEvent phaseEvent = new PreparationPhaseEvent("configurationOptions");
+            phaseEvent.begin();
             ConfigurationOptionsExtension.getInstance().load(configurationOptionsConfigFile);
+            phaseEvent.commit();
         } else {
             this.tlsAnvilConfig.createConfig();
+            PreparationPhaseEvent phaseEvent = new PreparationPhaseEvent("featureExtraction");
+            phaseEvent.begin();
             if (this.tlsAnvilConfig.getTestEndpointMode() == TestEndpointType.CLIENT) {
-                clientTestPreparation();
+                prepareWithCacheLock(this::clientTestPreparation);
+                phaseEvent.commit();
             } else if (this.tlsAnvilConfig.getTestEndpointMode() == TestEndpointType.SERVER) {
-                serverTestPreparation();
+                prepareWithCacheLock(this::serverTestPreparation);
+                phaseEvent.commit();
+                if (tlsAnvilConfig.getRecordTransport() != null) {
+                    testContext
+                            .getTransportRecordingStore()
+                            .saveFeatureExtractionResult(testContext.getFeatureExtractionResult());
+                }
                 ServerFeatureExtractionResult featureExtractionResult =
                         (ServerFeatureExtractionResult) testContext.getFeatureExtractionResult();
                 AnvilContext.getInstance()
@@ -636,10 +764,17 @@ public class TestPreparator {
             TestContext context = TestContext.getInstance();
             TestClientDelegate testClientDelegate = context.getConfig().getTestClientDelegate();
             if (context.getConfig().isUseDTLS()) {
-                transportHandler =
-                        new ServerUdpTransportHandler(
-                                context.getConfig().getAnvilTestConfig().getConnectionTimeout(),
-                                testClientDelegate.getPort());
+                if (context.getPacketCaptureWriter() != null) {
+                    transportHandler =
+                            new CapturingServerUdpTransportHandler(
+                                    context.getConfig().getAnvilTestConfig().getConnectionTimeout(),
+                                    testClientDelegate.getPort());
+                } else {
+                    transportHandler =
+                            new ServerUdpTransportHandler(
+                                    context.getConfig().getAnvilTestConfig().getConnectionTimeout(),
+                                    testClientDelegate.getPort());
+                }
             } else {
                 ServerSocket socket;
                 if (testClientDelegate instanceof TestCOMultiClientDelegate) {
@@ -652,11 +787,19 @@ public class TestPreparator {
                 } else {
                     socket = testClientDelegate.getServerSocket();
                 }
-                transportHandler =
-                        new ServerTcpTransportHandler(
-                                context.getConfig().getAnvilTestConfig().getConnectionTimeout(),
-                                context.getConfig().getAnvilTestConfig().getConnectionTimeout(),
-                                socket);
+                if (context.getPacketCaptureWriter() != null) {
+                    transportHandler =
+                            new CapturingServerTcpTransportHandler(
+                                    context.getConfig().getAnvilTestConfig().getConnectionTimeout(),
+                                    context.getConfig().getAnvilTestConfig().getConnectionTimeout(),
+                                    socket);
+                } else {
+                    transportHandler =
+                            new ServerTcpTransportHandler(
+                                    context.getConfig().getAnvilTestConfig().getConnectionTimeout(),
+                                    context.getConfig().getAnvilTestConfig().getConnectionTimeout(),
+                                    socket);
+                }
             }
             state.getTlsContext().setTransportHandler(transportHandler);
             return 0;
@@ -684,6 +827,7 @@ public class TestPreparator {
 
     private static boolean countTests(
             TestIdentifier i,
+            TestIndex testIndex,
             ProtocolVersion versionToCount,
             TestEndpointType endpointTypeToCount,
             TestEndpointType executionTestEndpointType) {
@@ -693,6 +837,16 @@ public class TestPreparator {
         }
 
         MethodSource methodSource = (MethodSource) source;
+        TestIndexEntry indexEntry =
+                testIndex == null
+                        ? null
+                        : testIndex.getEntry(
+                                methodSource.getClassName(), methodSource.getMethodName());
+        if (indexEntry != null) {
+            return indexEntry.matches(
+                    versionToCount, endpointTypeToCount, executionTestEndpointType);
+        }
+
         Class<?> testClass = methodSource.getJavaClass();
         Method testMethod = methodSource.getJavaMethod();
         TestEndpointType requiredEndpointType =
@@ -711,7 +865,8 @@ public class TestPreparator {
 
     /**
      * Logs, how many tests were discovered for every TLS version, as well as test strength and
-     * connection timeout.
+     * connection timeout. The test plan is traversed once, the annotations of each test are taken
+     * from the bundled {@link TestIndex} if available.
      *
      * @param testPlan the testPlan, supplied by JUnits discovery
      */
@@ -719,62 +874,43 @@ public class TestPreparator {
         LOGGER.info("Scheduled test templates:");
         TestEndpointType executionEndpointType =
                 TestContext.getInstance().getConfig().getTestEndpointMode();
-        if (TestContext.getInstance().getConfig().isUseDTLS()) {
-            long clientDtls12 =
-                    testPlan.countTestIdentifiers(
-                            i ->
-                                    countTests(
-                                            i,
-                                            ProtocolVersion.DTLS12,
-                                            TestEndpointType.CLIENT,
-                                            executionEndpointType));
-            long serverDtls12 =
-                    testPlan.countTestIdentifiers(
-                            i ->
-                                    countTests(
-                                            i,
-                                            ProtocolVersion.DTLS12,
-                                            TestEndpointType.SERVER,
-                                            executionEndpointType));
-            LOGGER.info(
-                    "DTLS 1.2 tests: {} client tests, {} server tests", clientDtls12, serverDtls12);
-        } else {
-            long clientTls12 =
-                    testPlan.countTestIdentifiers(
-                            i ->
-                                    countTests(
-                                            i,
-                                            ProtocolVersion.TLS12,
-                                            TestEndpointType.CLIENT,
-                                            executionEndpointType));
-            long serverTls12 =
-                    testPlan.countTestIdentifiers(
-                            i ->
-                                    countTests(
-                                            i,
-                                            ProtocolVersion.TLS12,
-                                            TestEndpointType.SERVER,
-                                            executionEndpointType));
-            long clientTls13 =
-                    testPlan.countTestIdentifiers(
-                            i ->
-                                    countTests(
-                                            i,
-                                            ProtocolVersion.TLS13,
-                                            TestEndpointType.CLIENT,
-                                            executionEndpointType));
-            long serverTls13 =
-                    testPlan.countTestIdentifiers(
-                            i ->
-                                    countTests(
-                                            i,
-                                            ProtocolVersion.TLS13,
-                                            TestEndpointType.SERVER,
-                                            executionEndpointType));
-            LOGGER.info(
-                    "TLS 1.2 tests: {} client tests, {} server tests", clientTls12, serverTls12);
+        TestIndex testIndex = TestIndex.getInstance().orElse(null);
+        List<ProtocolVersion> versions =
+                TestContext.getInstance().getConfig().isUseDTLS()
+                        ? List.of(ProtocolVersion.DTLS12)
+                        : List.of(ProtocolVersion.TLS12, ProtocolVersion.TLS13);
+        Map<ProtocolVersion, long[]> counts = new HashMap<>();
+        versions.forEach(version -> counts.put(version, new long[2]));
+
+        Set<TestIdentifier> identifiers = new HashSet<>();
+        testPlan.getRoots().forEach(root -> identifiers.addAll(testPlan.getDescendants(root)));
+        for (TestIdentifier identifier : identifiers) {
+            for (ProtocolVersion version : versions) {
+                if (countTests(
+                        identifier,
+                        testIndex,
+                        version,
+                        TestEndpointType.CLIENT,
+                        executionEndpointType)) {
+                    counts.get(version)[0]++;
+                }
+                if (countTests(
+                        identifier,
+                        testIndex,
+                        version,
+                        TestEndpointType.SERVER,
+                        executionEndpointType)) {
+                    counts.get(version)[1]++;
+                }
+            }
+        }
+
+        for (ProtocolVersion version : versions) {
             LOGGER.info(
-                    "TLS 1.3 tests: {} client tests, {} server tests", clientTls13, serverTls13);
+                    "{} tests: {} client tests, {} server tests",
+                    version.toHumanReadable(),
+                    counts.get(version)[0],
+                    counts.get(version)[1]);
         }
         LOGGER.info(
                 "Testing using default strength "
@@ -9,7 +9,9 @@ package de.rub.nds.tlstest.framework.execution;
 
 import de.rub.nds.anvilcore.constants.TestEndpointType;
 import de.rub.nds.anvilcore.teststate.AnvilTestCase;
+import de.rub.nds.anvilcore.util.TestIdResolver;
 import de.rub.nds.modifiablevariable.util.Modifiable;
+import de.rub.nds.protocol.exception.TransportHandlerConnectException;
 import de.rub.nds.tlsattacker.core.config.Config;
 import de.rub.nds.tlsattacker.core.constants.ExtensionType;
 import de.rub.nds.tlsattacker.core.constants.HandshakeMessageType;
@@ -30,6 +32,7 @@ import de.rub.nds.tlsattacker.core.state.State;
 import de.rub.nds.tlsattacker.core.workflow.WorkflowTrace;
 import de.rub.nds.tlsattacker.core.workflow.WorkflowTraceConfigurationUtil;
 import de.rub.nds.tlsattacker.core.workflow.WorkflowTraceMutator;
+import de.rub.nds.tlsattacker.core.workflow.WorkflowTraceResultUtil;
 import de.rub.nds.tlsattacker.core.workflow.action.GenericReceiveAction;
 import de.rub.nds.tlsattacker.core.workflow.action.ReceiveAction;
 import de.rub.nds.tlsattacker.core.workflow.action.ReceivingAction;
@@ -42,20 +45,40 @@ import de.rub.nds.tlsattacker.core.workflow.factory.WorkflowConfigurationFactory
 import de.rub.nds.tlsattacker.core.workflow.factory.WorkflowTraceType;
 import de.rub.nds.tlsattacker.core.workflow.task.StateExecutionTask;
 import de.rub.nds.tlsattacker.transport.TransportHandler;
+import de.rub.nds.tlsattacker.transport.tcp.ClientTcpTransportHandler;
 import de.rub.nds.tlsattacker.transport.tcp.TcpTransportHandler;
+import de.rub.nds.tlsattacker.transport.udp.ClientUdpTransportHandler;
 import de.rub.nds.tlsattacker.transport.udp.ServerUdpTransportHandler;
 import de.rub.nds.tlsattacker.transport.udp.UdpTransportHandler;
 import de.rub.nds.tlstest.framework.ClientFeatureExtractionResult;
 import de.rub.nds.tlstest.framework.TestContext;
+import de.rub.nds.tlstest.framework.annotations.ResumptionFastPath;
 import de.rub.nds.tlstest.framework.anvil.TlsParameterCombination;
+import de.rub.nds.tlstest.framework.capture.CapturedTraffic;
+import de.rub.nds.tlstest.framework.capture.CapturingClientTcpTransportHandler;
+import de.rub.nds.tlstest.framework.capture.CapturingClientUdpTransportHandler;
+import de.rub.nds.tlstest.framework.capture.CapturingTransportHandler;
+import de.rub.nds.tlstest.framework.capture.PcapngCaptureWriter;
+import de.rub.nds.tlstest.framework.incremental.TestCaseFingerprint;
+import de.rub.nds.tlstest.framework.jfr.ExecutionEvent;
+import de.rub.nds.tlstest.framework.jfr.HandshakeEvent;
+import de.rub.nds.tlstest.framework.junitExtensions.PhaseTimingExtension;
+import de.rub.nds.tlstest.framework.logging.TestCaseLogBuffer;
+import de.rub.nds.tlstest.framework.metrics.ExecutionPhase;
+import de.rub.nds.tlstest.framework.replay.HandshakeRandomness;
+import de.rub.nds.tlstest.framework.replay.RecordingClientTcpTransportHandler;
+import de.rub.nds.tlstest.framework.replay.ReplayClientTcpTransportHandler;
+import de.rub.nds.tlstest.framework.replay.TransportRecording;
 import java.io.IOException;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.ThreadContext;
 import org.junit.jupiter.api.extension.ExtensionContext;
 
 /**
@@ -81,12 +104,21 @@ public class WorkflowRunner {
     private Boolean autoHelloRetryRequest = true;
     private Boolean autoAdaptForDtls = true;
 
-    private static Map<ExtensionContext, WorkflowRunner> workflowRunners = new HashMap<>();
+    private static final int MAX_REEXECUTIONS_AFTER_OUTAGE = 3;
+
+    // number of handshakes executed by this runner, distinguishes the transport recordings of
+    // tests performing multiple handshakes
+    private int executionCount = 0;
+    private String recordingKey;
+
+    // set if the generated handshake may resume a pooled session, see @ResumptionFastPath
+    private String resumptionKey;
+    private ResumptionSessionPool.PooledSession resumedSession;
+    private int resumptionPrefixLength;
 
     public WorkflowRunner(ExtensionContext extensionContext) {
         this.context = TestContext.getInstance();
         this.extensionContext = extensionContext;
-        WorkflowRunner.workflowRunners.put(extensionContext, this);
     }
 
     public WorkflowRunner(ExtensionContext extensionContext, Config config) {
@@ -115,7 +147,78 @@ public class WorkflowRunner {
             preparedConfig = config;
         }
 
+        ExecutionEvent executionEvent = new ExecutionEvent();
+        executionEvent.begin();
         adaptWorkflowTrace(trace, config);
+        recordingKey = resolveRecordingKey();
+        int outageReexecutions = executeWithOutageRetries(trace, resolveExecutionConfig(config));
+        if (resumedSession != null && !isResumptionCompleted(state)) {
+            trace = fallBackToFullHandshake(trace, config);
+            recordingKey = resolveRecordingKey();
+            outageReexecutions += executeWithOutageRetries(trace, config);
+        }
+        returnSessionToPool();
+        postExecution();
+        executionEvent.setOutageReexecutions(outageReexecutions);
+        executionEvent.commit(
+                AnvilTestCase.fromExtensionContext(extensionContext),
+                resolveTestId(),
+                isTransportFailure(state) ? "TRANSPORT_FAILURE" : "EXECUTED");
+        if (extensionContext != null) {
+            extensionContext
+                    .getStore(PhaseTimingExtension.NAMESPACE)
+                    .put(PhaseTimingExtension.EXECUTION_END, System.nanoTime());
+        }
+        return state;
+    }
+
+    /**
+     * Executes the trace, again if the handshake was affected by an outage of the target.
+     *
+     * @return the number of executions repeated due to outages
+     */
+    private int executeWithOutageRetries(WorkflowTrace trace, Config config) {
+        TargetHealthMonitor healthMonitor = context.getTargetHealthMonitor();
+        int outageReexecutions = 0;
+        while (true) {
+            long handshakeStart = 0;
+            if (healthMonitor != null) {
+                try {
+                    handshakeStart = healthMonitor.beginHandshake();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                }
+            }
+
+            try {
+                executeHandshake(trace, config);
+            } catch (RuntimeException | Error e) {
+                if (healthMonitor != null) {
+                    healthMonitor.cancelHandshake();
+                }
+                throw e;
+            }
+
+            if (healthMonitor == null) {
+                break;
+            }
+            boolean affectedByOutage =
+                    healthMonitor.reportHandshake(handshakeStart, isConnectFailure(state));
+            if (!affectedByOutage || outageReexecutions >= MAX_REEXECUTIONS_AFTER_OUTAGE) {
+                break;
+            }
+            // the handshake was affected by an outage of the target, run it again
+            outageReexecutions++;
+            trace.reset();
+            AnvilTestCase.fromExtensionContext(extensionContext)
+                    .addAdditionalResultInfo("Re-executed after target outage");
+        }
+        return outageReexecutions;
+    }
+
+    /** Executes the trace once, the resulting state is stored in {@link #state}. */
+    private void executeHandshake(WorkflowTrace trace, Config config) {
         state = new State(config, trace);
         StateExecutionTask task =
                 new StateExecutionTask(state, context.getStateExecutor().getReexecutions());
@@ -125,12 +228,175 @@ public class WorkflowRunner {
             prepareClientTask(task);
         }
         task.setAfterExecutionCallback(this::afterExecutionCallback);
-        context.getStateExecutor().bulkExecuteTasks(task);
-        postExecution();
-        return state;
+        String logKey = ThreadContext.get(TestCaseLogBuffer.THREAD_CONTEXT_KEY);
+        if (logKey != null) {
+            bindTestCaseLog(task, logKey);
+        }
+        MemoryGovernor memoryGovernor = context.getMemoryGovernor();
+        if (memoryGovernor != null) {
+            try {
+                memoryGovernor.acquireHandshake();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+        long submitMillis = System.currentTimeMillis();
+        try {
+            context.getStateExecutor().bulkExecuteTasks(task);
+        } finally {
+            if (memoryGovernor != null) {
+                memoryGovernor.releaseHandshake();
+            }
+        }
+        recordExecutionPhases(state, submitMillis);
+    }
+
+    /** Assigns the log output of the thread executing the handshake to the test case. */
+    private static void bindTestCaseLog(StateExecutionTask task, String logKey) {
+        Thread testThread = Thread.currentThread();
+        Function<State, Integer> preInitCallback = task.getBeforeTransportPreInitCallback();
+        task.setBeforeTransportPreInitCallback(
+                (State state) -> {
+                    ThreadContext.put(TestCaseLogBuffer.THREAD_CONTEXT_KEY, logKey);
+                    return preInitCallback == null ? 0 : preInitCallback.apply(state);
+                });
+        Function<State, Integer> afterExecutionCallback = task.getAfterExecutionCallback();
+        task.setAfterExecutionCallback(
+                (State state) -> {
+                    try {
+                        return afterExecutionCallback.apply(state);
+                    } finally {
+                        if (Thread.currentThread() != testThread) {
+                            ThreadContext.remove(TestCaseLogBuffer.THREAD_CONTEXT_KEY);
+                        }
+                    }
+                });
+    }
+
+    /**
+     * The secrets of a resumed session are only applied to a copy of the Config, the full handshake
+     * of a fallback uses the Config of the test unchanged.
+     */
+    private Config resolveExecutionConfig(Config config) {
+        if (resumedSession == null) {
+            return config;
+        }
+        Config resumptionConfig = config.createCopy();
+        resumedSession.applyTo(resumptionConfig);
+        return resumptionConfig;
+    }
+
+    private static boolean isResumptionCompleted(State state) {
+        WorkflowTrace trace = state.getWorkflowTrace();
+        return WorkflowTraceResultUtil.didReceiveMessage(trace, HandshakeMessageType.FINISHED)
+                && !WorkflowTraceResultUtil.didReceiveMessage(
+                        trace, HandshakeMessageType.CERTIFICATE);
+    }
+
+    /**
+     * Replaces the abbreviated handshake preceding the actions of the test by a full handshake
+     * after the target did not resume the pooled session. The session is discarded.
+     */
+    private WorkflowTrace fallBackToFullHandshake(WorkflowTrace resumptionTrace, Config config) {
+        LOGGER.debug(
+                "Target did not resume the pooled session for {}, executing a full handshake",
+                resumptionKey);
+        context.getResumptionSessionPool().countFallback();
+        resumedSession = null;
+
+        List<TlsAction> testActions =
+                new LinkedList<>(
+                        resumptionTrace
+                                .getTlsActions()
+                                .subList(
+                                        resumptionPrefixLength,
+                                        resumptionTrace.getTlsActions().size()));
+        testActions.forEach(TlsAction::reset);
+        WorkflowTrace trace =
+                new WorkflowConfigurationFactory(preparedConfig)
+                        .createWorkflowTrace(
+                                WorkflowTraceType.HANDSHAKE,
+                                resolveRunningMode(context.getConfig().getTestEndpointMode()));
+        trace.addTlsActions(testActions);
+        adaptWorkflowTrace(trace, config);
+        AnvilTestCase.fromExtensionContext(extensionContext)
+                .addAdditionalResultInfo(
+                        "Pooled session was not resumed, executed a full handshake instead");
+        return trace;
+    }
+
+    /** Makes the session established or resumed by the executed handshake available again. */
+    private void returnSessionToPool() {
+        if (resumptionKey == null) {
+            return;
+        }
+        ResumptionSessionPool pool = context.getResumptionSessionPool();
+        boolean harvested = pool.harvest(resumptionKey, state);
+        if (resumedSession != null) {
+            pool.countResumedHandshake();
+            AnvilTestCase.fromExtensionContext(extensionContext)
+                    .addAdditionalResultInfo(
+                            "Resumed a pooled session instead of a full handshake");
+            // TLS 1.3 tickets may only be valid once, a TLS 1.2 session ID can be resumed again
+            if (!harvested && resumedSession.getVersion() == ProtocolVersion.TLS12) {
+                pool.offer(resumptionKey, resumedSession);
+            }
+        } else {
+            pool.countFullHandshake();
+        }
+        resumptionKey = null;
+        resumedSession = null;
+    }
+
+    private void recordExecutionPhases(State state, long submitMillis) {
+        if (state.getStartTimestamp() <= 0 || state.getEndTimestamp() <= 0) {
+            return;
+        }
+        // the state only provides timestamps in milliseconds
+        recordPhase(
+                ExecutionPhase.QUEUEING,
+                TimeUnit.MILLISECONDS.toMicros(state.getStartTimestamp() - submitMillis));
+        recordPhase(
+                ExecutionPhase.NETWORK,
+                TimeUnit.MILLISECONDS.toMicros(
+                        state.getEndTimestamp() - state.getStartTimestamp()));
+    }
+
+    private void recordPhase(ExecutionPhase phase, long micros) {
+        context.getExecutionMetrics().record(phase, resolveTestId(), parameterCombination, micros);
+    }
+
+    private String resolveTestId() {
+        if (extensionContext == null || extensionContext.getTestMethod().isEmpty()) {
+            return null;
+        }
+        return TestIdResolver.resolveTestId(extensionContext.getRequiredTestMethod());
+    }
+
+    private static boolean isTransportFailure(State state) {
+        return state.getExecutionException() != null
+                || state.getTlsContext().isReceivedTransportHandlerException();
+    }
+
+    /**
+     * @return true if the connection to the target could not be established, other transport errors
+     *     may be caused by the tested behavior of the target and say nothing about its availability
+     */
+    static boolean isConnectFailure(State state) {
+        for (Throwable cause = state.getExecutionException();
+                cause != null;
+                cause = cause.getCause()) {
+            if (cause instanceof TransportHandlerConnectException) {
+                return true;
+            }
+        }
+        return false;
     }
 
     private Integer afterExecutionCallback(State state) {
+        HandshakeEvent handshakeEvent = new HandshakeEvent();
+        handshakeEvent.begin();
         AnvilTestCase testCase = AnvilTestCase.fromExtensionContext(extensionContext);
 
         TransportHandler transportHandler = state.getTlsContext().getTransportHandler();
@@ -142,6 +408,27 @@ public class WorkflowRunner {
             testCase.setDstPort(((TcpTransportHandler) transportHandler).getDstPort());
             testCase.setSrcPort(((TcpTransportHandler) transportHandler).getSrcPort());
         }
+        PcapngCaptureWriter captureWriter = context.getPacketCaptureWriter();
+        if (captureWriter != null && transportHandler instanceof CapturingTransportHandler) {
+            writeCapturedTraffic(captureWriter, testCase, transportHandler);
+        }
+        if (transportHandler instanceof RecordingClientTcpTransportHandler) {
+            TransportRecording recording =
+                    ((RecordingClientTcpTransportHandler) transportHandler).getRecording();
+            recording.setFinalSocketState(state.getTcpContext().getFinalSocketState());
+            recording.setPorts(testCase.getSrcPort(), testCase.getDstPort());
+            context.getTransportRecordingStore().save(recording);
+        } else if (transportHandler instanceof ReplayClientTcpTransportHandler) {
+            ReplayClientTcpTransportHandler replayHandler =
+                    (ReplayClientTcpTransportHandler) transportHandler;
+            replayHandler.finish();
+            if (replayHandler.getDivergence() != null) {
+                testCase.addAdditionalResultInfo(
+                        "Replay diverged from recording: " + replayHandler.getDivergence());
+                context.getTransportRecordingStore()
+                        .reportDivergence(recordingKey, replayHandler.getDivergence());
+            }
+        }
         if (transportHandler instanceof UdpTransportHandler) {
             try {
                 transportHandler.closeConnection();
@@ -156,9 +443,10 @@ public class WorkflowRunner {
                 state.getContext().getConfig().getDefaultRunningMode() == RunningModeType.CLIENT
                         ? testCase.getSrcPort()
                         : testCase.getDstPort();
-        if (relevantPort != null && relevantPort != -1) {
+        // traffic captured in-JVM requires no packet filter
+        if (captureWriter == null && relevantPort != null && relevantPort != -1) {
             testCase.setCaseSpecificPcapFilter(String.format("port %d", relevantPort));
-        } else {
+        } else if (captureWriter == null) {
             LOGGER.warn(
                     "Encountered invalid port for packet filter in test {} with combination {}: {}",
                     testCase.getAssociatedContainer().getName(),
@@ -170,9 +458,49 @@ public class WorkflowRunner {
             testCase.addAdditionalResultInfo("Received TransportHandler exception");
         }
 
+        if (context.getTraceArchive() != null) {
+            context.getTraceArchive().add(testCase.getUuid(), state.getWorkflowTrace());
+        }
+
+        handshakeEvent.setHandshakeDuration(state.getEndTimestamp() - state.getStartTimestamp());
+        handshakeEvent.commit(
+                testCase,
+                resolveTestId(),
+                isTransportFailure(state) ? "TRANSPORT_FAILURE" : "EXECUTED");
         return 0;
     }
 
+    private static void writeCapturedTraffic(
+            PcapngCaptureWriter captureWriter,
+            AnvilTestCase testCase,
+            TransportHandler transportHandler) {
+        CapturedTraffic traffic =
+                ((CapturingTransportHandler) transportHandler).getCapturedTraffic();
+        if (transportHandler instanceof UdpTransportHandler) {
+            UdpTransportHandler udpTransportHandler = (UdpTransportHandler) transportHandler;
+            traffic.setEndpoints(
+                    udpTransportHandler.getSrcIp(),
+                    udpTransportHandler.getSrcPort(),
+                    udpTransportHandler.getDstIp(),
+                    udpTransportHandler.getDstPort());
+        } else {
+            TcpTransportHandler tcpTransportHandler = (TcpTransportHandler) transportHandler;
+            traffic.setEndpoints(
+                    tcpTransportHandler.getSrcIp(),
+                    Objects.requireNonNullElse(tcpTransportHandler.getSrcPort(), 0),
+                    tcpTransportHandler.getDstIp(),
+                    Objects.requireNonNullElse(tcpTransportHandler.getDstPort(), 0));
+        }
+        captureWriter.write(
+                testCase.getUuid(),
+                String.format(
+                        "%s %s (%s)",
+                        testCase.getAssociatedContainer().getName(),
+                        testCase.getDisplayName(),
+                        testCase.getUuid()),
+                traffic);
+    }
+
     public void postExecution() {
         AnvilTestCase testCase = AnvilTestCase.fromExtensionContext(extensionContext);
 
@@ -236,6 +564,79 @@ public class WorkflowRunner {
                     });
             TestContext.getInstance().resetServerHandshakesSinceRestart();
         }
+        if (context.getConfig().getReplayTransport() != null) {
+            // nothing to restart when replaying
+            task.setBeforeTransportPreInitCallback(this::installReplayTransportHandler);
+        } else if (context.getPacketCaptureWriter() != null
+                || context.getConfig().getRecordTransport() != null) {
+            Function<State, Integer> preInitCallback = task.getBeforeTransportPreInitCallback();
+            task.setBeforeTransportPreInitCallback(
+                    (State state) -> {
+                        int result = preInitCallback == null ? 0 : preInitCallback.apply(state);
+                        installCapturingTransportHandler(state);
+                        return result;
+                    });
+        }
+    }
+
+    private String resolveRecordingKey() {
+        if (context.getTransportRecordingStore() == null) {
+            return null;
+        }
+        String testId = Objects.requireNonNullElse(resolveTestId(), "");
+        String caseKey =
+                parameterCombination == null
+                        ? testId
+                        : TestCaseFingerprint.caseKey(testId, parameterCombination);
+        return caseKey + " #" + executionCount++;
+    }
+
+    /** Replaces the transport handler with one replaying the recorded handshake. */
+    private Integer installReplayTransportHandler(State state) {
+        TransportRecording recording = context.getTransportRecordingStore().load(recordingKey);
+        if (recording == null) {
+            context.getTransportRecordingStore()
+                    .reportDivergence(recordingKey, "Handshake was not recorded");
+            recording = new TransportRecording(recordingKey);
+        }
+        HandshakeRandomness.pin(state, recordingKey);
+        state.getTlsContext()
+                .setTransportHandler(
+                        new ReplayClientTcpTransportHandler(
+                                state.getTlsContext().getConnection(), recording));
+        return 0;
+    }
+
+    /**
+     * Replaces the transport handler created by TLS-Attacker with one recording the transmitted
+     * bytes for the in-JVM packet capture or the transport recording.
+     */
+    private void installCapturingTransportHandler(State state) {
+        TransportHandler transportHandler = state.getTlsContext().getTransportHandler();
+        TransportHandler capturingHandler;
+        if (transportHandler instanceof ClientTcpTransportHandler) {
+            CapturingClientTcpTransportHandler tcpHandler =
+                    recordingKey != null
+                            ? new RecordingClientTcpTransportHandler(
+                                    state.getTlsContext().getConnection(), recordingKey)
+                            : new CapturingClientTcpTransportHandler(
+                                    state.getTlsContext().getConnection());
+            tcpHandler.setRetryFailedSocketInitialization(
+                    ((ClientTcpTransportHandler) transportHandler)
+                            .isRetryFailedSocketInitialization());
+            capturingHandler = tcpHandler;
+            if (recordingKey != null) {
+                // the replay has to reproduce the sent data
+                HandshakeRandomness.pin(state, recordingKey);
+            }
+        } else if (transportHandler instanceof ClientUdpTransportHandler) {
+            capturingHandler =
+                    new CapturingClientUdpTransportHandler(state.getTlsContext().getConnection());
+        } else {
+            return;
+        }
+        capturingHandler.setResetClientSourcePort(transportHandler.isResetClientSourcePort());
+        state.getTlsContext().setTransportHandler(capturingHandler);
     }
 
     public void prepareClientTask(StateExecutionTask task) throws RuntimeException {
@@ -273,10 +674,24 @@ public class WorkflowRunner {
      * @return empty WorkflowTrace
      */
     public WorkflowTrace generateWorkflowTrace(WorkflowTraceType type) {
+        long startNanos = System.nanoTime();
         RunningModeType runningMode = resolveRunningMode(context.getConfig().getTestEndpointMode());
-        WorkflowTrace trace =
-                new WorkflowConfigurationFactory(preparedConfig)
-                        .createWorkflowTrace(type, runningMode);
+        WorkflowTrace trace;
+        if (takeResumableSession(type)) {
+            Config resumptionConfig = preparedConfig.createCopy();
+            resumedSession.applyTo(resumptionConfig);
+            trace =
+                    new WorkflowConfigurationFactory(resumptionConfig)
+                            .createWorkflowTrace(
+                                    ResumptionSessionPool.resumptionTraceType(
+                                            preparedConfig.getHighestProtocolVersion()),
+                                    runningMode);
+            resumptionPrefixLength = trace.getTlsActions().size();
+        } else {
+            trace =
+                    new WorkflowConfigurationFactory(preparedConfig)
+                            .createWorkflowTrace(type, runningMode);
+        }
         if (this.untilHandshakeMessage != null)
             WorkflowTraceMutator.truncateAt(
                     trace,
@@ -289,9 +704,44 @@ public class WorkflowRunner {
                     this.untilProtocolMessage,
                     (this.untilSendingMessage != null && this.untilSendingMessage == true),
                     untilLast);
+        recordPhase(
+                ExecutionPhase.TRACE_GENERATION,
+                TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
         return trace;
     }
 
+    /**
+     * Complete handshakes of tests annotated with @ResumptionFastPath resume a pooled session if
+     * the target supports it. Without a pooled session, the full handshake provides one for later
+     * test cases.
+     *
+     * @return true if a pooled session should be resumed
+     */
+    private boolean takeResumableSession(WorkflowTraceType type) {
+        ResumptionSessionPool pool = context.getResumptionSessionPool();
+        if (resumedSession != null) {
+            // the previously generated trace has not been executed
+            pool.offer(resumptionKey, resumedSession);
+        }
+        resumptionKey = null;
+        resumedSession = null;
+        if (pool == null
+                || type != WorkflowTraceType.HANDSHAKE
+                || untilHandshakeMessage != null
+                || untilProtocolMessage != null
+                || extensionContext == null
+                || extensionContext.getTestMethod().isEmpty()
+                || !extensionContext
+                        .getRequiredTestMethod()
+                        .isAnnotationPresent(ResumptionFastPath.class)
+                || !pool.isSupported(preparedConfig.getHighestProtocolVersion())) {
+            return false;
+        }
+        resumptionKey = ResumptionSessionPool.key(preparedConfig);
+        resumedSession = pool.take(resumptionKey);
+        return resumedSession != null;
+    }
+
     public WorkflowTrace generateWorkflowTraceUntilMessage(
             WorkflowTraceType type, HandshakeMessageType handshakeMessageType) {
         this.untilHandshakeMessage = handshakeMessageType;
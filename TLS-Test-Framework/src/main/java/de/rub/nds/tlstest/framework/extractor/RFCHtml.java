@@ -7,19 +7,25 @@
  */
 package de.rub.nds.tlstest.framework.extractor;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jsoup.Jsoup;
@@ -30,22 +36,36 @@ import org.jsoup.nodes.TextNode;
 
 public class RFCHtml {
     private static final Logger LOGGER = LogManager.getLogger();
+
+    /** folder the documents are fetched to by rfcs/fetch.sh of the testsuite */
+    public static final String DEFAULT_RFC_FOLDER = "rfcs/";
+
     private final int rfcNumber;
     private final String urlString;
     private Document origDoc;
     private Document cleanupDoc;
-    private List<OffsetTextNode> nodeOffsetIndex = null;
+    private String documentText = null;
+    // text nodes of the cleaned up document mapped to the offset of their first character
+    private NavigableMap<Integer, TextNode> nodeOffsetIndex = null;
     private final Map<HtmlRFCAnnotation, Integer> annotationMustCounter = new HashMap<>();
     private final Map<HtmlRFCAnnotation, Integer> annotationMustNotCounter = new HashMap<>();
-    private final List<MarkedPassage> mustNotPositions = new LinkedList<>();
-    private final List<MarkedPassage> mustPositions = new LinkedList<>();
-    private final List<MarkedPassage> remainingMustAndNot = new LinkedList<>();
-    ;
+    private final NavigableMap<Integer, MarkedPassage> mustNotPositions = new TreeMap<>();
+    private final NavigableMap<Integer, MarkedPassage> mustPositions = new TreeMap<>();
+    private final NavigableMap<Integer, MarkedPassage> remainingMustNots = new TreeMap<>();
+    private final NavigableMap<Integer, MarkedPassage> remainingMusts = new TreeMap<>();
 
     public RFCHtml(int rfcNumber) {
+        this(rfcNumber, DEFAULT_RFC_FOLDER);
+    }
+
+    /**
+     * @param rfcFolder folder containing the document as rfc&lt;number&gt;.html
+     * @throws UncheckedIOException if the document can not be read
+     */
+    public RFCHtml(int rfcNumber, String rfcFolder) {
         this.rfcNumber = rfcNumber;
         this.urlString = String.format("https://datatracker.ietf.org/doc/html/rfc%d", rfcNumber);
-        this.load();
+        this.load(rfcFolder);
     }
 
     protected RFCHtml(String htmlString) {
@@ -55,13 +75,25 @@ public class RFCHtml {
         this.cleanupDoc = origDoc.clone();
     }
 
-    private void load() {
+    /**
+     * @return the path the document of the RFC is expected at
+     */
+    public static Path getDocumentPath(String rfcFolder, int rfcNumber) {
+        return Paths.get(rfcFolder, String.format("rfc%d.html", rfcNumber));
+    }
+
+    private void load(String rfcFolder) {
+        Path rfcFile = getDocumentPath(rfcFolder, rfcNumber);
         try {
-            origDoc = Jsoup.connect(urlString).get();
-            this.cleanup();
-        } catch (Exception e) {
-            LOGGER.error("Error getting RFC document", e);
+            origDoc = Jsoup.parse(rfcFile.toFile(), StandardCharsets.UTF_8.name(), urlString);
+        } catch (IOException e) {
+            throw new UncheckedIOException(
+                    String.format(
+                            "Failed to read RFC %d from %s, the documents can be downloaded using rfcs/fetch.sh of the testsuite",
+                            rfcNumber, rfcFile),
+                    e);
         }
+        this.cleanup();
     }
 
     private void cleanup() {
@@ -130,61 +162,58 @@ public class RFCHtml {
         return childNodes;
     }
 
-    private void createTextNodeOffsetIndex() {
-        if (nodeOffsetIndex == null) {
-            nodeOffsetIndex = new ArrayList<>();
+    private Element getMainElement() {
+        return this.cleanupDoc.getElementsByTag("pre").first();
+    }
+
+    /** Wrapping and splitting text nodes does not change the text, so it is only extracted once. */
+    private String getDocumentText() {
+        if (documentText == null) {
+            documentText = getMainElement().wholeText();
         }
-        Element preElem = this.cleanupDoc.getElementsByTag("pre").first();
+        return documentText;
+    }
+
+    private void createTextNodeOffsetIndex() {
+        nodeOffsetIndex = new TreeMap<>();
         int offset = 0;
-        for (TextNode i : getChildNodesRecurisvly(preElem)) {
-            OffsetTextNode offsetNode = new OffsetTextNode(i, offset);
-            nodeOffsetIndex.add(offsetNode);
-            offset += i.getWholeText().length();
+        for (TextNode i : getChildNodesRecurisvly(getMainElement())) {
+            int length = i.getWholeText().length();
+            if (length > 0) {
+                nodeOffsetIndex.put(offset, i);
+                offset += length;
+            }
         }
-
-        Collections.sort(nodeOffsetIndex);
     }
 
     public void findMustAndNotPositions() {
-        if (nodeOffsetIndex == null) {
-            createTextNodeOffsetIndex();
-        }
-        String pattern = "MUST NOT";
-
-        String text = this.cleanupDoc.getElementsByTag("pre").first().wholeText();
-        Matcher matcher = Pattern.compile(pattern).matcher(text);
+        String text = getDocumentText();
+        Matcher matcher = Pattern.compile("MUST NOT").matcher(text);
+        List<MarkedPassage> marks = new ArrayList<>();
         while (matcher.find()) {
-            int startIndex = matcher.start();
-            int endIndex = matcher.end();
-            mustNotPositions.add(new MarkedPassage(startIndex, endIndex));
-            for (TextNode node : getTextNodesBetween(startIndex, endIndex)) {
-                node.wrap(
-                        String.format(
-                                "<span style=\"color: %s;\"></span>",
-                                HtmlRFCAnnotation.MUST_NOT.getColor()));
-            }
+            MarkedPassage newPassage = new MarkedPassage(matcher.start(), matcher.end());
+            mustNotPositions.put(newPassage.startIndex, newPassage);
+            marks.add(newPassage);
         }
+        wrapPassages(marks, HtmlRFCAnnotation.MUST_NOT);
 
-        pattern = "MUST";
-        matcher = Pattern.compile(pattern).matcher(text);
+        marks.clear();
+        matcher = Pattern.compile("MUST").matcher(text);
         while (matcher.find()) {
-            int startIndex = matcher.start();
-            int endIndex = matcher.end();
-            MarkedPassage newPassage = new MarkedPassage(startIndex, endIndex);
-            boolean isPartOfMustNot =
-                    mustNotPositions.stream().anyMatch(listed -> newPassage.intersects(listed));
+            MarkedPassage newPassage = new MarkedPassage(matcher.start(), matcher.end());
+            // MUST NOTs do not overlap, only the last one starting before the end can intersect
+            Map.Entry<Integer, MarkedPassage> mustNot =
+                    mustNotPositions.floorEntry(newPassage.endIndex);
+            boolean isPartOfMustNot = mustNot != null && newPassage.intersects(mustNot.getValue());
             if (!isPartOfMustNot) {
-                mustPositions.add(new MarkedPassage(startIndex, endIndex));
-                for (TextNode node : getTextNodesBetween(startIndex, endIndex)) {
-                    node.wrap(
-                            String.format(
-                                    "<span style=\"color: %s;\"></span>",
-                                    HtmlRFCAnnotation.MUST.getColor()));
-                }
+                mustPositions.put(newPassage.startIndex, newPassage);
+                marks.add(newPassage);
             }
         }
-        remainingMustAndNot.addAll(mustNotPositions);
-        remainingMustAndNot.addAll(mustPositions);
+        wrapPassages(marks, HtmlRFCAnnotation.MUST);
+
+        remainingMustNots.putAll(mustNotPositions);
+        remainingMusts.putAll(mustPositions);
         LOGGER.info(
                 "RFC {} contains {} 'MUST's and {} 'MUST NOT's",
                 rfcNumber,
@@ -194,6 +223,34 @@ public class RFCHtml {
 
     public boolean markText(
             String searchText, HtmlRFCAnnotation annotationType, boolean encodeRegex) {
+        return !markTexts(List.of(searchText), annotationType, encodeRegex).isEmpty();
+    }
+
+    /**
+     * Marks all passages of one annotation type. The passages are searched in the document text
+     * first and the matches are then wrapped in a single pass along the text node offset index.
+     *
+     * @return the search texts that were found in the document
+     */
+    public Set<String> markTexts(
+            Collection<String> searchTexts, HtmlRFCAnnotation annotationType, boolean encodeRegex) {
+        Set<String> found = new HashSet<>();
+        List<MarkedPassage> marks = new ArrayList<>();
+        for (String searchText : searchTexts) {
+            if (findPassages(searchText, encodeRegex, marks)) {
+                found.add(searchText);
+            }
+        }
+        marks.sort(Comparator.comparingInt(MarkedPassage::getStartIndex));
+        for (MarkedPassage mark : marks) {
+            consumeContainedMustAndNot(mark, annotationType);
+        }
+        wrapPassages(marks, annotationType);
+        return found;
+    }
+
+    private boolean findPassages(
+            String searchText, boolean encodeRegex, List<MarkedPassage> matches) {
         String pattern = (encodeRegex) ? encodeString(searchText) : searchText;
         pattern = pattern.replace("[The server]", "");
         pattern = pattern.replace("[Servers]", "");
@@ -204,8 +261,8 @@ public class RFCHtml {
         }
         pattern = pattern.replaceAll("[\\s\\n]+", "[\\\\s\\\\n]+");
 
-        String text = this.cleanupDoc.getElementsByTag("pre").first().wholeText();
-        Matcher matcher = Pattern.compile(pattern, Pattern.CASE_INSENSITIVE).matcher(text);
+        Matcher matcher =
+                Pattern.compile(pattern, Pattern.CASE_INSENSITIVE).matcher(getDocumentText());
 
         boolean found = false;
         while (matcher.find()) {
@@ -213,16 +270,7 @@ public class RFCHtml {
                 LOGGER.warn("RFC {}: Multiple matches of '{}'", rfcNumber, searchText);
             }
             found = true;
-
-            int startIndex = matcher.start();
-            int endIndex = matcher.end();
-            MarkedPassage newPassage = new MarkedPassage(startIndex, endIndex);
-            consumeContainedMustAndNot(newPassage, annotationType);
-            for (TextNode node : getTextNodesBetween(startIndex, endIndex)) {
-                node.wrap(
-                        String.format(
-                                "<span style=\"color: %s;\"></span>", annotationType.getColor()));
-            }
+            matches.add(new MarkedPassage(matcher.start(), matcher.end()));
         }
 
         if (!found) {
@@ -231,13 +279,23 @@ public class RFCHtml {
             // mark surrounding passages
             for (int i = 0; i < parts.length - 1; i++) {
                 if (parts[i].length() > 5) {
-                    markText(parts[i], annotationType, false);
+                    findPassages(parts[i], false, matches);
                 }
             }
         }
         return found;
     }
 
+    private void wrapPassages(List<MarkedPassage> passages, HtmlRFCAnnotation annotationType) {
+        String wrapper =
+                String.format("<span style=\"color: %s;\"></span>", annotationType.getColor());
+        for (MarkedPassage passage : passages) {
+            for (TextNode node : getTextNodesBetween(passage.startIndex, passage.endIndex)) {
+                node.wrap(wrapper);
+            }
+        }
+    }
+
     public String getHtml() {
         return cleanupDoc.html();
     }
@@ -254,70 +312,29 @@ public class RFCHtml {
         }
     }
 
+    /**
+     * Splits the text nodes at the given offsets, so that the returned nodes contain exactly the
+     * text between them.
+     */
     private List<TextNode> getTextNodesBetween(int start, int end) {
-        int startIndex = -1;
-        int endIndex = -1;
-        int i = 0;
-        while (i < nodeOffsetIndex.size()) {
-            if (startIndex == -1) {
-                OffsetTextNode node = nodeOffsetIndex.get(i);
-                if (node.getOffset() == start) startIndex = i;
-                else if (start < node.getOffset()) {
-                    startIndex = i;
-                    OffsetTextNode toSplit = nodeOffsetIndex.get(i - 1);
-                    TextNode newSplit =
-                            toSplit.getTextNode().splitText(start - toSplit.getOffset());
-                    nodeOffsetIndex.add(i, new OffsetTextNode(newSplit, start));
-                    i += 1;
-                } else if (i == nodeOffsetIndex.size() - 1) {
-                    OffsetTextNode toSplit = nodeOffsetIndex.get(i);
-                    int splitOffset = start - toSplit.getOffset();
-                    if (splitOffset > 0) {
-                        TextNode newSplit = toSplit.getTextNode().splitText(splitOffset);
-                        nodeOffsetIndex.add(i + 1, new OffsetTextNode(newSplit, start));
-                        startIndex = i + 1;
-                        i += 1;
-                    } else {
-                        startIndex = i;
-                    }
-                }
-            }
-            if (endIndex == -1) {
-                OffsetTextNode node = nodeOffsetIndex.get(i);
-                if (node.getOffset() == end) {
-                    endIndex = i - 1;
-                    if (endIndex < 0) endIndex = 0;
-                    break;
-                }
-                if (end < node.getOffset()) {
-                    OffsetTextNode toSplit = nodeOffsetIndex.get(i - 1);
-                    int splitOffset = end - toSplit.getOffset();
-                    endIndex = i - 1;
-                    if (splitOffset < toSplit.getTextNode().getWholeText().length()) {
-                        TextNode newSplit = toSplit.getTextNode().splitText(splitOffset);
-                        nodeOffsetIndex.add(i, new OffsetTextNode(newSplit, end));
-                    }
-                    break;
-                }
-                if (i == nodeOffsetIndex.size() - 1) {
-                    OffsetTextNode toSplit = nodeOffsetIndex.get(i);
-                    int splitOffset = end - toSplit.getOffset();
-                    endIndex = i;
-                    if (splitOffset < toSplit.getTextNode().getWholeText().length()) {
-                        TextNode newSplit = toSplit.getTextNode().splitText(splitOffset);
-                        nodeOffsetIndex.add(i + 1, new OffsetTextNode(newSplit, end));
-                    }
-                    break;
-                }
-            }
-            i += 1;
+        if (nodeOffsetIndex == null) {
+            createTextNodeOffsetIndex();
         }
+        splitTextNodeAt(start);
+        splitTextNodeAt(end);
+        return new ArrayList<>(nodeOffsetIndex.subMap(start, true, end, false).values());
+    }
 
-        Collections.sort(nodeOffsetIndex);
-
-        return nodeOffsetIndex.subList(startIndex, endIndex + 1).stream()
-                .map(OffsetTextNode::getTextNode)
-                .collect(Collectors.toList());
+    private void splitTextNodeAt(int offset) {
+        Map.Entry<Integer, TextNode> containing = nodeOffsetIndex.floorEntry(offset);
+        if (containing == null || containing.getKey() == offset) {
+            return;
+        }
+        TextNode toSplit = containing.getValue();
+        int splitOffset = offset - containing.getKey();
+        if (splitOffset < toSplit.getWholeText().length()) {
+            nodeOffsetIndex.put(offset, toSplit.splitText(splitOffset));
+        }
     }
 
     private String encodeString(String input) {
@@ -326,33 +343,20 @@ public class RFCHtml {
 
     private void consumeContainedMustAndNot(
             MarkedPassage consumingPassage, HtmlRFCAnnotation annotationType) {
-        int coveringMustNots = remainingMustAndNot.size();
-        mustNotPositions.stream()
-                .filter(
-                        listed ->
-                                (consumingPassage.contains(listed)
-                                        && remainingMustAndNot.contains(listed)))
-                .forEach(remainingMustAndNot::remove);
-        coveringMustNots = coveringMustNots - remainingMustAndNot.size();
-        int coveringMusts = remainingMustAndNot.size();
-        mustPositions.stream()
-                .filter(
-                        listed ->
-                                (consumingPassage.contains(listed)
-                                        && remainingMustAndNot.contains(listed)))
-                .forEach(remainingMustAndNot::remove);
-        coveringMusts = coveringMusts - remainingMustAndNot.size();
-        int previouslyCoveredCountMustNot =
-                (annotationMustNotCounter.containsKey(annotationType))
-                        ? annotationMustNotCounter.get(annotationType)
-                        : 0;
-        int previouslyCoveredCountMust =
-                (annotationMustCounter.containsKey(annotationType))
-                        ? annotationMustCounter.get(annotationType)
-                        : 0;
-        annotationMustNotCounter.put(
-                annotationType, previouslyCoveredCountMustNot + coveringMustNots);
-        annotationMustCounter.put(annotationType, previouslyCoveredCountMust + coveringMusts);
+        int coveringMustNots = consumeContained(remainingMustNots, consumingPassage);
+        int coveringMusts = consumeContained(remainingMusts, consumingPassage);
+        annotationMustNotCounter.merge(annotationType, coveringMustNots, Integer::sum);
+        annotationMustCounter.merge(annotationType, coveringMusts, Integer::sum);
+    }
+
+    private int consumeContained(
+            NavigableMap<Integer, MarkedPassage> remaining, MarkedPassage consumingPassage) {
+        Map<Integer, MarkedPassage> contained =
+                remaining.subMap(
+                        consumingPassage.startIndex, true, consumingPassage.endIndex, true);
+        int count = contained.size();
+        contained.clear();
+        return count;
     }
 
     public String getPrintableCounters() {
@@ -366,21 +370,21 @@ public class RFCHtml {
         }
         StringBuilder builder = new StringBuilder();
         builder.append("\nCoverable MUSTs\n").append(rfcNumber).append("\n");
-        appendCountersForList(builder, mustPositions, annotationMustCounter);
+        appendCountersForList(builder, mustPositions.size(), annotationMustCounter);
 
         builder.append("\nCoverable MUST NOTs\n").append(rfcNumber).append("\n");
-        appendCountersForList(builder, mustNotPositions, annotationMustNotCounter);
+        appendCountersForList(builder, mustNotPositions.size(), annotationMustNotCounter);
         return builder.toString();
     }
 
     private void appendCountersForList(
             StringBuilder builder,
-            List<MarkedPassage> mandatoryPositions,
+            int mandatoryPositions,
             Map<HtmlRFCAnnotation, Integer> annotationCounterMap) {
         int keywordsOverall = 0;
-        if (!mandatoryPositions.isEmpty()) {
+        if (mandatoryPositions > 0) {
             // subtract first MUST/MUST NOT from terminology explanation
-            keywordsOverall = mandatoryPositions.size() - 1;
+            keywordsOverall = mandatoryPositions - 1;
         }
         builder.append("Overall: ").append(keywordsOverall).append("\n");
 
@@ -433,6 +437,14 @@ public class RFCHtml {
                     || (other.startIndex >= startIndex && other.startIndex <= endIndex);
         }
 
+        public int getStartIndex() {
+            return startIndex;
+        }
+
+        public int getEndIndex() {
+            return endIndex;
+        }
+
         public boolean contains(MarkedPassage other) {
             return (other.startIndex >= startIndex && other.startIndex <= endIndex);
         }
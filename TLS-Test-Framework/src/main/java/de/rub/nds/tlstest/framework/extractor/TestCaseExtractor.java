@@ -14,7 +14,9 @@ import de.rub.nds.anvilcore.junit.extension.EndpointConditionExtension;
 import de.rub.nds.anvilcore.teststate.reporting.MetadataFetcher;
 import de.rub.nds.tlstest.framework.TestContext;
 import de.rub.nds.tlstest.framework.annotations.EnforcedSenderRestriction;
+import de.rub.nds.tlstest.framework.config.delegates.TestExtractorDelegate;
 import java.lang.reflect.Method;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -25,6 +27,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -141,38 +148,64 @@ public class TestCaseExtractor {
                     rfcMap.get(rfcNumber).add(i);
                 });
 
-        Set<ExtractionMethod> testsWithQuotesFound = new HashSet<>();
-        rfcMap.keySet()
-                .forEach(
-                        rfcNumber -> {
-                            List<ExtractionMethod> testCases = rfcMap.get(rfcNumber);
-                            RFCHtml rfcHtml = new RFCHtml(rfcNumber);
-                            applyHtmlRFCAnnotations(rfcHtml, rfcNumber);
-                            LOGGER.info("RFC {}: Found {} test cases", rfcNumber, testCases.size());
-
-                            for (ExtractionMethod testCase : testCases) {
-                                boolean foundQuote =
-                                        rfcHtml.markText(
-                                                testCase.getDescription(),
-                                                HtmlRFCAnnotation.COVERED,
-                                                true);
-                                if (foundQuote) {
-                                    testsWithQuotesFound.add(testCase);
-                                }
-                            }
-
-                            if (detailedOutput) {
-                                LOGGER.info(
-                                        "MUST (NOT) coverage RFC {}: \n{}",
-                                        rfcNumber,
-                                        rfcHtml.getPrintableCounters());
-                            }
-                            rfcHtml.saveToFolder(
-                                    TestContext.getInstance()
-                                            .getConfig()
-                                            .getTestExtractorDelegate()
-                                            .getOutputFolder());
-                        });
+        TestExtractorDelegate delegate =
+                TestContext.getInstance().getConfig().getTestExtractorDelegate();
+        LOGGER.info("Reading RFC documents from {}", delegate.getRfcFolder());
+        List<Integer> missingDocuments =
+                rfcMap.keySet().stream()
+                        .sorted()
+                        .filter(
+                                rfcNumber ->
+                                        !Files.isReadable(
+                                                RFCHtml.getDocumentPath(
+                                                        delegate.getRfcFolder(), rfcNumber)))
+                        .collect(Collectors.toList());
+        if (!missingDocuments.isEmpty()) {
+            throw new IllegalStateException(
+                    String.format(
+                            "The documents of the RFCs %s are missing in %s, they can be downloaded using rfcs/fetch.sh of the testsuite",
+                            missingDocuments, delegate.getRfcFolder()));
+        }
+        Set<ExtractionMethod> testsWithQuotesFound = ConcurrentHashMap.newKeySet();
+        ExecutorService documentExecutor =
+                Executors.newFixedThreadPool(Math.max(1, delegate.getParallelDocuments()));
+        RuntimeException failure = null;
+        try {
+            List<Future<?>> annotatedDocuments = new ArrayList<>();
+            for (int rfcNumber : rfcMap.keySet()) {
+                annotatedDocuments.add(
+                        documentExecutor.submit(
+                                () ->
+                                        annotateDocument(
+                                                rfcNumber,
+                                                rfcMap.get(rfcNumber),
+                                                delegate,
+                                                testsWithQuotesFound)));
+            }
+            // wait for all documents, so the output folder is complete apart from the failed ones
+            for (Future<?> annotatedDocument : annotatedDocuments) {
+                try {
+                    annotatedDocument.get();
+                } catch (ExecutionException e) {
+                    LOGGER.error("Failed to annotate RFC document", e.getCause());
+                    if (failure == null) {
+                        failure =
+                                new RuntimeException(
+                                        "Failed to annotate RFC document", e.getCause());
+                    } else {
+                        failure.addSuppressed(e.getCause());
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while annotating the RFC documents", e);
+        } finally {
+            documentExecutor.shutdownNow();
+        }
+        if (failure != null) {
+            throw failure;
+        }
 
         if (detailedOutput) {
             printTestsWithoutQuote(testMethods, testsWithQuotesFound);
@@ -181,6 +214,35 @@ public class TestCaseExtractor {
         }
     }
 
+    private void annotateDocument(
+            int rfcNumber,
+            List<ExtractionMethod> testCases,
+            TestExtractorDelegate delegate,
+            Set<ExtractionMethod> testsWithQuotesFound) {
+        RFCHtml rfcHtml = new RFCHtml(rfcNumber, delegate.getRfcFolder());
+        applyHtmlRFCAnnotations(rfcHtml, rfcNumber);
+        LOGGER.info("RFC {}: Found {} test cases", rfcNumber, testCases.size());
+
+        Set<String> foundQuotes =
+                rfcHtml.markTexts(
+                        testCases.stream()
+                                .map(ExtractionMethod::getDescription)
+                                .collect(Collectors.toList()),
+                        HtmlRFCAnnotation.COVERED,
+                        true);
+        for (ExtractionMethod testCase : testCases) {
+            if (foundQuotes.contains(testCase.getDescription())) {
+                testsWithQuotesFound.add(testCase);
+            }
+        }
+
+        if (delegate.isDetailed()) {
+            LOGGER.info(
+                    "MUST (NOT) coverage RFC {}: \n{}", rfcNumber, rfcHtml.getPrintableCounters());
+        }
+        rfcHtml.saveToFolder(delegate.getOutputFolder());
+    }
+
     private void printTestsWithoutQuote(
             Set<ExtractionMethod> testMethods, Set<ExtractionMethod> testsWithQuotesFound) {
         Set<ExtractionMethod> testsWithoutQuote = new HashSet<>(testMethods);
@@ -258,9 +320,7 @@ public class TestCaseExtractor {
         Map<HtmlRFCAnnotation, List<String>> annotationMap =
                 HtmlRFCAnnotation.getAnnotations(rfcNumber, "annotations/");
         for (HtmlRFCAnnotation annotationType : annotationMap.keySet()) {
-            for (String annotatedPassage : annotationMap.get(annotationType)) {
-                rfcHtml.markText(annotatedPassage, annotationType, true);
-            }
+            rfcHtml.markTexts(annotationMap.get(annotationType), annotationType, true);
         }
     }
 
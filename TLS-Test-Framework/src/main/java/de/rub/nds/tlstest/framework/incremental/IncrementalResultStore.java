@@ -0,0 +1,183 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.incremental;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.rub.nds.anvilcore.teststate.TestResult;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Persists the verdicts of executed test cases together with their {@link TestCaseFingerprint}. In
+ * subsequent runs, test cases whose fingerprint did not change are not executed again; their
+ * previous verdict is carried forward instead. A configurable share of unchanged test cases is
+ * executed anyway to detect drifts that are not covered by the fingerprint.
+ */
+public class IncrementalResultStore {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private final Path storePath;
+    private final double sampleRate;
+    private final String targetFingerprint;
+    private final String runIdentifier;
+
+    private final Map<String, StoredTestCase> storedTestCases;
+    private final Set<String> carriedForwardCases = new HashSet<>();
+    private int executedCases = 0;
+    private int sampledCases = 0;
+
+    public IncrementalResultStore(
+            Path storePath, double sampleRate, String targetFingerprint, String runIdentifier) {
+        this.storePath = storePath;
+        this.sampleRate = sampleRate;
+        this.targetFingerprint = targetFingerprint;
+        this.runIdentifier = runIdentifier;
+        this.storedTestCases = load(storePath);
+    }
+
+    private static Map<String, StoredTestCase> load(Path storePath) {
+        File storeFile = storePath.toFile();
+        if (!storeFile.exists()) {
+            LOGGER.info("No previous results found at {}, executing all test cases", storePath);
+            return new HashMap<>();
+        }
+        try {
+            Map<String, StoredTestCase> loaded =
+                    new ObjectMapper()
+                            .readValue(
+                                    storeFile, new TypeReference<Map<String, StoredTestCase>>() {});
+            LOGGER.info("Loaded {} previous test case results from {}", loaded.size(), storePath);
+            return loaded;
+        } catch (IOException e) {
+            LOGGER.error("Failed to read previous results from {}, ignoring them", storePath, e);
+            return new HashMap<>();
+        }
+    }
+
+    public String getTargetFingerprint() {
+        return targetFingerprint;
+    }
+
+    /**
+     * Determines whether a test case can be skipped.
+     *
+     * @param caseKey the key of the test case
+     * @param fingerprint the current fingerprint of the test case
+     * @return the stored result to carry forward, or null if the test case must be executed
+     */
+    public synchronized StoredTestCase getCarriedForwardResult(String caseKey, String fingerprint) {
+        StoredTestCase stored = storedTestCases.get(caseKey);
+        if (stored == null || !fingerprint.equals(stored.getFingerprint())) {
+            return null;
+        }
+        if (ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            sampledCases++;
+            return null;
+        }
+        carriedForwardCases.add(caseKey);
+        return stored;
+    }
+
+    public synchronized boolean isCarriedForward(String caseKey) {
+        return carriedForwardCases.contains(caseKey);
+    }
+
+    public synchronized void record(
+            String caseKey,
+            String fingerprint,
+            TestResult testResult,
+            List<String> additionalResultInformation) {
+        if (carriedForwardCases.contains(caseKey)) {
+            return;
+        }
+        executedCases++;
+        StoredTestCase stored = new StoredTestCase();
+        stored.setFingerprint(fingerprint);
+        stored.setTestResult(testResult);
+        stored.setAdditionalResultInformation(
+                additionalResultInformation == null
+                        ? new LinkedList<>()
+                        : new LinkedList<>(additionalResultInformation));
+        stored.setRunIdentifier(runIdentifier);
+        storedTestCases.put(caseKey, stored);
+    }
+
+    /** Writes the store to disk, replacing the previous file atomically. */
+    public synchronized void save() {
+        try {
+            Path absolutePath = storePath.toAbsolutePath();
+            Files.createDirectories(absolutePath.getParent());
+            Path temporaryPath = absolutePath.resolveSibling(absolutePath.getFileName() + ".tmp");
+            new ObjectMapper().writeValue(temporaryPath.toFile(), storedTestCases);
+            Files.move(
+                    temporaryPath,
+                    absolutePath,
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.error("Failed to write incremental results to {}", storePath, e);
+        }
+        LOGGER.info(
+                "Incremental run: {} test cases executed ({} of them sampled for drift detection), {} verdicts carried forward",
+                executedCases,
+                sampledCases,
+                carriedForwardCases.size());
+    }
+
+    public static class StoredTestCase {
+        private String fingerprint;
+        private TestResult testResult;
+        private List<String> additionalResultInformation = new LinkedList<>();
+        private String runIdentifier;
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        public void setFingerprint(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        public TestResult getTestResult() {
+            return testResult;
+        }
+
+        public void setTestResult(TestResult testResult) {
+            this.testResult = testResult;
+        }
+
+        public List<String> getAdditionalResultInformation() {
+            return additionalResultInformation;
+        }
+
+        public void setAdditionalResultInformation(List<String> additionalResultInformation) {
+            this.additionalResultInformation = additionalResultInformation;
+        }
+
+        public String getRunIdentifier() {
+            return runIdentifier;
+        }
+
+        public void setRunIdentifier(String runIdentifier) {
+            this.runIdentifier = runIdentifier;
+        }
+    }
+}
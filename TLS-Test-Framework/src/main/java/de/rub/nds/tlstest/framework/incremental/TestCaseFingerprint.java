@@ -0,0 +1,204 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.incremental;
+
+import de.rub.nds.anvilcore.model.DerivationScope;
+import de.rub.nds.anvilcore.model.ParameterCombination;
+import de.rub.nds.anvilcore.model.constraint.ValueConstraint;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Computes fingerprints of individual test cases. A fingerprint covers everything that determines
+ * the outcome of a test case apart from the behavior of the target in the current run: the bytecode
+ * of the test class and the framework, the input parameter model resolved for the test, the
+ * selected parameter combination, and the features extracted from the target.
+ */
+public class TestCaseFingerprint {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final Map<Method, String> methodDigests = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, String> classDigests = new ConcurrentHashMap<>();
+    private static final String FRAMEWORK_DIGEST = digestFramework();
+
+    private TestCaseFingerprint() {}
+
+    /**
+     * @param testId the id of the test template
+     * @param parameterCombination the combination of the test case
+     * @return a key identifying the test case across runs
+     */
+    public static String caseKey(String testId, ParameterCombination parameterCombination) {
+        return testId + " " + parameterCombination;
+    }
+
+    public static String compute(
+            Method testMethod,
+            DerivationScope derivationScope,
+            ParameterCombination parameterCombination,
+            String targetFingerprint) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("method=").append(getMethodDigest(testMethod)).append('\n');
+        builder.append("ipm=").append(describeScope(derivationScope)).append('\n');
+        builder.append("combination=").append(parameterCombination).append('\n');
+        builder.append("target=").append(targetFingerprint);
+        return sha256(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String describeScope(DerivationScope derivationScope) {
+        if (derivationScope == null) {
+            return "";
+        }
+        return String.join(
+                "|",
+                derivationScope.getModelType(),
+                String.valueOf(derivationScope.getTestStrength()),
+                derivationScope.getIpmLimitations().stream()
+                        .map(Object::toString)
+                        .sorted()
+                        .collect(Collectors.joining(",")),
+                derivationScope.getIpmExtensions().stream()
+                        .map(Object::toString)
+                        .sorted()
+                        .collect(Collectors.joining(",")),
+                derivationScope.getValueConstraints().stream()
+                        .map(TestCaseFingerprint::describeConstraint)
+                        .sorted()
+                        .collect(Collectors.joining(",")),
+                derivationScope.getExplicitValues().entrySet().stream()
+                        .map(entry -> entry.getKey() + "=" + entry.getValue())
+                        .sorted()
+                        .collect(Collectors.joining(",")),
+                derivationScope.getExplicitModelingConstraints().entrySet().stream()
+                        .map(entry -> entry.getKey() + "=" + entry.getValue())
+                        .sorted()
+                        .collect(Collectors.joining(",")),
+                derivationScope.getManualConfigTypes().stream()
+                        .map(Object::toString)
+                        .sorted()
+                        .collect(Collectors.joining(",")));
+    }
+
+    private static String describeConstraint(ValueConstraint constraint) {
+        return constraint.getAffectedParameter()
+                + ":"
+                + constraint.getEvaluationMethod()
+                + ":"
+                + (constraint.getClazz() == null ? "" : constraint.getClazz().getName())
+                + ":"
+                + constraint.isDynamic();
+    }
+
+    /**
+     * Hashes the test method together with the class files of its declaring class, which contain
+     * the lambdas and helpers the test calls, and the code of the framework, which contains the
+     * validators. Any change to the test class thus invalidates the fingerprints of all of its
+     * tests.
+     */
+    static String getMethodDigest(Method method) {
+        return methodDigests.computeIfAbsent(method, TestCaseFingerprint::digestMethod);
+    }
+
+    private static String digestMethod(Method method) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("method=")
+                .append(method.getName())
+                .append(Arrays.toString(method.getParameterTypes()))
+                .append('\n');
+        for (Class<?> clazz = method.getDeclaringClass();
+                clazz != null && clazz != Object.class;
+                clazz = clazz.getSuperclass()) {
+            builder.append(clazz.getName())
+                    .append('=')
+                    .append(classDigests.computeIfAbsent(clazz, TestCaseFingerprint::digestClass))
+                    .append('\n');
+        }
+        builder.append("framework=").append(FRAMEWORK_DIGEST);
+        return sha256(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Hashes the class file and the class files of its member and anonymous classes. */
+    private static String digestClass(Class<?> clazz) {
+        StringBuilder builder =
+                new StringBuilder(digestClassFile(clazz.getClassLoader(), clazz.getName()));
+        for (Class<?> memberClass : clazz.getDeclaredClasses()) {
+            builder.append(',').append(digestClass(memberClass));
+        }
+        // anonymous classes are numbered consecutively
+        for (int i = 1; ; i++) {
+            String anonymousClass =
+                    digestClassFile(clazz.getClassLoader(), clazz.getName() + "$" + i);
+            if (anonymousClass.isEmpty()) {
+                break;
+            }
+            builder.append(',').append(anonymousClass);
+        }
+        return builder.toString();
+    }
+
+    private static String digestClassFile(ClassLoader classLoader, String className) {
+        String resource = className.replace('.', '/') + ".class";
+        if (classLoader == null) {
+            classLoader = ClassLoader.getSystemClassLoader();
+        }
+        try (InputStream stream = classLoader.getResourceAsStream(resource)) {
+            if (stream == null) {
+                return "";
+            }
+            return sha256(stream.readAllBytes());
+        } catch (Exception e) {
+            LOGGER.warn("Could not read class file of {}", className, e);
+            return "";
+        }
+    }
+
+    /**
+     * Hashes the jar of the framework. If the framework is not loaded from a jar, e.g. in the IDE,
+     * its version is used instead.
+     */
+    private static String digestFramework() {
+        try {
+            Path location =
+                    Paths.get(
+                            TestCaseFingerprint.class
+                                    .getProtectionDomain()
+                                    .getCodeSource()
+                                    .getLocation()
+                                    .toURI());
+            if (Files.isRegularFile(location)) {
+                try (InputStream stream = Files.newInputStream(location)) {
+                    return sha256(stream.readAllBytes());
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Could not read the framework jar, using its version", e);
+        }
+        return String.valueOf(TestCaseFingerprint.class.getPackage().getImplementationVersion());
+    }
+
+    private static String sha256(byte[] input) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(input));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
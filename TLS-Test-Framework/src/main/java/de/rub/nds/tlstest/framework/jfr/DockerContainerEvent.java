@@ -0,0 +1,36 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Spans providing a docker container for a set of configuration options. */
+@Name("de.rub.nds.tlstest.DockerContainer")
+@Label("Docker Container Provisioning")
+@Description("Reuse, build or creation of a docker container for configuration options")
+@Category({"TLS-Anvil", "Configuration Options"})
+public class DockerContainerEvent extends Event {
+
+    @Label("Docker Tag")
+    String dockerTag;
+
+    @Label("Outcome")
+    String outcome;
+
+    public void setDockerTag(String dockerTag) {
+        this.dockerTag = dockerTag;
+    }
+
+    public void setOutcome(String outcome) {
+        this.outcome = outcome;
+    }
+}
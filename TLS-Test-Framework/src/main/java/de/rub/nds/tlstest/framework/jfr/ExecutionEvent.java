@@ -0,0 +1,26 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Spans WorkflowRunner.execute including queueing, the handshake and re-executions. */
+@Name("de.rub.nds.tlstest.Execution")
+@Label("Test Case Execution")
+@Description("Execution of a test case's WorkflowTrace by the WorkflowRunner")
+public class ExecutionEvent extends TestCaseEvent {
+
+    @Label("Re-executions After Outage")
+    int outageReexecutions;
+
+    public void setOutageReexecutions(int outageReexecutions) {
+        this.outageReexecutions = outageReexecutions;
+    }
+}
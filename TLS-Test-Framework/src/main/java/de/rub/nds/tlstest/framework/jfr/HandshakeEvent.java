@@ -0,0 +1,31 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Spans the post-processing of an executed handshake in the after execution callback and carries
+ * the duration of the handshake itself.
+ */
+@Name("de.rub.nds.tlstest.Handshake")
+@Label("Handshake")
+@Description("Post-processing of an executed handshake")
+public class HandshakeEvent extends TestCaseEvent {
+
+    @Label("Handshake Duration")
+    @Timespan(Timespan.MILLISECONDS)
+    long handshakeDuration;
+
+    public void setHandshakeDuration(long handshakeDuration) {
+        this.handshakeDuration = handshakeDuration;
+    }
+}
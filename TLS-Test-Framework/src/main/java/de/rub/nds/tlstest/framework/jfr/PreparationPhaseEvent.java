@@ -0,0 +1,29 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Spans a phase of the TestPreparator, e.g. the feature extraction. */
+@Name("de.rub.nds.tlstest.PreparationPhase")
+@Label("Preparation Phase")
+@Description("Phase of the test preparation before the first test case is executed")
+@Category({"TLS-Anvil", "Preparation"})
+public class PreparationPhaseEvent extends Event {
+
+    @Label("Phase")
+    String phase;
+
+    public PreparationPhaseEvent(String phase) {
+        this.phase = phase;
+    }
+}
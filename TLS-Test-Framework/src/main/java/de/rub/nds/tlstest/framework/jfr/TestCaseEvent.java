@@ -0,0 +1,79 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.jfr;
+
+import de.rub.nds.anvilcore.model.ParameterCombination;
+import de.rub.nds.anvilcore.teststate.AnvilTestCase;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Base class of the JFR events that can be attributed to a test case. The fields are only filled if
+ * the event is actually recorded, so emitting the events costs next to nothing without an active
+ * recording.
+ */
+@Category({"TLS-Anvil", "Test Cases"})
+public abstract class TestCaseEvent extends Event {
+
+    @Label("Test ID")
+    String testId;
+
+    @Label("Parameter Combination Hash")
+    String combinationHash;
+
+    @Label("Target Port")
+    int targetPort = -1;
+
+    @Label("Outcome")
+    String outcome;
+
+    /**
+     * Ends the event and commits it if it is enabled and exceeds the configured threshold.
+     *
+     * @param testCase the test case the event belongs to, may be null
+     * @param testId the id of the test template, may be null
+     * @param outcome short description of the outcome
+     */
+    public void commit(AnvilTestCase testCase, String testId, String outcome) {
+        end();
+        if (!shouldCommit()) {
+            return;
+        }
+        this.testId = testId;
+        this.outcome = outcome;
+        if (testCase != null) {
+            this.combinationHash = combinationHash(testCase.getParameterCombination());
+            // the transport handlers store the port of the peer as destination port in both modes
+            this.targetPort = testCase.getDstPort() != null ? testCase.getDstPort() : -1;
+        }
+        commit();
+    }
+
+    /**
+     * @param combination a parameter combination, may be null
+     * @return a short hash of the combination's string representation, empty for null
+     */
+    public static String combinationHash(ParameterCombination combination) {
+        if (combination == null) {
+            return "";
+        }
+        try {
+            byte[] digest =
+                    MessageDigest.getInstance("SHA-256")
+                            .digest(combination.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.jfr;
+
+import de.rub.nds.anvilcore.teststate.AnvilTestCase;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Spans a check of the Validator. */
+@Name("de.rub.nds.tlstest.Validation")
+@Label("Validation")
+@Description("Check of an executed handshake performed by the Validator")
+public class ValidationEvent extends TestCaseEvent {
+
+    @Label("Check")
+    String check;
+
+    /**
+     * Runs a check of the Validator within a ValidationEvent.
+     *
+     * @param check name of the check
+     * @param testCase the validated test case
+     * @param validation the check, failing by throwing an AssertionError
+     */
+    public static void observe(String check, AnvilTestCase testCase, Runnable validation) {
+        ValidationEvent event = new ValidationEvent();
+        event.check = check;
+        event.begin();
+        String outcome = "FAILED";
+        try {
+            validation.run();
+            outcome = "PASSED";
+        } finally {
+            event.commit(testCase, resolveTestId(testCase), outcome);
+        }
+    }
+
+    private static String resolveTestId(AnvilTestCase testCase) {
+        if (testCase == null || testCase.getAssociatedContainer() == null) {
+            return null;
+        }
+        return testCase.getAssociatedContainer().getTestId();
+    }
+}
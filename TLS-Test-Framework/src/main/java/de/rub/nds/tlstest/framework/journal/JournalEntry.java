@@ -0,0 +1,70 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.journal;
+
+import de.rub.nds.anvilcore.teststate.TestResult;
+import java.util.LinkedList;
+import java.util.List;
+
+/** A single completed test case as recorded in the {@link TestCaseJournal}. */
+public class JournalEntry {
+    private String testId;
+    private String caseKey;
+    private String parameterCombination;
+    private TestResult testResult;
+    private List<String> additionalResultInformation = new LinkedList<>();
+    private long completedAt;
+
+    public String getTestId() {
+        return testId;
+    }
+
+    public void setTestId(String testId) {
+        this.testId = testId;
+    }
+
+    public String getCaseKey() {
+        return caseKey;
+    }
+
+    public void setCaseKey(String caseKey) {
+        this.caseKey = caseKey;
+    }
+
+    public String getParameterCombination() {
+        return parameterCombination;
+    }
+
+    public void setParameterCombination(String parameterCombination) {
+        this.parameterCombination = parameterCombination;
+    }
+
+    public TestResult getTestResult() {
+        return testResult;
+    }
+
+    public void setTestResult(TestResult testResult) {
+        this.testResult = testResult;
+    }
+
+    public List<String> getAdditionalResultInformation() {
+        return additionalResultInformation;
+    }
+
+    public void setAdditionalResultInformation(List<String> additionalResultInformation) {
+        this.additionalResultInformation = additionalResultInformation;
+    }
+
+    public long getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(long completedAt) {
+        this.completedAt = completedAt;
+    }
+}
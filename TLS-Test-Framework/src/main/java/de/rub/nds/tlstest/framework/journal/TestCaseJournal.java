@@ -0,0 +1,212 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.journal;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Write-ahead journal of completed test cases. Every entry is appended as a single JSON line to the
+ * journal file in the output folder. Entries are written by a dedicated thread in batches, each
+ * batch is forced to disk once, so that appending does not block the test execution.
+ *
+ * <p>A run that has been interrupted can be resumed by reading the journal of its output folder. An
+ * incomplete last line, as left behind by a crash during a write, is ignored.
+ */
+public class TestCaseJournal implements AutoCloseable {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    public static final String FILE_NAME = "journal.jsonl";
+
+    static final int MAX_BATCH_SIZE = 128;
+    static final long MAX_BATCH_DELAY_MS = 500;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final BlockingQueue<JournalEntry> pendingEntries = new LinkedBlockingQueue<>();
+    private final Path journalFile;
+    private final FileChannel channel;
+    private final Thread writerThread;
+    private final Thread shutdownHook;
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    public TestCaseJournal(Path outputFolder) throws IOException {
+        Files.createDirectories(outputFolder);
+        journalFile = outputFolder.resolve(FILE_NAME);
+        channel =
+                FileChannel.open(
+                        journalFile,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND);
+        if (endsWithIncompleteLine(journalFile)) {
+            // terminate the line left behind by a crash, otherwise the first new entry is joined to
+            // it
+            channel.write(ByteBuffer.wrap(new byte[] {'\n'}));
+        }
+        writerThread = new Thread(this::writeLoop, "TestCaseJournal");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        // flush pending entries if the JVM is terminated, e.g. when a container is stopped
+        shutdownHook = new Thread(this::close);
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    private static boolean endsWithIncompleteLine(Path file) throws IOException {
+        if (Files.size(file) == 0) {
+            return false;
+        }
+        try (FileChannel readChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            readChannel.read(last, readChannel.size() - 1);
+            return last.get(0) != '\n';
+        }
+    }
+
+    /**
+     * Reads all complete entries of the journal in the given folder.
+     *
+     * @param outputFolder the output folder of a previous run
+     * @return the journaled entries by case key
+     */
+    public static Map<String, JournalEntry> read(Path outputFolder) throws IOException {
+        Map<String, JournalEntry> entries = new HashMap<>();
+        Path journalFile = outputFolder.resolve(FILE_NAME);
+        if (!Files.exists(journalFile)) {
+            return entries;
+        }
+        ObjectMapper mapper = new ObjectMapper();
+        try (BufferedReader reader = Files.newBufferedReader(journalFile)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    JournalEntry entry = mapper.readValue(line, JournalEntry.class);
+                    entries.put(entry.getCaseKey(), entry);
+                } catch (JsonProcessingException e) {
+                    LOGGER.warn("Ignoring incomplete journal entry in {}", journalFile);
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Queues the entry for writing. Entries appended after the journal has been closed, e.g. by
+     * test cases finishing while the JVM shuts down, are written synchronously.
+     */
+    public void append(JournalEntry entry) {
+        synchronized (closed) {
+            if (!closed.get()) {
+                pendingEntries.add(entry);
+                return;
+            }
+        }
+        try (FileChannel lateChannel =
+                FileChannel.open(
+                        journalFile,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND)) {
+            write(lateChannel, List.of(entry));
+        } catch (IOException e) {
+            LOGGER.error("Failed to write entry for {} to closed journal", entry.getCaseKey(), e);
+        }
+    }
+
+    private void writeLoop() {
+        List<JournalEntry> batch = new LinkedList<>();
+        while (!closed.get() || !pendingEntries.isEmpty()) {
+            try {
+                JournalEntry first = pendingEntries.poll(MAX_BATCH_DELAY_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                pendingEntries.drainTo(batch, MAX_BATCH_SIZE - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (IOException e) {
+                LOGGER.error("Failed to write to test case journal", e);
+            }
+            batch.clear();
+        }
+    }
+
+    private synchronized void writeBatch(List<JournalEntry> batch) throws IOException {
+        write(channel, batch);
+    }
+
+    private synchronized void write(FileChannel target, List<JournalEntry> batch)
+            throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (JournalEntry entry : batch) {
+            lines.append(mapper.writeValueAsString(entry)).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+        target.force(false);
+    }
+
+    /** Writes all pending entries and closes the journal file. */
+    @Override
+    public void close() {
+        // entries are either queued before the flag is set or written by append itself
+        synchronized (closed) {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+        }
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            // entries queued after the writer thread finished its last batch
+            List<JournalEntry> remaining = new LinkedList<>();
+            pendingEntries.drainTo(remaining);
+            if (!remaining.isEmpty()) {
+                writeBatch(remaining);
+            }
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.error("Failed to close test case journal", e);
+        }
+        if (Thread.currentThread() != shutdownHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException ignored) {
+                // JVM is already shutting down
+            }
+        }
+    }
+}
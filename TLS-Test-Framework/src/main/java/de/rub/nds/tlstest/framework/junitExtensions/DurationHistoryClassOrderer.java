@@ -0,0 +1,61 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.junitExtensions;
+
+import de.rub.nds.anvilcore.annotation.AnvilTest;
+import de.rub.nds.anvilcore.annotation.NonCombinatorialAnvilTest;
+import de.rub.nds.anvilcore.util.TestIdResolver;
+import de.rub.nds.tlstest.framework.TestContext;
+import de.rub.nds.tlstest.framework.execution.DurationHistory;
+import java.lang.reflect.Method;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.ClassDescriptor;
+import org.junit.jupiter.api.ClassOrderer;
+import org.junit.jupiter.api.ClassOrdererContext;
+
+/**
+ * Orders test classes longest-processing-time-first, based on the durations of previous runs. Test
+ * classes are executed concurrently, so starting the classes with the longest expected duration
+ * first keeps all parallel slots busy until the end of the run. If no history is available, the
+ * discovery order is kept.
+ */
+public class DurationHistoryClassOrderer implements ClassOrderer {
+
+    @Override
+    public void orderClasses(ClassOrdererContext context) {
+        DurationHistory history = TestContext.getInstance().getDurationHistory();
+        if (history.isEmpty()) {
+            return;
+        }
+        Map<ClassDescriptor, Long> expectedMillis =
+                context.getClassDescriptors().stream()
+                        .collect(
+                                Collectors.toMap(
+                                        Function.identity(),
+                                        descriptor ->
+                                                getExpectedMillis(
+                                                        descriptor.getTestClass(), history)));
+        context.getClassDescriptors()
+                .sort(Comparator.comparing(expectedMillis::get, Comparator.reverseOrder()));
+    }
+
+    static long getExpectedMillis(Class<?> testClass, DurationHistory history) {
+        long expectedMillis = 0;
+        for (Method method : testClass.getDeclaredMethods()) {
+            if (method.isAnnotationPresent(AnvilTest.class)
+                    || method.isAnnotationPresent(NonCombinatorialAnvilTest.class)) {
+                expectedMillis +=
+                        history.getExpectedTemplateMillis(TestIdResolver.resolveTestId(method));
+            }
+        }
+        return expectedMillis;
+    }
+}
@@ -0,0 +1,48 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.junitExtensions;
+
+import de.rub.nds.anvilcore.annotation.AnvilTest;
+import de.rub.nds.anvilcore.annotation.NonCombinatorialAnvilTest;
+import de.rub.nds.anvilcore.util.TestIdResolver;
+import de.rub.nds.tlstest.framework.TestContext;
+import de.rub.nds.tlstest.framework.execution.DurationHistory;
+import java.lang.reflect.Method;
+import java.util.Comparator;
+import org.junit.jupiter.api.MethodDescriptor;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.MethodOrdererContext;
+
+/**
+ * Orders the test templates of a class longest-processing-time-first, based on the durations of
+ * previous runs. If no history is available, the discovery order is kept.
+ */
+public class DurationHistoryMethodOrderer implements MethodOrderer {
+
+    @Override
+    public void orderMethods(MethodOrdererContext context) {
+        DurationHistory history = TestContext.getInstance().getDurationHistory();
+        if (history.isEmpty()) {
+            return;
+        }
+        context.getMethodDescriptors()
+                .sort(
+                        Comparator.comparing(
+                                (MethodDescriptor descriptor) ->
+                                        getExpectedMillis(descriptor.getMethod(), history),
+                                Comparator.reverseOrder()));
+    }
+
+    private static long getExpectedMillis(Method method, DurationHistory history) {
+        if (!method.isAnnotationPresent(AnvilTest.class)
+                && !method.isAnnotationPresent(NonCombinatorialAnvilTest.class)) {
+            return 0;
+        }
+        return history.getExpectedTemplateMillis(TestIdResolver.resolveTestId(method));
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.junitExtensions;
+
+import de.rub.nds.anvilcore.teststate.AnvilTestCase;
+import de.rub.nds.anvilcore.util.TestIdResolver;
+import de.rub.nds.tlstest.framework.TestContext;
+import de.rub.nds.tlstest.framework.incremental.IncrementalResultStore;
+import de.rub.nds.tlstest.framework.incremental.TestCaseFingerprint;
+import java.lang.reflect.Method;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.InvocationInterceptor;
+import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
+
+/**
+ * Skips the execution of combinatorial test cases whose fingerprint did not change since the
+ * previous run and carries their previous verdict forward. Only active if an incremental result
+ * store has been configured.
+ */
+public class IncrementalExecutionExtension implements InvocationInterceptor {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    public static final String CARRIED_FORWARD_PREFIX = "Verdict carried forward";
+
+    @Override
+    public void interceptTestTemplateMethod(
+            Invocation<Void> invocation,
+            ReflectiveInvocationContext<Method> invocationContext,
+            ExtensionContext extensionContext)
+            throws Throwable {
+        IncrementalResultStore store = TestContext.getInstance().getIncrementalResultStore();
+        AnvilTestCase testCase = AnvilTestCase.fromExtensionContext(extensionContext);
+        if (store == null || testCase == null || testCase.getParameterCombination() == null) {
+            invocation.proceed();
+            return;
+        }
+
+        Method testMethod = extensionContext.getRequiredTestMethod();
+        String caseKey =
+                TestCaseFingerprint.caseKey(
+                        TestIdResolver.resolveTestId(testMethod),
+                        testCase.getParameterCombination());
+        String fingerprint =
+                TestCaseFingerprint.compute(
+                        testMethod,
+                        testCase.getParameterCombination().getDerivationScope(),
+                        testCase.getParameterCombination(),
+                        store.getTargetFingerprint());
+        IncrementalResultStore.StoredTestCase stored =
+                store.getCarriedForwardResult(caseKey, fingerprint);
+        if (stored == null) {
+            invocation.proceed();
+            return;
+        }
+
+        LOGGER.debug("Carrying forward verdict of unchanged test case {}", caseKey);
+        testCase.setTestResult(stored.getTestResult());
+        stored.getAdditionalResultInformation().forEach(testCase::addAdditionalResultInfo);
+        testCase.addAdditionalResultInfo(
+                CARRIED_FORWARD_PREFIX
+                        + " from run "
+                        + stored.getRunIdentifier()
+                        + " (test case not executed, fingerprint unchanged)");
+        invocation.skip();
+    }
+}
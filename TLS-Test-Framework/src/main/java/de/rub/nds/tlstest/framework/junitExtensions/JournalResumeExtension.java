@@ -0,0 +1,53 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.junitExtensions;
+
+import de.rub.nds.anvilcore.teststate.AnvilTestCase;
+import de.rub.nds.anvilcore.util.TestIdResolver;
+import de.rub.nds.tlstest.framework.TestContext;
+import de.rub.nds.tlstest.framework.incremental.TestCaseFingerprint;
+import de.rub.nds.tlstest.framework.journal.JournalEntry;
+import java.lang.reflect.Method;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.InvocationInterceptor;
+import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
+
+/**
+ * Skips combinatorial test cases that have already been completed by an interrupted run, which is
+ * resumed using the -resume option. The journaled verdict is applied instead.
+ */
+public class JournalResumeExtension implements InvocationInterceptor {
+
+    @Override
+    public void interceptTestTemplateMethod(
+            Invocation<Void> invocation,
+            ReflectiveInvocationContext<Method> invocationContext,
+            ExtensionContext extensionContext)
+            throws Throwable {
+        AnvilTestCase testCase = AnvilTestCase.fromExtensionContext(extensionContext);
+        if (!TestContext.getInstance().isResumed()
+                || testCase == null
+                || testCase.getParameterCombination() == null) {
+            invocation.proceed();
+            return;
+        }
+
+        String caseKey =
+                TestCaseFingerprint.caseKey(
+                        TestIdResolver.resolveTestId(extensionContext.getRequiredTestMethod()),
+                        testCase.getParameterCombination());
+        JournalEntry entry = TestContext.getInstance().getJournaledTestCase(caseKey);
+        if (entry == null) {
+            invocation.proceed();
+            return;
+        }
+        testCase.setTestResult(entry.getTestResult());
+        entry.getAdditionalResultInformation().forEach(testCase::addAdditionalResultInfo);
+        invocation.skip();
+    }
+}
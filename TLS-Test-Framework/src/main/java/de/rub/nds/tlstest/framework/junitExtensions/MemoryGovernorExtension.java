@@ -0,0 +1,51 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.junitExtensions;
+
+import de.rub.nds.tlstest.framework.TestContext;
+import de.rub.nds.tlstest.framework.execution.MemoryGovernor;
+import java.lang.reflect.Method;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.InvocationInterceptor;
+import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
+
+/** Holds back test cases while the MemoryGovernor throttles the execution. */
+public class MemoryGovernorExtension implements InvocationInterceptor {
+
+    @Override
+    public void interceptTestTemplateMethod(
+            Invocation<Void> invocation,
+            ReflectiveInvocationContext<Method> invocationContext,
+            ExtensionContext extensionContext)
+            throws Throwable {
+        proceedGoverned(invocation);
+    }
+
+    @Override
+    public void interceptTestMethod(
+            Invocation<Void> invocation,
+            ReflectiveInvocationContext<Method> invocationContext,
+            ExtensionContext extensionContext)
+            throws Throwable {
+        proceedGoverned(invocation);
+    }
+
+    private static void proceedGoverned(Invocation<Void> invocation) throws Throwable {
+        MemoryGovernor memoryGovernor = TestContext.getInstance().getMemoryGovernor();
+        if (memoryGovernor == null) {
+            invocation.proceed();
+            return;
+        }
+        memoryGovernor.acquireTestCase();
+        try {
+            invocation.proceed();
+        } finally {
+            memoryGovernor.releaseTestCase();
+        }
+    }
+}
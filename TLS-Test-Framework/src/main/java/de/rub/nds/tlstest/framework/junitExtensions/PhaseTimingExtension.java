@@ -0,0 +1,54 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.junitExtensions;
+
+import de.rub.nds.anvilcore.teststate.AnvilTestCase;
+import de.rub.nds.anvilcore.util.TestIdResolver;
+import de.rub.nds.tlstest.framework.TestContext;
+import de.rub.nds.tlstest.framework.metrics.ExecutionPhase;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.InvocationInterceptor;
+import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
+
+/**
+ * Records the validation phase of a test case, i.e. the time between the end of the last handshake
+ * executed by the WorkflowRunner and the end of the test method.
+ */
+public class PhaseTimingExtension implements InvocationInterceptor {
+
+    public static final ExtensionContext.Namespace NAMESPACE =
+            ExtensionContext.Namespace.create(PhaseTimingExtension.class);
+    public static final String EXECUTION_END = "executionEnd";
+
+    @Override
+    public void interceptTestTemplateMethod(
+            Invocation<Void> invocation,
+            ReflectiveInvocationContext<Method> invocationContext,
+            ExtensionContext extensionContext)
+            throws Throwable {
+        try {
+            invocation.proceed();
+        } finally {
+            Long executionEnd =
+                    extensionContext.getStore(NAMESPACE).remove(EXECUTION_END, Long.class);
+            AnvilTestCase testCase = AnvilTestCase.fromExtensionContext(extensionContext);
+            if (executionEnd != null && testCase != null) {
+                TestContext.getInstance()
+                        .getExecutionMetrics()
+                        .record(
+                                ExecutionPhase.VALIDATION,
+                                TestIdResolver.resolveTestId(
+                                        extensionContext.getRequiredTestMethod()),
+                                testCase.getParameterCombination(),
+                                TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - executionEnd));
+            }
+        }
+    }
+}
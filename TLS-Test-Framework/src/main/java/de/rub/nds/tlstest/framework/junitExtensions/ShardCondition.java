@@ -0,0 +1,36 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.junitExtensions;
+
+import de.rub.nds.anvilcore.util.TestIdResolver;
+import de.rub.nds.tlstest.framework.TestContext;
+import de.rub.nds.tlstest.framework.sharding.ShardPlan;
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * Disables the test templates that are executed by another shard of a run started with -shardCount.
+ */
+public class ShardCondition extends BaseCondition {
+
+    @Override
+    public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext extensionContext) {
+        ShardPlan shardPlan = TestContext.getInstance().getShardPlan();
+        if (shardPlan == null || extensionContext.getTestMethod().isEmpty()) {
+            return ConditionEvaluationResult.enabled("Not sharded");
+        }
+        int shard =
+                shardPlan.getShard(
+                        TestIdResolver.resolveTestId(extensionContext.getRequiredTestMethod()));
+        if (shard == TestContext.getInstance().getConfig().getShardIndex()) {
+            return ConditionEvaluationResult.enabled("Assigned to this shard");
+        }
+        return ConditionEvaluationResult.disabled(
+                ShardPlan.disabledReason(shard, shardPlan.getShardCount()));
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.junitExtensions;
+
+import de.rub.nds.anvilcore.teststate.AnvilTestCase;
+import de.rub.nds.anvilcore.util.TestIdResolver;
+import de.rub.nds.tlstest.framework.TestContext;
+import de.rub.nds.tlstest.framework.escalation.StrengthEscalation;
+import de.rub.nds.tlstest.framework.incremental.TestCaseFingerprint;
+import java.lang.reflect.Method;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.InvocationInterceptor;
+import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
+
+/**
+ * Restricts the escalation phase of a run started with -escalationStrength to the escalated
+ * templates and reuses the verdicts of test cases already executed in the initial phase.
+ */
+public class StrengthEscalationExtension extends BaseCondition implements InvocationInterceptor {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    public static final String REUSED_PREFIX = "Verdict reused";
+
+    @Override
+    public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext extensionContext) {
+        StrengthEscalation escalation = TestContext.getInstance().getStrengthEscalation();
+        if (escalation == null
+                || !escalation.isEscalating()
+                || extensionContext.getTestMethod().isEmpty()) {
+            return ConditionEvaluationResult.enabled("Not escalating");
+        }
+        if (escalation.isEscalated(
+                TestIdResolver.resolveTestId(extensionContext.getRequiredTestMethod()))) {
+            return ConditionEvaluationResult.enabled("Escalated");
+        }
+        return ConditionEvaluationResult.disabled("Passed at the initial strength");
+    }
+
+    @Override
+    public void interceptTestTemplateMethod(
+            Invocation<Void> invocation,
+            ReflectiveInvocationContext<Method> invocationContext,
+            ExtensionContext extensionContext)
+            throws Throwable {
+        StrengthEscalation escalation = TestContext.getInstance().getStrengthEscalation();
+        AnvilTestCase testCase = AnvilTestCase.fromExtensionContext(extensionContext);
+        if (escalation == null || testCase == null || testCase.getParameterCombination() == null) {
+            invocation.proceed();
+            return;
+        }
+        String caseKey =
+                TestCaseFingerprint.caseKey(
+                        TestIdResolver.resolveTestId(extensionContext.getRequiredTestMethod()),
+                        testCase.getParameterCombination());
+        StrengthEscalation.Seed seed = escalation.getSeed(caseKey);
+        if (seed == null) {
+            invocation.proceed();
+            return;
+        }
+
+        LOGGER.debug("Reusing verdict of {} from the initial phase", caseKey);
+        testCase.setTestResult(seed.getTestResult());
+        seed.getAdditionalResultInformation().forEach(testCase::addAdditionalResultInfo);
+        testCase.addAdditionalResultInfo(
+                REUSED_PREFIX + " from the initial phase (test case not executed again)");
+        invocation.skip();
+    }
+}
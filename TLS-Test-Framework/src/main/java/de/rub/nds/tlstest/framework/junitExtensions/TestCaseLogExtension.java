@@ -0,0 +1,45 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.junitExtensions;
+
+import de.rub.nds.anvilcore.teststate.AnvilTestCase;
+import de.rub.nds.tlstest.framework.TestContext;
+import de.rub.nds.tlstest.framework.logging.TestCaseLogBuffer;
+import java.lang.reflect.Method;
+import org.apache.logging.log4j.ThreadContext;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.InvocationInterceptor;
+import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
+
+/**
+ * Assigns the log output of the test method to its test case if the run was started with
+ * -bufferTestCaseLogs.
+ */
+public class TestCaseLogExtension implements InvocationInterceptor {
+
+    @Override
+    public void interceptTestTemplateMethod(
+            Invocation<Void> invocation,
+            ReflectiveInvocationContext<Method> invocationContext,
+            ExtensionContext extensionContext)
+            throws Throwable {
+        AnvilTestCase testCase = AnvilTestCase.fromExtensionContext(extensionContext);
+        TestCaseLogBuffer logBuffer = TestContext.getInstance().getTestCaseLogBuffer();
+        if (logBuffer == null || testCase == null) {
+            invocation.proceed();
+            return;
+        }
+        logBuffer.begin(testCase.getUuid());
+        ThreadContext.put(TestCaseLogBuffer.THREAD_CONTEXT_KEY, testCase.getUuid());
+        try {
+            invocation.proceed();
+        } finally {
+            ThreadContext.remove(TestCaseLogBuffer.THREAD_CONTEXT_KEY);
+        }
+    }
+}
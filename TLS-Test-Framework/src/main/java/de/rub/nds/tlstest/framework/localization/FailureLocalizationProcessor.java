@@ -0,0 +1,150 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.localization;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import de.rub.nds.anvilcore.teststate.TestResult;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Localizes the failure-inducing parameter tuples of all partially failed templates of an output
+ * folder. The ranking is added to the result file of each template and summarized in a separate
+ * file of the output folder.
+ */
+public class FailureLocalizationProcessor {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    static final String RESULTS_FOLDER = "results";
+    static final String TEST_RUN_FILE = "_testRun.json";
+    static final String SUMMARY_FILE = "failure_localization.json";
+
+    private static final int MAX_TUPLES = 10;
+    private static final int MAX_DISCRIMINATING_COMBINATIONS = 3;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final FaultLocalizer localizer;
+
+    /**
+     * @param strength the maximum number of parameters of a reported tuple
+     */
+    public FailureLocalizationProcessor(int strength) {
+        this.localizer = new FaultLocalizer(strength, MAX_TUPLES, MAX_DISCRIMINATING_COMBINATIONS);
+    }
+
+    /**
+     * Processes all templates of an output folder.
+     *
+     * @param outputFolder the output folder of a finished run
+     * @return the summary, mapping the id of each localized template to its ranking
+     */
+    public ObjectNode process(Path outputFolder) throws IOException {
+        ObjectNode summary = mapper.createObjectNode();
+        Path results = outputFolder.resolve(RESULTS_FOLDER);
+        if (!Files.isDirectory(results)) {
+            LOGGER.warn("Output folder {} does not contain any results", outputFolder);
+            return summary;
+        }
+        List<Path> testRunFiles = new ArrayList<>();
+        try (Stream<Path> testFolders = Files.list(results)) {
+            testFolders
+                    .map(testFolder -> testFolder.resolve(TEST_RUN_FILE))
+                    .filter(Files::exists)
+                    .sorted()
+                    .forEach(testRunFiles::add);
+        }
+        for (Path testRunFile : testRunFiles) {
+            ObjectNode testRun = (ObjectNode) mapper.readTree(testRunFile.toFile());
+            FaultLocalizer.Localization localization = localize(testRun);
+            if (localization.getTuples().isEmpty()) {
+                continue;
+            }
+            ArrayNode tuples = mapper.valueToTree(localization.getTuples());
+            ArrayNode combinations =
+                    mapper.valueToTree(localization.getDiscriminatingCombinations());
+            testRun.set("FailureInducingTuples", tuples);
+            testRun.set("DiscriminatingCombinations", combinations);
+            writeAtomically(testRunFile, testRun);
+
+            ObjectNode entry = summary.putObject(testRunFile.getParent().getFileName().toString());
+            entry.set("FailureInducingTuples", tuples);
+            entry.set("DiscriminatingCombinations", combinations);
+            entry.put("UnexplainedFailures", localization.getUnexplainedFailures());
+            LOGGER.debug(
+                    "Most suspicious tuple of {}: {}",
+                    testRunFile.getParent().getFileName(),
+                    localization.getTuples().get(0));
+        }
+        writeAtomically(outputFolder.resolve(SUMMARY_FILE), summary);
+        LOGGER.info("Localized failure-inducing tuples of {} templates", summary.size());
+        return summary;
+    }
+
+    /**
+     * @param testRun the content of the result file of a template
+     * @return the ranking of the tuples of the template
+     */
+    public FaultLocalizer.Localization localize(JsonNode testRun) {
+        List<Map<String, String>> passed = new ArrayList<>();
+        List<Map<String, String>> failed = new ArrayList<>();
+        for (JsonNode testCase : testRun.path("TestCases")) {
+            String result = testCase.path("Result").asText(null);
+            JsonNode parameterCombination = testCase.path("ParameterCombination");
+            if (result == null || !parameterCombination.isObject()) {
+                continue;
+            }
+            switch (TestResult.valueOf(result)) {
+                case STRICTLY_SUCCEEDED:
+                case CONCEPTUALLY_SUCCEEDED:
+                    passed.add(toCombination(parameterCombination));
+                    break;
+                case FULLY_FAILED:
+                case PARTIALLY_FAILED:
+                    failed.add(toCombination(parameterCombination));
+                    break;
+                default:
+                    // disabled or erroneous test cases do not tell anything about the parameters
+            }
+        }
+        return localizer.localize(passed, failed);
+    }
+
+    private static Map<String, String> toCombination(JsonNode parameterCombination) {
+        Map<String, String> combination = new TreeMap<>();
+        for (Map.Entry<String, JsonNode> value : parameterCombination.properties()) {
+            combination.put(
+                    value.getKey(),
+                    value.getValue().isValueNode()
+                            ? value.getValue().asText()
+                            : value.getValue().toString());
+        }
+        return combination;
+    }
+
+    private void writeAtomically(Path file, JsonNode content) throws IOException {
+        Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+        mapper.writerWithDefaultPrettyPrinter().writeValue(temporaryFile.toFile(), content);
+        Files.move(
+                temporaryFile,
+                file,
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+}
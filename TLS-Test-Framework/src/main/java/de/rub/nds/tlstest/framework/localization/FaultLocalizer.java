@@ -0,0 +1,285 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.localization;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Ranks the parameter value tuples of a test template by how likely they induce its failures,
+ * following the suspiciousness ranking of BEN. A tuple is a candidate if it occurs in a failed
+ * combination but in no passed one. Candidates are ranked by the share of failed combinations
+ * containing them and by how innocent the remaining values of these combinations are. Only minimal
+ * candidates are reported, i.e. tuples none of whose sub-tuples is a candidate itself.
+ */
+public class FaultLocalizer {
+
+    private final int maxStrength;
+    private final int maxTuples;
+    private final int maxDiscriminatingCombinations;
+
+    /**
+     * @param maxStrength the maximum number of parameters of a reported tuple
+     * @param maxTuples the maximum number of reported tuples
+     * @param maxDiscriminatingCombinations the maximum number of proposed combinations
+     */
+    public FaultLocalizer(int maxStrength, int maxTuples, int maxDiscriminatingCombinations) {
+        if (maxStrength < 1) {
+            throw new IllegalArgumentException("The strength must be at least 1");
+        }
+        this.maxStrength = maxStrength;
+        this.maxTuples = maxTuples;
+        this.maxDiscriminatingCombinations = maxDiscriminatingCombinations;
+    }
+
+    /**
+     * @param passed the parameter values of the passed combinations
+     * @param failed the parameter values of the failed combinations
+     * @return the ranking, empty if there is nothing to discriminate
+     */
+    public Localization localize(
+            List<Map<String, String>> passed, List<Map<String, String>> failed) {
+        Localization localization = new Localization();
+        if (passed.isEmpty() || failed.isEmpty()) {
+            return localization;
+        }
+
+        Set<String> passedTuples = new HashSet<>();
+        Map<String, int[]> valueCounts = new HashMap<>();
+        for (Map<String, String> combination : passed) {
+            for (SortedMap<String, String> tuple : tuplesOf(combination)) {
+                passedTuples.add(key(tuple));
+            }
+            combination.forEach((parameter, value) -> count(valueCounts, parameter, value, 0));
+        }
+        Map<String, SortedMap<String, String>> candidates = new LinkedHashMap<>();
+        Map<String, List<Map<String, String>>> failedContaining = new HashMap<>();
+        for (Map<String, String> combination : failed) {
+            for (SortedMap<String, String> tuple : tuplesOf(combination)) {
+                String key = key(tuple);
+                if (!passedTuples.contains(key)) {
+                    candidates.putIfAbsent(key, tuple);
+                    failedContaining.computeIfAbsent(key, k -> new ArrayList<>()).add(combination);
+                }
+            }
+            combination.forEach((parameter, value) -> count(valueCounts, parameter, value, 1));
+        }
+
+        List<SuspiciousTuple> ranking = new ArrayList<>();
+        for (Map.Entry<String, SortedMap<String, String>> candidate : candidates.entrySet()) {
+            SortedMap<String, String> tuple = candidate.getValue();
+            if (hasCandidateSubTuple(tuple, candidates.keySet())) {
+                continue;
+            }
+            List<Map<String, String>> containing = failedContaining.get(candidate.getKey());
+            double coverage = (double) containing.size() / failed.size();
+            double environment = Double.MAX_VALUE;
+            for (Map<String, String> combination : containing) {
+                environment =
+                        Math.min(
+                                environment,
+                                environmentSuspiciousness(combination, tuple, valueCounts));
+            }
+            double suspiciousness = (coverage + (1 - environment)) / 2;
+            ranking.add(new SuspiciousTuple(tuple, suspiciousness, containing.size()));
+        }
+        ranking.sort(
+                Comparator.comparingDouble(SuspiciousTuple::getSuspiciousness)
+                        .reversed()
+                        .thenComparingInt(tuple -> tuple.getParameters().size())
+                        .thenComparing(tuple -> tuple.getParameters().toString()));
+
+        Set<Map<String, String>> explained = new HashSet<>();
+        for (SuspiciousTuple tuple : ranking) {
+            for (Map<String, String> combination : failed) {
+                if (contains(combination, tuple.getParameters())) {
+                    explained.add(combination);
+                }
+            }
+        }
+        localization.unexplainedFailures =
+                (int) failed.stream().distinct().count() - explained.size();
+        localization.tuples =
+                new ArrayList<>(ranking.subList(0, Math.min(maxTuples, ranking.size())));
+        localization.discriminatingCombinations =
+                proposeDiscriminatingCombinations(localization.tuples, passed, failed, valueCounts);
+        return localization;
+    }
+
+    /**
+     * Proposes combinations containing a top-ranked tuple together with the least suspicious value
+     * of every other parameter. If such a combination fails, the tuple is very likely the cause; if
+     * it passes, the tuple is innocent.
+     */
+    private List<Map<String, String>> proposeDiscriminatingCombinations(
+            List<SuspiciousTuple> tuples,
+            List<Map<String, String>> passed,
+            List<Map<String, String>> failed,
+            Map<String, int[]> valueCounts) {
+        Set<Map<String, String>> executed = new HashSet<>(passed);
+        executed.addAll(failed);
+        Map<String, Set<String>> domains = new TreeMap<>();
+        valueCounts.keySet().stream()
+                .map(this::splitValueKey)
+                .forEach(
+                        value ->
+                                domains.computeIfAbsent(value[0], k -> new TreeSet<>())
+                                        .add(value[1]));
+
+        Set<Map<String, String>> proposals = new LinkedHashSet<>();
+        for (SuspiciousTuple tuple : tuples) {
+            if (proposals.size() >= maxDiscriminatingCombinations) {
+                break;
+            }
+            Map<String, String> combination = new TreeMap<>(tuple.getParameters());
+            for (Map.Entry<String, Set<String>> domain : domains.entrySet()) {
+                if (combination.containsKey(domain.getKey())) {
+                    continue;
+                }
+                String leastSuspicious = null;
+                double lowest = Double.MAX_VALUE;
+                for (String value : domain.getValue()) {
+                    double suspiciousness =
+                            valueSuspiciousness(valueCounts, domain.getKey(), value);
+                    if (suspiciousness < lowest) {
+                        lowest = suspiciousness;
+                        leastSuspicious = value;
+                    }
+                }
+                combination.put(domain.getKey(), leastSuspicious);
+            }
+            if (!executed.contains(combination)) {
+                proposals.add(combination);
+            }
+        }
+        return new ArrayList<>(proposals);
+    }
+
+    private double environmentSuspiciousness(
+            Map<String, String> combination,
+            Map<String, String> tuple,
+            Map<String, int[]> valueCounts) {
+        double sum = 0;
+        int count = 0;
+        for (Map.Entry<String, String> value : combination.entrySet()) {
+            if (!tuple.containsKey(value.getKey())) {
+                sum += valueSuspiciousness(valueCounts, value.getKey(), value.getValue());
+                count++;
+            }
+        }
+        return count == 0 ? 0 : sum / count;
+    }
+
+    private static double valueSuspiciousness(
+            Map<String, int[]> valueCounts, String parameter, String value) {
+        int[] counts = valueCounts.get(valueKey(parameter, value));
+        return (double) counts[1] / (counts[0] + counts[1]);
+    }
+
+    private static void count(
+            Map<String, int[]> valueCounts, String parameter, String value, int failedIndex) {
+        valueCounts.computeIfAbsent(valueKey(parameter, value), k -> new int[2])[failedIndex]++;
+    }
+
+    private boolean hasCandidateSubTuple(SortedMap<String, String> tuple, Set<String> candidates) {
+        if (tuple.size() == 1) {
+            return false;
+        }
+        for (String parameter : tuple.keySet()) {
+            SortedMap<String, String> subTuple = new TreeMap<>(tuple);
+            subTuple.remove(parameter);
+            if (candidates.contains(key(subTuple))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<SortedMap<String, String>> tuplesOf(Map<String, String> combination) {
+        List<Map.Entry<String, String>> values =
+                new ArrayList<>(new TreeMap<>(combination).entrySet());
+        List<SortedMap<String, String>> tuples = new ArrayList<>();
+        collectTuples(values, 0, new TreeMap<>(), tuples);
+        return tuples;
+    }
+
+    private void collectTuples(
+            List<Map.Entry<String, String>> values,
+            int start,
+            SortedMap<String, String> current,
+            List<SortedMap<String, String>> tuples) {
+        for (int i = start; i < values.size(); i++) {
+            Map.Entry<String, String> value = values.get(i);
+            current.put(value.getKey(), value.getValue());
+            tuples.add(new TreeMap<>(current));
+            if (current.size() < maxStrength) {
+                collectTuples(values, i + 1, current, tuples);
+            }
+            current.remove(value.getKey());
+        }
+    }
+
+    private static boolean contains(Map<String, String> combination, Map<String, String> tuple) {
+        return tuple.entrySet().stream()
+                .allMatch(value -> value.getValue().equals(combination.get(value.getKey())));
+    }
+
+    private static String key(SortedMap<String, String> tuple) {
+        StringBuilder key = new StringBuilder();
+        tuple.forEach((parameter, value) -> key.append(valueKey(parameter, value)).append('\n'));
+        return key.toString();
+    }
+
+    private static String valueKey(String parameter, String value) {
+        return parameter + '\u0000' + value;
+    }
+
+    private String[] splitValueKey(String valueKey) {
+        return valueKey.split("\u0000", 2);
+    }
+
+    /** The ranked tuples of a template. */
+    public static class Localization {
+        private List<SuspiciousTuple> tuples = new ArrayList<>();
+        private List<Map<String, String>> discriminatingCombinations = new ArrayList<>();
+        private int unexplainedFailures = 0;
+
+        /**
+         * @return the minimal failure-inducing tuples, most suspicious first
+         */
+        public List<SuspiciousTuple> getTuples() {
+            return tuples;
+        }
+
+        /**
+         * @return combinations that have not been executed yet and would confirm or refute the top
+         *     ranked tuples
+         */
+        public List<Map<String, String>> getDiscriminatingCombinations() {
+            return discriminatingCombinations;
+        }
+
+        /**
+         * @return the number of failed combinations not containing any candidate tuple, e.g. since
+         *     they fail non-deterministically or due to a tuple of higher strength
+         */
+        public int getUnexplainedFailures() {
+            return unexplainedFailures;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.localization;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+
+/** A tuple of parameter values suspected to induce the failures of a test template. */
+public class SuspiciousTuple {
+
+    @JsonProperty("Parameters")
+    private final SortedMap<String, String> parameters;
+
+    @JsonProperty("Suspiciousness")
+    private final double suspiciousness;
+
+    @JsonProperty("FailedCases")
+    private final int failedCases;
+
+    public SuspiciousTuple(
+            SortedMap<String, String> parameters, double suspiciousness, int failedCases) {
+        this.parameters = Collections.unmodifiableSortedMap(parameters);
+        this.suspiciousness = suspiciousness;
+        this.failedCases = failedCases;
+    }
+
+    public Map<String, String> getParameters() {
+        return parameters;
+    }
+
+    public double getSuspiciousness() {
+        return suspiciousness;
+    }
+
+    public int getFailedCases() {
+        return failedCases;
+    }
+
+    @Override
+    public String toString() {
+        return parameters + String.format(" (%.2f, %d failed)", suspiciousness, failedCases);
+    }
+}
@@ -0,0 +1,351 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.logging;
+
+import de.rub.nds.anvilcore.teststate.TestResult;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.Appender;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.apache.logging.log4j.core.config.AbstractConfiguration;
+import org.apache.logging.log4j.core.config.AppenderRef;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.LoggerConfig;
+import org.apache.logging.log4j.core.config.Property;
+import org.apache.logging.log4j.core.layout.PatternLayout;
+
+/**
+ * Keeps the most recent debug output of each running test case in memory. The output of a test case
+ * is only written to its result folder if the test case did not succeed as expected, the buffers of
+ * all other test cases are discarded.
+ *
+ * <p>Log events are assigned to a test case using the {@link #THREAD_CONTEXT_KEY} of the log4j
+ * ThreadContext, which is set by the TestCaseLogExtension for the test thread and by the
+ * WorkflowRunner for the thread executing the handshake. Only test cases started using {@link
+ * #begin(String)} are buffered, events arriving after a test case was flushed or discarded are
+ * dropped.
+ *
+ * <p>When memory gets scarce, the buffered events are spilled to temporary files. A spill file
+ * grows to about the spill limit at most; once it is exceeded, the earlier spilled events of the
+ * test case are dropped.
+ */
+public class TestCaseLogBuffer extends AbstractAppender {
+    // the inherited LOGGER is the status logger of log4j
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    public static final String THREAD_CONTEXT_KEY = "anvilTestCase";
+    public static final String FOLDER_NAME = "logs";
+    public static final int DEFAULT_CAPACITY = 5000;
+    public static final long DEFAULT_SPILL_LIMIT = 16 * 1024 * 1024;
+
+    private static final String APPENDER_NAME = "TestCaseLogBuffer";
+    private static final String LOGGER_PREFIX = "de.rub.nds";
+    private static final String PATTERN =
+            "%d{MM-dd-yyyy_HH:mm:ss.SSS} [%t] %-5level: %c{1} - %msg%n%throwable";
+
+    private final int capacity;
+    private final long spillLimit;
+    private final Map<String, Buffer> buffers = new ConcurrentHashMap<>();
+    private Path spillFolder;
+    // loggers whose level was lowered by install, mapped to their previous level
+    private final Map<LoggerConfig, Level> previousLevels = new LinkedHashMap<>();
+
+    private static class Buffer {
+        private final Deque<LogEvent> events = new ArrayDeque<>();
+        private long dropped = 0;
+        // events moved to disk to free memory, they precede the buffered events
+        private Path spillFile;
+        private long spilledEvents = 0;
+        private long spilledBytes = 0;
+    }
+
+    public TestCaseLogBuffer(int capacity) {
+        this(capacity, DEFAULT_SPILL_LIMIT);
+    }
+
+    /**
+     * @param capacity number of events kept in memory per test case
+     * @param spillLimit size in bytes the spill file of a test case may grow to
+     */
+    public TestCaseLogBuffer(int capacity, long spillLimit) {
+        super(
+                APPENDER_NAME,
+                null,
+                PatternLayout.newBuilder().withPattern(PATTERN).build(),
+                true,
+                Property.EMPTY_ARRAY);
+        this.capacity = capacity;
+        this.spillLimit = spillLimit;
+    }
+
+    /**
+     * Adds the buffer to all loggers of TLS-Attacker, the scanner and the framework and lowers
+     * their level to DEBUG. The appenders configured for these loggers keep receiving the events of
+     * their previous level only. The changes are reverted by {@link #uninstall()}.
+     */
+    public static TestCaseLogBuffer install() {
+        LoggerContext loggerContext = (LoggerContext) LogManager.getContext(false);
+        Configuration configuration = loggerContext.getConfiguration();
+        TestCaseLogBuffer buffer = new TestCaseLogBuffer(DEFAULT_CAPACITY);
+        buffer.start();
+        configuration.addAppender(buffer);
+        for (LoggerConfig loggerConfig : configuration.getLoggers().values()) {
+            if (loggerConfig.getName().startsWith(LOGGER_PREFIX)) {
+                if (lowerToDebug(configuration, loggerConfig)) {
+                    buffer.previousLevels.put(loggerConfig, loggerConfig.getLevel());
+                    loggerConfig.setLevel(Level.DEBUG);
+                }
+                loggerConfig.addAppender(buffer, Level.DEBUG, null);
+            }
+        }
+        loggerContext.updateLoggers();
+        return buffer;
+    }
+
+    /**
+     * Limits the configured appenders of the logger to its current level.
+     *
+     * @return false if the logger already logs at DEBUG level
+     */
+    private static boolean lowerToDebug(Configuration configuration, LoggerConfig loggerConfig) {
+        Level previousLevel = loggerConfig.getLevel();
+        if (previousLevel.isLessSpecificThan(Level.DEBUG)) {
+            return false;
+        }
+        for (AppenderRef appenderRef : new ArrayList<>(loggerConfig.getAppenderRefs())) {
+            Appender appender = configuration.getAppender(appenderRef.getRef());
+            if (appender == null) {
+                continue;
+            }
+            Level level = previousLevel;
+            if (appenderRef.getLevel() != null
+                    && appenderRef.getLevel().isMoreSpecificThan(previousLevel)) {
+                level = appenderRef.getLevel();
+            }
+            loggerConfig.removeAppender(appenderRef.getRef());
+            loggerConfig.addAppender(appender, level, appenderRef.getFilter());
+        }
+        return true;
+    }
+
+    /**
+     * Removes the buffer from the loggers, restores their levels and the levels of their configured
+     * appenders, and deletes the remaining spill files.
+     */
+    public void uninstall() {
+        LoggerContext loggerContext = (LoggerContext) LogManager.getContext(false);
+        Configuration configuration = loggerContext.getConfiguration();
+        for (LoggerConfig loggerConfig : configuration.getLoggers().values()) {
+            loggerConfig.removeAppender(getName());
+        }
+        for (Map.Entry<LoggerConfig, Level> entry : previousLevels.entrySet()) {
+            LoggerConfig loggerConfig = entry.getKey();
+            // the configured references were not changed, only the attached appenders
+            for (AppenderRef appenderRef : loggerConfig.getAppenderRefs()) {
+                Appender appender = configuration.getAppender(appenderRef.getRef());
+                if (appender == null) {
+                    continue;
+                }
+                loggerConfig.removeAppender(appenderRef.getRef());
+                loggerConfig.addAppender(appender, appenderRef.getLevel(), appenderRef.getFilter());
+            }
+            loggerConfig.setLevel(entry.getValue());
+        }
+        previousLevels.clear();
+        if (configuration instanceof AbstractConfiguration) {
+            ((AbstractConfiguration) configuration).removeAppender(getName());
+        }
+        loggerContext.updateLoggers();
+        stop();
+        for (String testCase : new ArrayList<>(buffers.keySet())) {
+            discard(testCase);
+        }
+    }
+
+    /** Starts buffering the events of the test case. */
+    public void begin(String testCase) {
+        buffers.computeIfAbsent(testCase, key -> new Buffer());
+    }
+
+    @Override
+    public void append(LogEvent event) {
+        String testCase = event.getContextData().getValue(THREAD_CONTEXT_KEY);
+        if (testCase == null) {
+            return;
+        }
+        Buffer buffer = buffers.get(testCase);
+        if (buffer == null) {
+            // not started or already finished
+            return;
+        }
+        LogEvent immutableEvent = event.toImmutable();
+        synchronized (buffer) {
+            if (buffer.events.size() == capacity) {
+                buffer.events.pollFirst();
+                buffer.dropped++;
+            }
+            buffer.events.addLast(immutableEvent);
+        }
+    }
+
+    /**
+     * Test cases that failed, ran into an error or whose result differs from the expected result of
+     * their template are worth keeping the logs for.
+     *
+     * @param expectedResults the expected results of the run mapped to the ids of the templates
+     */
+    public static boolean isWorthKeeping(
+            TestResult testResult, String testId, Map<TestResult, Set<String>> expectedResults) {
+        if (testResult == TestResult.PARTIALLY_FAILED
+                || testResult == TestResult.FULLY_FAILED
+                || testResult == TestResult.TEST_SUITE_ERROR) {
+            return true;
+        }
+        if (expectedResults == null || testResult == TestResult.DISABLED) {
+            return false;
+        }
+        for (Map.Entry<TestResult, Set<String>> expected : expectedResults.entrySet()) {
+            if (expected.getValue().contains(testId) && expected.getKey() != testResult) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes the buffered events of the test case to the given file and releases the buffer.
+     *
+     * @return false if nothing was logged for the test case
+     */
+    public boolean flush(String testCase, Path logFile) throws IOException {
+        List<LogEvent> events;
+        long dropped;
+        Path spillFile;
+        Buffer buffer = buffers.remove(testCase);
+        if (buffer == null) {
+            return false;
+        }
+        synchronized (buffer) {
+            events = new ArrayList<>(buffer.events);
+            dropped = buffer.dropped;
+            spillFile = buffer.spillFile;
+        }
+        Files.createDirectories(logFile.getParent());
+        try (BufferedWriter writer = Files.newBufferedWriter(logFile, StandardCharsets.UTF_8)) {
+            if (dropped > 0) {
+                writer.write(
+                        String.format(
+                                "... %d earlier log events of this test case were dropped%n",
+                                dropped));
+            }
+            if (spillFile != null) {
+                writer.write(Files.readString(spillFile, StandardCharsets.UTF_8));
+                Files.deleteIfExists(spillFile);
+            }
+            for (LogEvent event : events) {
+                writer.write(((PatternLayout) getLayout()).toSerializable(event));
+            }
+        }
+        return true;
+    }
+
+    public void discard(String testCase) {
+        Buffer buffer = buffers.remove(testCase);
+        if (buffer == null) {
+            return;
+        }
+        Path spillFile;
+        synchronized (buffer) {
+            spillFile = buffer.spillFile;
+        }
+        if (spillFile != null) {
+            try {
+                Files.deleteIfExists(spillFile);
+            } catch (IOException e) {
+                LOGGER.warn("Failed to delete spilled log of {}", testCase, e);
+            }
+        }
+    }
+
+    /**
+     * Moves the buffered events of all test cases to temporary files to free memory. The spilled
+     * events are written before the events buffered afterwards when the test case is flushed. If
+     * the spill file of a test case would exceed the spill limit, it is replaced by the newly
+     * spilled events.
+     */
+    public void spill() {
+        long spilledEvents = 0;
+        try {
+            synchronized (this) {
+                if (spillFolder == null) {
+                    spillFolder = Files.createTempDirectory("anvil-test-case-logs");
+                    spillFolder.toFile().deleteOnExit();
+                }
+            }
+            for (Map.Entry<String, Buffer> entry : buffers.entrySet()) {
+                Buffer buffer = entry.getValue();
+                synchronized (buffer) {
+                    // flushed or discarded meanwhile, nobody would delete a new spill file
+                    if (buffer.events.isEmpty() || buffers.get(entry.getKey()) != buffer) {
+                        continue;
+                    }
+                    StringBuilder spilled = new StringBuilder();
+                    for (LogEvent event : buffer.events) {
+                        spilled.append(((PatternLayout) getLayout()).toSerializable(event));
+                    }
+                    byte[] bytes = spilled.toString().getBytes(StandardCharsets.UTF_8);
+                    if (buffer.spillFile == null) {
+                        buffer.spillFile = spillFolder.resolve(entry.getKey() + ".log");
+                    }
+                    OpenOption mode = StandardOpenOption.APPEND;
+                    if (buffer.spilledBytes + bytes.length > spillLimit) {
+                        buffer.dropped += buffer.spilledEvents;
+                        buffer.spilledEvents = 0;
+                        buffer.spilledBytes = 0;
+                        mode = StandardOpenOption.TRUNCATE_EXISTING;
+                    }
+                    Files.write(
+                            buffer.spillFile,
+                            bytes,
+                            StandardOpenOption.CREATE,
+                            StandardOpenOption.WRITE,
+                            mode);
+                    buffer.spilledEvents += buffer.events.size();
+                    buffer.spilledBytes += bytes.length;
+                    spilledEvents += buffer.events.size();
+                    buffer.events.clear();
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.error("Failed to spill the buffered test case logs", e);
+        }
+        LOGGER.debug("Spilled {} buffered log events to {}", spilledEvents, spillFolder);
+    }
+
+    public int getBufferedTestCaseCount() {
+        return buffers.size();
+    }
+}
@@ -0,0 +1,276 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.metrics;
+
+import de.rub.nds.anvilcore.model.ParameterCombination;
+import de.rub.nds.anvilcore.model.parameter.DerivationParameter;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Collects latency histograms of the {@link ExecutionPhase}s overall, per test template and per
+ * derivation parameter value. The duration of a phase is attributed to every parameter value of the
+ * combination it was measured for. Also exposes the queue depth and number of active handshakes of
+ * the ParallelExecutor.
+ */
+public class ExecutionMetrics implements ExecutionMetricsMXBean {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    public static final String JMX_NAME = "de.rub.nds.tlstest:type=ExecutionMetrics";
+
+    private final Map<ExecutionPhase, LatencyHistogram> phaseHistograms =
+            new EnumMap<>(ExecutionPhase.class);
+    private final Map<ExecutionPhase, Map<String, LatencyHistogram>> templateHistograms =
+            new EnumMap<>(ExecutionPhase.class);
+    private final Map<ExecutionPhase, Map<String, LatencyHistogram>> parameterHistograms =
+            new EnumMap<>(ExecutionPhase.class);
+
+    private volatile ThreadPoolExecutor executor;
+
+    public ExecutionMetrics() {
+        for (ExecutionPhase phase : ExecutionPhase.values()) {
+            phaseHistograms.put(phase, new LatencyHistogram());
+            templateHistograms.put(phase, new ConcurrentHashMap<>());
+            parameterHistograms.put(phase, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * @param phase the measured phase
+     * @param testId id of the test template, may be null
+     * @param parameterValues string representations of the derivation parameter values, may be null
+     * @param micros duration of the phase in microseconds
+     */
+    public void record(
+            ExecutionPhase phase, String testId, Iterable<String> parameterValues, long micros) {
+        phaseHistograms.get(phase).record(micros);
+        if (testId != null) {
+            templateHistograms
+                    .get(phase)
+                    .computeIfAbsent(testId, id -> new LatencyHistogram())
+                    .record(micros);
+        }
+        if (parameterValues != null) {
+            Map<String, LatencyHistogram> perValue = parameterHistograms.get(phase);
+            for (String value : parameterValues) {
+                perValue.computeIfAbsent(value, v -> new LatencyHistogram()).record(micros);
+            }
+        }
+    }
+
+    /**
+     * @param phase the measured phase
+     * @param testId id of the test template, may be null
+     * @param combination the parameter combination of the test case, may be null
+     * @param micros duration of the phase in microseconds
+     */
+    public void record(
+            ExecutionPhase phase, String testId, ParameterCombination combination, long micros) {
+        List<String> parameterValues = null;
+        if (combination != null) {
+            parameterValues = new ArrayList<>();
+            for (DerivationParameter parameter : combination.getParameterValues()) {
+                parameterValues.add(parameter.toString());
+            }
+        }
+        record(phase, testId, parameterValues, micros);
+    }
+
+    public LatencyHistogram getHistogram(ExecutionPhase phase) {
+        return phaseHistograms.get(phase);
+    }
+
+    public void setExecutor(ThreadPoolExecutor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        ThreadPoolExecutor current = executor;
+        return current == null ? 0 : current.getQueue().size();
+    }
+
+    @Override
+    public int getActiveHandshakes() {
+        ThreadPoolExecutor current = executor;
+        return current == null ? 0 : current.getActiveCount();
+    }
+
+    @Override
+    public Map<String, Long> getPhaseCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        phaseHistograms.forEach(
+                (phase, histogram) -> counts.put(phase.getMetricName(), histogram.getCount()));
+        return counts;
+    }
+
+    @Override
+    public Map<String, Double> getPhaseMeanMicros() {
+        Map<String, Double> means = new LinkedHashMap<>();
+        phaseHistograms.forEach(
+                (phase, histogram) -> means.put(phase.getMetricName(), histogram.getMean()));
+        return means;
+    }
+
+    @Override
+    public Map<String, Long> getPhaseP95Micros() {
+        Map<String, Long> quantiles = new LinkedHashMap<>();
+        phaseHistograms.forEach(
+                (phase, histogram) ->
+                        quantiles.put(phase.getMetricName(), histogram.getQuantile(0.95)));
+        return quantiles;
+    }
+
+    public void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(JMX_NAME);
+            // a later run in the same JVM replaces the metrics of the previous one
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+        } catch (Exception e) {
+            LOGGER.warn("Could not register execution metrics MBean", e);
+        }
+    }
+
+    /**
+     * @return the metrics in the Prometheus text exposition format
+     */
+    public String toPrometheus() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("# TYPE anvil_phase_duration_microseconds histogram\n");
+        for (ExecutionPhase phase : ExecutionPhase.values()) {
+            appendHistogram(
+                    builder,
+                    "anvil_phase_duration_microseconds",
+                    "phase=\"" + phase.getMetricName() + "\"",
+                    phaseHistograms.get(phase));
+        }
+        builder.append("# TYPE anvil_template_phase_duration_microseconds summary\n");
+        appendSummaries(
+                builder,
+                "anvil_template_phase_duration_microseconds",
+                "template",
+                templateHistograms);
+        builder.append("# TYPE anvil_parameter_phase_duration_microseconds summary\n");
+        appendSummaries(
+                builder,
+                "anvil_parameter_phase_duration_microseconds",
+                "parameter",
+                parameterHistograms);
+        builder.append("# TYPE anvil_executor_queue_depth gauge\n");
+        builder.append("anvil_executor_queue_depth ").append(getQueueDepth()).append('\n');
+        builder.append("# TYPE anvil_active_handshakes gauge\n");
+        builder.append("anvil_active_handshakes ").append(getActiveHandshakes()).append('\n');
+        return builder.toString();
+    }
+
+    private static void appendHistogram(
+            StringBuilder builder, String name, String labels, LatencyHistogram histogram) {
+        histogram
+                .getCumulativeBuckets()
+                .forEach(
+                        (bound, count) ->
+                                builder.append(name)
+                                        .append("_bucket{")
+                                        .append(labels)
+                                        .append(",le=\"")
+                                        .append(bound)
+                                        .append("\"} ")
+                                        .append(count)
+                                        .append('\n'));
+        builder.append(name)
+                .append("_sum{")
+                .append(labels)
+                .append("} ")
+                .append(histogram.getSum())
+                .append('\n');
+        builder.append(name)
+                .append("_count{")
+                .append(labels)
+                .append("} ")
+                .append(histogram.getCount())
+                .append('\n');
+    }
+
+    private static void appendSummaries(
+            StringBuilder builder,
+            String name,
+            String labelName,
+            Map<ExecutionPhase, Map<String, LatencyHistogram>> histograms) {
+        histograms.forEach(
+                (phase, perKey) ->
+                        new TreeMap<>(perKey)
+                                .forEach(
+                                        (key, histogram) -> {
+                                            String labels =
+                                                    "phase=\""
+                                                            + phase.getMetricName()
+                                                            + "\","
+                                                            + labelName
+                                                            + "=\""
+                                                            + escapeLabel(key)
+                                                            + "\"";
+                                            builder.append(name)
+                                                    .append("_sum{")
+                                                    .append(labels)
+                                                    .append("} ")
+                                                    .append(histogram.getSum())
+                                                    .append('\n');
+                                            builder.append(name)
+                                                    .append("_count{")
+                                                    .append(labels)
+                                                    .append("} ")
+                                                    .append(histogram.getCount())
+                                                    .append('\n');
+                                        }));
+    }
+
+    static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * @return nested summary of all histograms suitable for JSON serialization
+     */
+    public Map<String, Object> summary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        Map<String, Object> phases = new LinkedHashMap<>();
+        Map<String, Object> templates = new LinkedHashMap<>();
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        for (ExecutionPhase phase : ExecutionPhase.values()) {
+            phases.put(phase.getMetricName(), phaseHistograms.get(phase).summarize());
+            templates.put(phase.getMetricName(), summarizeAll(templateHistograms.get(phase)));
+            parameters.put(phase.getMetricName(), summarizeAll(parameterHistograms.get(phase)));
+        }
+        summary.put("phases", phases);
+        summary.put("templates", templates);
+        summary.put("parameterValues", parameters);
+        return summary;
+    }
+
+    private static Map<String, Object> summarizeAll(Map<String, LatencyHistogram> histograms) {
+        Map<String, Object> summarized = new TreeMap<>();
+        histograms.forEach((key, histogram) -> summarized.put(key, histogram.summarize()));
+        return summarized;
+    }
+}
@@ -0,0 +1,24 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.metrics;
+
+import java.util.Map;
+
+/** JMX view of the {@link ExecutionMetrics}. */
+public interface ExecutionMetricsMXBean {
+
+    int getQueueDepth();
+
+    int getActiveHandshakes();
+
+    Map<String, Long> getPhaseCounts();
+
+    Map<String, Double> getPhaseMeanMicros();
+
+    Map<String, Long> getPhaseP95Micros();
+}
@@ -0,0 +1,26 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.metrics;
+
+/** Phases of a test case execution whose latency is recorded by {@link ExecutionMetrics}. */
+public enum ExecutionPhase {
+    /** Applying the parameter combination to the TLS-Attacker Config */
+    CONFIG_PREPARATION,
+    /** Generating the WorkflowTrace */
+    TRACE_GENERATION,
+    /** Waiting for a free slot of the ParallelExecutor */
+    QUEUEING,
+    /** Executing the handshake with the peer */
+    NETWORK,
+    /** Evaluating the executed handshake after the last execution */
+    VALIDATION;
+
+    public String getMetricName() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,131 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.metrics;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with fixed buckets in microseconds, fine enough for phases such as
+ * the config preparation that take only a few microseconds. Recording a value only increments
+ * counters, so it can be called on every test case.
+ */
+public class LatencyHistogram {
+
+    static final long[] BUCKET_BOUNDS = {
+        1,
+        2,
+        5,
+        10,
+        25,
+        50,
+        100,
+        250,
+        500,
+        1_000,
+        2_500,
+        5_000,
+        10_000,
+        25_000,
+        50_000,
+        100_000,
+        250_000,
+        500_000,
+        1_000_000,
+        2_500_000,
+        5_000_000,
+        10_000_000,
+        30_000_000,
+        60_000_000
+    };
+
+    // the last counter holds values above the largest bound
+    private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long micros) {
+        long value = Math.max(0, micros);
+        int index = Arrays.binarySearch(BUCKET_BOUNDS, value);
+        buckets[index >= 0 ? index : -index - 1].increment();
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long currentCount = getCount();
+        return currentCount == 0 ? 0 : (double) getSum() / currentCount;
+    }
+
+    /**
+     * @param quantile between 0 and 1
+     * @return upper bound of the bucket containing the quantile, the maximum for the last bucket
+     */
+    public long getQuantile(double quantile) {
+        long total = getCount();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+            seen += buckets[i].sum();
+            if (seen >= rank) {
+                return Math.min(BUCKET_BOUNDS[i], getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * @return cumulative counts per upper bucket bound as used by Prometheus
+     */
+    public Map<String, Long> getCumulativeBuckets() {
+        Map<String, Long> cumulative = new LinkedHashMap<>();
+        long seen = 0;
+        for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+            seen += buckets[i].sum();
+            cumulative.put(Long.toString(BUCKET_BOUNDS[i]), seen);
+        }
+        cumulative.put("+Inf", seen + buckets[BUCKET_BOUNDS.length].sum());
+        return cumulative;
+    }
+
+    public Map<String, Object> summarize() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", getCount());
+        summary.put("meanMicros", Math.round(getMean() * 100) / 100.0);
+        summary.put("p50Micros", getQuantile(0.5));
+        summary.put("p95Micros", getQuantile(0.95));
+        summary.put("maxMicros", getMax());
+        return summary;
+    }
+}
@@ -24,6 +24,7 @@ import de.rub.nds.tlsattacker.core.workflow.ParallelExecutor;
 import de.rub.nds.tlstest.framework.FeatureExtractionResult;
 import de.rub.nds.tlstest.framework.TestContext;
 import de.rub.nds.tlstest.framework.execution.TestPreparator;
+import de.rub.nds.tlstest.framework.jfr.DockerContainerEvent;
 import de.rub.nds.tlstest.framework.parameterExtensions.configurationOptionsExtension.ConfigOptionParameterType;
 import de.rub.nds.tlstest.framework.parameterExtensions.configurationOptionsExtension.ConfigurationOptionValue;
 import de.rub.nds.tlstest.framework.parameterExtensions.configurationOptionsExtension.ConfigurationOptionsDerivationManager;
@@ -207,10 +208,23 @@ public class DockerBasedBuildManager {
      *     container and the TestSiteReport.
      */
     protected String provideDockerContainer(Set<ConfigurationOptionDerivationParameter> optionSet) {
+        DockerContainerEvent event = new DockerContainerEvent();
+        event.setOutcome("FAILED");
+        event.begin();
+        try {
+            return provideDockerContainer(optionSet, event);
+        } finally {
+            event.commit();
+        }
+    }
+
+    private String provideDockerContainer(
+            Set<ConfigurationOptionDerivationParameter> optionSet, DockerContainerEvent event) {
         String cliOptions = createConfigOptionCliString(optionSet);
         String dockerTag =
                 DockerBuilder.getDefaultTag(
                         dockerTlsImplementation, libraryVersion, libraryConnectionRole, cliOptions);
+        event.setDockerTag(dockerTag);
         String dockerNameWithTag =
                 DockerBuilder.getDefaultRepoAndTag(
                         dockerTlsImplementation, libraryVersion, libraryConnectionRole, cliOptions);
@@ -219,6 +233,7 @@ public class DockerBasedBuildManager {
         if (dockerTagToContainerInfo.containsKey(dockerTag)) {
             providedContainer = dockerTagToContainerInfo.get(dockerTag);
             runContainer(providedContainer);
+            event.setOutcome("REUSED");
         }
         // Case: A new container has to be created
         else {
@@ -247,6 +262,9 @@ public class DockerBasedBuildManager {
                                     "Cannot create docker container for tag '%s'. Building failed.",
                                     dockerTag));
                 }
+                event.setOutcome("BUILT");
+            } else {
+                event.setOutcome("CREATED");
             }
             synchronized (this) {
                 if (TestContext.getInstance().getConfig().getTestEndpointMode()
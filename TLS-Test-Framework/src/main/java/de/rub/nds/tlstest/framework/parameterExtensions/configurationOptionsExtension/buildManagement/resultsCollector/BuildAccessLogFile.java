@@ -10,14 +10,22 @@
 
 package de.rub.nds.tlstest.framework.parameterExtensions.configurationOptionsExtension.buildManagement.resultsCollector;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 /**
  * LogFile to count how often single library builds (identified by docker tags) are used by all ran
- * tests.
+ * tests. The file is rewritten as a whole whenever the counts are written.
  */
 public class BuildAccessLogFile extends LogFile {
+    private static final Logger LOGGER = LogManager.getLogger();
+
     Map<String, Integer> dockerTagToAccessCounter;
 
     public BuildAccessLogFile(Path folderDirectoryPath, String fileName) {
@@ -34,7 +42,11 @@ public class BuildAccessLogFile extends LogFile {
         }
     }
 
-    public void finalizeResults() {
+    /**
+     * Replaces the file with the current access counts, so it is up to date while the tests are
+     * running.
+     */
+    public void writeResults() {
         StringBuilder resultsString;
         List<Map.Entry<String, Integer>> entryList =
                 new ArrayList<>(dockerTagToAccessCounter.entrySet());
@@ -50,6 +62,17 @@ public class BuildAccessLogFile extends LogFile {
         }
         resultsString.append(String.format("%s,%d\n", "Total", totalSum));
 
-        log(resultsString.toString());
+        Path path = logFile.toPath();
+        Path temporaryFile = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            Files.writeString(temporaryFile, resultsString.toString(), StandardCharsets.UTF_8);
+            Files.move(
+                    temporaryFile,
+                    path,
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.error("Failed to write build access counts to '{}'", path, e);
+        }
     }
 }
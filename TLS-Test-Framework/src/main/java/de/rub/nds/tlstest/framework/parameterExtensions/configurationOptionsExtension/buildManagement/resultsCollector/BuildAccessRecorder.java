@@ -0,0 +1,223 @@
+/*
+ *  TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ *  Copyright 2020 Ruhr University Bochum and
+ *  TÜV Informationstechnik GmbH
+ *
+ *  Licensed under Apache License 2.0
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.rub.nds.tlstest.framework.parameterExtensions.configurationOptionsExtension.buildManagement.resultsCollector;
+
+import de.rub.nds.tlstest.framework.parameterExtensions.configurationOptionsExtension.configurationOptionDerivationParameter.ConfigurationOptionDerivationParameter;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Records the creation of and the accesses to library builds without blocking the test threads. The
+ * usage of each build is counted in memory right away, see {@link #getBuildStatistics()}. The
+ * events are queued and written in batches by a single background thread, which appends new builds
+ * to the build overview and rewrites the access counts of the build access log whenever they
+ * changed. Events recorded after the recorder was closed are rejected.
+ */
+public class BuildAccessRecorder implements AutoCloseable {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    static final long FLUSH_INTERVAL_MS = 1000;
+
+    private final BuildOverviewLogFile buildOverviewLogFile;
+    private final BuildAccessLogFile buildAccessLogFile;
+
+    private final Queue<BuildEvent> pendingEvents = new ConcurrentLinkedQueue<>();
+    private final Map<String, BuildStatistics> buildStatistics = new ConcurrentHashMap<>();
+    private final Thread writerThread;
+    private final Thread shutdownHook;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    public BuildAccessRecorder(
+            BuildOverviewLogFile buildOverviewLogFile, BuildAccessLogFile buildAccessLogFile) {
+        this.buildOverviewLogFile = buildOverviewLogFile;
+        this.buildAccessLogFile = buildAccessLogFile;
+        writerThread = new Thread(this::writeLoop, "BuildAccessRecorder");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        shutdownHook = new Thread(this::close);
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    public void recordBuild(
+            Set<ConfigurationOptionDerivationParameter> optionSet,
+            String dockerTag,
+            long buildTime,
+            boolean success) {
+        record(new BuildEvent(optionSet, dockerTag, buildTime, success, false));
+    }
+
+    public void recordAccess(
+            Set<ConfigurationOptionDerivationParameter> optionSet, String dockerTag) {
+        record(new BuildEvent(optionSet, dockerTag, -1, true, true));
+    }
+
+    private void record(BuildEvent event) {
+        if (closed.get()) {
+            rejectLateEvent(event);
+            return;
+        }
+        pendingEvents.add(event);
+        // closed concurrently: the event is either taken by the final flush or still queued
+        if (closed.get() && pendingEvents.remove(event)) {
+            rejectLateEvent(event);
+            return;
+        }
+        buildStatistics
+                .computeIfAbsent(event.dockerTag, dockerTag -> new BuildStatistics())
+                .update(event);
+    }
+
+    private static void rejectLateEvent(BuildEvent event) {
+        LOGGER.warn(
+                "Build results were already written, ignoring {} of {}",
+                event.access ? "access" : "build",
+                event.dockerTag);
+    }
+
+    /**
+     * @return the usage of the builds recorded so far mapped to their docker tags, the statistics
+     *     keep counting while the recorder is open
+     */
+    public Map<String, BuildStatistics> getBuildStatistics() {
+        return Collections.unmodifiableMap(buildStatistics);
+    }
+
+    private void writeLoop() {
+        while (!closed.get()) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL_MS));
+            flush();
+        }
+    }
+
+    /**
+     * Processes all queued events, appends the lines of new builds to the build overview and writes
+     * the access counts if they changed.
+     */
+    synchronized void flush() {
+        StringBuilder lines = new StringBuilder();
+        boolean accessed = false;
+        BuildEvent event;
+        while ((event = pendingEvents.poll()) != null) {
+            if (event.access) {
+                buildAccessLogFile.increaseAccessCounter(event.dockerTag);
+                accessed = true;
+            }
+            String line =
+                    buildOverviewLogFile.formatBuild(
+                            event.optionSet, event.dockerTag, event.buildTime, event.success);
+            if (line != null) {
+                lines.append(line);
+            }
+        }
+        if (lines.length() > 0) {
+            buildOverviewLogFile.log(lines.toString());
+        }
+        if (accessed) {
+            buildAccessLogFile.writeResults();
+        }
+    }
+
+    /** Writes all queued events and the access counts, later events are rejected. */
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // events recorded while the writer thread was stopping
+        flush();
+        synchronized (this) {
+            // also written if nothing was accessed
+            buildAccessLogFile.writeResults();
+        }
+        buildOverviewLogFile.flush();
+        if (Thread.currentThread() != shutdownHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException ignored) {
+                // JVM is already shutting down
+            }
+        }
+    }
+
+    /** Usage of a single build, identified by its docker tag. */
+    public static class BuildStatistics {
+        private final LongAdder accessCount = new LongAdder();
+        // -1 if the build already existed
+        private volatile long buildTime = -1;
+        private final AtomicLong firstUse = new AtomicLong(-1);
+        private final AtomicLong lastUse = new AtomicLong(-1);
+
+        private void update(BuildEvent event) {
+            if (!event.access) {
+                buildTime = event.buildTime;
+                return;
+            }
+            accessCount.increment();
+            firstUse.compareAndSet(-1, event.timestamp);
+            lastUse.accumulateAndGet(event.timestamp, Math::max);
+        }
+
+        public long getAccessCount() {
+            return accessCount.sum();
+        }
+
+        public long getBuildTime() {
+            return buildTime;
+        }
+
+        public long getFirstUse() {
+            return firstUse.get();
+        }
+
+        public long getLastUse() {
+            return lastUse.get();
+        }
+    }
+
+    private static class BuildEvent {
+        private final Set<ConfigurationOptionDerivationParameter> optionSet;
+        private final String dockerTag;
+        private final long buildTime;
+        private final boolean success;
+        private final boolean access;
+        private final long timestamp = System.currentTimeMillis();
+
+        private BuildEvent(
+                Set<ConfigurationOptionDerivationParameter> optionSet,
+                String dockerTag,
+                long buildTime,
+                boolean success,
+                boolean access) {
+            this.optionSet = optionSet;
+            this.dockerTag = dockerTag;
+            this.buildTime = buildTime;
+            this.success = success;
+            this.access = access;
+        }
+    }
+}
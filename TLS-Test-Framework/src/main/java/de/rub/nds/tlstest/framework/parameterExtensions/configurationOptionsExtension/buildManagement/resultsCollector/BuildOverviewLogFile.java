@@ -65,8 +65,24 @@ public class BuildOverviewLogFile extends LogFile {
             String dockerTag,
             long buildTime,
             boolean success) {
+        String line = formatBuild(optionSet, dockerTag, buildTime, success);
+        if (line != null) {
+            log(line);
+        }
+    }
+
+    /**
+     * Creates the line of a build that was not logged before.
+     *
+     * @return the line including the line break, null if the build has already been logged
+     */
+    public String formatBuild(
+            Set<ConfigurationOptionDerivationParameter> optionSet,
+            String dockerTag,
+            long buildTime,
+            boolean success) {
         if (loggedDockerTags.contains(dockerTag)) {
-            return;
+            return null;
         } else {
             loggedDockerTags.add(dockerTag);
         }
@@ -102,6 +118,6 @@ public class BuildOverviewLogFile extends LogFile {
             }
         }
 
-        log(String.join(",", line) + "\n");
+        return String.join(",", line) + "\n";
     }
 }
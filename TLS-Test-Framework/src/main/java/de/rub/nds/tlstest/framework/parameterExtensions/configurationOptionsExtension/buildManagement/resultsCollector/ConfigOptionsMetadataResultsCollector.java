@@ -45,6 +45,7 @@ public class ConfigOptionsMetadataResultsCollector {
     BuildOverviewLogFile buildOverviewLogFile;
     GeneralInfoLogFile generalInfoLogFile;
     BuildAccessLogFile buildAccessLogFile;
+    BuildAccessRecorder buildAccessRecorder;
 
     /**
      * Constructor.
@@ -75,6 +76,7 @@ public class ConfigOptionsMetadataResultsCollector {
                 new BuildOverviewLogFile(folderDirectoryPath, "buildsOverview.csv", config);
         generalInfoLogFile = new GeneralInfoLogFile(folderDirectoryPath, "generalInfo.csv", config);
         buildAccessLogFile = new BuildAccessLogFile(folderDirectoryPath, "buildAccesses.csv");
+        buildAccessRecorder = new BuildAccessRecorder(buildOverviewLogFile, buildAccessLogFile);
     }
 
     /**
@@ -84,31 +86,38 @@ public class ConfigOptionsMetadataResultsCollector {
      * @param dockerTag - the docker image tag of the build
      * @param buildTime - the time it took for building the build
      */
-    public synchronized void logNewBuildCreated(
+    public void logNewBuildCreated(
             Set<ConfigurationOptionDerivationParameter> optionSet,
             String dockerTag,
             long buildTime,
             boolean success) {
-        buildOverviewLogFile.logBuild(optionSet, dockerTag, buildTime, success);
+        buildAccessRecorder.recordBuild(optionSet, dockerTag, buildTime, success);
     }
 
     /**
-     * Logs that a tls library was accessed. Evaluation is done in the end.
+     * Logs that a tls library was accessed. The access counts are written periodically. The access
+     * is only queued, so this can be called by the test threads without waiting for file I/O.
      *
      * @param optionSet - The option set of the accessed implementation
      * @param dockerTag - The docker image tag of the accessed implementation
      */
-    public synchronized void logBuildAccess(
+    public void logBuildAccess(
             Set<ConfigurationOptionDerivationParameter> optionSet, String dockerTag) {
-        buildAccessLogFile.increaseAccessCounter(dockerTag);
-        buildOverviewLogFile.logBuild(optionSet, dockerTag, -1, true);
+        buildAccessRecorder.recordAccess(optionSet, dockerTag);
+    }
+
+    /**
+     * @return the usage of the builds accessed so far mapped to their docker tags
+     */
+    public Map<String, BuildAccessRecorder.BuildStatistics> getBuildStatistics() {
+        return buildAccessRecorder.getBuildStatistics();
     }
 
     /**
      * Finalized all results that are only evaluated in the end (e.g. the total build access count)
      */
     public synchronized void finalizeResults() {
-        buildAccessLogFile.finalizeResults();
+        buildAccessRecorder.close();
     }
 
     /**
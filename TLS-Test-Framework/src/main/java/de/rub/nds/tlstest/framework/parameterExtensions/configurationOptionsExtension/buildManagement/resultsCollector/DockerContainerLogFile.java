@@ -29,7 +29,7 @@ public class DockerContainerLogFile extends LogFile {
 
     public DockerContainerLogFile(
             Path folderDirectoryPath, String fileName, DockerContainer dockerContainer) {
-        super(folderDirectoryPath, fileName, "%m");
+        super(folderDirectoryPath, fileName);
         this.dockerContainer = dockerContainer;
         loggingIsActive = false;
         initContainerLogging();
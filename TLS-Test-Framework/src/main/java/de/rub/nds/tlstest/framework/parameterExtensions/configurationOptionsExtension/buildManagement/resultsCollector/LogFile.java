@@ -12,70 +12,24 @@ package de.rub.nds.tlstest.framework.parameterExtensions.configurationOptionsExt
 
 import java.io.*;
 import java.nio.file.Path;
-import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.apache.logging.log4j.core.LoggerContext;
-import org.apache.logging.log4j.core.appender.FileAppender;
-import org.apache.logging.log4j.core.config.AppenderRef;
-import org.apache.logging.log4j.core.config.Configuration;
-import org.apache.logging.log4j.core.config.LoggerConfig;
-import org.apache.logging.log4j.core.layout.PatternLayout;
 
 /**
  * Using LogFile a new file for logging can be created. The file can be appended using the 'log'
- * function. Additionally a log4j2 pattern for logging can be defined (see
- * https://logging.apache.org/log4j/2.x/manual/layouts.html#PatternLayout). log4j2 is used for
- * logging.
+ * function. The data is written as is through the shared {@link LogWriterPool}, which bounds the
+ * number of open files and flushes them in the background.
  */
 public class LogFile {
     private static final Logger LOGGER = LogManager.getLogger();
 
-    protected Logger logger;
     protected File logFile;
-
-    private void generateLogger(String path, String pattern) {
-        LoggerContext ctx = (LoggerContext) LogManager.getContext(false);
-
-        Configuration config = ctx.getConfiguration();
-
-        String uniqueName = path.replaceAll("[^A-Za-z]", "_");
-        String loggerName = "Logger" + uniqueName;
-        String appenderName = "Appender" + uniqueName;
-
-        FileAppender fileAppender =
-                FileAppender.newBuilder()
-                        .setName(appenderName)
-                        .setLayout(PatternLayout.newBuilder().withPattern(pattern).build())
-                        .withFileName(path)
-                        .build();
-
-        fileAppender.start();
-
-        AppenderRef[] refs =
-                new AppenderRef[] {
-                    AppenderRef.createAppenderRef(fileAppender.getName(), null, null)
-                };
-
-        LoggerConfig loggerConfig =
-                LoggerConfig.createLogger(
-                        false, Level.ALL, loggerName, "true", refs, null, config, null);
-        loggerConfig.addAppender(fileAppender, Level.ALL, null);
-
-        ctx.getConfiguration().addLogger(loggerName, loggerConfig);
-
-        ctx.updateLoggers();
-
-        this.logger = ctx.getLogger(loggerName);
-    }
+    private final Path path;
 
     public LogFile(Path folderDirectoryPath, String fileName) {
-        this(folderDirectoryPath, fileName, "%m");
-    }
-
-    public LogFile(Path folderDirectoryPath, String fileName, String logPattern) {
-        Path path = folderDirectoryPath.resolve(fileName);
+        path = folderDirectoryPath.resolve(fileName).toAbsolutePath();
         logFile = path.toFile();
+        LogWriterPool.getInstance().close(path);
         if (logFile.exists()) {
             boolean success = logFile.delete();
             if (!success) {
@@ -83,11 +37,15 @@ public class LogFile {
                 throw new RuntimeException("Cannot overwrite existing log file.");
             }
         }
-        generateLogger(path.toAbsolutePath().toString(), logPattern);
     }
 
     public void log(String data) {
-        logger.info(data);
+        LogWriterPool.getInstance().write(path, data);
+    }
+
+    /** Writes the logged data to disk, it is otherwise flushed periodically. */
+    public void flush() {
+        LogWriterPool.getInstance().flush(path);
     }
 
     public File getLogFile() {
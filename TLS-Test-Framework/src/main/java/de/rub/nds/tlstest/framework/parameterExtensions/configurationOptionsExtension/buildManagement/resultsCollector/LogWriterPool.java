@@ -0,0 +1,223 @@
+/*
+ *  TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ *  Copyright 2020 Ruhr University Bochum and
+ *  TÜV Informationstechnik GmbH
+ *
+ *  Licensed under Apache License 2.0
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.rub.nds.tlstest.framework.parameterExtensions.configurationOptionsExtension.buildManagement.resultsCollector;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Writers shared by all {@link LogFile}s. Writes are only queued per file, a background thread
+ * periodically moves the queued data of all files to disk, so the output of the docker containers
+ * does not wait for the disk. The thread is woken up early once a file has queued more than {@link
+ * #MAX_PENDING_CHARS}.
+ *
+ * <p>At most {@link #MAX_OPEN_FILES} files are kept open, the least recently written one is closed
+ * when another file is opened and reopened in append mode on its next write. The disk I/O of a file
+ * only holds the lock of that file.
+ */
+public class LogWriterPool {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    public static final int MAX_OPEN_FILES = 64;
+    static final long FLUSH_INTERVAL_MS = 500;
+    static final long MAX_PENDING_CHARS = 1024 * 1024;
+
+    private static LogWriterPool instance;
+
+    private final int maxOpenFiles;
+    private final Map<Path, PooledFile> files = new ConcurrentHashMap<>();
+    // access ordered, the first entry is the least recently written file, guarded by itself
+    private final LinkedHashMap<Path, PooledFile> openFiles = new LinkedHashMap<>(16, 0.75f, true);
+    private final Thread flushThread;
+    private volatile boolean shutDown = false;
+
+    private static class PooledFile {
+        private final Path path;
+        private final Queue<String> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicLong pendingChars = new AtomicLong();
+        // guarded by this
+        private Writer writer;
+
+        private PooledFile(Path path) {
+            this.path = path;
+        }
+    }
+
+    public static synchronized LogWriterPool getInstance() {
+        if (instance == null) {
+            instance = new LogWriterPool(MAX_OPEN_FILES);
+        }
+        return instance;
+    }
+
+    LogWriterPool(int maxOpenFiles) {
+        this(maxOpenFiles, FLUSH_INTERVAL_MS);
+    }
+
+    LogWriterPool(int maxOpenFiles, long flushIntervalMs) {
+        this.maxOpenFiles = maxOpenFiles;
+        flushThread = new Thread(() -> flushLoop(flushIntervalMs), "LogWriterPool");
+        flushThread.setDaemon(true);
+        flushThread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutDown));
+    }
+
+    private void flushLoop(long flushIntervalMs) {
+        while (true) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+            flushAll();
+        }
+    }
+
+    /** Queues the data, it is written by the background thread or the next flush of the file. */
+    public void write(Path path, String data) {
+        PooledFile file = files.computeIfAbsent(path, PooledFile::new);
+        long pendingChars = file.pendingChars.addAndGet(data.length());
+        file.pending.add(data);
+        if (shutDown) {
+            // there is no flush after the shutdown hook
+            drain(file);
+        } else if (pendingChars > MAX_PENDING_CHARS) {
+            LockSupport.unpark(flushThread);
+        }
+    }
+
+    /** Writes the queued data of the file to disk. */
+    public void flush(Path path) {
+        PooledFile file = files.get(path);
+        if (file != null) {
+            drain(file);
+        }
+    }
+
+    public void flushAll() {
+        for (PooledFile file : files.values()) {
+            drain(file);
+        }
+    }
+
+    private void drain(PooledFile file) {
+        PooledFile evicted = null;
+        synchronized (file) {
+            if (file.pending.isEmpty()) {
+                return;
+            }
+            try {
+                if (file.writer == null) {
+                    FileChannel channel =
+                            FileChannel.open(
+                                    file.path,
+                                    StandardOpenOption.CREATE,
+                                    StandardOpenOption.WRITE,
+                                    StandardOpenOption.APPEND);
+                    file.writer =
+                            new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+                    evicted = registerOpenFile(file);
+                } else {
+                    touchOpenFile(file);
+                }
+                String data;
+                while ((data = file.pending.poll()) != null) {
+                    file.pendingChars.addAndGet(-data.length());
+                    file.writer.write(data);
+                }
+                file.writer.flush();
+            } catch (IOException e) {
+                LOGGER.error("Failed to write to log file '{}'", file.path, e);
+            }
+        }
+        if (evicted != null) {
+            // a concurrent write to the evicted file keeps using the writer until it is closed
+            synchronized (evicted) {
+                closeWriter(evicted);
+            }
+        }
+    }
+
+    /**
+     * @return the least recently written file if too many files are open
+     */
+    private PooledFile registerOpenFile(PooledFile file) {
+        synchronized (openFiles) {
+            openFiles.put(file.path, file);
+            if (openFiles.size() <= maxOpenFiles) {
+                return null;
+            }
+            Iterator<PooledFile> eldest = openFiles.values().iterator();
+            PooledFile evicted = eldest.next();
+            eldest.remove();
+            return evicted;
+        }
+    }
+
+    private void touchOpenFile(PooledFile file) {
+        synchronized (openFiles) {
+            openFiles.get(file.path);
+        }
+    }
+
+    /** Writes the queued data and closes the file if it is open, e.g. before it is replaced. */
+    public void close(Path path) {
+        PooledFile file = files.remove(path);
+        if (file == null) {
+            return;
+        }
+        drain(file);
+        synchronized (openFiles) {
+            openFiles.remove(path, file);
+        }
+        synchronized (file) {
+            closeWriter(file);
+        }
+    }
+
+    private void closeWriter(PooledFile file) {
+        if (file.writer == null) {
+            return;
+        }
+        try {
+            file.writer.close();
+        } catch (IOException e) {
+            LOGGER.error("Failed to close log file '{}'", file.path, e);
+        }
+        file.writer = null;
+    }
+
+    private void shutDown() {
+        shutDown = true;
+        for (Path path : files.keySet()) {
+            close(path);
+        }
+    }
+
+    public int getOpenFileCount() {
+        synchronized (openFiles) {
+            return openFiles.size();
+        }
+    }
+}
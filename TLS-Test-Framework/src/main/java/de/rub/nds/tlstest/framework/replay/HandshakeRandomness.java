@@ -0,0 +1,53 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.replay;
+
+import de.rub.nds.tlsattacker.core.state.State;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Derives the random values TLS-Attacker uses during a handshake from the recording key, so a
+ * replayed handshake sends the same bytes as the recorded one.
+ *
+ * <p>The ephemeral keys are fixed by the config anyway. The client random, the premaster secret,
+ * paddings and IVs are drawn from the random of the TLS context, which is unseeded in stealth mode,
+ * and the client random of TLS 1.2 contains the current time unless a fixed random is used.
+ */
+public final class HandshakeRandomness {
+
+    private static final int RANDOM_LENGTH = 32;
+
+    private HandshakeRandomness() {}
+
+    /**
+     * Pins the random values of the handshake, must be called before the first message is prepared.
+     *
+     * @param state state of the handshake
+     * @param recordingKey key of the handshake in the recording
+     */
+    public static void pin(State state, String recordingKey) {
+        byte[] digest = digest(recordingKey);
+        state.getConfig().setUseFreshRandom(false);
+        state.getConfig().setDefaultClientRandom(Arrays.copyOf(digest, RANDOM_LENGTH));
+        state.getTlsContext().setRandom(new Random(ByteBuffer.wrap(digest).getLong()));
+    }
+
+    private static byte[] digest(String recordingKey) {
+        try {
+            return MessageDigest.getInstance("SHA-256")
+                    .digest(recordingKey.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.replay;
+
+import de.rub.nds.tlsattacker.transport.Connection;
+import de.rub.nds.tlstest.framework.capture.CapturingClientTcpTransportHandler;
+import java.io.IOException;
+
+/**
+ * Client transport handler storing every call in a {@link TransportRecording}, so the handshake can
+ * later be replayed by a {@link ReplayClientTcpTransportHandler}. The traffic is also available for
+ * the in-JVM packet capture.
+ */
+public class RecordingClientTcpTransportHandler extends CapturingClientTcpTransportHandler {
+
+    private final TransportRecording recording;
+
+    public RecordingClientTcpTransportHandler(Connection connection, String recordingKey) {
+        super(connection);
+        this.recording = new TransportRecording(recordingKey);
+    }
+
+    @Override
+    public void sendData(byte[] data) throws IOException {
+        super.sendData(data);
+        recording.recordSent(data);
+    }
+
+    @Override
+    public byte[] fetchData() throws IOException {
+        try {
+            byte[] data = super.fetchData();
+            recording.recordReceived(data);
+            return data;
+        } catch (IOException e) {
+            recording.recordFetchFailure(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public byte[] fetchData(int amountOfData) throws IOException {
+        try {
+            byte[] data = super.fetchData(amountOfData);
+            recording.recordReceived(data);
+            return data;
+        } catch (IOException e) {
+            recording.recordFetchFailure(e);
+            throw e;
+        }
+    }
+
+    public TransportRecording getRecording() {
+        return recording;
+    }
+}
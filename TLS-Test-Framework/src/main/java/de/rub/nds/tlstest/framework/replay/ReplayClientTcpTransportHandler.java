@@ -0,0 +1,150 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.replay;
+
+import de.rub.nds.tlsattacker.transport.Connection;
+import de.rub.nds.tlsattacker.transport.socket.SocketState;
+import de.rub.nds.tlsattacker.transport.tcp.ClientTcpTransportHandler;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Client transport handler feeding the data of a {@link TransportRecording} back instead of
+ * connecting to the peer. Sent data is compared with the recording; the first deviation is kept as
+ * divergence, as the recorded responses are not meaningful for a different conversation.
+ */
+public class ReplayClientTcpTransportHandler extends ClientTcpTransportHandler {
+
+    private final TransportRecording recording;
+    private final Iterator<TransportRecording.Event> sentEvents;
+    private final Iterator<TransportRecording.Event> receivedEvents;
+    private int sentCount = 0;
+    private String divergence;
+    private boolean closed = false;
+
+    public ReplayClientTcpTransportHandler(Connection connection, TransportRecording recording) {
+        super(connection);
+        this.recording = recording;
+        List<TransportRecording.Event> sent = new LinkedList<>();
+        List<TransportRecording.Event> received = new LinkedList<>();
+        for (TransportRecording.Event event : recording.getEvents()) {
+            if (event.getType() == TransportRecording.EventType.SENT) {
+                sent.add(event);
+            } else {
+                received.add(event);
+            }
+        }
+        this.sentEvents = sent.iterator();
+        this.receivedEvents = received.iterator();
+        this.srcPort = recording.getSrcPort();
+        this.dstPort = recording.getDstPort();
+    }
+
+    @Override
+    public void preInitialize() throws IOException {}
+
+    @Override
+    public void initialize() throws IOException {
+        initialized = true;
+    }
+
+    @Override
+    public synchronized void sendData(byte[] data) throws IOException {
+        sentCount++;
+        if (!sentEvents.hasNext()) {
+            diverge(String.format("Sent %d more bytes than recorded", data.length));
+            return;
+        }
+        byte[] expected = sentEvents.next().getData();
+        if (!Arrays.equals(expected, data)) {
+            diverge(
+                    String.format(
+                            "Sent data #%d differs from the recording (%d bytes instead of %d)",
+                            sentCount, data.length, expected.length));
+        }
+    }
+
+    @Override
+    public synchronized byte[] fetchData() throws IOException {
+        if (!receivedEvents.hasNext()) {
+            diverge("Tried to receive more data than recorded");
+            throw new SocketTimeoutException("End of transport recording");
+        }
+        TransportRecording.Event event = receivedEvents.next();
+        if (event.getType() == TransportRecording.EventType.FETCH_FAILED) {
+            throw event.toException();
+        }
+        if (event.getData().length == 0) {
+            cachedSocketState = SocketState.CLOSED;
+        }
+        return event.getData();
+    }
+
+    @Override
+    public byte[] fetchData(int amountOfData) throws IOException {
+        return fetchData();
+    }
+
+    /** Checks that all recorded data has been sent once the handshake is finished. */
+    public synchronized void finish() {
+        if (sentEvents.hasNext()) {
+            diverge("Sent less data than recorded");
+        }
+    }
+
+    private void diverge(String reason) {
+        if (divergence == null) {
+            divergence = reason;
+        }
+    }
+
+    public synchronized String getDivergence() {
+        return divergence;
+    }
+
+    public TransportRecording getRecording() {
+        return recording;
+    }
+
+    @Override
+    public SocketState getSocketState(boolean withTimeout) {
+        if (recording.getFinalSocketState() != null) {
+            return recording.getFinalSocketState();
+        }
+        return cachedSocketState != null ? cachedSocketState : SocketState.UP;
+    }
+
+    @Override
+    public SocketState getSocketState() {
+        return getSocketState(false);
+    }
+
+    @Override
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void closeConnection() {
+        closed = true;
+    }
+
+    @Override
+    public void closeClientConnection() {
+        closed = true;
+    }
+}
@@ -0,0 +1,189 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.replay;
+
+import de.rub.nds.tlsattacker.transport.socket.SocketState;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The data sent and received by a transport handler during a single handshake, including failed
+ * reads and the final socket state, in the order of the calls.
+ */
+public class TransportRecording {
+
+    private static final int MAGIC = 0x414e5652;
+    // recordings of version 1 were made with unpinned random values
+    private static final int VERSION = 2;
+
+    public enum EventType {
+        SENT,
+        RECEIVED,
+        FETCH_FAILED
+    }
+
+    private final String key;
+    private final List<Event> events = new ArrayList<>();
+    private SocketState finalSocketState;
+    private int srcPort = -1;
+    private int dstPort = -1;
+
+    public TransportRecording(String key) {
+        this.key = key;
+    }
+
+    public synchronized void recordSent(byte[] data) {
+        events.add(new Event(EventType.SENT, data.clone(), null, null));
+    }
+
+    public synchronized void recordReceived(byte[] data) {
+        events.add(new Event(EventType.RECEIVED, data.clone(), null, null));
+    }
+
+    public synchronized void recordFetchFailure(IOException exception) {
+        events.add(
+                new Event(
+                        EventType.FETCH_FAILED,
+                        new byte[0],
+                        exception.getClass().getName(),
+                        exception.getMessage()));
+    }
+
+    public synchronized List<Event> getEvents() {
+        return Collections.unmodifiableList(new ArrayList<>(events));
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public SocketState getFinalSocketState() {
+        return finalSocketState;
+    }
+
+    public void setFinalSocketState(SocketState finalSocketState) {
+        this.finalSocketState = finalSocketState;
+    }
+
+    public int getSrcPort() {
+        return srcPort;
+    }
+
+    public int getDstPort() {
+        return dstPort;
+    }
+
+    public void setPorts(Integer srcPort, Integer dstPort) {
+        this.srcPort = srcPort == null ? -1 : srcPort;
+        this.dstPort = dstPort == null ? -1 : dstPort;
+    }
+
+    public synchronized void write(OutputStream outputStream) throws IOException {
+        DataOutputStream out = new DataOutputStream(outputStream);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(key);
+        out.writeUTF(finalSocketState == null ? "" : finalSocketState.name());
+        out.writeInt(srcPort);
+        out.writeInt(dstPort);
+        out.writeInt(events.size());
+        for (Event event : events) {
+            out.writeByte(event.getType().ordinal());
+            out.writeInt(event.getData().length);
+            out.write(event.getData());
+            if (event.getType() == EventType.FETCH_FAILED) {
+                out.writeUTF(event.getExceptionType());
+                out.writeUTF(
+                        event.getExceptionMessage() == null ? "" : event.getExceptionMessage());
+            }
+        }
+        out.flush();
+    }
+
+    public static TransportRecording read(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(inputStream);
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Not a transport recording of a supported version");
+        }
+        TransportRecording recording = new TransportRecording(in.readUTF());
+        String socketState = in.readUTF();
+        if (!socketState.isEmpty()) {
+            recording.setFinalSocketState(SocketState.valueOf(socketState));
+        }
+        recording.srcPort = in.readInt();
+        recording.dstPort = in.readInt();
+        int eventCount = in.readInt();
+        for (int i = 0; i < eventCount; i++) {
+            EventType type = EventType.values()[in.readUnsignedByte()];
+            byte[] data = new byte[in.readInt()];
+            in.readFully(data);
+            String exceptionType = null;
+            String exceptionMessage = null;
+            if (type == EventType.FETCH_FAILED) {
+                exceptionType = in.readUTF();
+                exceptionMessage = in.readUTF();
+            }
+            recording.events.add(new Event(type, data, exceptionType, exceptionMessage));
+        }
+        return recording;
+    }
+
+    /** A single call of the transport handler. */
+    public static class Event {
+        private final EventType type;
+        private final byte[] data;
+        private final String exceptionType;
+        private final String exceptionMessage;
+
+        public Event(EventType type, byte[] data, String exceptionType, String exceptionMessage) {
+            this.type = type;
+            this.data = data;
+            this.exceptionType = exceptionType;
+            this.exceptionMessage = exceptionMessage;
+        }
+
+        public EventType getType() {
+            return type;
+        }
+
+        public byte[] getData() {
+            return data;
+        }
+
+        public String getExceptionType() {
+            return exceptionType;
+        }
+
+        public String getExceptionMessage() {
+            return exceptionMessage;
+        }
+
+        /**
+         * @return an exception of the recorded type, falling back to a plain IOException
+         */
+        public IOException toException() {
+            if (SocketTimeoutException.class.getName().equals(exceptionType)) {
+                return new SocketTimeoutException(exceptionMessage);
+            } else if (EOFException.class.getName().equals(exceptionType)) {
+                return new EOFException(exceptionMessage);
+            } else if (SocketException.class.getName().equals(exceptionType)) {
+                return new SocketException(exceptionMessage);
+            }
+            return new IOException(exceptionType + ": " + exceptionMessage);
+        }
+    }
+}
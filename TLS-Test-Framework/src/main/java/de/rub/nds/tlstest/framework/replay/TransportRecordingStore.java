@@ -0,0 +1,133 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.replay;
+
+import de.rub.nds.tlstest.framework.FeatureExtractionResult;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Folder holding one {@link TransportRecording} per executed handshake together with the feature
+ * extraction result of the recorded run, which allows replaying the run without the target.
+ */
+public class TransportRecordingStore {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final String FEATURE_EXTRACTION_FILE = "feature_extraction.ser";
+    private static final String RECORDING_SUFFIX = ".rec.gz";
+
+    private final Path folder;
+    private final Map<String, String> divergences = new ConcurrentHashMap<>();
+
+    public TransportRecordingStore(Path folder) {
+        this.folder = folder;
+        try {
+            Files.createDirectories(folder);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void save(TransportRecording recording) {
+        Path target = fileFor(recording.getKey());
+        try {
+            Path temporary = Files.createTempFile(folder, "recording", ".tmp");
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temporary))) {
+                recording.write(out);
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOGGER.error("Failed to save transport recording {}", recording.getKey(), e);
+        }
+    }
+
+    /**
+     * @param key key of the handshake
+     * @return the recording or null if the handshake has not been recorded
+     */
+    public TransportRecording load(String key) {
+        Path source = fileFor(key);
+        if (!Files.exists(source)) {
+            return null;
+        }
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(source))) {
+            TransportRecording recording = TransportRecording.read(in);
+            return key.equals(recording.getKey()) ? recording : null;
+        } catch (IOException e) {
+            LOGGER.error("Failed to read transport recording {}", key, e);
+            return null;
+        }
+    }
+
+    public void saveFeatureExtractionResult(FeatureExtractionResult result) {
+        try (ObjectOutputStream out =
+                new ObjectOutputStream(
+                        Files.newOutputStream(folder.resolve(FEATURE_EXTRACTION_FILE)))) {
+            out.writeObject(result);
+        } catch (IOException e) {
+            LOGGER.error("Failed to save feature extraction result of the recording", e);
+        }
+    }
+
+    public FeatureExtractionResult loadFeatureExtractionResult() {
+        Path source = folder.resolve(FEATURE_EXTRACTION_FILE);
+        if (!Files.exists(source)) {
+            return null;
+        }
+        try (ObjectInputStream in = new ObjectInputStream(Files.newInputStream(source))) {
+            return (FeatureExtractionResult) in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            LOGGER.error("Failed to load feature extraction result of the recording", e);
+            return null;
+        }
+    }
+
+    public void reportDivergence(String key, String reason) {
+        divergences.put(key, reason);
+    }
+
+    /**
+     * @return the handshakes that could not be replayed faithfully
+     */
+    public List<Map<String, String>> getDivergences() {
+        List<Map<String, String>> list = new ArrayList<>();
+        divergences.forEach((key, reason) -> list.add(Map.of("key", key, "reason", reason)));
+        return list;
+    }
+
+    Path fileFor(String key) {
+        try {
+            byte[] digest =
+                    MessageDigest.getInstance("SHA-256")
+                            .digest(key.getBytes(StandardCharsets.UTF_8));
+            return folder.resolve(HexFormat.of().formatHex(digest, 0, 16) + RECORDING_SUFFIX);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.reporting;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import de.rub.nds.anvilcore.teststate.AnvilTestCase;
+import de.rub.nds.anvilcore.teststate.TestResult;
+import java.util.LinkedList;
+import java.util.List;
+
+/** A finished test case as written to the {@link ResultStreamSink}. */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ResultRecord {
+    private String testId;
+    private String uuid;
+    private String displayName;
+    private String parameterCombination;
+    private TestResult result;
+    private List<String> additionalResultInformation = new LinkedList<>();
+    private List<String> additionalTestInformation = new LinkedList<>();
+    private String failedReason;
+    private Long startTime;
+    private Long endTime;
+    private Integer srcPort;
+    private Integer dstPort;
+
+    public static ResultRecord fromTestCase(AnvilTestCase testCase, String testId) {
+        ResultRecord record = new ResultRecord();
+        record.setTestId(testId);
+        record.setUuid(testCase.getUuid());
+        record.setDisplayName(testCase.getDisplayName());
+        if (testCase.getParameterCombination() != null) {
+            record.setParameterCombination(testCase.getParameterCombination().toString());
+        }
+        record.setResult(testCase.getTestResult());
+        if (testCase.getAdditionalResultInformation() != null) {
+            record.setAdditionalResultInformation(
+                    new LinkedList<>(testCase.getAdditionalResultInformation()));
+        }
+        if (testCase.getAdditionalTestInformation() != null) {
+            record.setAdditionalTestInformation(
+                    new LinkedList<>(testCase.getAdditionalTestInformation()));
+        }
+        if (testCase.getFailedReason() != null) {
+            record.setFailedReason(testCase.getFailedReason().toString());
+        }
+        if (testCase.getStartTime() != null) {
+            record.setStartTime(testCase.getStartTime().getTime());
+        }
+        if (testCase.getEndTime() != null) {
+            record.setEndTime(testCase.getEndTime().getTime());
+        }
+        record.setSrcPort(testCase.getSrcPort());
+        record.setDstPort(testCase.getDstPort());
+        return record;
+    }
+
+    public String getTestId() {
+        return testId;
+    }
+
+    public void setTestId(String testId) {
+        this.testId = testId;
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public void setUuid(String uuid) {
+        this.uuid = uuid;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public void setDisplayName(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getParameterCombination() {
+        return parameterCombination;
+    }
+
+    public void setParameterCombination(String parameterCombination) {
+        this.parameterCombination = parameterCombination;
+    }
+
+    public TestResult getResult() {
+        return result;
+    }
+
+    public void setResult(TestResult result) {
+        this.result = result;
+    }
+
+    public List<String> getAdditionalResultInformation() {
+        return additionalResultInformation;
+    }
+
+    public void setAdditionalResultInformation(List<String> additionalResultInformation) {
+        this.additionalResultInformation = additionalResultInformation;
+    }
+
+    public List<String> getAdditionalTestInformation() {
+        return additionalTestInformation;
+    }
+
+    public void setAdditionalTestInformation(List<String> additionalTestInformation) {
+        this.additionalTestInformation = additionalTestInformation;
+    }
+
+    public String getFailedReason() {
+        return failedReason;
+    }
+
+    public void setFailedReason(String failedReason) {
+        this.failedReason = failedReason;
+    }
+
+    public Long getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(Long startTime) {
+        this.startTime = startTime;
+    }
+
+    public Long getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(Long endTime) {
+        this.endTime = endTime;
+    }
+
+    public Integer getSrcPort() {
+        return srcPort;
+    }
+
+    public void setSrcPort(Integer srcPort) {
+        this.srcPort = srcPort;
+    }
+
+    public Integer getDstPort() {
+        return dstPort;
+    }
+
+    public void setDstPort(Integer dstPort) {
+        this.dstPort = dstPort;
+    }
+}
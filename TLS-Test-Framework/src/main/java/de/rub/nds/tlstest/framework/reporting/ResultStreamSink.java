@@ -0,0 +1,185 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.reporting;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.rub.nds.anvilcore.teststate.TestResult;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Appends one JSON line per finished test case to a segmented, optionally gzip compressed log. The
+ * sink itself only keeps aggregate counters in memory; summaries are built by streaming over the
+ * segments.
+ *
+ * <p>The stream is written in addition to the regular report: anvil-core still retains the test
+ * cases of the run and writes its report as before, so the stream does not lower the memory
+ * footprint or the report I/O of a run.
+ */
+public class ResultStreamSink implements AutoCloseable {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    public static final String FOLDER_NAME = "result_stream";
+    private static final String SEGMENT_PREFIX = "results-";
+    private static final String SEGMENT_SUFFIX = ".jsonl";
+    private static final String COMPRESSED_SUFFIX = ".gz";
+    public static final long DEFAULT_SEGMENT_SIZE = 64L * 1024 * 1024;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Path folder;
+    private final boolean compress;
+    private final long segmentSize;
+
+    private final Map<TestResult, Long> resultCounters = new EnumMap<>(TestResult.class);
+    private long recordCount = 0;
+    private int segmentIndex = -1;
+    private long segmentBytes = 0;
+    private OutputStream output;
+
+    /**
+     * @param folder folder the segments are written to
+     * @param compress whether the segments are gzip compressed
+     * @param segmentSize number of uncompressed UTF-8 bytes after which a new segment is started
+     */
+    public ResultStreamSink(Path folder, boolean compress, long segmentSize) {
+        this.folder = folder;
+        this.compress = compress;
+        this.segmentSize = segmentSize;
+    }
+
+    public synchronized void append(ResultRecord record) {
+        try {
+            if (output == null || segmentBytes >= segmentSize) {
+                openNextSegment();
+            }
+            byte[] line = mapper.writeValueAsBytes(record);
+            output.write(line);
+            output.write('\n');
+            segmentBytes += line.length + 1;
+            recordCount++;
+            if (record.getResult() != null) {
+                resultCounters.merge(record.getResult(), 1L, Long::sum);
+            }
+        } catch (IOException e) {
+            LOGGER.error("Failed to append result of test case {}", record.getUuid(), e);
+        }
+    }
+
+    private void openNextSegment() throws IOException {
+        if (output != null) {
+            output.close();
+        }
+        Files.createDirectories(folder);
+        segmentIndex++;
+        String name = String.format("%s%05d%s", SEGMENT_PREFIX, segmentIndex, SEGMENT_SUFFIX);
+        OutputStream outputStream;
+        if (compress) {
+            outputStream =
+                    new GZIPOutputStream(
+                            Files.newOutputStream(folder.resolve(name + COMPRESSED_SUFFIX)));
+        } else {
+            outputStream = Files.newOutputStream(folder.resolve(name));
+        }
+        output = new BufferedOutputStream(outputStream);
+        segmentBytes = 0;
+    }
+
+    public synchronized long getRecordCount() {
+        return recordCount;
+    }
+
+    public synchronized Map<TestResult, Long> getResultCounters() {
+        return new EnumMap<>(resultCounters);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (output == null) {
+            return;
+        }
+        try {
+            output.close();
+        } catch (IOException e) {
+            LOGGER.error("Failed to close result stream", e);
+        }
+        output = null;
+    }
+
+    /**
+     * Reads all records of a result stream in the order they were written.
+     *
+     * @param folder folder containing the segments
+     * @param consumer receives the records
+     */
+    public static void read(Path folder, Consumer<ResultRecord> consumer) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(folder)) {
+            segments =
+                    files.filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                            .sorted()
+                            .collect(Collectors.toList());
+        }
+        for (Path segment : segments) {
+            InputStream inputStream = Files.newInputStream(segment);
+            if (segment.getFileName().toString().endsWith(COMPRESSED_SUFFIX)) {
+                inputStream = new GZIPInputStream(inputStream);
+            }
+            try (BufferedReader reader =
+                    new BufferedReader(
+                            new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.isBlank()) {
+                        consumer.accept(mapper.readValue(line, ResultRecord.class));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds a summary of the test cases in a result stream.
+     *
+     * @param folder folder containing the segments
+     * @return number of test cases per result for each test
+     */
+    public static Map<String, Map<TestResult, Long>> summarize(Path folder) throws IOException {
+        Map<String, Map<TestResult, Long>> summary = new TreeMap<>();
+        read(
+                folder,
+                record ->
+                        summary.computeIfAbsent(
+                                        record.getTestId(), id -> new EnumMap<>(TestResult.class))
+                                .merge(
+                                        record.getResult() == null
+                                                ? TestResult.NOT_SPECIFIED
+                                                : record.getResult(),
+                                        1L,
+                                        Long::sum));
+        return summary;
+    }
+}
@@ -0,0 +1,275 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.sharding;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import de.rub.nds.anvilcore.teststate.TestResult;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Combines the output folders of the shards of a run into the output folder of a single run. The
+ * result folder of each template is taken from the shard that executed it, the report counters and
+ * scores are recomputed from the combined templates.
+ */
+public class ShardMerger {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    static final String RESULTS_FOLDER = "results";
+    static final String TEST_RUN_FILE = "_testRun.json";
+    static final String REPORT_FILE = "report.json";
+    static final String JOURNAL_FILE = "journal.jsonl";
+
+    /** files that are equal in all shards and copied from the first one */
+    private static final List<String> SHARED_FILES = List.of("tls-scanner.txt", "guidelines.json");
+
+    private static final Map<TestResult, String> REPORT_COUNTERS =
+            Map.of(
+                    TestResult.STRICTLY_SUCCEEDED, "StrictlySucceededTests",
+                    TestResult.CONCEPTUALLY_SUCCEEDED, "ConceptuallySucceededTests",
+                    TestResult.DISABLED, "DisabledTests",
+                    TestResult.PARTIALLY_FAILED, "PartiallyFailedTests",
+                    TestResult.FULLY_FAILED, "FullyFailedTests",
+                    TestResult.TEST_SUITE_ERROR, "TestSuiteErrorTests");
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final List<Path> shardFolders;
+    private final Path mergedFolder;
+
+    public ShardMerger(List<Path> shardFolders, Path mergedFolder) {
+        this.shardFolders = shardFolders;
+        this.mergedFolder = mergedFolder;
+    }
+
+    /**
+     * Writes the combined results to the merged folder.
+     *
+     * @return the combined report
+     */
+    public ObjectNode merge() throws IOException {
+        Map<String, SelectedRun> selectedRuns = selectTestRuns();
+        Path mergedResults = mergedFolder.resolve(RESULTS_FOLDER);
+        Files.createDirectories(mergedResults);
+        for (Map.Entry<String, SelectedRun> run : selectedRuns.entrySet()) {
+            copyRecursively(run.getValue().folder, mergedResults.resolve(run.getKey()));
+        }
+        for (String sharedFile : SHARED_FILES) {
+            Path source = shardFolders.get(0).resolve(sharedFile);
+            if (Files.exists(source)) {
+                Files.copy(
+                        source,
+                        mergedFolder.resolve(sharedFile),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        mergeJournals();
+
+        ObjectNode report = mergeReports(selectedRuns);
+        mapper.writerWithDefaultPrettyPrinter()
+                .writeValue(mergedFolder.resolve(REPORT_FILE).toFile(), report);
+        LOGGER.info(
+                "Merged {} templates of {} shards into {}",
+                selectedRuns.size(),
+                shardFolders.size(),
+                mergedFolder);
+        return report;
+    }
+
+    /**
+     * Picks the result folder of every template from the shard that executed it. Templates disabled
+     * in every shard for another reason than the sharding are kept as disabled.
+     *
+     * @throws IOException if a template has not been executed by any shard, e.g. since the shards
+     *     did not agree on the plan or a shard is missing
+     */
+    private Map<String, SelectedRun> selectTestRuns() throws IOException {
+        Map<String, SelectedRun> selectedRuns = new TreeMap<>();
+        for (Path shardFolder : shardFolders) {
+            Path results = shardFolder.resolve(RESULTS_FOLDER);
+            if (!Files.isDirectory(results)) {
+                LOGGER.warn("Shard folder {} does not contain any results", shardFolder);
+                continue;
+            }
+            try (Stream<Path> testFolders = Files.list(results)) {
+                for (Path testFolder : (Iterable<Path>) testFolders::iterator) {
+                    Path testRunFile = testFolder.resolve(TEST_RUN_FILE);
+                    if (!Files.exists(testRunFile)) {
+                        continue;
+                    }
+                    SelectedRun candidate =
+                            new SelectedRun(testFolder, mapper.readTree(testRunFile.toFile()));
+                    String testId = testFolder.getFileName().toString();
+                    SelectedRun selected = selectedRuns.get(testId);
+                    if (selected == null || (selected.isSharded() && !candidate.isSharded())) {
+                        selectedRuns.put(testId, candidate);
+                    } else if (!selected.isSharded() && !candidate.isSharded()) {
+                        LOGGER.warn(
+                                "Template {} has been executed by more than one shard, keeping the results of {}",
+                                testId,
+                                selected.folder);
+                    }
+                }
+            }
+        }
+        List<String> unexecuted =
+                selectedRuns.entrySet().stream()
+                        .filter(run -> run.getValue().isSharded())
+                        .map(Map.Entry::getKey)
+                        .collect(Collectors.toList());
+        if (!unexecuted.isEmpty()) {
+            throw new IOException(
+                    String.format(
+                            "%d template(s) have not been executed by any of the shards, the shard folders do not belong to the same run: %s",
+                            unexecuted.size(), unexecuted));
+        }
+        return selectedRuns;
+    }
+
+    private ObjectNode mergeReports(Map<String, SelectedRun> selectedRuns) throws IOException {
+        ObjectNode merged = null;
+        long elapsedTime = 0;
+        long totalTests = 0;
+        long finishedTests = 0;
+        long testCaseCount = 0;
+        boolean running = false;
+        Map<String, Long> detailsFailedTestCases = new TreeMap<>();
+        for (Path shardFolder : shardFolders) {
+            Path reportFile = shardFolder.resolve(REPORT_FILE);
+            if (!Files.exists(reportFile)) {
+                LOGGER.warn("Shard folder {} does not contain a report", shardFolder);
+                continue;
+            }
+            ObjectNode report = (ObjectNode) mapper.readTree(reportFile.toFile());
+            if (merged == null) {
+                merged = report.deepCopy();
+            }
+            // every shard reports all templates, including those of the other shards
+            elapsedTime = Math.max(elapsedTime, report.path("ElapsedTime").asLong());
+            totalTests = Math.max(totalTests, report.path("TotalTests").asLong());
+            finishedTests = Math.max(finishedTests, report.path("FinishedTests").asLong());
+            testCaseCount += report.path("TestCaseCount").asLong();
+            running |= report.path("Running").asBoolean();
+            report.path("DetailsFailedTestCases")
+                    .properties()
+                    .forEach(
+                            detail ->
+                                    detailsFailedTestCases.merge(
+                                            detail.getKey(),
+                                            detail.getValue().asLong(),
+                                            Long::sum));
+        }
+        if (merged == null) {
+            throw new IOException("None of the shard folders contains a report");
+        }
+
+        merged.put("ElapsedTime", elapsedTime);
+        merged.put("TotalTests", totalTests);
+        merged.put("FinishedTests", finishedTests);
+        merged.put("TestCaseCount", testCaseCount);
+        merged.put("Running", running);
+        ObjectNode details = merged.putObject("DetailsFailedTestCases");
+        detailsFailedTestCases.forEach(details::put);
+        for (String counter : REPORT_COUNTERS.values()) {
+            merged.put(counter, 0L);
+        }
+        Map<String, double[]> scores = new TreeMap<>();
+        for (SelectedRun run : selectedRuns.values()) {
+            String counter = REPORT_COUNTERS.get(run.getResult());
+            if (counter != null) {
+                merged.put(counter, merged.path(counter).asLong() + 1);
+            }
+            for (Map.Entry<String, JsonNode> category : run.testRun.path("Score").properties()) {
+                double[] score = scores.computeIfAbsent(category.getKey(), key -> new double[2]);
+                score[0] += category.getValue().path("reached").asDouble();
+                score[1] += category.getValue().path("total").asDouble();
+            }
+        }
+        ObjectNode mergedScores = merged.putObject("Score");
+        scores.forEach(
+                (category, score) -> {
+                    ObjectNode node = mergedScores.putObject(category);
+                    node.put("reached", score[0]);
+                    node.put("total", score[1]);
+                    node.put("percentage", score[1] == 0 ? 100 : score[0] / score[1] * 100);
+                });
+        return merged;
+    }
+
+    private void mergeJournals() throws IOException {
+        Path mergedJournal = mergedFolder.resolve(JOURNAL_FILE);
+        Files.deleteIfExists(mergedJournal);
+        for (Path shardFolder : shardFolders) {
+            Path journal = shardFolder.resolve(JOURNAL_FILE);
+            if (Files.exists(journal)) {
+                Files.write(
+                        mergedJournal,
+                        Files.readAllLines(journal),
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.APPEND);
+            }
+        }
+    }
+
+    private static void copyRecursively(Path source, Path target) throws IOException {
+        try (Stream<Path> paths = Files.walk(source)) {
+            paths.forEach(
+                    path -> {
+                        Path destination = target.resolve(source.relativize(path).toString());
+                        try {
+                            if (Files.isDirectory(path)) {
+                                Files.createDirectories(destination);
+                            } else {
+                                Files.copy(path, destination, StandardCopyOption.REPLACE_EXISTING);
+                            }
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static class SelectedRun {
+        private final Path folder;
+        private final JsonNode testRun;
+
+        private SelectedRun(Path folder, JsonNode testRun) {
+            this.folder = folder;
+            this.testRun = testRun;
+        }
+
+        /**
+         * @return whether the template has not been executed since it is assigned to another shard
+         */
+        private boolean isSharded() {
+            return getResult() == TestResult.DISABLED
+                    && testRun.path("DisabledReason")
+                            .asText("")
+                            .startsWith(ShardPlan.DISABLED_REASON_PREFIX);
+        }
+
+        private TestResult getResult() {
+            String result = testRun.path("Result").asText(null);
+            return result == null ? null : TestResult.valueOf(result);
+        }
+    }
+}
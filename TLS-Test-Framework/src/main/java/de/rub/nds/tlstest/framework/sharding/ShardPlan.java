@@ -0,0 +1,173 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.sharding;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Assignment of the test templates of a run to the shards executing it. A balanced plan assigns the
+ * templates longest-processing-time-first to the shard with the least expected work, using the
+ * durations of previous runs. Without a history, every template has the same weight and the
+ * templates are spread evenly. Ties are broken by the test id, so every shard computes the same
+ * plan from the same inputs.
+ *
+ * <p>The duration histories of the shards may differ, so a balanced plan has to be shared using
+ * {@link #loadOrPublish}. Without a shared plan file, the templates are assigned by the hash of
+ * their test id.
+ */
+public class ShardPlan {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    /** prefix of the reason of templates disabled since they are executed by another shard */
+    public static final String DISABLED_REASON_PREFIX = "Assigned to shard ";
+
+    private int shardCount;
+    private Map<String, Integer> assignments = new TreeMap<>();
+    private List<Long> expectedShardMillis = new ArrayList<>();
+
+    public ShardPlan() {}
+
+    /**
+     * @param templateMillis the expected duration of each scheduled template by its test id
+     * @param shardCount the number of shards
+     * @return the balanced plan
+     */
+    public static ShardPlan compute(Map<String, Long> templateMillis, int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        ShardPlan plan = new ShardPlan();
+        plan.shardCount = shardCount;
+        long[] loads = new long[shardCount];
+        List<Map.Entry<String, Long>> templates = new ArrayList<>(templateMillis.entrySet());
+        templates.sort(
+                Comparator.comparing((Map.Entry<String, Long> entry) -> weightOf(entry.getValue()))
+                        .reversed()
+                        .thenComparing(Map.Entry::getKey));
+        for (Map.Entry<String, Long> template : templates) {
+            int target = 0;
+            for (int shard = 1; shard < shardCount; shard++) {
+                if (loads[shard] < loads[target]) {
+                    target = shard;
+                }
+            }
+            plan.assignments.put(template.getKey(), target);
+            loads[target] += weightOf(template.getValue());
+        }
+        for (long load : loads) {
+            plan.expectedShardMillis.add(load);
+        }
+        return plan;
+    }
+
+    /**
+     * @param shardCount the number of shards
+     * @return a plan assigning every template by the hash of its test id, which only depends on the
+     *     test id and is therefore identical in all shards
+     */
+    public static ShardPlan hashed(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        ShardPlan plan = new ShardPlan();
+        plan.shardCount = shardCount;
+        return plan;
+    }
+
+    private static long weightOf(Long expectedMillis) {
+        // templates without history or with negligible durations still occupy a slot
+        return expectedMillis == null ? 1 : Math.max(1, expectedMillis);
+    }
+
+    /**
+     * Loads the plan published by another shard of the same run, or publishes the computed plan if
+     * there is none yet. The plan file is guarded by a {@link SharedFileLock}, so concurrently
+     * starting shards agree on a single plan.
+     *
+     * @param planPath the plan file shared by all shards
+     * @param computed the plan computed by this shard
+     * @return the plan all shards use
+     */
+    public static ShardPlan loadOrPublish(Path planPath, ShardPlan computed) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        try (SharedFileLock ignored = SharedFileLock.acquire(planPath)) {
+            if (Files.exists(planPath)) {
+                ShardPlan published = mapper.readValue(planPath.toFile(), ShardPlan.class);
+                if (published.getShardCount() == computed.getShardCount()) {
+                    LOGGER.info("Using shard plan published in {}", planPath);
+                    return published;
+                }
+                LOGGER.warn(
+                        "Shard plan {} was created for {} shards, replacing it",
+                        planPath,
+                        published.getShardCount());
+            }
+            Path absolutePath = planPath.toAbsolutePath();
+            Path temporaryPath = absolutePath.resolveSibling(absolutePath.getFileName() + ".tmp");
+            mapper.writerWithDefaultPrettyPrinter().writeValue(temporaryPath.toFile(), computed);
+            Files.move(
+                    temporaryPath,
+                    absolutePath,
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            return computed;
+        }
+    }
+
+    /**
+     * @param testId id of the test template
+     * @return the shard executing the template; templates unknown to the plan are assigned by their
+     *     id
+     */
+    public int getShard(String testId) {
+        Integer assigned = assignments.get(testId);
+        if (assigned != null) {
+            return assigned;
+        }
+        return Math.floorMod(testId.hashCode(), shardCount);
+    }
+
+    public static String disabledReason(int shard, int shardCount) {
+        return DISABLED_REASON_PREFIX + shard + " of " + shardCount;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public void setShardCount(int shardCount) {
+        this.shardCount = shardCount;
+    }
+
+    public Map<String, Integer> getAssignments() {
+        return assignments;
+    }
+
+    public void setAssignments(Map<String, Integer> assignments) {
+        this.assignments = new TreeMap<>(assignments);
+    }
+
+    public List<Long> getExpectedShardMillis() {
+        return expectedShardMillis;
+    }
+
+    public void setExpectedShardMillis(List<Long> expectedShardMillis) {
+        this.expectedShardMillis = expectedShardMillis;
+    }
+}
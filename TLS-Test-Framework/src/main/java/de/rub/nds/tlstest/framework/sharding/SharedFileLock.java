@@ -0,0 +1,60 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.sharding;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Exclusive lock on a file next to a shared resource, used to coordinate the processes of a sharded
+ * run that access the same cache or plan file. The lock is held by the process, so it must not be
+ * acquired twice in the same JVM.
+ */
+public class SharedFileLock implements AutoCloseable {
+
+    private final FileChannel channel;
+    private final FileLock lock;
+
+    private SharedFileLock(FileChannel channel, FileLock lock) {
+        this.channel = channel;
+        this.lock = lock;
+    }
+
+    /**
+     * Blocks until the lock guarding the given file is acquired.
+     *
+     * @param guardedFile the shared file, the lock is held on a sibling with the suffix .lock
+     * @return the acquired lock, to be closed once the shared file has been accessed
+     */
+    public static SharedFileLock acquire(Path guardedFile) throws IOException {
+        Path lockPath = guardedFile.toAbsolutePath();
+        Files.createDirectories(lockPath.getParent());
+        lockPath = lockPath.resolveSibling(lockPath.getFileName() + ".lock");
+        FileChannel channel =
+                FileChannel.open(lockPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            return new SharedFileLock(channel, channel.lock());
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            lock.release();
+        } finally {
+            channel.close();
+        }
+    }
+}
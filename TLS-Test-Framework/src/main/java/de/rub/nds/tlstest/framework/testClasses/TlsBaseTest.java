@@ -10,6 +10,7 @@ package de.rub.nds.tlstest.framework.testClasses;
 import de.rub.nds.anvilcore.coffee4j.model.ModelFromScope;
 import de.rub.nds.anvilcore.junit.AnvilTestBaseClass;
 import de.rub.nds.anvilcore.teststate.AnvilTestCase;
+import de.rub.nds.anvilcore.util.TestIdResolver;
 import de.rub.nds.scanner.core.probe.result.TestResults;
 import de.rub.nds.tlsattacker.core.config.Config;
 import de.rub.nds.tlsattacker.core.constants.PskKeyExchangeMode;
@@ -18,11 +19,20 @@ import de.rub.nds.tlstest.framework.TestContext;
 import de.rub.nds.tlstest.framework.anvil.TlsParameterCombination;
 import de.rub.nds.tlstest.framework.execution.WorkflowRunner;
 import de.rub.nds.tlstest.framework.junitExtensions.EnforcedSenderRestrictionConditionExtension;
+import de.rub.nds.tlstest.framework.junitExtensions.IncrementalExecutionExtension;
+import de.rub.nds.tlstest.framework.junitExtensions.JournalResumeExtension;
 import de.rub.nds.tlstest.framework.junitExtensions.KexCondition;
+import de.rub.nds.tlstest.framework.junitExtensions.MemoryGovernorExtension;
+import de.rub.nds.tlstest.framework.junitExtensions.PhaseTimingExtension;
+import de.rub.nds.tlstest.framework.junitExtensions.ShardCondition;
+import de.rub.nds.tlstest.framework.junitExtensions.StrengthEscalationExtension;
+import de.rub.nds.tlstest.framework.junitExtensions.TestCaseLogExtension;
 import de.rub.nds.tlstest.framework.junitExtensions.TlsVersionCondition;
 import de.rub.nds.tlstest.framework.junitExtensions.WorkflowRunnerResolver;
+import de.rub.nds.tlstest.framework.metrics.ExecutionPhase;
 import de.rub.nds.tlstest.framework.parameterExtensions.configurationOptionsExtension.configurationOptionDerivationParameter.ConfigurationOptionCompoundDerivation;
 import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.junit.jupiter.api.AfterEach;
@@ -31,10 +41,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.extension.ExtensionContext;
 
 @ExtendWith({
+    TestCaseLogExtension.class,
+    ShardCondition.class,
+    StrengthEscalationExtension.class,
     TlsVersionCondition.class,
     KexCondition.class,
     EnforcedSenderRestrictionConditionExtension.class,
-    WorkflowRunnerResolver.class
+    WorkflowRunnerResolver.class,
+    IncrementalExecutionExtension.class,
+    JournalResumeExtension.class,
+    MemoryGovernorExtension.class,
+    PhaseTimingExtension.class
 })
 @ModelFromScope(modelType = "GENERIC")
 public abstract class TlsBaseTest extends AnvilTestBaseClass {
@@ -62,7 +79,14 @@ public abstract class TlsBaseTest extends AnvilTestBaseClass {
                 new TlsParameterCombination(
                         testCase.getParameterCombination().getParameterValues(),
                         testCase.getParameterCombination().getDerivationScope());
+        long startNanos = System.nanoTime();
         parameterCombination.applyToConfig(config);
+        context.getExecutionMetrics()
+                .record(
+                        ExecutionPhase.CONFIG_PREPARATION,
+                        TestIdResolver.resolveTestId(extensionContext.getRequiredTestMethod()),
+                        parameterCombination,
+                        TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
         runner.setPreparedConfig(config);
         runner.setTlsParameterCombination(parameterCombination);
         return config;
@@ -0,0 +1,145 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.testIndex;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Compact, build-time generated index of all test templates of a testsuite. The index is bundled as
+ * a classpath resource and allows counting and filtering of test templates without inspecting the
+ * annotations of each test method reflectively.
+ */
+public class TestIndex {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    public static final String RESOURCE_NAME = "tls-anvil-test-index.json";
+
+    private static TestIndex instance;
+    private static boolean loaded = false;
+
+    private final List<TestIndexEntry> entries;
+    private final Map<String, TestIndexEntry> entriesByMethod = new HashMap<>();
+    private final Map<String, TestIndexEntry> entriesById = new HashMap<>();
+
+    public TestIndex(List<TestIndexEntry> entries) {
+        this.entries = entries;
+        for (TestIndexEntry entry : entries) {
+            entriesByMethod.put(entry.getMethodKey(), entry);
+            entriesById.put(entry.getId(), entry);
+        }
+    }
+
+    /**
+     * Returns the index bundled with the testsuite. The resource is only read once.
+     *
+     * @return the index or an empty Optional if no index has been bundled
+     */
+    public static synchronized Optional<TestIndex> getInstance() {
+        if (!loaded) {
+            loaded = true;
+            instance = load(Thread.currentThread().getContextClassLoader());
+        }
+        return Optional.ofNullable(instance);
+    }
+
+    static TestIndex load(ClassLoader classLoader) {
+        try (InputStream stream = classLoader.getResourceAsStream(RESOURCE_NAME)) {
+            if (stream == null) {
+                LOGGER.debug("No test index found on classpath");
+                return null;
+            }
+            return fromStream(stream);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to read test index, falling back to reflection", e);
+            return null;
+        }
+    }
+
+    public static TestIndex fromStream(InputStream stream) throws IOException {
+        List<TestIndexEntry> entries =
+                new ObjectMapper().readValue(stream, new TypeReference<List<TestIndexEntry>>() {});
+        return new TestIndex(entries);
+    }
+
+    public static String methodKey(String className, String methodName) {
+        return className + "#" + methodName;
+    }
+
+    public List<TestIndexEntry> getEntries() {
+        return entries;
+    }
+
+    public TestIndexEntry getEntry(String className, String methodName) {
+        return entriesByMethod.get(methodKey(className, methodName));
+    }
+
+    public TestIndexEntry getEntryById(String id) {
+        return entriesById.get(id);
+    }
+
+    /**
+     * @param tags tags to filter for, an empty collection matches all entries
+     * @return all entries that carry at least one of the given tags
+     */
+    public List<TestIndexEntry> getEntriesWithAnyTag(Collection<String> tags) {
+        if (tags == null || tags.isEmpty()) {
+            return entries;
+        }
+        return entries.stream()
+                .filter(entry -> entry.getTags().stream().anyMatch(tags::contains))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Determines the most specific package that contains all test templates matching the given
+     * tags. Selecting this package for discovery restricts the classes JUnit has to scan.
+     *
+     * @param tags tags to filter for
+     * @return the common package or null if no entry matches
+     */
+    public String getCommonPackage(Collection<String> tags) {
+        List<TestIndexEntry> matching = getEntriesWithAnyTag(tags);
+        if (matching.isEmpty()) {
+            return null;
+        }
+        List<String> common = null;
+        for (TestIndexEntry entry : matching) {
+            String className = entry.getClassName();
+            List<String> segments =
+                    new LinkedList<>(
+                            List.of(
+                                    className
+                                            .substring(0, className.lastIndexOf('.'))
+                                            .split("\\.")));
+            if (common == null) {
+                common = segments;
+            } else {
+                int length = 0;
+                while (length < common.size()
+                        && length < segments.size()
+                        && common.get(length).equals(segments.get(length))) {
+                    length++;
+                }
+                common = common.subList(0, length);
+            }
+        }
+        return String.join(".", common);
+    }
+}
@@ -0,0 +1,174 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.testIndex;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import de.rub.nds.anvilcore.constants.TestEndpointType;
+import de.rub.nds.tlsattacker.core.constants.ProtocolVersion;
+import de.rub.nds.tlstest.framework.constants.KeyExchangeType;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Statically resolved information about a single test template. Entries are generated at build time
+ * by the {@link TestIndexGenerator} so that no reflection over the test classes is required at
+ * startup.
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TestIndexEntry {
+    private String id;
+    private String className;
+    private String methodName;
+    private boolean combinatorial;
+    private List<ProtocolVersion> versions = new LinkedList<>();
+    private List<KeyExchangeType> keyExchanges = new LinkedList<>();
+    private TestEndpointType endpoint;
+    private List<String> tags = new LinkedList<>();
+    private String modelType;
+    private String description;
+    private Map<String, Integer> severityLevels;
+    private Integer rfcNumber;
+    private String rfcSection;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public void setClassName(String className) {
+        this.className = className;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public void setMethodName(String methodName) {
+        this.methodName = methodName;
+    }
+
+    public boolean isCombinatorial() {
+        return combinatorial;
+    }
+
+    public void setCombinatorial(boolean combinatorial) {
+        this.combinatorial = combinatorial;
+    }
+
+    public List<ProtocolVersion> getVersions() {
+        return versions;
+    }
+
+    public void setVersions(List<ProtocolVersion> versions) {
+        this.versions = versions;
+    }
+
+    public List<KeyExchangeType> getKeyExchanges() {
+        return keyExchanges;
+    }
+
+    public void setKeyExchanges(List<KeyExchangeType> keyExchanges) {
+        this.keyExchanges = keyExchanges;
+    }
+
+    public TestEndpointType getEndpoint() {
+        return endpoint;
+    }
+
+    public void setEndpoint(TestEndpointType endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<String> tags) {
+        this.tags = tags;
+    }
+
+    public String getModelType() {
+        return modelType;
+    }
+
+    public void setModelType(String modelType) {
+        this.modelType = modelType;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public Map<String, Integer> getSeverityLevels() {
+        return severityLevels;
+    }
+
+    public void setSeverityLevels(Map<String, Integer> severityLevels) {
+        this.severityLevels = severityLevels;
+    }
+
+    public Integer getRfcNumber() {
+        return rfcNumber;
+    }
+
+    public void setRfcNumber(Integer rfcNumber) {
+        this.rfcNumber = rfcNumber;
+    }
+
+    public String getRfcSection() {
+        return rfcSection;
+    }
+
+    public void setRfcSection(String rfcSection) {
+        this.rfcSection = rfcSection;
+    }
+
+    /**
+     * @return the key used to look up this entry from a JUnit method source
+     */
+    @JsonIgnore
+    public String getMethodKey() {
+        return TestIndex.methodKey(className, methodName);
+    }
+
+    /**
+     * Mirrors the evaluation of the TlsVersionCondition and EndpointConditionExtension for the
+     * statically resolved values of this entry.
+     *
+     * @param version the version to count
+     * @param endpointTypeToCount the endpoint type to count
+     * @param executionEndpointType the endpoint type of the current execution
+     * @return true if the template would be scheduled for the given version and endpoint
+     */
+    public boolean matches(
+            ProtocolVersion version,
+            TestEndpointType endpointTypeToCount,
+            TestEndpointType executionEndpointType) {
+        return versions.contains(version)
+                && endpoint != null
+                && (executionEndpointType == TestEndpointType.BOTH
+                        || endpoint == endpointTypeToCount
+                        || executionEndpointType == endpointTypeToCount)
+                && endpoint.isMatchingTestEndpointType(executionEndpointType);
+    }
+}
@@ -0,0 +1,152 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.testIndex;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.rub.nds.anvilcore.annotation.AnvilTest;
+import de.rub.nds.anvilcore.annotation.NonCombinatorialAnvilTest;
+import de.rub.nds.anvilcore.coffee4j.model.ModelFromScope;
+import de.rub.nds.anvilcore.junit.extension.EndpointConditionExtension;
+import de.rub.nds.anvilcore.teststate.reporting.MetadataFetcher;
+import de.rub.nds.tlstest.framework.annotations.KeyExchange;
+import de.rub.nds.tlstest.framework.constants.KeyExchangeType;
+import de.rub.nds.tlstest.framework.junitExtensions.TlsVersionCondition;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.Tag;
+import org.reflections.Reflections;
+import org.reflections.scanners.Scanners;
+
+/**
+ * Generates the {@link TestIndex} of a testsuite. This is invoked during the build of the
+ * testsuite, after its classes have been compiled.
+ *
+ * <p>Usage: {@code TestIndexGenerator <test package> <output file>}
+ */
+public class TestIndexGenerator {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private final String packageName;
+
+    public TestIndexGenerator(String packageName) {
+        this.packageName = packageName;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException(
+                    "Usage: TestIndexGenerator <test package> <output file>");
+        }
+        List<TestIndexEntry> entries = new TestIndexGenerator(args[0]).generate();
+        File outputFile = new File(args[1]);
+        outputFile.getParentFile().mkdirs();
+        new ObjectMapper().writeValue(outputFile, entries);
+        LOGGER.info("Wrote {} test templates to {}", entries.size(), outputFile);
+    }
+
+    public List<TestIndexEntry> generate() {
+        Reflections reflections = new Reflections(packageName, Scanners.MethodsAnnotated);
+        MetadataFetcher metadataFetcher = new MetadataFetcher();
+        List<TestIndexEntry> entries = new ArrayList<>();
+        for (Method method : reflections.getMethodsAnnotatedWith(AnvilTest.class)) {
+            entries.add(
+                    createEntry(
+                            method, method.getAnnotation(AnvilTest.class).id(), metadataFetcher));
+        }
+        for (Method method : reflections.getMethodsAnnotatedWith(NonCombinatorialAnvilTest.class)) {
+            entries.add(
+                    createEntry(
+                            method,
+                            method.getAnnotation(NonCombinatorialAnvilTest.class).id(),
+                            metadataFetcher));
+        }
+        // keep the generated resource stable across builds
+        entries.sort(
+                Comparator.comparing(TestIndexEntry::getClassName)
+                        .thenComparing(TestIndexEntry::getMethodName));
+        return entries;
+    }
+
+    private TestIndexEntry createEntry(Method method, String id, MetadataFetcher metadataFetcher) {
+        Class<?> testClass = method.getDeclaringClass();
+        TestIndexEntry entry = new TestIndexEntry();
+        entry.setId(id);
+        entry.setClassName(testClass.getName());
+        entry.setMethodName(method.getName());
+        entry.setCombinatorial(method.isAnnotationPresent(AnvilTest.class));
+        entry.setVersions(
+                Arrays.asList(TlsVersionCondition.getSupportedTestVersions(method, testClass)));
+        entry.setKeyExchanges(resolveKeyExchanges(method, testClass));
+        entry.setEndpoint(EndpointConditionExtension.endpointOfMethod(method, testClass));
+        entry.setModelType(resolveModelType(method, testClass));
+
+        Set<String> tags = new LinkedHashSet<>();
+        Arrays.stream(testClass.getAnnotationsByType(Tag.class)).map(Tag::value).forEach(tags::add);
+        Arrays.stream(method.getAnnotationsByType(Tag.class)).map(Tag::value).forEach(tags::add);
+
+        if (metadataFetcher.getAllTestIds().contains(id)) {
+            entry.setDescription(metadataFetcher.getDescription(id));
+            entry.setSeverityLevels(metadataFetcher.getTestSeverityLevels(id));
+            entry.setRfcNumber(metadataFetcher.getRfcNumber(id));
+            entry.setRfcSection(metadataFetcher.getRfcSection(id));
+            Map<?, ?> rawMetadata = metadataFetcher.getRawMetadata(id);
+            if (rawMetadata.get("tags") instanceof Collection) {
+                ((Collection<?>) rawMetadata.get("tags")).forEach(tag -> tags.add(tag.toString()));
+            }
+        } else {
+            LOGGER.warn("No metadata registered for test {} ({})", id, entry.getMethodKey());
+        }
+        entry.setTags(new ArrayList<>(tags));
+        return entry;
+    }
+
+    /**
+     * Resolves the key exchanges declared for a test method like {@code KeyX.resolveKexAnnotation}
+     * does, without filtering them against a feature extraction result.
+     */
+    private static List<KeyExchangeType> resolveKeyExchanges(Method method, Class<?> testClass) {
+        Set<KeyExchangeType> supported = new LinkedHashSet<>();
+        KeyExchange methodKex = method.getAnnotation(KeyExchange.class);
+        KeyExchange classKex = testClass.getAnnotation(KeyExchange.class);
+        if (methodKex != null) {
+            supported.addAll(Arrays.asList(methodKex.supported()));
+            if (classKex != null && methodKex.mergeSupportedWithClassSupported()) {
+                supported.addAll(Arrays.asList(classKex.supported()));
+            }
+        } else if (classKex != null) {
+            supported.addAll(Arrays.asList(classKex.supported()));
+        } else {
+            supported.add(KeyExchangeType.ALL12);
+            supported.add(KeyExchangeType.ALL13);
+        }
+        return new ArrayList<>(supported);
+    }
+
+    private static String resolveModelType(Method method, Class<?> testClass) {
+        if (method.isAnnotationPresent(ModelFromScope.class)) {
+            return method.getAnnotation(ModelFromScope.class).modelType();
+        }
+        for (Class<?> current = testClass; current != null; current = current.getSuperclass()) {
+            if (current.isAnnotationPresent(ModelFromScope.class)) {
+                return current.getAnnotation(ModelFromScope.class).modelType();
+            }
+        }
+        return null;
+    }
+}
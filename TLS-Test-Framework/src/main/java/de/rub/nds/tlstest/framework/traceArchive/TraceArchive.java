@@ -0,0 +1,451 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.traceArchive;
+
+import de.rub.nds.tlsattacker.core.workflow.WorkflowTrace;
+import de.rub.nds.tlsattacker.core.workflow.WorkflowTraceSerializer;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Content-addressed archive for executed WorkflowTraces. The messages and records of a trace, and
+ * larger parts of them such as certificate chains, are stored once in a blob store keyed by their
+ * SHA-256 hash. Each trace is stored as a skeleton referencing these blobs, so messages shared by
+ * many traces only take up space once. Use {@link TraceArchiveReader} to reconstruct the traces.
+ *
+ * <p>The archive consists of four files: blobs.bin and traces.bin hold the deflated entries,
+ * blobs.idx and traces.idx map hashes respectively trace keys to their position.
+ */
+public class TraceArchive implements AutoCloseable {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    public static final String FOLDER_NAME = "traces";
+    static final String BLOB_DATA = "blobs.bin";
+    static final String BLOB_INDEX = "blobs.idx";
+    static final String TRACE_DATA = "traces.bin";
+    static final String TRACE_INDEX = "traces.idx";
+    static final String REFERENCE_ELEMENT = "archivedBlob";
+    static final String HASH_ATTRIBUTE = "hash";
+
+    // depth of the messages and records below the <workflowTrace> element
+    private static final int ITEM_DEPTH = 2;
+    // nested elements with at least this much text content are stored as separate blobs
+    private static final int NESTED_BLOB_THRESHOLD = 512;
+
+    private static final ThreadLocal<Transformer> TRANSFORMER =
+            ThreadLocal.withInitial(
+                    () -> {
+                        try {
+                            Transformer transformer =
+                                    TransformerFactory.newInstance().newTransformer();
+                            transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+                            transformer.setOutputProperty(OutputKeys.INDENT, "no");
+                            return transformer;
+                        } catch (TransformerConfigurationException e) {
+                            throw new RuntimeException(e);
+                        }
+                    });
+
+    private static final ThreadLocal<Marshaller> MARSHALLER =
+            ThreadLocal.withInitial(
+                    () -> {
+                        try {
+                            return WorkflowTraceSerializer.getJAXBContext().createMarshaller();
+                        } catch (JAXBException | IOException e) {
+                            throw new RuntimeException(e);
+                        }
+                    });
+
+    private final Map<String, long[]> blobIndex = new HashMap<>();
+    private final FileChannel blobChannel;
+    private final FileChannel traceChannel;
+    private final BufferedWriter blobIndexWriter;
+    private final BufferedWriter traceIndexWriter;
+    private long storedBytes = 0;
+    private long serializedBytes = 0;
+
+    /**
+     * Opens the archive in the folder. An existing archive, e.g. of a resumed run, is continued and
+     * its blobs are reused.
+     */
+    public TraceArchive(Path folder) throws IOException {
+        Files.createDirectories(folder);
+        blobChannel = openForAppend(folder.resolve(BLOB_DATA));
+        traceChannel = openForAppend(folder.resolve(TRACE_DATA));
+        Path blobIndexFile = folder.resolve(BLOB_INDEX);
+        if (Files.exists(blobIndexFile)) {
+            for (String line : Files.readAllLines(blobIndexFile)) {
+                String[] parts = line.split(" ");
+                // an incomplete last line of an interrupted run
+                if (parts.length == 3) {
+                    blobIndex.put(
+                            parts[0],
+                            new long[] {Long.parseLong(parts[1]), Long.parseLong(parts[2])});
+                }
+            }
+        }
+        blobIndexWriter = openIndexForAppend(blobIndexFile);
+        traceIndexWriter = openIndexForAppend(folder.resolve(TRACE_INDEX));
+    }
+
+    private static FileChannel openForAppend(Path path) throws IOException {
+        return FileChannel.open(
+                path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    private static BufferedWriter openIndexForAppend(Path path) throws IOException {
+        boolean incompleteLine = false;
+        if (Files.exists(path) && Files.size(path) > 0) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                ByteBuffer last = ByteBuffer.allocate(1);
+                channel.read(last, channel.size() - 1);
+                incompleteLine = last.get(0) != '\n';
+            }
+        }
+        BufferedWriter writer =
+                Files.newBufferedWriter(
+                        path,
+                        StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.APPEND);
+        if (incompleteLine) {
+            // terminate the line left behind by an interrupted run, readers skip it
+            writer.newLine();
+        }
+        return writer;
+    }
+
+    /**
+     * Adds a trace to the archive. Several traces can be stored for the same key. The trace is
+     * marshalled directly into the skeleton and blobs, without an intermediate XML document.
+     *
+     * @param key identifies the trace, e.g. the UUID of the test case
+     * @param trace the trace to store
+     */
+    public void add(String key, WorkflowTrace trace) {
+        try {
+            SkeletonBuilder builder = new SkeletonBuilder();
+            MARSHALLER.get().marshal(trace, builder);
+            byte[] skeleton = builder.getSkeleton();
+            synchronized (this) {
+                serializedBytes += builder.getSerializedBytes();
+                long[] position = append(traceChannel, skeleton);
+                traceIndexWriter.write(key + " " + position[0] + " " + position[1]);
+                traceIndexWriter.newLine();
+            }
+        } catch (Exception e) {
+            LOGGER.error("Failed to archive WorkflowTrace of {}", key, e);
+        }
+    }
+
+    /** Stores the content unless it is already archived and returns its hash. */
+    private String storeBlob(byte[] content) throws IOException {
+        String hash = hash(content);
+        synchronized (this) {
+            if (!blobIndex.containsKey(hash)) {
+                long[] position = append(blobChannel, content);
+                blobIndex.put(hash, position);
+                blobIndexWriter.write(hash + " " + position[0] + " " + position[1]);
+                blobIndexWriter.newLine();
+            }
+        }
+        return hash;
+    }
+
+    private long[] append(FileChannel channel, byte[] content) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflater =
+                new DeflaterOutputStream(compressed, new Deflater(Deflater.BEST_SPEED))) {
+            deflater.write(content);
+        }
+        byte[] bytes = compressed.toByteArray();
+        long offset = channel.size();
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        storedBytes += bytes.length;
+        return new long[] {offset, bytes.length};
+    }
+
+    public synchronized int getBlobCount() {
+        return blobIndex.size();
+    }
+
+    /**
+     * @return size of the archived data compared to the plain XML serialization
+     */
+    public synchronized double getCompressionRatio() {
+        return serializedBytes == 0 ? 1 : (double) storedBytes / serializedBytes;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            blobIndexWriter.close();
+            traceIndexWriter.close();
+            blobChannel.close();
+            traceChannel.close();
+        } catch (IOException e) {
+            LOGGER.error("Failed to close trace archive", e);
+        }
+    }
+
+    static Document parse(byte[] xml) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        DocumentBuilder builder = factory.newDocumentBuilder();
+        return builder.parse(new ByteArrayInputStream(xml));
+    }
+
+    static byte[] serialize(Element element) throws Exception {
+        StringWriter writer = new StringWriter();
+        TRANSFORMER.get().transform(new DOMSource(element), new StreamResult(writer));
+        return writer.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String hash(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Receives the marshalled trace and serializes it without whitespace-only text. The messages
+     * and records, and nested elements with large text content, are stored as blobs and replaced by
+     * references in the enclosing element.
+     */
+    private class SkeletonBuilder extends DefaultHandler {
+        private final Deque<Frame> frames = new ArrayDeque<>();
+        private final Map<String, String> pendingNamespaces = new LinkedHashMap<>();
+        private final StringBuilder pendingText = new StringBuilder();
+        private byte[] skeleton;
+        private long serializedBytes = 0;
+
+        @Override
+        public void startPrefixMapping(String prefix, String uri) {
+            pendingNamespaces.put(prefix, uri);
+        }
+
+        @Override
+        public void startElement(
+                String uri, String localName, String qName, Attributes attributes) {
+            flushText();
+            Frame frame = new Frame(qName, frames.size(), new LinkedHashMap<>(pendingNamespaces));
+            pendingNamespaces.clear();
+            for (int i = 0; i < attributes.getLength(); i++) {
+                frame.attributes
+                        .append(' ')
+                        .append(attributes.getQName(i))
+                        .append("=\"")
+                        .append(escape(attributes.getValue(i), true))
+                        .append('"');
+            }
+            frames.push(frame);
+        }
+
+        @Override
+        public void characters(char[] characters, int start, int length) {
+            pendingText.append(characters, start, length);
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            flushText();
+            Frame frame = frames.pop();
+            Frame parent = frames.peek();
+            boolean blob =
+                    frame.depth == ITEM_DEPTH
+                            || (frame.depth > ITEM_DEPTH
+                                    && frame.textLength >= NESTED_BLOB_THRESHOLD);
+            String serialized = frame.serialize(blob ? inheritedNamespaces() : Map.of());
+            byte[] bytes = serialized.getBytes(StandardCharsets.UTF_8);
+            long serializedLength = frame.serializedLength(bytes.length);
+            if (parent == null) {
+                skeleton = bytes;
+                serializedBytes = serializedLength;
+                return;
+            }
+            parent.textLength += frame.textLength;
+            parent.childBytes += serializedLength;
+            if (blob) {
+                try {
+                    parent.content
+                            .append('<')
+                            .append(REFERENCE_ELEMENT)
+                            .append(' ')
+                            .append(HASH_ATTRIBUTE)
+                            .append("=\"")
+                            .append(storeBlob(bytes))
+                            .append("\"/>");
+                } catch (IOException e) {
+                    throw new SAXException(e);
+                }
+            } else {
+                parent.content.append(serialized);
+            }
+        }
+
+        /** Namespaces declared by the enclosing elements, a blob has to be parsable on its own. */
+        private Map<String, String> inheritedNamespaces() {
+            Map<String, String> namespaces = new LinkedHashMap<>();
+            // the deque iterates from the innermost element, inner declarations take precedence
+            for (Frame frame : frames) {
+                frame.namespaces.forEach(namespaces::putIfAbsent);
+            }
+            return namespaces;
+        }
+
+        private void flushText() {
+            if (pendingText.length() == 0) {
+                return;
+            }
+            Frame frame = frames.peek();
+            if (frame != null && !pendingText.toString().isBlank()) {
+                String escaped = escape(pendingText, false);
+                frame.content.append(escaped);
+                frame.textLength += pendingText.length();
+                frame.childBytes += escaped.getBytes(StandardCharsets.UTF_8).length;
+            }
+            pendingText.setLength(0);
+        }
+
+        byte[] getSkeleton() {
+            return skeleton;
+        }
+
+        /**
+         * @return size of the trace serialized without any references
+         */
+        long getSerializedBytes() {
+            return serializedBytes;
+        }
+    }
+
+    private static class Frame {
+        private final String name;
+        private final int depth;
+        private final Map<String, String> namespaces;
+        private final StringBuilder attributes = new StringBuilder();
+        private final StringBuilder content = new StringBuilder();
+        // text content of the element including all descendants
+        private int textLength = 0;
+        // serialized size of the content if no descendant was replaced by a reference
+        private long childBytes = 0;
+
+        private Frame(String name, int depth, Map<String, String> namespaces) {
+            this.name = name;
+            this.depth = depth;
+            this.namespaces = namespaces;
+        }
+
+        private String serialize(Map<String, String> inheritedNamespaces) {
+            StringBuilder builder = new StringBuilder().append('<').append(name);
+            Map<String, String> declarations = new LinkedHashMap<>(inheritedNamespaces);
+            declarations.putAll(namespaces);
+            declarations.forEach(
+                    (prefix, uri) ->
+                            builder.append(prefix.isEmpty() ? " xmlns" : " xmlns:" + prefix)
+                                    .append("=\"")
+                                    .append(escape(uri, true))
+                                    .append('"'));
+            builder.append(attributes);
+            if (content.length() == 0) {
+                return builder.append("/>").toString();
+            }
+            return builder.append('>')
+                    .append(content)
+                    .append("</")
+                    .append(name)
+                    .append('>')
+                    .toString();
+        }
+
+        private long serializedLength(int serializedBytes) {
+            return serializedBytes
+                    - content.toString().getBytes(StandardCharsets.UTF_8).length
+                    + childBytes;
+        }
+    }
+
+    private static String escape(CharSequence text, boolean attribute) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&':
+                    escaped.append("&amp;");
+                    break;
+                case '<':
+                    escaped.append("&lt;");
+                    break;
+                case '>':
+                    escaped.append("&gt;");
+                    break;
+                case '"':
+                    escaped.append(attribute ? "&quot;" : "\"");
+                    break;
+                case '\r':
+                    escaped.append("&#13;");
+                    break;
+                case '\n':
+                    escaped.append(attribute ? "&#10;" : "\n");
+                    break;
+                case '\t':
+                    escaped.append(attribute ? "&#9;" : "\t");
+                    break;
+                default:
+                    escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
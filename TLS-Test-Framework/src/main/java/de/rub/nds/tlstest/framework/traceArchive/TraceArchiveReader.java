@@ -0,0 +1,152 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.traceArchive;
+
+import de.rub.nds.tlsattacker.core.workflow.WorkflowTrace;
+import de.rub.nds.tlsattacker.core.workflow.WorkflowTraceSerializer;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.InflaterInputStream;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/** Reconstructs the WorkflowTraces stored in a {@link TraceArchive} on demand. */
+public class TraceArchiveReader implements AutoCloseable {
+
+    private final Map<String, long[]> blobIndex;
+    private final Map<String, List<long[]>> traceIndex;
+    private final FileChannel blobChannel;
+    private final FileChannel traceChannel;
+
+    public TraceArchiveReader(Path folder) throws IOException {
+        blobIndex = new HashMap<>();
+        for (Map.Entry<String, List<long[]>> entry :
+                readIndex(folder.resolve(TraceArchive.BLOB_INDEX)).entrySet()) {
+            blobIndex.put(entry.getKey(), entry.getValue().get(0));
+        }
+        traceIndex = readIndex(folder.resolve(TraceArchive.TRACE_INDEX));
+        blobChannel =
+                FileChannel.open(folder.resolve(TraceArchive.BLOB_DATA), StandardOpenOption.READ);
+        traceChannel =
+                FileChannel.open(folder.resolve(TraceArchive.TRACE_DATA), StandardOpenOption.READ);
+    }
+
+    private static Map<String, List<long[]>> readIndex(Path path) throws IOException {
+        Map<String, List<long[]>> index = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(path)) {
+            String[] parts = line.split(" ");
+            // ignore an incomplete last line of an interrupted run
+            if (parts.length != 3) {
+                continue;
+            }
+            index.computeIfAbsent(parts[0], key -> new LinkedList<>())
+                    .add(new long[] {Long.parseLong(parts[1]), Long.parseLong(parts[2])});
+        }
+        return index;
+    }
+
+    public Set<String> getKeys() {
+        return Collections.unmodifiableSet(traceIndex.keySet());
+    }
+
+    /**
+     * @param key the key the traces were stored with
+     * @return the XML serializations of all traces stored for the key
+     */
+    public List<String> readTraceXml(String key) throws IOException {
+        List<String> traces = new LinkedList<>();
+        for (long[] position : traceIndex.getOrDefault(key, Collections.emptyList())) {
+            try {
+                Document document = TraceArchive.parse(read(traceChannel, position));
+                resolveReferences(document.getDocumentElement());
+                traces.add(
+                        new String(
+                                TraceArchive.serialize(document.getDocumentElement()),
+                                StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Failed to reconstruct trace of " + key, e);
+            }
+        }
+        return traces;
+    }
+
+    /**
+     * @param key the key the traces were stored with
+     * @return all traces stored for the key
+     */
+    public List<WorkflowTrace> readTraces(String key) throws IOException {
+        List<WorkflowTrace> traces = new LinkedList<>();
+        for (String xml : readTraceXml(key)) {
+            try {
+                traces.add(
+                        WorkflowTraceSerializer.insecureRead(
+                                new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8))));
+            } catch (Exception e) {
+                throw new IOException("Failed to parse trace of " + key, e);
+            }
+        }
+        return traces;
+    }
+
+    private void resolveReferences(Element element) throws Exception {
+        NodeList references = element.getElementsByTagName(TraceArchive.REFERENCE_ELEMENT);
+        // the list is live, resolve until no reference is left
+        while (references.getLength() > 0) {
+            Element reference = (Element) references.item(0);
+            String hash = reference.getAttribute(TraceArchive.HASH_ATTRIBUTE);
+            long[] position = blobIndex.get(hash);
+            if (position == null) {
+                throw new IOException("Blob " + hash + " is missing in the archive");
+            }
+            Node blob =
+                    element.getOwnerDocument()
+                            .importNode(
+                                    TraceArchive.parse(read(blobChannel, position))
+                                            .getDocumentElement(),
+                                    true);
+            reference.getParentNode().replaceChild(blob, reference);
+        }
+    }
+
+    private static byte[] read(FileChannel channel, long[] position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) position[1]);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position[0] + buffer.position()) < 0) {
+                throw new IOException("Archive file is shorter than indexed");
+            }
+        }
+        try (InputStream inflater =
+                new InflaterInputStream(new ByteArrayInputStream(buffer.array()))) {
+            return inflater.readAllBytes();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        blobChannel.close();
+        traceChannel.close();
+    }
+}
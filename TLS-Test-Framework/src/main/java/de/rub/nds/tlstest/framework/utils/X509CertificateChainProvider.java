@@ -1,6 +1,7 @@
 package de.rub.nds.tlstest.framework.utils;
 
 import de.rub.nds.protocol.constants.FfdhGroupParameters;
+import de.rub.nds.protocol.crypto.ec.Point;
 import de.rub.nds.protocol.crypto.key.DhPublicKey;
 import de.rub.nds.protocol.crypto.key.KeyGenerator;
 import de.rub.nds.tlsattacker.core.constants.NamedGroup;
@@ -15,11 +16,15 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class X509CertificateChainProvider {
     private static X509CertificateChainProvider instance = null;
     private ArrayList<X509CertificateConfig> certConfigs;
     public static final String RESOURCE_CERT_CONFIG_FOLDER = "/serverCertConfigs";
+    // public keys derived from the default private keys of the configs, the values are immutable
+    private static final Map<X509NamedCurve, Point> EC_PUBLIC_KEYS = new ConcurrentHashMap<>();
+    private static final Map<NamedGroup, DhPublicKey> DH_PUBLIC_KEYS = new ConcurrentHashMap<>();
 
     public static X509CertificateChainProvider getInstance() {
         if (instance == null) {
@@ -92,15 +97,25 @@ public class X509CertificateChainProvider {
             ecLeaf.setPublicKeyType(X509PublicKeyType.ECDH_ECDSA);
             ecLeaf.setDefaultSubjectNamedCurve(group.convertToX509());
             ecLeaf.setDefaultSubjectEcPublicKey(
-                    KeyGenerator.generateEcdsaPublicKey(
-                                    ecLeaf.getDefaultSubjectEcPrivateKey(),
-                                    group.convertToX509().getParameters())
-                            .getPublicPoint());
+                    EC_PUBLIC_KEYS.computeIfAbsent(
+                            group.convertToX509(),
+                            curve ->
+                                    KeyGenerator.generateEcdsaPublicKey(
+                                                    ecLeaf.getDefaultSubjectEcPrivateKey(),
+                                                    curve.getParameters())
+                                            .getPublicPoint()));
             certConfigs.add(ecLeaf);
         }
         return certConfigs;
     }
 
+    /**
+     * The chains do not depend on the target. Their key material is generated once and shared by
+     * all tests and by subsequent runs in the same JVM, the mutable configs are created anew for
+     * every call.
+     *
+     * @return the certificate chains offered to the targets
+     */
     public static List<CertificateConfigChainValue> getCertificateChainConfigs() {
         List<List<X509CertificateConfig>> certChainConfigs = new ArrayList<>();
         certChainConfigs.addAll(getRsaSignedChainConfigs());
@@ -175,10 +190,13 @@ public class X509CertificateChainProvider {
                 NamedGroup.getImplemented().stream().filter(NamedGroup::isDhGroup).toList();
         for (NamedGroup group : dhGroups) {
             X509CertificateConfig dhLeaf = new X509CertificateConfig();
-            FfdhGroupParameters parameters = (FfdhGroupParameters) group.getGroupParameters();
             DhPublicKey dhPublicKey =
-                    KeyGenerator.generateDhPublicKey(
-                            dhLeaf.getDefaultSubjectDhPrivateKey(), parameters);
+                    DH_PUBLIC_KEYS.computeIfAbsent(
+                            group,
+                            dhGroup ->
+                                    KeyGenerator.generateDhPublicKey(
+                                            dhLeaf.getDefaultSubjectDhPrivateKey(),
+                                            (FfdhGroupParameters) dhGroup.getGroupParameters()));
             dhLeaf.setPublicKeyType(X509PublicKeyType.DH);
             dhLeaf.setDefaultSubjectDhPublicKey(dhPublicKey.getPublicKey());
             dhLeaf.setDhModulus(dhPublicKey.getModulus());
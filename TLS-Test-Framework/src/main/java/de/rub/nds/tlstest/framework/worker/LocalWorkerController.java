@@ -0,0 +1,186 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.worker;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Stand-in for the Anvil web backend on the loopback interface. It serves a fixed queue of jobs to
+ * a single worker and records the updates the worker posts, so the worker mode can be used and
+ * tested without the backend.
+ */
+public class LocalWorkerController {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    static final String API_PATH = "/api/v2/";
+
+    private final HttpServer server;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Deque<Map<String, Object>> pendingJobs = new ArrayDeque<>();
+    private final Map<String, List<Map<String, Object>>> updates = new LinkedHashMap<>();
+    private int queuedJobs = 0;
+    private int servedJobs = 0;
+    private boolean completed = false;
+
+    public LocalWorkerController() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext(API_PATH, this::handle);
+    }
+
+    /**
+     * @param anvilTestConfig the AnvilTestConfig of the job as JSON
+     * @param additionalConfig the TLS-Anvil config of the job as JSON
+     * @return the id of the queued job
+     */
+    public synchronized String queueJob(String anvilTestConfig, String additionalConfig) {
+        String jobId = "local-" + (++queuedJobs);
+        Map<String, Object> job = new LinkedHashMap<>();
+        job.put("id", jobId);
+        job.put("config", anvilTestConfig);
+        job.put("additionalConfig", additionalConfig);
+        pendingJobs.add(job);
+        completed = false;
+        return jobId;
+    }
+
+    /**
+     * Queues the jobs of a file containing a JSON list of objects with a 'config' and an
+     * 'additionalConfig', given either as nested objects or as strings.
+     *
+     * @param jobsFile the file listing the jobs
+     * @return the number of queued jobs
+     */
+    public int queueJobs(Path jobsFile) throws IOException {
+        JsonNode jobs = mapper.readTree(jobsFile.toFile());
+        if (!jobs.isArray()) {
+            throw new IOException(jobsFile + " does not contain a list of jobs");
+        }
+        for (JsonNode job : jobs) {
+            queueJob(asJsonString(job.path("config")), asJsonString(job.path("additionalConfig")));
+        }
+        return jobs.size();
+    }
+
+    private String asJsonString(JsonNode node) throws IOException {
+        if (node.isMissingNode() || node.isNull()) {
+            return "{}";
+        }
+        return node.isTextual() ? node.asText() : mapper.writeValueAsString(node);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String endpoint = exchange.getRequestURI().getPath().substring(API_PATH.length());
+        Map<String, Object> request;
+        try (InputStream body = exchange.getRequestBody()) {
+            byte[] bytes = body.readAllBytes();
+            request = bytes.length == 0 ? Map.of() : mapper.readValue(bytes, Map.class);
+        }
+        Object response;
+        switch (endpoint) {
+            case "worker/register":
+                response = Map.of("id", "local-worker");
+                break;
+            case "worker/fetch":
+                response = fetch(request);
+                break;
+            default:
+                recordUpdate(endpoint, request);
+                response = Map.of();
+        }
+        byte[] bytes = mapper.writeValueAsBytes(response);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private synchronized Map<String, Object> fetch(Map<String, Object> request) {
+        Object logs = request.get("logs");
+        if (logs instanceof String && !((String) logs).isEmpty()) {
+            recordUpdate("worker/fetch", Map.of("logs", logs));
+        }
+        // the worker is idle again after it received every job
+        if ("IDLE".equals(request.get("status")) && pendingJobs.isEmpty() && servedJobs > 0) {
+            completed = true;
+            notifyAll();
+        }
+        Map<String, Object> job = pendingJobs.poll();
+        if (job == null) {
+            return Map.of("command", "OK");
+        }
+        servedJobs++;
+        LOGGER.info("Handing out job {} to the worker", job.get("id"));
+        return Map.of("command", "QUEUE_RUN", "job", job);
+    }
+
+    private synchronized void recordUpdate(String endpoint, Map<String, Object> update) {
+        updates.computeIfAbsent(endpoint, key -> new ArrayList<>()).add(update);
+    }
+
+    /**
+     * @param endpoint the endpoint below the API path, e.g. worker/update/status
+     * @return the bodies the worker posted to the endpoint
+     */
+    public synchronized List<Map<String, Object>> getUpdates(String endpoint) {
+        return new ArrayList<>(updates.getOrDefault(endpoint, List.of()));
+    }
+
+    /**
+     * Waits until the worker reports to be idle after receiving all queued jobs.
+     *
+     * @param timeoutMillis the maximum time to wait, 0 to wait indefinitely
+     * @return whether all jobs have been completed
+     */
+    public synchronized boolean awaitCompletion(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (!completed) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (timeoutMillis > 0 && remaining <= 0) {
+                return false;
+            }
+            wait(timeoutMillis > 0 ? remaining : 0);
+        }
+        return true;
+    }
+
+    public void start() {
+        server.start();
+        LOGGER.info("Serving local worker jobs on {}", getAddress());
+    }
+
+    /**
+     * @return the address to be used as controller of the worker
+     */
+    public String getAddress() {
+        return server.getAddress().getAddress().getHostAddress()
+                + ":"
+                + server.getAddress().getPort();
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,261 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.worker;
+
+import de.rub.nds.anvilcore.constants.TestEndpointType;
+import de.rub.nds.tlsattacker.core.config.Config;
+import de.rub.nds.tlstest.framework.FeatureExtractionResult;
+import de.rub.nds.tlstest.framework.config.TlsAnvilConfig;
+import de.rub.nds.tlstest.framework.config.delegates.TestClientDelegate;
+import de.rub.nds.tlstest.framework.config.delegates.TestServerDelegate;
+import de.rub.nds.tlstest.framework.utils.X509CertificateChainProvider;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Keeps the preparation artifacts of recently tested targets across the jobs of a worker, so
+ * consecutive jobs against the same implementation, e.g. with different test profiles, skip the
+ * feature extraction and the creation of the base config. The cache holds at most a fixed number of
+ * targets and evicts the least recently used one. The artifacts of a target are discarded as soon
+ * as a fresh feature extraction, of this worker or of the shared cache, yields a different
+ * fingerprint.
+ */
+public class WarmWorkerCache {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    static final String CERTIFICATE_CHAINS = "certificateChains";
+    static final String CONFIG = "config";
+    static final String FEATURE_EXTRACTION = "featureExtraction";
+
+    private final Map<String, TargetArtifacts> targets;
+    private boolean certificateChainsWarm = false;
+
+    private String currentTarget;
+    private Map<String, Boolean> currentHits = new LinkedHashMap<>();
+    private long hits = 0;
+    private long misses = 0;
+    private long invalidations = 0;
+
+    /**
+     * @param capacity the maximum number of targets whose artifacts are kept
+     */
+    public WarmWorkerCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The cache must hold at least one target");
+        }
+        this.targets =
+                new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, TargetArtifacts> eldest) {
+                        if (size() > capacity) {
+                            LOGGER.debug("Evicting warm artifacts of {}", eldest.getKey());
+                            return true;
+                        }
+                        return false;
+                    }
+                };
+    }
+
+    /**
+     * Identifies the tested implementation by everything that influences its feature extraction and
+     * the base config, but not by the test profile of the job.
+     *
+     * @param config the config of the job
+     * @return the key of the target
+     */
+    public static String targetKey(TlsAnvilConfig config) {
+        StringBuilder key = new StringBuilder();
+        if (config.getTestEndpointMode() == TestEndpointType.CLIENT) {
+            TestClientDelegate clientDelegate = config.getTestClientDelegate();
+            key.append("client:")
+                    .append(clientDelegate.getPort())
+                    .append(':')
+                    .append(Objects.hashCode(clientDelegate.getTriggerScriptCommand()));
+        } else {
+            TestServerDelegate serverDelegate = config.getTestServerDelegate();
+            key.append("server:")
+                    .append(serverDelegate.getHost())
+                    .append(":sni=")
+                    .append(
+                            serverDelegate.isDoNotSendSNIExtension()
+                                    ? "none"
+                                    : serverDelegate.getSniHostname());
+        }
+        if (config.isUseDTLS()) {
+            key.append(":dtls");
+        }
+        key.append(":timeout=").append(config.getAnvilTestConfig().getConnectionTimeout());
+        return key.toString();
+    }
+
+    /**
+     * Prepares the config of a new job with the artifacts cached for its target. The base config is
+     * restored if present, otherwise the config of a previously tested target is dropped so it is
+     * created anew.
+     *
+     * @param config the config of the job, already filled with the job parameters
+     */
+    public synchronized void beginJob(TlsAnvilConfig config) {
+        currentTarget = targetKey(config);
+        currentHits = new LinkedHashMap<>();
+
+        record(CERTIFICATE_CHAINS, certificateChainsWarm);
+        // independent of the target, built once for all jobs of the worker
+        X509CertificateChainProvider.getCertificateChainConfigs();
+        certificateChainsWarm = true;
+
+        TargetArtifacts artifacts = targets.get(currentTarget);
+        Config baseConfig = artifacts == null ? null : artifacts.baseConfig;
+        config.setCachedConfig(baseConfig);
+        record(CONFIG, baseConfig != null);
+    }
+
+    /**
+     * @param config the config of the current job
+     * @return the feature extraction result cached for the target, null if there is none
+     */
+    public synchronized FeatureExtractionResult lookupFeatureExtractionResult(
+            TlsAnvilConfig config) {
+        return lookupFeatureExtractionResult(config, 0, null);
+    }
+
+    /**
+     * Looks up the feature extraction result cached for the target and re-checks its fingerprint
+     * against the entry of the target in the shared cache, if that entry has been written after the
+     * result was stored here, e.g. by another process that extracted the target anew. All artifacts
+     * of the target are discarded if the fingerprints differ.
+     *
+     * @param config the config of the current job
+     * @param sharedCacheModified time the shared cache entry was written in milliseconds, 0 if
+     *     there is none
+     * @param sharedCache reads the shared cache entry, returns null if it can not be read
+     * @return the feature extraction result cached for the target, null if there is none or it is
+     *     outdated
+     */
+    public synchronized FeatureExtractionResult lookupFeatureExtractionResult(
+            TlsAnvilConfig config,
+            long sharedCacheModified,
+            Supplier<FeatureExtractionResult> sharedCache) {
+        String key = targetKey(config);
+        TargetArtifacts artifacts = targets.get(key);
+        FeatureExtractionResult result = artifacts == null ? null : artifacts.featureExtraction;
+        if (result != null && sharedCacheModified > artifacts.storedMillis) {
+            FeatureExtractionResult shared = sharedCache.get();
+            if (shared != null && !artifacts.fingerprint.equals(shared.getFingerprint())) {
+                invalidate(key);
+                LOGGER.info(
+                        "Fingerprint of {} changed in the shared cache, discarded its warm artifacts",
+                        key);
+                result = null;
+            } else {
+                artifacts.storedMillis = sharedCacheModified;
+            }
+        }
+        record(FEATURE_EXTRACTION, result != null);
+        return result;
+    }
+
+    /**
+     * Stores the artifacts of a prepared target. If the target has been extracted before with a
+     * different fingerprint, all of its previous artifacts are invalidated.
+     *
+     * @param config the config of the current job
+     * @param result the feature extraction result used by the job
+     */
+    public synchronized void storePreparedTarget(
+            TlsAnvilConfig config, FeatureExtractionResult result) {
+        String key = targetKey(config);
+        String fingerprint = result.getFingerprint();
+        TargetArtifacts previous = targets.get(key);
+        if (previous != null && !previous.fingerprint.equals(fingerprint)) {
+            invalidate(key);
+            LOGGER.info("Fingerprint of {} changed, discarded its warm artifacts", key);
+        }
+        targets.put(key, new TargetArtifacts(config.getCachedConfig(), result, fingerprint));
+    }
+
+    /**
+     * Discards all artifacts of a target.
+     *
+     * @param targetKey the key of the target as returned by {@link #targetKey(TlsAnvilConfig)}
+     */
+    public synchronized void invalidate(String targetKey) {
+        if (targets.remove(targetKey) != null) {
+            invalidations++;
+        }
+    }
+
+    private void record(String artifact, boolean hit) {
+        currentHits.put(artifact, hit);
+        if (hit) {
+            hits++;
+        } else {
+            misses++;
+        }
+    }
+
+    /**
+     * @return the cache usage of the current job, suitable to be reported with the job results
+     */
+    public synchronized Map<String, Object> getJobStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("target", currentTarget);
+        status.put("hits", new LinkedHashMap<>(currentHits));
+        status.put("totalHits", hits);
+        status.put("totalMisses", misses);
+        status.put("invalidations", invalidations);
+        status.put("cachedTargets", targets.size());
+        return status;
+    }
+
+    /**
+     * @return a single line summary of the cache usage of the current job
+     */
+    public synchronized String describeJob() {
+        StringBuilder description = new StringBuilder("Warm worker cache:");
+        currentHits.forEach(
+                (artifact, hit) ->
+                        description
+                                .append(' ')
+                                .append(artifact)
+                                .append('=')
+                                .append(hit ? "hit" : "miss"));
+        description
+                .append(" (")
+                .append(hits)
+                .append(" hits, ")
+                .append(misses)
+                .append(" misses, ")
+                .append(invalidations)
+                .append(" invalidations in total)");
+        return description.toString();
+    }
+
+    public synchronized int size() {
+        return targets.size();
+    }
+
+    private static class TargetArtifacts {
+        private final Config baseConfig;
+        private final FeatureExtractionResult featureExtraction;
+        private final String fingerprint;
+        // the shared cache is only re-checked if it has been written after this time
+        private long storedMillis = System.currentTimeMillis();
+
+        private TargetArtifacts(
+                Config baseConfig, FeatureExtractionResult featureExtraction, String fingerprint) {
+            this.baseConfig = baseConfig;
+            this.featureExtraction = featureExtraction;
+            this.fingerprint = fingerprint;
+        }
+    }
+}
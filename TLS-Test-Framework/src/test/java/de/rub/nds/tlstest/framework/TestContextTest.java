@@ -0,0 +1,72 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import de.rub.nds.protocol.crypto.ec.Point;
+import de.rub.nds.tlstest.framework.config.TlsAnvilConfig;
+import de.rub.nds.tlstest.framework.model.derivationParameter.helper.CertificateConfigChainValue;
+import de.rub.nds.tlstest.framework.utils.X509CertificateChainProvider;
+import de.rub.nds.x509attacker.config.X509CertificateConfig;
+import de.rub.nds.x509attacker.constants.X509PublicKeyType;
+import de.rub.nds.x509attacker.constants.X509SignatureAlgorithm;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class TestContextTest {
+
+    @Test
+    public void startRunDiscardsThePreviousRun() {
+        TestContext previous = TestContext.getInstance();
+        previous.setFeatureExtractionResult(new ServerFeatureExtractionResult("", 4433));
+        TlsAnvilConfig config = new TlsAnvilConfig();
+
+        TestContext next = TestContext.startRun(config);
+
+        assertNotSame(previous, next);
+        assertSame(next, TestContext.getInstance());
+        assertSame(config, next.getConfig());
+        assertNull(next.getFeatureExtractionResult());
+        assertNotSame(previous.getExecutionMetrics(), next.getExecutionMetrics());
+    }
+
+    @Test
+    public void certificateChainsAreCopiedForEveryCall() {
+        TestContext.startRun(new TlsAnvilConfig());
+        List<CertificateConfigChainValue> first =
+                X509CertificateChainProvider.getCertificateChainConfigs();
+        X509CertificateConfig leaf = first.get(0).get(X509CertificateChainProvider.LEAF_CERT_INDEX);
+        X509SignatureAlgorithm signatureAlgorithm = leaf.getSignatureAlgorithm();
+        leaf.setSignatureAlgorithm(X509SignatureAlgorithm.DSA_WITH_SHA1);
+
+        TestContext.startRun(new TlsAnvilConfig());
+        List<CertificateConfigChainValue> second =
+                X509CertificateChainProvider.getCertificateChainConfigs();
+        X509CertificateConfig secondLeaf =
+                second.get(0).get(X509CertificateChainProvider.LEAF_CERT_INDEX);
+        assertEquals(first.size(), second.size());
+        assertNotSame(leaf, secondLeaf);
+        assertEquals(signatureAlgorithm, secondLeaf.getSignatureAlgorithm());
+        assertEquals(leaf.getDefaultSubjectRsaModulus(), secondLeaf.getDefaultSubjectRsaModulus());
+        // the generated keys are reused
+        assertSame(ecPublicKeyOfFirstEcLeaf(first), ecPublicKeyOfFirstEcLeaf(second));
+    }
+
+    private static Point ecPublicKeyOfFirstEcLeaf(List<CertificateConfigChainValue> chains) {
+        return chains.stream()
+                .map(chain -> chain.get(X509CertificateChainProvider.LEAF_CERT_INDEX))
+                .filter(leaf -> leaf.getPublicKeyType() == X509PublicKeyType.ECDH_ECDSA)
+                .findFirst()
+                .orElseThrow()
+                .getDefaultSubjectEcPublicKey();
+    }
+}
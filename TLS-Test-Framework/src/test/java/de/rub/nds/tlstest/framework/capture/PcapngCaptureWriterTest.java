@@ -0,0 +1,120 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.capture;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class PcapngCaptureWriterTest {
+
+    @TempDir Path tempDir;
+
+    private static CapturedTraffic traffic(boolean udp, byte[]... sentAndReceived) {
+        CapturedTraffic traffic = new CapturedTraffic(udp);
+        for (int i = 0; i < sentAndReceived.length; i++) {
+            if (i % 2 == 0) {
+                traffic.recordSent(sentAndReceived[i]);
+            } else {
+                traffic.recordReceived(sentAndReceived[i]);
+            }
+        }
+        traffic.setEndpoints("127.0.0.1", 50000, "10.0.0.1", 4433);
+        return traffic;
+    }
+
+    @Test
+    public void timestampsAreMonotonicMicroseconds() {
+        CapturedTraffic traffic = traffic(false, new byte[] {1}, new byte[] {2}, new byte[] {3});
+        long previous = 0;
+        for (CapturedTraffic.Segment segment : traffic.getSegments()) {
+            assertTrue(segment.getTimestampMicros() >= previous);
+            previous = segment.getTimestampMicros();
+        }
+        long wallClockMicros = System.currentTimeMillis() * 1000;
+        assertTrue(Math.abs(CapturedTraffic.currentTimeMicros() - wallClockMicros) < 1000000);
+    }
+
+    @Test
+    public void sectionContainsSyntheticTcpPackets() {
+        byte[] section =
+                PcapngCaptureWriter.buildSection(
+                        "test", traffic(false, new byte[] {1, 2, 3}, new byte[] {4, 5}));
+        ByteBuffer buffer = ByteBuffer.wrap(section).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(PcapngCaptureWriter.SECTION_HEADER_BLOCK, buffer.getInt(0));
+        int position = buffer.getInt(4);
+        assertEquals(PcapngCaptureWriter.INTERFACE_DESCRIPTION_BLOCK, buffer.getInt(position));
+        position += buffer.getInt(position + 4);
+
+        assertEquals(PcapngCaptureWriter.ENHANCED_PACKET_BLOCK, buffer.getInt(position));
+        int capturedLength = buffer.getInt(position + 20);
+        assertEquals(20 + 20 + 3, capturedLength);
+        byte[] packet = Arrays.copyOfRange(section, position + 28, position + 28 + capturedLength);
+        ByteBuffer ip = ByteBuffer.wrap(packet);
+        assertEquals(0x45, ip.get(0));
+        assertEquals(6, ip.get(9));
+        assertArrayEquals(new byte[] {127, 0, 0, 1}, Arrays.copyOfRange(packet, 12, 16));
+        assertEquals(50000, ip.getShort(20) & 0xFFFF);
+        assertEquals(4433, ip.getShort(22) & 0xFFFF);
+        assertArrayEquals(new byte[] {1, 2, 3}, Arrays.copyOfRange(packet, 40, 43));
+        position += buffer.getInt(position + 4);
+
+        // the response continues the sequence numbers of the connection
+        assertEquals(PcapngCaptureWriter.ENHANCED_PACKET_BLOCK, buffer.getInt(position));
+        ByteBuffer response = ByteBuffer.wrap(section, position + 28, 44).slice();
+        assertEquals(4433, response.getShort(20) & 0xFFFF);
+        assertEquals(1, response.getInt(24));
+        assertEquals(4, response.getInt(28));
+        position += buffer.getInt(position + 4);
+        assertEquals(section.length, position);
+    }
+
+    @Test
+    public void extractsSectionsOfSingleTestCase() throws Exception {
+        PcapngCaptureWriter writer = new PcapngCaptureWriter(tempDir);
+        CapturedTraffic first = traffic(true, new byte[] {1});
+        CapturedTraffic second = traffic(false, new byte[] {2}, new byte[] {3});
+        CapturedTraffic third = traffic(false, new byte[] {4});
+        writer.write("a", "a", first);
+        writer.write("b", "b", second);
+        writer.write("a", "a", third);
+
+        byte[] expected =
+                concat(
+                        PcapngCaptureWriter.buildSection("a", first),
+                        PcapngCaptureWriter.buildSection("a", third));
+        assertEquals(expected.length, writer.extract("a").length);
+        assertEquals(0, writer.extract("unknown").length);
+        writer.close();
+
+        byte[] extracted = PcapngCaptureWriter.extract(tempDir, "a");
+        byte[] file = Files.readAllBytes(tempDir.resolve(PcapngCaptureWriter.CAPTURE_FILE_NAME));
+        int firstLength = PcapngCaptureWriter.buildSection("a", first).length;
+        int secondLength = PcapngCaptureWriter.buildSection("b", second).length;
+        assertArrayEquals(
+                Arrays.copyOfRange(file, 0, firstLength),
+                Arrays.copyOfRange(extracted, 0, firstLength));
+        assertArrayEquals(
+                Arrays.copyOfRange(file, firstLength + secondLength, file.length),
+                Arrays.copyOfRange(extracted, firstLength, extracted.length));
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+}
@@ -0,0 +1,164 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.escalation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import de.rub.nds.anvilcore.teststate.TestResult;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class StrengthEscalationTest {
+
+    @TempDir Path tempDir;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private static void record(
+            StrengthEscalation escalation,
+            String testId,
+            TestResult result,
+            String cipherSuite,
+            String group,
+            String recordLength) {
+        Map<String, String> combination =
+                Map.of(
+                        "CIPHER_SUITE", cipherSuite,
+                        "NAMED_GROUP", group,
+                        "RECORD_LENGTH", recordLength);
+        escalation.record(testId, testId + " " + combination, combination, result, List.of());
+    }
+
+    private static StrengthEscalation sweep() {
+        StrengthEscalation escalation = new StrengthEscalation(1, 2);
+        record(escalation, "passing", TestResult.STRICTLY_SUCCEEDED, "GCM", "X25519", "16");
+        record(escalation, "failing", TestResult.STRICTLY_SUCCEEDED, "GCM", "X25519", "16");
+        record(escalation, "failing", TestResult.STRICTLY_SUCCEEDED, "GCM", "SECP256R1", "512");
+        record(escalation, "failing", TestResult.STRICTLY_SUCCEEDED, "CBC", "X25519", "512");
+        record(escalation, "failing", TestResult.FULLY_FAILED, "NULL", "SECP256R1", "16");
+        record(escalation, "erroneous", TestResult.STRICTLY_SUCCEEDED, "GCM", "X25519", "16");
+        record(escalation, "erroneous", TestResult.TEST_SUITE_ERROR, "CBC", "X25519", "512");
+        return escalation;
+    }
+
+    @Test
+    public void escalatesOnlySuspiciousTemplates() {
+        StrengthEscalation escalation = sweep();
+        assertFalse(escalation.isEscalating());
+
+        assertEquals(Set.of("failing", "erroneous"), escalation.plan());
+        assertTrue(escalation.isEscalating());
+        assertFalse(escalation.isEscalated("passing"));
+    }
+
+    @Test
+    public void pinsParametersOutsideTheFailingTuples() {
+        StrengthEscalation escalation = sweep();
+        escalation.plan();
+
+        assertNull(escalation.getPinnedValue("failing", "CIPHER_SUITE"));
+        assertEquals("X25519", escalation.getPinnedValue("failing", "NAMED_GROUP"));
+        assertEquals("512", escalation.getPinnedValue("failing", "RECORD_LENGTH"));
+        // errors can not be attributed to tuples, the whole model is escalated
+        assertNull(escalation.getPinnedValue("erroneous", "NAMED_GROUP"));
+    }
+
+    @Test
+    public void reusesVerdictsOfTheInitialPhase() {
+        StrengthEscalation escalation = sweep();
+        String caseKey =
+                "failing "
+                        + Map.of(
+                                "CIPHER_SUITE",
+                                "NULL",
+                                "NAMED_GROUP",
+                                "SECP256R1",
+                                "RECORD_LENGTH",
+                                "16");
+        assertNull(escalation.getSeed(caseKey));
+
+        escalation.plan();
+        // cases of the escalation phase are not recorded as seeds
+        record(escalation, "failing", TestResult.FULLY_FAILED, "NULL", "X25519", "16");
+
+        assertNotNull(escalation.getSeed(caseKey));
+        assertEquals(TestResult.FULLY_FAILED, escalation.getSeed(caseKey).getTestResult());
+        assertNull(
+                escalation.getSeed(
+                        "failing "
+                                + Map.of(
+                                        "CIPHER_SUITE", "NULL",
+                                        "NAMED_GROUP", "X25519",
+                                        "RECORD_LENGTH", "16")));
+    }
+
+    @Test
+    public void mergesTheEscalatedResults() throws IOException {
+        StrengthEscalation escalation = sweep();
+        escalation.plan();
+        writeTestRun(tempDir, "failing", "PARTIALLY_FAILED", 4);
+        writeTestRun(tempDir, "erroneous", "TEST_SUITE_ERROR", 2);
+        writeTestRun(tempDir, "passing", "STRICTLY_SUCCEEDED", 1);
+        Path escalated = tempDir.resolve(StrengthEscalation.FOLDER_NAME);
+        writeTestRun(escalated, "failing", "FULLY_FAILED", 9);
+        ObjectNode report = mapper.createObjectNode();
+        report.put("TestCaseCount", 7);
+        report.put("PartiallyFailedTests", 1);
+        report.put("FullyFailedTests", 0);
+        report.put("TestSuiteErrorTests", 1);
+        report.put("StrictlySucceededTests", 1);
+        mapper.writeValue(tempDir.resolve(StrengthEscalation.REPORT_FILE).toFile(), report);
+
+        escalation.mergeResults(tempDir);
+
+        JsonNode merged = mapper.readTree(tempDir.resolve(StrengthEscalation.REPORT_FILE).toFile());
+        assertEquals(12, merged.get("TestCaseCount").asInt());
+        assertEquals(0, merged.get("PartiallyFailedTests").asInt());
+        assertEquals(1, merged.get("FullyFailedTests").asInt());
+        // no escalated results, the initial ones are kept
+        assertEquals(1, merged.get("TestSuiteErrorTests").asInt());
+        assertEquals(
+                "FULLY_FAILED",
+                mapper.readTree(
+                                tempDir.resolve(StrengthEscalation.RESULTS_FOLDER)
+                                        .resolve("failing")
+                                        .resolve(StrengthEscalation.TEST_RUN_FILE)
+                                        .toFile())
+                        .get("Result")
+                        .asText());
+        JsonNode summary =
+                mapper.readTree(tempDir.resolve(StrengthEscalation.SUMMARY_FILE).toFile());
+        assertEquals(
+                "CIPHER_SUITE",
+                summary.get("Templates").get("failing").get("FocusParameters").get(0).asText());
+    }
+
+    private void writeTestRun(Path outputFolder, String testId, String result, int caseCount)
+            throws IOException {
+        Path testFolder = outputFolder.resolve(StrengthEscalation.RESULTS_FOLDER).resolve(testId);
+        Files.createDirectories(testFolder);
+        ObjectNode testRun = mapper.createObjectNode();
+        testRun.put("TestId", testId);
+        testRun.put("Result", result);
+        testRun.put("CaseCount", caseCount);
+        mapper.writeValue(testFolder.resolve(StrengthEscalation.TEST_RUN_FILE).toFile(), testRun);
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.execution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DurationHistoryTest {
+
+    @TempDir Path tempDir;
+
+    @Test
+    public void smoothsObservations() {
+        DurationHistory history = new DurationHistory(tempDir.resolve("durations.json"));
+        history.recordTemplate("A", 1000, 10);
+        assertEquals(1000, history.getTemplateMillis("A"));
+        history.recordTemplate("A", 3000, 10);
+        assertEquals(2000, history.getTemplateMillis("A"));
+    }
+
+    @Test
+    public void unknownTemplatesUseAverage() {
+        DurationHistory history = new DurationHistory(tempDir.resolve("durations.json"));
+        assertTrue(history.isEmpty());
+        assertEquals(0, history.getExpectedTemplateMillis("unknown"));
+        history.recordTemplate("A", 1000, 1);
+        history.recordTemplate("B", 3000, 1);
+        assertNull(history.getTemplateMillis("unknown"));
+        assertEquals(2000, history.getExpectedTemplateMillis("unknown"));
+        assertEquals(3000, history.getExpectedTemplateMillis("B"));
+    }
+
+    @Test
+    public void persistsHistory() {
+        Path historyPath = tempDir.resolve("cache").resolve("durations.json");
+        DurationHistory history = new DurationHistory(historyPath);
+        history.recordTemplate("A", 1000, 2);
+        history.save();
+
+        DurationHistory loaded = new DurationHistory(historyPath);
+        assertEquals(1000, loaded.getTemplateMillis("A"));
+    }
+
+    @Test
+    public void keepsNothingWithoutHistoryFile() {
+        DurationHistory history = new DurationHistory(null);
+        history.recordTemplate("A", 1000, 2);
+        history.save();
+        assertTrue(history.isEmpty());
+        assertNull(history.getTemplateMillis("A"));
+    }
+
+    @Test
+    public void readsHistoryWithCaseDurations() throws IOException {
+        Path historyPath = tempDir.resolve("durations.json");
+        Files.writeString(
+                historyPath,
+                "{\"A\":{\"millis\":1000,\"caseCount\":2,\"caseMillis\":{\"[X=1]\":400}}}");
+        assertEquals(1000, new DurationHistory(historyPath).getTemplateMillis("A"));
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.execution;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class MemoryGovernorTest {
+
+    @Test
+    public void throttlesAboveTheWatermarkUntilTheOccupancyRecovers() {
+        MemoryGovernor governor = new MemoryGovernor(80, 1);
+        AtomicInteger spills = new AtomicInteger();
+        governor.addSpillAction(spills::incrementAndGet);
+
+        governor.reportOccupancy(0.79);
+        assertFalse(governor.isThrottled());
+
+        governor.reportOccupancy(0.85);
+        governor.reportOccupancy(0.9);
+        assertTrue(governor.isThrottled());
+        assertEquals(1, spills.get());
+
+        // the occupancy has to drop below the hysteresis to resume
+        governor.reportOccupancy(0.7);
+        assertTrue(governor.isThrottled());
+        governor.reportOccupancy(0.6);
+        assertFalse(governor.isThrottled());
+
+        List<MemoryGovernor.ThrottlingEvent> events = governor.getEvents();
+        assertEquals(1, events.size());
+        assertEquals(0.9, events.get(0).getPeakOccupancy());
+        assertTrue(events.get(0).getEnd() >= events.get(0).getStart());
+    }
+
+    @Test
+    public void limitsTheParallelismWhileThrottled() throws InterruptedException {
+        MemoryGovernor governor = new MemoryGovernor(80, 1);
+        governor.acquireTestCase();
+        governor.acquireTestCase();
+        governor.reportOccupancy(0.95);
+
+        CountDownLatch started = new CountDownLatch(1);
+        Thread waiting =
+                new Thread(
+                        () -> {
+                            try {
+                                governor.acquireTestCase();
+                                started.countDown();
+                            } catch (InterruptedException ignored) {
+                            }
+                        });
+        waiting.start();
+
+        governor.releaseTestCase();
+        assertFalse(started.await(100, TimeUnit.MILLISECONDS));
+        governor.releaseTestCase();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // handshakes are not limited once the occupancy recovered
+        governor.reportOccupancy(0.1);
+        governor.acquireHandshake();
+        governor.acquireHandshake();
+        waiting.join();
+    }
+}
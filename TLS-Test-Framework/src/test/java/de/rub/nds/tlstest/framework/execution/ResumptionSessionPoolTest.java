@@ -0,0 +1,112 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.execution;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.rub.nds.tlsattacker.core.config.Config;
+import de.rub.nds.tlsattacker.core.constants.CipherSuite;
+import de.rub.nds.tlsattacker.core.constants.NamedGroup;
+import de.rub.nds.tlsattacker.core.constants.ProtocolVersion;
+import de.rub.nds.tlsattacker.core.layer.context.TlsContext;
+import de.rub.nds.tlsattacker.core.protocol.message.extension.psk.PskSet;
+import de.rub.nds.tlsattacker.core.state.State;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class ResumptionSessionPoolTest {
+
+    private static Config config(ProtocolVersion version, CipherSuite cipherSuite) {
+        Config config = new Config();
+        config.setHighestProtocolVersion(version);
+        config.setDefaultSelectedCipherSuite(cipherSuite);
+        config.setDefaultSelectedNamedGroup(NamedGroup.SECP256R1);
+        return config;
+    }
+
+    private static ResumptionSessionPool.PooledSession tls12Session(byte id) {
+        return new ResumptionSessionPool.PooledSession(
+                ProtocolVersion.TLS12, new byte[] {id}, new byte[48], null);
+    }
+
+    @Test
+    public void separatesSessionsOfDifferentParameters() {
+        Config gcm = config(ProtocolVersion.TLS12, CipherSuite.TLS_RSA_WITH_AES_128_GCM_SHA256);
+        Config cbc = config(ProtocolVersion.TLS12, CipherSuite.TLS_RSA_WITH_AES_128_CBC_SHA);
+        Config withEms = config(ProtocolVersion.TLS12, CipherSuite.TLS_RSA_WITH_AES_128_GCM_SHA256);
+        withEms.setAddExtendedMasterSecretExtension(!gcm.isAddExtendedMasterSecretExtension());
+        Config tls13 = config(ProtocolVersion.TLS13, CipherSuite.TLS_AES_128_GCM_SHA256);
+        Config otherGroup = config(ProtocolVersion.TLS13, CipherSuite.TLS_AES_128_GCM_SHA256);
+        otherGroup.setDefaultSelectedNamedGroup(NamedGroup.ECDH_X25519);
+
+        assertNotEquals(ResumptionSessionPool.key(gcm), ResumptionSessionPool.key(cbc));
+        assertNotEquals(ResumptionSessionPool.key(gcm), ResumptionSessionPool.key(withEms));
+        assertNotEquals(ResumptionSessionPool.key(tls13), ResumptionSessionPool.key(otherGroup));
+        assertEquals(
+                ResumptionSessionPool.key(gcm),
+                ResumptionSessionPool.key(
+                        config(
+                                ProtocolVersion.TLS12,
+                                CipherSuite.TLS_RSA_WITH_AES_128_GCM_SHA256)));
+    }
+
+    @Test
+    public void takesTheNewestSessionAndBoundsThePool() {
+        ResumptionSessionPool pool = new ResumptionSessionPool(true, false);
+        assertNull(pool.take("key"));
+
+        for (byte i = 0; i <= ResumptionSessionPool.MAX_SESSIONS_PER_KEY; i++) {
+            pool.offer("key", tls12Session(i));
+        }
+
+        assertEquals(ResumptionSessionPool.MAX_SESSIONS_PER_KEY, pool.size("key"));
+        assertArrayEquals(
+                new byte[] {(byte) ResumptionSessionPool.MAX_SESSIONS_PER_KEY},
+                pool.take("key").getSessionId());
+        assertEquals(ResumptionSessionPool.MAX_SESSIONS_PER_KEY - 1, pool.size("key"));
+        assertNull(pool.take("other"));
+    }
+
+    @Test
+    public void onlySupportsVersionsFoundResumable() {
+        ResumptionSessionPool pool = new ResumptionSessionPool(true, false);
+        assertTrue(pool.isSupported(ProtocolVersion.TLS12));
+        assertFalse(pool.isSupported(ProtocolVersion.TLS13));
+        assertFalse(pool.isSupported(ProtocolVersion.DTLS12));
+    }
+
+    @Test
+    public void extractsTheSessionOfAHandshake() {
+        TlsContext context = new State(new Config()).getTlsContext();
+        context.setSelectedProtocolVersion(ProtocolVersion.TLS12);
+        assertNull(ResumptionSessionPool.PooledSession.fromContext(context));
+
+        context.setServerSessionId(new byte[] {1, 2, 3});
+        context.setMasterSecret(new byte[48]);
+        ResumptionSessionPool.PooledSession session =
+                ResumptionSessionPool.PooledSession.fromContext(context);
+        Config resumption = new Config();
+        session.applyTo(resumption);
+        assertArrayEquals(new byte[] {1, 2, 3}, resumption.getDefaultClientSessionId());
+        assertArrayEquals(new byte[48], resumption.getDefaultMasterSecret());
+
+        context.setSelectedProtocolVersion(ProtocolVersion.TLS13);
+        PskSet pskSet =
+                new PskSet(
+                        new byte[] {4},
+                        new byte[32],
+                        "0",
+                        new byte[4],
+                        new byte[1],
+                        CipherSuite.TLS_AES_128_GCM_SHA256);
+        context.setPskSets(List.of(new PskSet(), pskSet));
+        ResumptionSessionPool.PooledSession.fromContext(context).applyTo(resumption);
+        assertEquals(List.of(pskSet), resumption.getDefaultPskSets());
+        assertTrue(resumption.isAddPreSharedKeyExtension());
+    }
+}
@@ -0,0 +1,166 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.execution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class TargetHealthMonitorTest {
+
+    private static CompletableFuture<Boolean> reportAsync(
+            TargetHealthMonitor monitor, long start, boolean connectFailure) {
+        return CompletableFuture.supplyAsync(() -> monitor.reportHandshake(start, connectFailure));
+    }
+
+    /**
+     * @return a latch released once the given number of failed handshakes wait for a verdict
+     */
+    private static CountDownLatch awaitingDecisions(TargetHealthMonitor monitor, int count) {
+        CountDownLatch latch = new CountDownLatch(count);
+        monitor.setAwaitingDecisionListener(latch::countDown);
+        return latch;
+    }
+
+    @Test
+    public void probesOnlyAfterThreshold() throws Exception {
+        AtomicInteger probes = new AtomicInteger();
+        TargetHealthMonitor monitor =
+                new TargetHealthMonitor(
+                        3,
+                        1000,
+                        () -> {
+                            probes.incrementAndGet();
+                            return true;
+                        },
+                        null);
+        // keeps the series open, so the failures have to wait for the threshold
+        long running = monitor.beginHandshake();
+        long first = monitor.beginHandshake();
+        long second = monitor.beginHandshake();
+        long third = monitor.beginHandshake();
+        CountDownLatch waiting = awaitingDecisions(monitor, 2);
+        CompletableFuture<Boolean> firstResult = reportAsync(monitor, first, true);
+        CompletableFuture<Boolean> secondResult = reportAsync(monitor, second, true);
+        assertTrue(waiting.await(5, TimeUnit.SECONDS));
+        assertEquals(0, probes.get());
+        assertFalse(firstResult.isDone());
+
+        assertFalse(monitor.reportHandshake(third, true));
+        assertEquals(1, probes.get());
+        assertFalse(firstResult.get(5, TimeUnit.SECONDS));
+        assertFalse(secondResult.get(5, TimeUnit.SECONDS));
+        assertFalse(monitor.reportHandshake(running, false));
+        assertEquals(0, monitor.getOutageCount());
+    }
+
+    @Test
+    public void successDecidesPendingFailures()
+            throws InterruptedException, ExecutionException, TimeoutException {
+        AtomicInteger probes = new AtomicInteger();
+        TargetHealthMonitor monitor =
+                new TargetHealthMonitor(
+                        3,
+                        1000,
+                        () -> {
+                            probes.incrementAndGet();
+                            return false;
+                        },
+                        null);
+        long failed = monitor.beginHandshake();
+        long succeeded = monitor.beginHandshake();
+        CountDownLatch waiting = awaitingDecisions(monitor, 1);
+        CompletableFuture<Boolean> failedResult = reportAsync(monitor, failed, true);
+        assertTrue(waiting.await(5, TimeUnit.SECONDS));
+        assertFalse(failedResult.isDone());
+
+        assertFalse(monitor.reportHandshake(succeeded, false));
+        assertFalse(failedResult.get(5, TimeUnit.SECONDS));
+        assertEquals(0, probes.get());
+    }
+
+    @Test
+    public void probesIfNoOtherHandshakeIsRunning() throws InterruptedException {
+        AtomicInteger probes = new AtomicInteger();
+        TargetHealthMonitor monitor =
+                new TargetHealthMonitor(
+                        3,
+                        1000,
+                        () -> {
+                            probes.incrementAndGet();
+                            return true;
+                        },
+                        null);
+        assertFalse(monitor.reportHandshake(monitor.beginHandshake(), true));
+        assertEquals(1, probes.get());
+    }
+
+    @Test
+    public void reexecutesAllFailuresOfTheOutage() throws Exception {
+        AtomicInteger probes = new AtomicInteger();
+        AtomicInteger recoveryActions = new AtomicInteger();
+        TargetHealthMonitor monitor =
+                new TargetHealthMonitor(
+                        3,
+                        10000,
+                        () -> probes.incrementAndGet() > 2,
+                        () -> recoveryActions.incrementAndGet());
+        long first = monitor.beginHandshake();
+        long second = monitor.beginHandshake();
+        long third = monitor.beginHandshake();
+        long duringOutage = monitor.beginHandshake();
+        CountDownLatch waiting = awaitingDecisions(monitor, 2);
+        CompletableFuture<Boolean> firstResult = reportAsync(monitor, first, true);
+        CompletableFuture<Boolean> secondResult = reportAsync(monitor, second, true);
+        assertTrue(waiting.await(5, TimeUnit.SECONDS));
+
+        assertTrue(monitor.reportHandshake(third, true));
+        assertTrue(firstResult.get(5, TimeUnit.SECONDS));
+        assertTrue(secondResult.get(5, TimeUnit.SECONDS));
+        assertEquals(1, monitor.getOutageCount());
+        assertEquals(1, recoveryActions.get());
+        assertEquals(3, probes.get());
+        assertTrue(monitor.getOutages().get(0).isRecovered());
+        assertTrue(monitor.getTotalDowntimeMillis() >= TargetHealthMonitor.PROBE_INTERVAL_MS);
+
+        // started before the target recovered, failed without a further probe
+        assertTrue(monitor.reportHandshake(duringOutage, true));
+        assertEquals(3, probes.get());
+        assertFalse(monitor.reportHandshake(monitor.beginHandshake(), false));
+    }
+
+    @Test
+    public void givesUpAfterMaxDowntime() throws InterruptedException {
+        TargetHealthMonitor monitor = new TargetHealthMonitor(1, 0, () -> false, null);
+        assertTrue(monitor.reportHandshake(monitor.beginHandshake(), true));
+        assertEquals(1, monitor.getOutageCount());
+        assertFalse(monitor.getOutages().get(0).isRecovered());
+        // must not block once the monitor gave up
+        monitor.awaitTargetAvailable();
+    }
+
+    @Test
+    public void cancelledHandshakeReleasesPendingFailures() throws Exception {
+        TargetHealthMonitor monitor = new TargetHealthMonitor(3, 1000, () -> false, null);
+        long failed = monitor.beginHandshake();
+        monitor.beginHandshake();
+        CountDownLatch waiting = awaitingDecisions(monitor, 1);
+        CompletableFuture<Boolean> failedResult = reportAsync(monitor, failed, true);
+        assertTrue(waiting.await(5, TimeUnit.SECONDS));
+        monitor.cancelHandshake();
+        assertFalse(failedResult.get(5, TimeUnit.SECONDS));
+    }
+}
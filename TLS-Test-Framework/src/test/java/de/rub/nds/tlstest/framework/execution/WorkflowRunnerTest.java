@@ -3,19 +3,23 @@ package de.rub.nds.tlstest.framework.execution;
 import static org.junit.jupiter.api.Assertions.*;
 
 import de.rub.nds.anvilcore.constants.TestEndpointType;
+import de.rub.nds.protocol.exception.TransportHandlerConnectException;
 import de.rub.nds.tlsattacker.core.config.Config;
 import de.rub.nds.tlsattacker.core.constants.CipherSuite;
 import de.rub.nds.tlsattacker.core.constants.NamedGroup;
 import de.rub.nds.tlsattacker.core.constants.RunningModeType;
 import de.rub.nds.tlsattacker.core.protocol.ProtocolMessage;
+import de.rub.nds.tlsattacker.core.state.State;
 import de.rub.nds.tlsattacker.core.workflow.WorkflowTrace;
 import de.rub.nds.tlsattacker.core.workflow.action.SendAction;
 import de.rub.nds.tlsattacker.core.workflow.factory.WorkflowConfigurationFactory;
 import de.rub.nds.tlsattacker.core.workflow.factory.WorkflowTraceType;
+import java.net.ConnectException;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -36,6 +40,20 @@ public class WorkflowRunnerTest {
         workflowFactory = new WorkflowConfigurationFactory(sharedConfig);
     }
 
+    @Test
+    public void testIsConnectFailure() {
+        State state = new State(new Config());
+        assertFalse(WorkflowRunner.isConnectFailure(state));
+        state.setExecutionException(new IllegalStateException("Alert received"));
+        assertFalse(WorkflowRunner.isConnectFailure(state));
+        state.setExecutionException(
+                new RuntimeException(
+                        new TransportHandlerConnectException(
+                                "Unable to initialize the transport handler",
+                                new ConnectException())));
+        assertTrue(WorkflowRunner.isConnectFailure(state));
+    }
+
     @ParameterizedTest
     @MethodSource("provideNothingToDoWorkflowTraces")
     public void testAdaptForDtlsNothingToDo(
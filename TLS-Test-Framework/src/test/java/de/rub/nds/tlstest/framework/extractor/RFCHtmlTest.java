@@ -0,0 +1,101 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.extractor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class RFCHtmlTest {
+
+    private static final String DOCUMENT =
+            "<pre>The key words MUST and MUST NOT are to be interpreted as described.\n"
+                    + "Implementations MUST NOT <a href=\"#section-1\">send</a> a\n"
+                    + "   ChangeCipherSpec before the ServerHello.\n"
+                    + "Servers MUST reply with an alert.</pre>";
+
+    @TempDir Path tempDir;
+
+    @Test
+    public void marksPassagesSpanningSeveralTextNodes() {
+        RFCHtml rfcHtml = new RFCHtml(DOCUMENT);
+        rfcHtml.findMustAndNotPositions();
+
+        Set<String> found =
+                rfcHtml.markTexts(
+                        List.of(
+                                "Implementations MUST NOT send a ChangeCipherSpec",
+                                "Servers MUST reply with an alert.",
+                                "Clients MUST ignore this"),
+                        HtmlRFCAnnotation.COVERED,
+                        true);
+
+        assertEquals(
+                Set.of(
+                        "Implementations MUST NOT send a ChangeCipherSpec",
+                        "Servers MUST reply with an alert."),
+                found);
+        String html = rfcHtml.getHtml();
+        assertTrue(html.contains("<a href=\"#section-1\"><span style=\"color: green;\">send"));
+        assertTrue(
+                html.contains(
+                        "<span style=\"color: red;\"><span style=\"color: green;\">MUST NOT</span></span>"));
+        // marking does not alter the text of the document
+        assertTrue(
+                html.replaceAll("<[^>]*>", "")
+                        .contains("Implementations MUST NOT send a\n   ChangeCipherSpec"));
+    }
+
+    @Test
+    public void countsCoveredKeywordsOnce() {
+        RFCHtml rfcHtml = new RFCHtml(DOCUMENT);
+        rfcHtml.findMustAndNotPositions();
+
+        assertTrue(rfcHtml.markText("Servers MUST reply", HtmlRFCAnnotation.COVERED, true));
+        assertTrue(
+                rfcHtml.markText(
+                        "Servers MUST reply with an alert", HtmlRFCAnnotation.DEPRECATED, true));
+        assertFalse(rfcHtml.markText("not in the document", HtmlRFCAnnotation.COVERED, true));
+
+        String counters = rfcHtml.getPrintableCounters();
+        String musts = counters.substring(0, counters.indexOf("Coverable MUST NOTs"));
+        assertTrue(musts.contains("Overall: 1"));
+        assertTrue(musts.contains("DEPRECATED: 0"));
+        assertTrue(musts.contains("COVERED: 1"));
+    }
+
+    @Test
+    public void readsDocumentsFromLocalFolder() throws IOException {
+        Files.writeString(
+                tempDir.resolve("rfc9999.html"),
+                "<html><body><div class=\"draftcontent\">" + DOCUMENT + "</div></body></html>");
+
+        RFCHtml rfcHtml = new RFCHtml(9999, tempDir.toString());
+        rfcHtml.findMustAndNotPositions();
+
+        assertTrue(
+                rfcHtml.markText(
+                        "Servers MUST reply with an alert.", HtmlRFCAnnotation.COVERED, true));
+    }
+
+    @Test
+    public void failsForMissingDocument() {
+        // the document is not fetched from the network
+        assertThrows(UncheckedIOException.class, () -> new RFCHtml(9999, tempDir.toString()));
+    }
+}
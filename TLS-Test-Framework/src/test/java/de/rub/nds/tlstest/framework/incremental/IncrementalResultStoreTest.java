@@ -0,0 +1,85 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.incremental;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.rub.nds.anvilcore.teststate.TestResult;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class IncrementalResultStoreTest {
+
+    @TempDir Path tempDir;
+
+    @Test
+    public void carriesForwardUnchangedCases() {
+        Path storePath = tempDir.resolve("incremental.json");
+        IncrementalResultStore firstRun =
+                new IncrementalResultStore(storePath, 0, "target", "run1");
+        assertNull(firstRun.getCarriedForwardResult("case", "fingerprint"));
+        firstRun.record("case", "fingerprint", TestResult.FULLY_FAILED, List.of("info"));
+        firstRun.save();
+
+        IncrementalResultStore secondRun =
+                new IncrementalResultStore(storePath, 0, "target", "run2");
+        IncrementalResultStore.StoredTestCase stored =
+                secondRun.getCarriedForwardResult("case", "fingerprint");
+        assertNotNull(stored);
+        assertEquals(TestResult.FULLY_FAILED, stored.getTestResult());
+        assertEquals("run1", stored.getRunIdentifier());
+        assertEquals(List.of("info"), stored.getAdditionalResultInformation());
+        assertTrue(secondRun.isCarriedForward("case"));
+
+        // carried forward cases keep the identifier of the run that executed them
+        secondRun.record("case", "fingerprint", TestResult.STRICTLY_SUCCEEDED, List.of());
+        secondRun.save();
+        IncrementalResultStore thirdRun =
+                new IncrementalResultStore(storePath, 0, "target", "run3");
+        assertEquals(
+                "run1", thirdRun.getCarriedForwardResult("case", "fingerprint").getRunIdentifier());
+    }
+
+    @Test
+    public void executesChangedAndSampledCases() {
+        Path storePath = tempDir.resolve("incremental.json");
+        IncrementalResultStore firstRun =
+                new IncrementalResultStore(storePath, 0, "target", "run1");
+        firstRun.record("case", "fingerprint", TestResult.STRICTLY_SUCCEEDED, List.of());
+        firstRun.save();
+
+        IncrementalResultStore changed = new IncrementalResultStore(storePath, 0, "target", "run2");
+        assertNull(changed.getCarriedForwardResult("case", "otherFingerprint"));
+
+        IncrementalResultStore sampled = new IncrementalResultStore(storePath, 1, "target", "run2");
+        assertNull(sampled.getCarriedForwardResult("case", "fingerprint"));
+    }
+
+    @Test
+    public void methodDigestDiffersBetweenMethods() throws NoSuchMethodException {
+        String first =
+                TestCaseFingerprint.getMethodDigest(
+                        IncrementalResultStoreTest.class.getMethod("carriesForwardUnchangedCases"));
+        String second =
+                TestCaseFingerprint.getMethodDigest(
+                        IncrementalResultStoreTest.class.getMethod(
+                                "executesChangedAndSampledCases"));
+        assertNotEquals(first, second);
+        assertEquals(
+                first,
+                TestCaseFingerprint.getMethodDigest(
+                        IncrementalResultStoreTest.class.getMethod(
+                                "carriesForwardUnchangedCases")));
+    }
+}
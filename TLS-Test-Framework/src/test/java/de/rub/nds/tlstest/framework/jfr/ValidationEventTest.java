@@ -0,0 +1,82 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.jfr;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ValidationEventTest {
+
+    @TempDir Path tempDir;
+
+    @Test
+    public void recordsOutcomeOfChecks() throws Exception {
+        Path dump = tempDir.resolve("validation.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(ValidationEvent.class).withThreshold(Duration.ZERO);
+            recording.start();
+            ValidationEvent.observe("passing", null, () -> {});
+            assertThrows(
+                    AssertionError.class,
+                    () ->
+                            ValidationEvent.observe(
+                                    "failing",
+                                    null,
+                                    () -> {
+                                        throw new AssertionError("expected");
+                                    }));
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> events =
+                RecordingFile.readAllEvents(dump).stream()
+                        .filter(
+                                event ->
+                                        event.getEventType()
+                                                .getName()
+                                                .equals("de.rub.nds.tlstest.Validation"))
+                        .collect(Collectors.toList());
+        assertEquals(2, events.size());
+        assertEquals("passing", events.get(0).getString("check"));
+        assertEquals("PASSED", events.get(0).getString("outcome"));
+        assertEquals("FAILED", events.get(1).getString("outcome"));
+        assertEquals(-1, events.get(1).getInt("targetPort"));
+    }
+
+    @Test
+    public void bundledConfigurationEnablesEvents() throws Exception {
+        try (InputStream stream =
+                ValidationEventTest.class.getResourceAsStream("/jfr/tls-anvil.jfc")) {
+            Configuration configuration =
+                    Configuration.create(new InputStreamReader(stream, StandardCharsets.UTF_8));
+            assertEquals(
+                    "true",
+                    configuration.getSettings().get("de.rub.nds.tlstest.Execution#enabled"));
+            assertTrue(
+                    configuration
+                            .getSettings()
+                            .containsKey("de.rub.nds.tlstest.Validation#threshold"));
+        }
+    }
+}
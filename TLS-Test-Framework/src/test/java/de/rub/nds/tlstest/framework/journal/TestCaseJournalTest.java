@@ -0,0 +1,102 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.journal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.rub.nds.anvilcore.teststate.TestResult;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TestCaseJournalTest {
+
+    @TempDir Path tempDir;
+
+    private static JournalEntry entry(String caseKey, TestResult result) {
+        JournalEntry entry = new JournalEntry();
+        entry.setTestId("XYZ-1");
+        entry.setCaseKey(caseKey);
+        entry.setTestResult(result);
+        return entry;
+    }
+
+    @Test
+    public void appendAndRead() throws IOException {
+        TestCaseJournal journal = new TestCaseJournal(tempDir);
+        for (int i = 0; i < 300; i++) {
+            journal.append(entry("case" + i, TestResult.STRICTLY_SUCCEEDED));
+        }
+        journal.append(entry("failed", TestResult.FULLY_FAILED));
+        journal.close();
+
+        Map<String, JournalEntry> entries = TestCaseJournal.read(tempDir);
+        assertEquals(301, entries.size());
+        assertEquals(TestResult.FULLY_FAILED, entries.get("failed").getTestResult());
+    }
+
+    @Test
+    public void ignoresIncompleteLastLine() throws IOException {
+        TestCaseJournal journal = new TestCaseJournal(tempDir);
+        journal.append(entry("complete", TestResult.STRICTLY_SUCCEEDED));
+        journal.close();
+        Files.write(
+                tempDir.resolve(TestCaseJournal.FILE_NAME),
+                "{\"testId\":\"XYZ".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        Map<String, JournalEntry> entries = TestCaseJournal.read(tempDir);
+        assertEquals(1, entries.size());
+        assertTrue(entries.containsKey("complete"));
+    }
+
+    @Test
+    public void appendsAfterIncompleteLastLine() throws IOException {
+        Files.writeString(
+                tempDir.resolve(TestCaseJournal.FILE_NAME),
+                "{\"testId\":\"XYZ",
+                StandardCharsets.UTF_8);
+        TestCaseJournal journal = new TestCaseJournal(tempDir);
+        journal.append(entry("resumed", TestResult.STRICTLY_SUCCEEDED));
+        journal.close();
+
+        Map<String, JournalEntry> entries = TestCaseJournal.read(tempDir);
+        assertEquals(1, entries.size());
+        assertTrue(entries.containsKey("resumed"));
+    }
+
+    @Test
+    public void appendsToExistingJournal() throws IOException {
+        TestCaseJournal first = new TestCaseJournal(tempDir);
+        first.append(entry("first", TestResult.STRICTLY_SUCCEEDED));
+        first.close();
+        TestCaseJournal second = new TestCaseJournal(tempDir);
+        second.append(entry("second", TestResult.STRICTLY_SUCCEEDED));
+        second.close();
+
+        assertEquals(2, TestCaseJournal.read(tempDir).size());
+    }
+
+    @Test
+    public void writesEntriesAppendedAfterClose() throws IOException {
+        TestCaseJournal journal = new TestCaseJournal(tempDir);
+        journal.append(entry("before", TestResult.STRICTLY_SUCCEEDED));
+        journal.close();
+        journal.append(entry("after", TestResult.FULLY_FAILED));
+
+        Map<String, JournalEntry> entries = TestCaseJournal.read(tempDir);
+        assertEquals(2, entries.size());
+        assertEquals(TestResult.FULLY_FAILED, entries.get("after").getTestResult());
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.localization;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FailureLocalizationProcessorTest {
+
+    @TempDir Path tempDir;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void addsTheRankingToPartiallyFailedTemplates() throws IOException {
+        writeTestRun(
+                "A",
+                testCase("STRICTLY_SUCCEEDED", "AES_128_GCM", 16),
+                testCase("STRICTLY_SUCCEEDED", "AES_128_GCM", 512),
+                testCase("CONCEPTUALLY_SUCCEEDED", "NULL", 512),
+                testCase("FULLY_FAILED", "NULL", 16),
+                testCase("TEST_SUITE_ERROR", "AES_128_GCM", 1024));
+        writeTestRun(
+                "B",
+                testCase("STRICTLY_SUCCEEDED", "AES_128_GCM", 16),
+                testCase("STRICTLY_SUCCEEDED", "NULL", 512));
+
+        ObjectNode summary = new FailureLocalizationProcessor(2).process(tempDir);
+
+        assertEquals(1, summary.size());
+        JsonNode testRun =
+                mapper.readTree(
+                        tempDir.resolve(FailureLocalizationProcessor.RESULTS_FOLDER)
+                                .resolve("A")
+                                .resolve(FailureLocalizationProcessor.TEST_RUN_FILE)
+                                .toFile());
+        JsonNode mostSuspicious = testRun.get("FailureInducingTuples").get(0);
+        assertEquals("NULL", mostSuspicious.get("Parameters").get("CIPHER_SUITE").asText());
+        assertEquals("16", mostSuspicious.get("Parameters").get("RECORD_LENGTH").asText());
+        assertEquals(1, mostSuspicious.get("FailedCases").asInt());
+        // the other fields of the result file are kept
+        assertEquals("A", testRun.get("TestId").asText());
+        assertTrue(Files.exists(tempDir.resolve(FailureLocalizationProcessor.SUMMARY_FILE)));
+        assertFalse(
+                mapper.readTree(
+                                tempDir.resolve(FailureLocalizationProcessor.RESULTS_FOLDER)
+                                        .resolve("B")
+                                        .resolve(FailureLocalizationProcessor.TEST_RUN_FILE)
+                                        .toFile())
+                        .has("FailureInducingTuples"));
+    }
+
+    private ObjectNode testCase(String result, String cipherSuite, int recordLength) {
+        ObjectNode testCase = mapper.createObjectNode();
+        testCase.put("Result", result);
+        ObjectNode parameterCombination = testCase.putObject("ParameterCombination");
+        parameterCombination.put("CIPHER_SUITE", cipherSuite);
+        parameterCombination.put("RECORD_LENGTH", recordLength);
+        return testCase;
+    }
+
+    private void writeTestRun(String testId, ObjectNode... testCases) throws IOException {
+        Path testFolder =
+                tempDir.resolve(FailureLocalizationProcessor.RESULTS_FOLDER).resolve(testId);
+        Files.createDirectories(testFolder);
+        ObjectNode testRun = mapper.createObjectNode();
+        testRun.put("TestId", testId);
+        ArrayNode cases = testRun.putArray("TestCases");
+        for (ObjectNode testCase : testCases) {
+            cases.add(testCase);
+        }
+        mapper.writeValue(
+                testFolder.resolve(FailureLocalizationProcessor.TEST_RUN_FILE).toFile(), testRun);
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.localization;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public class FaultLocalizerTest {
+
+    private static final List<String> CIPHER_SUITES = List.of("AES_128_GCM", "AES_256_CBC", "NULL");
+    private static final List<String> GROUPS = List.of("X25519", "SECP256R1");
+    private static final List<String> RECORD_LENGTHS = List.of("16", "512", "16384");
+
+    private static Map<String, String> combination(
+            String cipherSuite, String group, String recordLength) {
+        return Map.of(
+                "CIPHER_SUITE", cipherSuite, "NAMED_GROUP", group, "RECORD_LENGTH", recordLength);
+    }
+
+    @Test
+    public void ranksTheFailureInducingPairFirst() {
+        List<Map<String, String>> passed = new ArrayList<>();
+        List<Map<String, String>> failed = new ArrayList<>();
+        // the exhaustive array, failing only for CBC with records of 16 bytes
+        for (String cipherSuite : CIPHER_SUITES) {
+            for (String group : GROUPS) {
+                for (String recordLength : RECORD_LENGTHS) {
+                    Map<String, String> combination = combination(cipherSuite, group, recordLength);
+                    if (cipherSuite.equals("AES_256_CBC") && recordLength.equals("16")) {
+                        failed.add(combination);
+                    } else {
+                        passed.add(combination);
+                    }
+                }
+            }
+        }
+
+        FaultLocalizer.Localization localization =
+                new FaultLocalizer(2, 10, 3).localize(passed, failed);
+
+        assertEquals(
+                Map.of("CIPHER_SUITE", "AES_256_CBC", "RECORD_LENGTH", "16"),
+                localization.getTuples().get(0).getParameters());
+        assertEquals(2, localization.getTuples().get(0).getFailedCases());
+        assertEquals(0, localization.getUnexplainedFailures());
+        // all combinations have been executed, nothing left to discriminate
+        assertTrue(localization.getDiscriminatingCombinations().isEmpty());
+    }
+
+    @Test
+    public void reportsOnlyMinimalTuples() {
+        List<Map<String, String>> passed =
+                List.of(
+                        combination("AES_128_GCM", "X25519", "16"),
+                        combination("AES_256_CBC", "SECP256R1", "512"));
+        List<Map<String, String>> failed =
+                List.of(
+                        combination("NULL", "X25519", "512"),
+                        combination("NULL", "SECP256R1", "16"));
+
+        FaultLocalizer.Localization localization =
+                new FaultLocalizer(2, 10, 3).localize(passed, failed);
+
+        SuspiciousTuple first = localization.getTuples().get(0);
+        assertEquals(Map.of("CIPHER_SUITE", "NULL"), first.getParameters());
+        assertEquals(2, first.getFailedCases());
+        assertFalse(
+                localization.getTuples().stream()
+                        .anyMatch(
+                                tuple ->
+                                        tuple.getParameters().size() > 1
+                                                && "NULL"
+                                                        .equals(
+                                                                tuple.getParameters()
+                                                                        .get("CIPHER_SUITE"))));
+    }
+
+    @Test
+    public void proposesUnexecutedCombinationsWithInnocentValues() {
+        List<Map<String, String>> passed =
+                List.of(
+                        combination("AES_128_GCM", "X25519", "16"),
+                        combination("AES_128_GCM", "SECP256R1", "512"));
+        List<Map<String, String>> failed = List.of(combination("NULL", "SECP256R1", "16"));
+
+        FaultLocalizer.Localization localization =
+                new FaultLocalizer(1, 10, 3).localize(passed, failed);
+
+        assertEquals(
+                Map.of("CIPHER_SUITE", "NULL"), localization.getTuples().get(0).getParameters());
+        assertTrue(
+                localization
+                        .getDiscriminatingCombinations()
+                        .contains(combination("NULL", "X25519", "512")));
+        localization
+                .getDiscriminatingCombinations()
+                .forEach(proposal -> assertFalse(passed.contains(proposal)));
+    }
+
+    @Test
+    public void needsPassedAndFailedCases() {
+        List<Map<String, String>> failed = List.of(combination("NULL", "X25519", "16"));
+        assertTrue(new FaultLocalizer(2, 10, 3).localize(List.of(), failed).getTuples().isEmpty());
+    }
+}
@@ -0,0 +1,189 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.rub.nds.anvilcore.teststate.TestResult;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.config.LoggerConfig;
+import org.apache.logging.log4j.core.impl.ContextDataFactory;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.apache.logging.log4j.util.StringMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TestCaseLogBufferTest {
+
+    @TempDir Path tempDir;
+
+    private static void log(TestCaseLogBuffer buffer, String testCase, String message) {
+        StringMap contextData = ContextDataFactory.createContextData();
+        if (testCase != null) {
+            contextData.putValue(TestCaseLogBuffer.THREAD_CONTEXT_KEY, testCase);
+        }
+        buffer.append(
+                Log4jLogEvent.newBuilder()
+                        .setLoggerName("de.rub.nds.tlsattacker.core.Test")
+                        .setLevel(Level.DEBUG)
+                        .setMessage(new SimpleMessage(message))
+                        .setContextData(contextData)
+                        .build());
+    }
+
+    @Test
+    public void writesTheOutputOfTheTestCaseOnly() throws IOException {
+        TestCaseLogBuffer buffer = new TestCaseLogBuffer(10);
+        buffer.begin("a");
+        buffer.begin("b");
+        log(buffer, "a", "first of a");
+        log(buffer, "b", "first of b");
+        log(buffer, null, "outside of a test case");
+        log(buffer, "a", "second of a");
+
+        Path logFile = tempDir.resolve("results").resolve("a.log");
+        assertTrue(buffer.flush("a", logFile));
+
+        List<String> lines = Files.readAllLines(logFile);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).endsWith("DEBUG: Test - first of a"));
+        assertTrue(lines.get(1).endsWith("second of a"));
+        assertFalse(buffer.flush("a", logFile));
+        assertEquals(1, buffer.getBufferedTestCaseCount());
+    }
+
+    @Test
+    public void keepsTheMostRecentEvents() throws IOException {
+        TestCaseLogBuffer buffer = new TestCaseLogBuffer(3);
+        buffer.begin("a");
+        for (int i = 0; i < 5; i++) {
+            log(buffer, "a", "event " + i);
+        }
+
+        Path logFile = tempDir.resolve("a.log");
+        buffer.flush("a", logFile);
+
+        List<String> lines = Files.readAllLines(logFile);
+        assertEquals(4, lines.size());
+        assertTrue(lines.get(0).contains("2 earlier log events"));
+        assertTrue(lines.get(1).endsWith("event 2"));
+        assertTrue(lines.get(3).endsWith("event 4"));
+    }
+
+    @Test
+    public void discardsTheOutputOfSucceededTestCases() {
+        TestCaseLogBuffer buffer = new TestCaseLogBuffer(10);
+        buffer.begin("a");
+        log(buffer, "a", "first of a");
+        buffer.discard("a");
+        assertEquals(0, buffer.getBufferedTestCaseCount());
+    }
+
+    @Test
+    public void dropsTheOutputOfTestCasesNotRunning() throws IOException {
+        TestCaseLogBuffer buffer = new TestCaseLogBuffer(10);
+        log(buffer, "a", "before a started");
+        assertEquals(0, buffer.getBufferedTestCaseCount());
+
+        buffer.begin("a");
+        buffer.discard("a");
+        // e.g. a handshake thread logging after the test case finished
+        log(buffer, "a", "after a finished");
+        assertEquals(0, buffer.getBufferedTestCaseCount());
+        assertFalse(buffer.flush("a", tempDir.resolve("a.log")));
+    }
+
+    @Test
+    public void uninstallRestoresTheLoggers() {
+        LoggerContext loggerContext = (LoggerContext) LogManager.getContext(false);
+        LoggerConfig loggerConfig =
+                loggerContext.getConfiguration().getLoggerConfig("de.rub.nds.tlsattacker");
+        Level previousLevel = loggerConfig.getLevel();
+        assertTrue(previousLevel.isMoreSpecificThan(Level.DEBUG));
+
+        TestCaseLogBuffer buffer = TestCaseLogBuffer.install();
+        assertEquals(Level.DEBUG, loggerConfig.getLevel());
+        assertTrue(loggerConfig.getAppenders().containsKey(buffer.getName()));
+
+        buffer.uninstall();
+        assertEquals(previousLevel, loggerConfig.getLevel());
+        assertFalse(loggerConfig.getAppenders().containsKey(buffer.getName()));
+        assertNull(loggerContext.getConfiguration().getAppender(buffer.getName()));
+        assertFalse(LogManager.getLogger("de.rub.nds.tlsattacker.Test").isDebugEnabled());
+    }
+
+    @Test
+    public void writesSpilledEventsBeforeBufferedOnes() throws IOException {
+        TestCaseLogBuffer buffer = new TestCaseLogBuffer(10);
+        buffer.begin("a");
+        buffer.begin("b");
+        log(buffer, "a", "spilled");
+        log(buffer, "b", "spilled and discarded");
+        buffer.spill();
+        log(buffer, "a", "buffered");
+
+        Path logFile = tempDir.resolve("a.log");
+        assertTrue(buffer.flush("a", logFile));
+        buffer.discard("b");
+
+        List<String> lines = Files.readAllLines(logFile);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).endsWith("spilled"));
+        assertTrue(lines.get(1).endsWith("buffered"));
+        assertEquals(0, buffer.getBufferedTestCaseCount());
+    }
+
+    @Test
+    public void dropsEarlierSpilledEventsAboveTheSpillLimit() throws IOException {
+        // each line is about 60 bytes
+        TestCaseLogBuffer buffer = new TestCaseLogBuffer(10, 100);
+        buffer.begin("a");
+        log(buffer, "a", "first spill");
+        buffer.spill();
+        log(buffer, "a", "second spill");
+        buffer.spill();
+        log(buffer, "a", "buffered");
+
+        Path logFile = tempDir.resolve("a.log");
+        assertTrue(buffer.flush("a", logFile));
+
+        List<String> lines = Files.readAllLines(logFile);
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).contains("1 earlier log events"));
+        assertTrue(lines.get(1).endsWith("second spill"));
+        assertTrue(lines.get(2).endsWith("buffered"));
+    }
+
+    @Test
+    public void keepsFailuresAndUnexpectedResults() {
+        Map<TestResult, Set<String>> expected =
+                Map.of(TestResult.FULLY_FAILED, Set.of("expectedToFail"));
+
+        assertTrue(TestCaseLogBuffer.isWorthKeeping(TestResult.FULLY_FAILED, "any", null));
+        assertTrue(TestCaseLogBuffer.isWorthKeeping(TestResult.TEST_SUITE_ERROR, "any", expected));
+        assertFalse(
+                TestCaseLogBuffer.isWorthKeeping(TestResult.STRICTLY_SUCCEEDED, "any", expected));
+        assertTrue(
+                TestCaseLogBuffer.isWorthKeeping(
+                        TestResult.STRICTLY_SUCCEEDED, "expectedToFail", expected));
+        assertFalse(
+                TestCaseLogBuffer.isWorthKeeping(TestResult.DISABLED, "expectedToFail", expected));
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class ExecutionMetricsTest {
+
+    @Test
+    public void histogramEstimatesQuantiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            histogram.record(3);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(700);
+        }
+        assertEquals(100, histogram.getCount());
+        assertEquals(90 * 3 + 10 * 700, histogram.getSum());
+        assertEquals(5, histogram.getQuantile(0.5));
+        assertEquals(700, histogram.getQuantile(0.95));
+        assertEquals(700, histogram.getMax());
+
+        Map<String, Long> buckets = histogram.getCumulativeBuckets();
+        assertEquals(0, buckets.get("2"));
+        assertEquals(90, buckets.get("5"));
+        assertEquals(100, buckets.get("1000"));
+        assertEquals(100, buckets.get("+Inf"));
+    }
+
+    @Test
+    public void resolvesSubMillisecondDurations() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(TimeUnit.NANOSECONDS.toMicros(6_400));
+        histogram.record(TimeUnit.MILLISECONDS.toMicros(3));
+
+        Map<String, Long> buckets = histogram.getCumulativeBuckets();
+        assertEquals(0, buckets.get("5"));
+        assertEquals(1, buckets.get("10"));
+        assertEquals(1, buckets.get("2500"));
+        assertEquals(2, buckets.get("5000"));
+        assertEquals(10, histogram.getQuantile(0.5));
+    }
+
+    @Test
+    public void recordsPerTemplateAndParameterValue() {
+        ExecutionMetrics metrics = new ExecutionMetrics();
+        metrics.record(ExecutionPhase.NETWORK, "1.1", List.of("CIPHER_SUITE=A", "GROUP=X"), 40);
+        metrics.record(ExecutionPhase.NETWORK, "1.2", List.of("CIPHER_SUITE=A"), 60);
+
+        assertEquals(2, metrics.getHistogram(ExecutionPhase.NETWORK).getCount());
+        assertEquals(2L, metrics.getPhaseCounts().get("network"));
+        assertEquals(50.0, metrics.getPhaseMeanMicros().get("network"));
+
+        String exposition = metrics.toPrometheus();
+        assertTrue(
+                exposition.contains(
+                        "anvil_phase_duration_microseconds_count{phase=\"network\"} 2"));
+        assertTrue(
+                exposition.contains(
+                        "anvil_template_phase_duration_microseconds_sum{phase=\"network\",template=\"1.2\"} 60"));
+        assertTrue(
+                exposition.contains(
+                        "anvil_parameter_phase_duration_microseconds_count{phase=\"network\",parameter=\"CIPHER_SUITE=A\"} 2"));
+        assertTrue(exposition.contains("anvil_executor_queue_depth 0"));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> parameterValues =
+                (Map<String, Map<String, Object>>) metrics.summary().get("parameterValues");
+        Map<?, ?> group = (Map<?, ?>) parameterValues.get("network").get("GROUP=X");
+        assertEquals(1L, group.get("count"));
+    }
+
+    @Test
+    public void exposesExecutorGauges() {
+        ExecutionMetrics metrics = new ExecutionMetrics();
+        ThreadPoolExecutor executor =
+                new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+        try {
+            metrics.setExecutor(executor);
+            executor.getQueue().add(() -> {});
+            assertEquals(1, metrics.getQueueDepth());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void escapesLabelValues() {
+        assertEquals("a\\\"b\\\\c", ExecutionMetrics.escapeLabel("a\"b\\c"));
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ *  TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ *  Copyright 2020 Ruhr University Bochum and
+ *  TÜV Informationstechnik GmbH
+ *
+ *  Licensed under Apache License 2.0
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.rub.nds.tlstest.framework.parameterExtensions.configurationOptionsExtension.buildManagement.resultsCollector;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.rub.nds.anvilcore.context.AnvilContext;
+import de.rub.nds.anvilcore.context.AnvilTestConfig;
+import de.rub.nds.tlstest.framework.anvil.TlsParameterIdentifierProvider;
+import de.rub.nds.tlstest.framework.parameterExtensions.configurationOptionsExtension.ConfigurationOptionsConfigTest;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class BuildAccessRecorderTest {
+
+    @TempDir Path tempDir;
+
+    @Test
+    public void writesTheSameResultsAsSynchronousLogging() throws Exception {
+        AnvilTestConfig anvilConfig = new AnvilTestConfig();
+        anvilConfig.setParallelTests(1);
+        AnvilContext.createInstance(anvilConfig, "", new TlsParameterIdentifierProvider());
+        BuildOverviewLogFile overview =
+                new BuildOverviewLogFile(
+                        tempDir,
+                        "buildsOverview.csv",
+                        ConfigurationOptionsConfigTest.createTestConfig());
+        BuildAccessLogFile accesses = new BuildAccessLogFile(tempDir, "buildAccesses.csv");
+        BuildAccessRecorder recorder = new BuildAccessRecorder(overview, accesses);
+
+        recorder.recordBuild(Set.of(), "built", 1500, true);
+        ExecutorService testThreads = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 100; i++) {
+            String dockerTag = i % 4 == 0 ? "existing" : "built";
+            testThreads.submit(() -> recorder.recordAccess(Set.of(), dockerTag));
+        }
+        testThreads.shutdown();
+        assertTrue(testThreads.awaitTermination(10, TimeUnit.SECONDS));
+
+        // the access counts are written while the recorder is running
+        List<String> expectedAccesses =
+                List.of("Docker Tag,Access Count", "existing,25", "built,75", "Total,100");
+        Path accessFile = tempDir.resolve("buildAccesses.csv");
+        long deadline = System.currentTimeMillis() + 10 * BuildAccessRecorder.FLUSH_INTERVAL_MS;
+        while (!(Files.exists(accessFile) && readLines(accessFile).equals(expectedAccesses))
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(expectedAccesses, readLines(accessFile));
+
+        Map<String, BuildAccessRecorder.BuildStatistics> statistics = recorder.getBuildStatistics();
+        assertEquals(75, statistics.get("built").getAccessCount());
+        assertEquals(1500, statistics.get("built").getBuildTime());
+        assertEquals(25, statistics.get("existing").getAccessCount());
+        assertEquals(-1, statistics.get("existing").getBuildTime());
+        assertTrue(statistics.get("existing").getFirstUse() > 0);
+        assertTrue(
+                statistics.get("existing").getFirstUse()
+                        <= statistics.get("existing").getLastUse());
+
+        recorder.close();
+        // rejected, the results were already written
+        recorder.recordAccess(Set.of(), "late");
+        recorder.recordBuild(Set.of(), "late", 1000, true);
+
+        assertEquals(
+                List.of(
+                        "No,Docker Tag,Build Time (in sec),DISABLE_PSK,SEEDING_METHOD",
+                        "1,built,1.500,N/A,N/A",
+                        "2,existing,EXISTED,N/A,N/A"),
+                readLines(tempDir.resolve("buildsOverview.csv")));
+        assertEquals(expectedAccesses, readLines(accessFile));
+        assertFalse(statistics.containsKey("late"));
+    }
+
+    private static List<String> readLines(Path file) throws IOException {
+        return Files.readAllLines(file);
+    }
+}
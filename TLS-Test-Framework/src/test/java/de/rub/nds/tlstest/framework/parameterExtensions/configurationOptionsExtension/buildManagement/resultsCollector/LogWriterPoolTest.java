@@ -0,0 +1,102 @@
+/*
+ *  TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ *  Copyright 2020 Ruhr University Bochum and
+ *  TÜV Informationstechnik GmbH
+ *
+ *  Licensed under Apache License 2.0
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.rub.nds.tlstest.framework.parameterExtensions.configurationOptionsExtension.buildManagement.resultsCollector;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LogWriterPoolTest {
+
+    @TempDir Path tempDir;
+
+    @Test
+    public void queuesWritesUntilTheFileIsFlushed() throws IOException {
+        // the background thread does not flush during the test
+        LogWriterPool pool = new LogWriterPool(2, TimeUnit.HOURS.toMillis(1));
+        Path file = tempDir.resolve("queued.log");
+
+        pool.write(file, "a");
+        pool.write(file, "b");
+        assertFalse(Files.exists(file));
+        assertEquals(0, pool.getOpenFileCount());
+
+        pool.flush(file);
+        assertEquals("ab", Files.readString(file));
+        assertEquals(1, pool.getOpenFileCount());
+    }
+
+    @Test
+    public void reopensEvictedFilesInAppendMode() throws IOException {
+        LogWriterPool pool = new LogWriterPool(2, TimeUnit.HOURS.toMillis(1));
+        Path first = tempDir.resolve("first.log");
+        Path second = tempDir.resolve("second.log");
+        Path third = tempDir.resolve("third.log");
+
+        pool.write(first, "a");
+        pool.write(second, "b");
+        pool.flushAll();
+        pool.write(first, "c");
+        pool.flush(first);
+        // evicts the least recently written file
+        pool.write(third, "d");
+        pool.flush(third);
+        assertEquals(2, pool.getOpenFileCount());
+        assertEquals("b", Files.readString(second));
+
+        pool.write(second, "e");
+        pool.flushAll();
+
+        assertEquals("ac", Files.readString(first));
+        assertEquals("be", Files.readString(second));
+        assertEquals("d", Files.readString(third));
+        assertEquals(2, pool.getOpenFileCount());
+    }
+
+    @Test
+    public void writesConcurrentlyToManyFiles() throws Exception {
+        LogWriterPool pool = new LogWriterPool(4, 10);
+        ExecutorService writers = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 800; i++) {
+            Path file = tempDir.resolve("container" + (i % 16) + ".log");
+            writers.submit(() -> pool.write(file, "x"));
+        }
+        writers.shutdown();
+        assertTrue(writers.awaitTermination(10, TimeUnit.SECONDS));
+        pool.flushAll();
+
+        for (int i = 0; i < 16; i++) {
+            assertEquals(
+                    "x".repeat(50), Files.readString(tempDir.resolve("container" + i + ".log")));
+        }
+        assertTrue(pool.getOpenFileCount() <= 4);
+    }
+
+    @Test
+    public void replacesExistingLogFiles() throws IOException {
+        LogFile logFile = new LogFile(tempDir, "replaced.log");
+        logFile.log("old\n");
+        logFile.flush();
+
+        LogFile replacement = new LogFile(tempDir, "replaced.log");
+        replacement.log("new\n");
+        replacement.flush();
+
+        assertEquals("new\n", Files.readString(tempDir.resolve("replaced.log")));
+    }
+}
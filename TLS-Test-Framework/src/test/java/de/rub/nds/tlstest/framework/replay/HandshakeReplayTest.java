@@ -0,0 +1,182 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.replay;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.rub.nds.tlsattacker.core.config.Config;
+import de.rub.nds.tlsattacker.core.connection.InboundConnection;
+import de.rub.nds.tlsattacker.core.connection.OutboundConnection;
+import de.rub.nds.tlsattacker.core.constants.CipherSuite;
+import de.rub.nds.tlsattacker.core.constants.ProtocolVersion;
+import de.rub.nds.tlsattacker.core.constants.RunningModeType;
+import de.rub.nds.tlsattacker.core.state.State;
+import de.rub.nds.tlsattacker.core.workflow.DefaultWorkflowExecutor;
+import de.rub.nds.tlsattacker.core.workflow.WorkflowExecutor;
+import de.rub.nds.tlsattacker.core.workflow.factory.WorkflowTraceType;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Records a TLS handshake with a TLS-Attacker server and replays it without the server. */
+public class HandshakeReplayTest {
+
+    private static final String KEY = "1.1 #0";
+
+    @TempDir Path tempDir;
+
+    @Test
+    public void replaysRecordedHandshake() throws Exception {
+        TransportRecordingStore store = new TransportRecordingStore(tempDir);
+        State recorded = recordHandshake(store);
+        assertTrue(recorded.getWorkflowTrace().executedAsPlanned());
+
+        ReplayClientTcpTransportHandler replay = replayHandshake(store.load(KEY), true);
+        replay.finish();
+        assertNull(replay.getDivergence());
+    }
+
+    @Test
+    public void replayDivergesWithoutPinnedRandomness() throws Exception {
+        TransportRecordingStore store = new TransportRecordingStore(tempDir);
+        recordHandshake(store);
+
+        ReplayClientTcpTransportHandler replay = replayHandshake(store.load(KEY), false);
+        replay.finish();
+        assertNotNull(replay.getDivergence());
+    }
+
+    @Test
+    public void pinsRandomnessPerKey() {
+        State first = new State(createClientConfig(443));
+        State second = new State(createClientConfig(443));
+        HandshakeRandomness.pin(first, KEY);
+        HandshakeRandomness.pin(second, KEY);
+        assertArrayEquals(
+                first.getConfig().getDefaultClientRandom(),
+                second.getConfig().getDefaultClientRandom());
+        assertEquals(
+                first.getTlsContext().getRandom().nextLong(),
+                second.getTlsContext().getRandom().nextLong());
+
+        State other = new State(createClientConfig(443));
+        HandshakeRandomness.pin(other, "1.1 #1");
+        assertFalse(
+                Arrays.equals(
+                        first.getConfig().getDefaultClientRandom(),
+                        other.getConfig().getDefaultClientRandom()));
+    }
+
+    private static State recordHandshake(TransportRecordingStore store) throws Exception {
+        int port = findFreePort();
+        CompletableFuture<Void> server =
+                CompletableFuture.runAsync(
+                        () ->
+                                new DefaultWorkflowExecutor(new State(createServerConfig(port)))
+                                        .executeWorkflow());
+
+        State state = new State(createClientConfig(port));
+        WorkflowExecutor executor = new DefaultWorkflowExecutor(state);
+        executor.setBeforeTransportPreInitCallback(
+                (State clientState) -> {
+                    RecordingClientTcpTransportHandler handler =
+                            new RecordingClientTcpTransportHandler(
+                                    clientState.getTlsContext().getConnection(), KEY);
+                    // the server may not listen yet
+                    handler.setRetryFailedSocketInitialization(true);
+                    clientState.getTlsContext().setTransportHandler(handler);
+                    HandshakeRandomness.pin(clientState, KEY);
+                    return 0;
+                });
+        executor.executeWorkflow();
+        server.get(30, TimeUnit.SECONDS);
+
+        TransportRecording recording =
+                ((RecordingClientTcpTransportHandler) state.getTlsContext().getTransportHandler())
+                        .getRecording();
+        // the server closes the connection after the handshake
+        recording.setFinalSocketState(state.getTcpContext().getFinalSocketState());
+        store.save(recording);
+        return state;
+    }
+
+    private static ReplayClientTcpTransportHandler replayHandshake(
+            TransportRecording recording, boolean pinRandomness) {
+        State state = new State(createClientConfig(443));
+        WorkflowExecutor executor = new DefaultWorkflowExecutor(state);
+        executor.setBeforeTransportPreInitCallback(
+                (State replayState) -> {
+                    replayState
+                            .getTlsContext()
+                            .setTransportHandler(
+                                    new ReplayClientTcpTransportHandler(
+                                            replayState.getTlsContext().getConnection(),
+                                            recording));
+                    if (pinRandomness) {
+                        HandshakeRandomness.pin(replayState, KEY);
+                    }
+                    return 0;
+                });
+        executor.executeWorkflow();
+        if (pinRandomness) {
+            assertTrue(state.getWorkflowTrace().executedAsPlanned());
+        }
+        return (ReplayClientTcpTransportHandler) state.getTlsContext().getTransportHandler();
+    }
+
+    private static Config createClientConfig(int port) {
+        Config config = createConfig();
+        config.setDefaultRunningMode(RunningModeType.CLIENT);
+        OutboundConnection connection = new OutboundConnection(port, "localhost");
+        connection.setIp("127.0.0.1");
+        connection.setTimeout(2000);
+        connection.setConnectionTimeout(2000);
+        config.setDefaultClientConnection(connection);
+        // like TlsAnvilConfig, leaves the random of the TLS context unseeded
+        config.setStealthMode(true);
+        return config;
+    }
+
+    private static Config createServerConfig(int port) {
+        Config config = createConfig();
+        config.setDefaultRunningMode(RunningModeType.SERVER);
+        InboundConnection connection = new InboundConnection(port);
+        connection.setTimeout(2000);
+        config.setDefaultServerConnection(connection);
+        return config;
+    }
+
+    private static Config createConfig() {
+        Config config = new Config();
+        config.setHighestProtocolVersion(ProtocolVersion.TLS12);
+        config.setDefaultSelectedProtocolVersion(ProtocolVersion.TLS12);
+        // RSA key exchange and CBC draw the premaster secret, padding and IVs from the random
+        config.setDefaultClientSupportedCipherSuites(CipherSuite.TLS_RSA_WITH_AES_128_CBC_SHA);
+        config.setDefaultServerSupportedCipherSuites(CipherSuite.TLS_RSA_WITH_AES_128_CBC_SHA);
+        config.setDefaultSelectedCipherSuite(CipherSuite.TLS_RSA_WITH_AES_128_CBC_SHA);
+        config.setWorkflowTraceType(WorkflowTraceType.HANDSHAKE);
+        config.setWorkflowExecutorShouldClose(true);
+        return config;
+    }
+
+    private static int findFreePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            return socket.getLocalPort();
+        }
+    }
+}
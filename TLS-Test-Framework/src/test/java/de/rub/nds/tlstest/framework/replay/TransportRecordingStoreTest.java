@@ -0,0 +1,140 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.replay;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import de.rub.nds.tlsattacker.core.connection.OutboundConnection;
+import de.rub.nds.tlsattacker.transport.socket.SocketState;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TransportRecordingStoreTest {
+
+    private static final byte[] REQUEST = "hello".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] RESPONSE = "world".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir Path tempDir;
+
+    @Test
+    public void recordsAndReplaysHandshake() throws Exception {
+        TransportRecordingStore store = new TransportRecordingStore(tempDir);
+        store.save(recordAgainstPeer());
+
+        TransportRecording loaded = store.load("1.1 #0");
+        assertNotNull(loaded);
+        assertEquals(SocketState.CLOSED, loaded.getFinalSocketState());
+        assertNull(store.load("1.2 #0"));
+
+        ReplayClientTcpTransportHandler replay = createReplayHandler(loaded);
+        replay.sendData(REQUEST);
+        assertArrayEquals(RESPONSE, replay.fetchData());
+        assertArrayEquals(new byte[0], replay.fetchData());
+        assertThrows(SocketTimeoutException.class, replay::fetchData);
+        replay.finish();
+        assertEquals("Tried to receive more data than recorded", replay.getDivergence());
+        assertEquals(SocketState.CLOSED, replay.getSocketState(true));
+    }
+
+    @Test
+    public void flagsDivergingSentData() throws Exception {
+        TransportRecording recording = new TransportRecording("1.1 #0");
+        recording.recordSent(REQUEST);
+        recording.recordReceived(RESPONSE);
+
+        ReplayClientTcpTransportHandler replay = createReplayHandler(recording);
+        replay.sendData("HELLO".getBytes(StandardCharsets.US_ASCII));
+        assertArrayEquals(RESPONSE, replay.fetchData());
+        replay.finish();
+        assertEquals(
+                "Sent data #1 differs from the recording (5 bytes instead of 5)",
+                replay.getDivergence());
+
+        ReplayClientTcpTransportHandler incomplete = createReplayHandler(recording);
+        incomplete.finish();
+        assertEquals("Sent less data than recorded", incomplete.getDivergence());
+    }
+
+    @Test
+    public void replaysFailedReads() throws Exception {
+        TransportRecording recording = new TransportRecording("1.1 #0");
+        recording.recordFetchFailure(new SocketTimeoutException("Read timed out"));
+        TransportRecordingStore store = new TransportRecordingStore(tempDir);
+        store.save(recording);
+
+        ReplayClientTcpTransportHandler replay = createReplayHandler(store.load("1.1 #0"));
+        SocketTimeoutException exception =
+                assertThrows(SocketTimeoutException.class, replay::fetchData);
+        assertEquals("Read timed out", exception.getMessage());
+        replay.finish();
+        assertNull(replay.getDivergence());
+    }
+
+    private static TransportRecording recordAgainstPeer() throws Exception {
+        try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            Thread peer =
+                    new Thread(
+                            () -> {
+                                try (Socket socket = serverSocket.accept()) {
+                                    InputStream in = socket.getInputStream();
+                                    in.readNBytes(REQUEST.length);
+                                    OutputStream out = socket.getOutputStream();
+                                    out.write(RESPONSE);
+                                    out.flush();
+                                } catch (Exception ignored) {
+                                }
+                            });
+            peer.start();
+
+            RecordingClientTcpTransportHandler handler =
+                    new RecordingClientTcpTransportHandler(
+                            createConnection(serverSocket.getLocalPort()), "1.1 #0");
+            handler.preInitialize();
+            handler.initialize();
+            handler.sendData(REQUEST);
+            peer.join();
+            handler.fetchData(RESPONSE.length);
+            handler.fetchData();
+            TransportRecording recording = handler.getRecording();
+            recording.setFinalSocketState(handler.getSocketState());
+            recording.setPorts(handler.getSrcPort(), handler.getDstPort());
+            handler.closeConnection();
+            return recording;
+        }
+    }
+
+    private static ReplayClientTcpTransportHandler createReplayHandler(TransportRecording recording)
+            throws Exception {
+        ReplayClientTcpTransportHandler handler =
+                new ReplayClientTcpTransportHandler(createConnection(443), recording);
+        handler.preInitialize();
+        handler.initialize();
+        return handler;
+    }
+
+    private static OutboundConnection createConnection(int port) {
+        OutboundConnection connection = new OutboundConnection(port, "localhost");
+        connection.setTimeout(2000);
+        connection.setConnectionTimeout(2000);
+        connection.setUseIpv6(false);
+        connection.setIp("127.0.0.1");
+        return connection;
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.reporting;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.rub.nds.anvilcore.teststate.TestResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ResultStreamSinkTest {
+
+    @TempDir Path tempDir;
+
+    private static ResultRecord record(String testId, int index, TestResult result) {
+        ResultRecord record = new ResultRecord();
+        record.setTestId(testId);
+        record.setUuid(testId + "-" + index);
+        record.setParameterCombination("[Parameter=" + index + "]");
+        record.setResult(result);
+        return record;
+    }
+
+    private void writeAndVerify(boolean compress) throws Exception {
+        Path folder = tempDir.resolve(ResultStreamSink.FOLDER_NAME);
+        ResultStreamSink sink = new ResultStreamSink(folder, compress, 512);
+        for (int i = 0; i < 50; i++) {
+            sink.append(
+                    record(
+                            "A",
+                            i,
+                            i % 5 == 0 ? TestResult.FULLY_FAILED : TestResult.STRICTLY_SUCCEEDED));
+            sink.append(record("B", i, TestResult.CONCEPTUALLY_SUCCEEDED));
+        }
+        sink.close();
+
+        assertEquals(100, sink.getRecordCount());
+        assertEquals(10, sink.getResultCounters().get(TestResult.FULLY_FAILED));
+        try (Stream<Path> segments = Files.list(folder)) {
+            assertTrue(segments.count() > 1);
+        }
+
+        List<String> uuids = new LinkedList<>();
+        ResultStreamSink.read(folder, record -> uuids.add(record.getUuid()));
+        assertEquals(100, uuids.size());
+        assertEquals("A-0", uuids.get(0));
+        assertEquals("B-49", uuids.get(99));
+
+        Map<String, Map<TestResult, Long>> summary = ResultStreamSink.summarize(folder);
+        assertEquals(40, summary.get("A").get(TestResult.STRICTLY_SUCCEEDED));
+        assertEquals(10, summary.get("A").get(TestResult.FULLY_FAILED));
+        assertEquals(50, summary.get("B").get(TestResult.CONCEPTUALLY_SUCCEEDED));
+    }
+
+    @Test
+    public void limitsSegmentsByBytes() throws Exception {
+        Path folder = tempDir.resolve(ResultStreamSink.FOLDER_NAME);
+        ResultStreamSink sink = new ResultStreamSink(folder, false, 512);
+        int maxLineBytes = 0;
+        for (int i = 0; i < 20; i++) {
+            ResultRecord record = record("A", i, TestResult.STRICTLY_SUCCEEDED);
+            // two bytes per character in UTF-8
+            record.setParameterCombination("\u00e4".repeat(100));
+            maxLineBytes =
+                    Math.max(maxLineBytes, new ObjectMapper().writeValueAsBytes(record).length + 1);
+            sink.append(record);
+        }
+        sink.close();
+
+        try (Stream<Path> segments = Files.list(folder)) {
+            for (Path segment : segments.collect(Collectors.toList())) {
+                assertTrue(Files.size(segment) < 512 + maxLineBytes);
+            }
+        }
+    }
+
+    @Test
+    public void writesSegments() throws Exception {
+        writeAndVerify(false);
+    }
+
+    @Test
+    public void writesCompressedSegments() throws Exception {
+        writeAndVerify(true);
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.sharding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ShardMergerTest {
+
+    @TempDir Path tempDir;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void takesEachTemplateFromItsShard() throws IOException {
+        Path shard0 = tempDir.resolve("shard0");
+        Path shard1 = tempDir.resolve("shard1");
+        writeTestRun(shard0, "A", "STRICTLY_SUCCEEDED", null, 1, 1);
+        writeTestRun(shard0, "B", "DISABLED", ShardPlan.disabledReason(1, 2), 0, 0);
+        writeTestRun(shard0, "C", "DISABLED", "Not supported by the target", 0, 0);
+        writeTestRun(shard1, "A", "DISABLED", ShardPlan.disabledReason(0, 2), 0, 0);
+        writeTestRun(shard1, "B", "FULLY_FAILED", null, 0, 1);
+        writeTestRun(shard1, "C", "DISABLED", "Not supported by the target", 0, 0);
+        writeReport(shard0, 1000, 4);
+        writeReport(shard1, 3000, 6);
+        Files.writeString(shard0.resolve(ShardMerger.JOURNAL_FILE), "{\"caseKey\":\"a\"}\n");
+        Files.writeString(shard1.resolve(ShardMerger.JOURNAL_FILE), "{\"caseKey\":\"b\"}\n");
+
+        Path merged = tempDir.resolve("merged");
+        ObjectNode report = new ShardMerger(List.of(shard0, shard1), merged).merge();
+
+        assertEquals(3000, report.get("ElapsedTime").asLong());
+        assertEquals(3, report.get("TotalTests").asLong());
+        assertEquals(10, report.get("TestCaseCount").asLong());
+        assertEquals(1, report.get("StrictlySucceededTests").asLong());
+        assertEquals(1, report.get("FullyFailedTests").asLong());
+        assertEquals(1, report.get("DisabledTests").asLong());
+        assertEquals(1.0, report.get("Score").get("SECURITY").get("reached").asDouble());
+        assertEquals(2.0, report.get("Score").get("SECURITY").get("total").asDouble());
+        assertEquals(
+                "FULLY_FAILED",
+                mapper.readTree(
+                                merged.resolve(ShardMerger.RESULTS_FOLDER)
+                                        .resolve("B")
+                                        .resolve(ShardMerger.TEST_RUN_FILE)
+                                        .toFile())
+                        .get("Result")
+                        .asText());
+        assertTrue(Files.exists(merged.resolve(ShardMerger.REPORT_FILE)));
+        assertEquals(2, Files.readAllLines(merged.resolve(ShardMerger.JOURNAL_FILE)).size());
+    }
+
+    @Test
+    public void failsForTemplatesNotExecutedByAnyShard() throws IOException {
+        Path shard0 = tempDir.resolve("shard0");
+        Path shard1 = tempDir.resolve("shard1");
+        writeTestRun(shard0, "A", "STRICTLY_SUCCEEDED", null, 1, 1);
+        writeTestRun(shard0, "B", "DISABLED", ShardPlan.disabledReason(1, 2), 0, 0);
+        writeTestRun(shard1, "A", "DISABLED", ShardPlan.disabledReason(0, 2), 0, 0);
+        // shard 1 used a different plan and left B to shard 0
+        writeTestRun(shard1, "B", "DISABLED", ShardPlan.disabledReason(0, 2), 0, 0);
+        writeReport(shard0, 1000, 1);
+        writeReport(shard1, 1000, 0);
+
+        IOException exception =
+                assertThrows(
+                        IOException.class,
+                        () ->
+                                new ShardMerger(List.of(shard0, shard1), tempDir.resolve("merged"))
+                                        .merge());
+        assertTrue(exception.getMessage().contains("[B]"));
+    }
+
+    private void writeTestRun(
+            Path shardFolder,
+            String testId,
+            String result,
+            String disabledReason,
+            double reached,
+            double total)
+            throws IOException {
+        Path testFolder = shardFolder.resolve(ShardMerger.RESULTS_FOLDER).resolve(testId);
+        Files.createDirectories(testFolder);
+        ObjectNode testRun = mapper.createObjectNode();
+        testRun.put("TestId", testId);
+        testRun.put("Result", result);
+        testRun.put("DisabledReason", disabledReason);
+        if (total > 0) {
+            ObjectNode score = testRun.putObject("Score").putObject("SECURITY");
+            score.put("reached", reached);
+            score.put("total", total);
+        } else {
+            testRun.putObject("Score");
+        }
+        mapper.writeValue(testFolder.resolve(ShardMerger.TEST_RUN_FILE).toFile(), testRun);
+    }
+
+    private void writeReport(Path shardFolder, long elapsedTime, long testCaseCount)
+            throws IOException {
+        ObjectNode report = mapper.createObjectNode();
+        report.put("ElapsedTime", elapsedTime);
+        report.put("Identifier", "target");
+        report.put("TotalTests", 3);
+        report.put("FinishedTests", 3);
+        report.put("DisabledTests", 2);
+        report.put("TestCaseCount", testCaseCount);
+        report.putObject("DetailsFailedTestCases");
+        report.put("Running", false);
+        mapper.writeValue(shardFolder.resolve(ShardMerger.REPORT_FILE).toFile(), report);
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.sharding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ShardPlanTest {
+
+    @TempDir Path tempDir;
+
+    @Test
+    public void balancesByExpectedDuration() {
+        Map<String, Long> templateMillis = new HashMap<>();
+        templateMillis.put("A", 9000L);
+        templateMillis.put("B", 5000L);
+        templateMillis.put("C", 4000L);
+        templateMillis.put("D", 3000L);
+        templateMillis.put("E", 2000L);
+
+        ShardPlan plan = ShardPlan.compute(templateMillis, 2);
+
+        assertEquals(0, plan.getShard("A"));
+        assertEquals(1, plan.getShard("B"));
+        assertEquals(1, plan.getShard("C"));
+        assertEquals(List.of(12000L, 11000L), plan.getExpectedShardMillis());
+    }
+
+    @Test
+    public void spreadsEvenlyWithoutHistory() {
+        Map<String, Long> templateMillis = new HashMap<>();
+        for (int i = 0; i < 10; i++) {
+            templateMillis.put("T" + i, 0L);
+        }
+
+        ShardPlan plan = ShardPlan.compute(templateMillis, 3);
+
+        assertEquals(List.of(4L, 3L, 3L), plan.getExpectedShardMillis());
+    }
+
+    @Test
+    public void isIndependentOfIterationOrder() {
+        Map<String, Long> ascending = new LinkedHashMap<>();
+        Map<String, Long> descending = new LinkedHashMap<>();
+        for (int i = 0; i < 20; i++) {
+            ascending.put("T" + i, (long) (i % 4) * 100);
+            descending.put("T" + (19 - i), (long) ((19 - i) % 4) * 100);
+        }
+
+        assertEquals(
+                ShardPlan.compute(ascending, 4).getAssignments(),
+                ShardPlan.compute(descending, 4).getAssignments());
+    }
+
+    @Test
+    public void assignsUnknownTemplatesToAValidShard() {
+        ShardPlan plan = ShardPlan.compute(Map.of("A", 1L), 3);
+        int shard = plan.getShard("unknown");
+        assertTrue(shard >= 0 && shard < 3);
+        assertEquals(shard, plan.getShard("unknown"));
+    }
+
+    @Test
+    public void hashedPlanOnlyDependsOnTheTestId() {
+        ShardPlan plan = ShardPlan.hashed(4);
+        ShardPlan otherShard = ShardPlan.hashed(4);
+        for (int i = 0; i < 50; i++) {
+            int shard = plan.getShard("1.2." + i);
+            assertTrue(shard >= 0 && shard < 4);
+            assertEquals(shard, otherShard.getShard("1.2." + i));
+        }
+        assertTrue(plan.getAssignments().isEmpty());
+    }
+
+    @Test
+    public void reusesPublishedPlan() throws IOException {
+        Path planPath = tempDir.resolve("plan.json");
+        ShardPlan first = ShardPlan.compute(Map.of("A", 100L, "B", 10L), 2);
+        ShardPlan second = ShardPlan.compute(Map.of("A", 10L, "B", 100L), 2);
+
+        assertEquals(
+                first.getAssignments(), ShardPlan.loadOrPublish(planPath, first).getAssignments());
+        assertEquals(
+                first.getAssignments(), ShardPlan.loadOrPublish(planPath, second).getAssignments());
+
+        ShardPlan otherCount = ShardPlan.compute(Map.of("A", 10L, "B", 100L), 3);
+        assertEquals(3, ShardPlan.loadOrPublish(planPath, otherCount).getShardCount());
+    }
+}
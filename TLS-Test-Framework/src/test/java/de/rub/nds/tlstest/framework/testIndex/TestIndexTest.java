@@ -0,0 +1,88 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.testIndex;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.rub.nds.anvilcore.constants.TestEndpointType;
+import de.rub.nds.tlsattacker.core.constants.ProtocolVersion;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class TestIndexTest {
+
+    private static TestIndexEntry entry(
+            String id, String className, TestEndpointType endpoint, String... tags) {
+        TestIndexEntry entry = new TestIndexEntry();
+        entry.setId(id);
+        entry.setClassName(className);
+        entry.setMethodName("test");
+        entry.setEndpoint(endpoint);
+        entry.setVersions(List.of(ProtocolVersion.TLS12));
+        entry.setTags(List.of(tags));
+        return entry;
+    }
+
+    private static TestIndex createIndex() {
+        return new TestIndex(
+                List.of(
+                        entry("A", "a.b.server.tls12.First", TestEndpointType.SERVER, "tls12"),
+                        entry("B", "a.b.server.tls13.Second", TestEndpointType.SERVER, "tls13"),
+                        entry("C", "a.b.both.tls12.Third", TestEndpointType.BOTH, "tls12")));
+    }
+
+    @Test
+    public void lookup() {
+        TestIndex index = createIndex();
+        assertEquals("B", index.getEntry("a.b.server.tls13.Second", "test").getId());
+        assertSame(index.getEntryById("A"), index.getEntry("a.b.server.tls12.First", "test"));
+        assertNull(index.getEntry("a.b.server.tls13.Second", "other"));
+    }
+
+    @Test
+    public void commonPackage() {
+        TestIndex index = createIndex();
+        assertEquals("a.b.server.tls13", index.getCommonPackage(List.of("tls13")));
+        assertEquals("a.b", index.getCommonPackage(List.of("tls12")));
+        assertEquals("a.b", index.getCommonPackage(List.of()));
+        assertNull(index.getCommonPackage(List.of("unknown")));
+    }
+
+    @Test
+    public void matches() {
+        TestIndexEntry serverEntry =
+                entry("A", "a.b.server.tls12.First", TestEndpointType.SERVER, "tls12");
+        assertTrue(
+                serverEntry.matches(
+                        ProtocolVersion.TLS12, TestEndpointType.SERVER, TestEndpointType.SERVER));
+        assertFalse(
+                serverEntry.matches(
+                        ProtocolVersion.TLS13, TestEndpointType.SERVER, TestEndpointType.SERVER));
+        assertFalse(
+                serverEntry.matches(
+                        ProtocolVersion.TLS12, TestEndpointType.CLIENT, TestEndpointType.CLIENT));
+    }
+
+    @Test
+    public void serializationRoundTrip() throws IOException {
+        byte[] serialized = new ObjectMapper().writeValueAsBytes(createIndex().getEntries());
+        TestIndex index = TestIndex.fromStream(new ByteArrayInputStream(serialized));
+        assertEquals(3, index.getEntries().size());
+        assertEquals(
+                TestEndpointType.BOTH,
+                index.getEntry("a.b.both.tls12.Third", "test").getEndpoint());
+        assertEquals(List.of("tls12"), index.getEntryById("C").getTags());
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.traceArchive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.rub.nds.modifiablevariable.util.Modifiable;
+import de.rub.nds.tlsattacker.core.config.Config;
+import de.rub.nds.tlsattacker.core.constants.HandshakeMessageType;
+import de.rub.nds.tlsattacker.core.constants.RunningModeType;
+import de.rub.nds.tlsattacker.core.protocol.message.ClientHelloMessage;
+import de.rub.nds.tlsattacker.core.workflow.WorkflowTrace;
+import de.rub.nds.tlsattacker.core.workflow.WorkflowTraceConfigurationUtil;
+import de.rub.nds.tlsattacker.core.workflow.WorkflowTraceSerializer;
+import de.rub.nds.tlsattacker.core.workflow.factory.WorkflowConfigurationFactory;
+import de.rub.nds.tlsattacker.core.workflow.factory.WorkflowTraceType;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TraceArchiveTest {
+
+    @TempDir Path tempDir;
+
+    private static WorkflowTrace handshake() {
+        return new WorkflowConfigurationFactory(new Config())
+                .createWorkflowTrace(WorkflowTraceType.HANDSHAKE, RunningModeType.CLIENT);
+    }
+
+    @Test
+    public void reconstructsTraces() throws Exception {
+        WorkflowTrace plain = handshake();
+        WorkflowTrace modified = handshake();
+        ClientHelloMessage clientHello =
+                (ClientHelloMessage)
+                        WorkflowTraceConfigurationUtil.getFirstStaticConfiguredSendMessage(
+                                modified, HandshakeMessageType.CLIENT_HELLO);
+        clientHello.setCipherSuiteLength(Modifiable.explicit(42));
+
+        TraceArchive archive = new TraceArchive(tempDir);
+        archive.add("a", plain);
+        int blobsOfFirstTrace = archive.getBlobCount();
+        archive.add("b", plain);
+        // identical traces do not add any blobs
+        assertEquals(blobsOfFirstTrace, archive.getBlobCount());
+        archive.add("b", modified);
+        // only the modified message is stored again
+        assertEquals(blobsOfFirstTrace + 1, archive.getBlobCount());
+        archive.close();
+
+        try (TraceArchiveReader reader = new TraceArchiveReader(tempDir)) {
+            assertTrue(reader.getKeys().containsAll(List.of("a", "b")));
+            List<WorkflowTrace> traces = reader.readTraces("b");
+            assertEquals(2, traces.size());
+            assertEquals(
+                    WorkflowTraceSerializer.write(plain),
+                    WorkflowTraceSerializer.write(traces.get(0)));
+            assertEquals(
+                    WorkflowTraceSerializer.write(modified),
+                    WorkflowTraceSerializer.write(traces.get(1)));
+        }
+    }
+
+    @Test
+    public void continuesExistingArchive() throws Exception {
+        WorkflowTrace trace = handshake();
+        TraceArchive first = new TraceArchive(tempDir);
+        first.add("a", trace);
+        int blobCount = first.getBlobCount();
+        first.close();
+
+        TraceArchive second = new TraceArchive(tempDir);
+        assertEquals(blobCount, second.getBlobCount());
+        second.add("b", trace);
+        // the blobs of the existing archive are reused
+        assertEquals(blobCount, second.getBlobCount());
+        second.close();
+
+        try (TraceArchiveReader reader = new TraceArchiveReader(tempDir)) {
+            assertEquals(
+                    WorkflowTraceSerializer.write(trace),
+                    WorkflowTraceSerializer.write(reader.readTraces("a").get(0)));
+            assertEquals(
+                    WorkflowTraceSerializer.write(trace),
+                    WorkflowTraceSerializer.write(reader.readTraces("b").get(0)));
+        }
+    }
+}
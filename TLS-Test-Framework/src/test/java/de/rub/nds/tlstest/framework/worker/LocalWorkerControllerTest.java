@@ -0,0 +1,99 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.worker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LocalWorkerControllerTest {
+
+    @TempDir Path tempDir;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newHttpClient();
+    private LocalWorkerController controller;
+
+    @BeforeEach
+    public void startController() throws Exception {
+        controller = new LocalWorkerController();
+        controller.start();
+    }
+
+    @AfterEach
+    public void stopController() {
+        controller.stop();
+    }
+
+    private Map<?, ?> post(String endpoint, Map<String, ?> body) throws Exception {
+        HttpRequest request =
+                HttpRequest.newBuilder()
+                        .uri(
+                                URI.create(
+                                        "http://"
+                                                + controller.getAddress()
+                                                + LocalWorkerController.API_PATH
+                                                + endpoint))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(body)))
+                        .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        return mapper.readValue(response.body(), Map.class);
+    }
+
+    @Test
+    public void servesQueuedJobsLikeTheBackend() throws Exception {
+        Path jobsFile = tempDir.resolve("jobs.json");
+        Files.writeString(
+                jobsFile,
+                "[{\"config\": {\"identifier\": \"first\"}, \"additionalConfig\": {\"parallelHandshakes\": 2}},"
+                        + " {\"config\": \"{\\\"identifier\\\": \\\"second\\\"}\"}]");
+        assertEquals(2, controller.queueJobs(jobsFile));
+
+        assertEquals("local-worker", post("worker/register", Map.of("name", "test")).get("id"));
+
+        Map<?, ?> first = post("worker/fetch", Map.of("status", "IDLE", "logs", ""));
+        assertEquals("QUEUE_RUN", first.get("command"));
+        Map<?, ?> firstJob = (Map<?, ?>) first.get("job");
+        assertEquals("local-1", firstJob.get("id"));
+        assertEquals(
+                "first",
+                mapper.readTree((String) firstJob.get("config")).get("identifier").asText());
+        assertEquals(
+                2,
+                mapper.readTree((String) firstJob.get("additionalConfig"))
+                        .get("parallelHandshakes")
+                        .asInt());
+
+        Map<?, ?> second = post("worker/fetch", Map.of("status", "WORKING", "logs", "cache hit"));
+        assertEquals("{}", ((Map<?, ?>) second.get("job")).get("additionalConfig"));
+        assertEquals("OK", post("worker/fetch", Map.of("status", "WORKING")).get("command"));
+        assertFalse(controller.awaitCompletion(50));
+
+        post("worker/update/report", Map.of("jobId", "local-1", "finished", true));
+        post("worker/fetch", Map.of("status", "IDLE", "logs", ""));
+
+        assertTrue(controller.awaitCompletion(1000));
+        assertEquals(1, controller.getUpdates("worker/update/report").size());
+        assertEquals("cache hit", controller.getUpdates("worker/fetch").get(0).get("logs"));
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ * TLS-Test-Framework - A framework for modeling TLS tests
+ *
+ * <p>Copyright 2022 Ruhr University Bochum
+ *
+ * <p>Licensed under Apache License 2.0 http://www.apache.org/licenses/LICENSE-2.0
+ */
+package de.rub.nds.tlstest.framework.worker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import de.rub.nds.anvilcore.constants.TestEndpointType;
+import de.rub.nds.anvilcore.context.AnvilTestConfig;
+import de.rub.nds.tlsattacker.core.config.Config;
+import de.rub.nds.tlsattacker.core.constants.ProtocolVersion;
+import de.rub.nds.tlstest.framework.FeatureExtractionResult;
+import de.rub.nds.tlstest.framework.ServerFeatureExtractionResult;
+import de.rub.nds.tlstest.framework.config.TlsAnvilConfig;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class WarmWorkerCacheTest {
+
+    private static TlsAnvilConfig serverJob(String host) {
+        TlsAnvilConfig config = new TlsAnvilConfig();
+        config.setAnvilTestConfig(new AnvilTestConfig());
+        config.setTestEndpointMode(TestEndpointType.SERVER);
+        config.getTestServerDelegate().setHost(host);
+        return config;
+    }
+
+    private static FeatureExtractionResult extractionResult(ProtocolVersion... versions) {
+        FeatureExtractionResult result = new ServerFeatureExtractionResult("localhost", 4433);
+        result.setSupportedVersions(Set.of(versions));
+        return result;
+    }
+
+    /** Runs the preparation of a job as the TestPreparator does, scanning on a cache miss. */
+    private static FeatureExtractionResult prepare(
+            WarmWorkerCache cache, TlsAnvilConfig config, FeatureExtractionResult scanned) {
+        cache.beginJob(config);
+        if (config.getCachedConfig() == null) {
+            config.setCachedConfig(new Config());
+        }
+        FeatureExtractionResult result = cache.lookupFeatureExtractionResult(config);
+        if (result == null) {
+            result = scanned;
+            cache.storePreparedTarget(config, result);
+        }
+        return result;
+    }
+
+    @Test
+    public void reusesArtifactsForTheSameTarget() {
+        WarmWorkerCache cache = new WarmWorkerCache(2);
+        FeatureExtractionResult scanned = extractionResult(ProtocolVersion.TLS12);
+        TlsAnvilConfig firstJob = serverJob("localhost:4433");
+        prepare(cache, firstJob, scanned);
+        assertEquals(
+                Map.of(
+                        WarmWorkerCache.CERTIFICATE_CHAINS, false,
+                        WarmWorkerCache.CONFIG, false,
+                        WarmWorkerCache.FEATURE_EXTRACTION, false),
+                cache.getJobStatus().get("hits"));
+
+        TlsAnvilConfig secondJob = serverJob("localhost:4433");
+        FeatureExtractionResult reused =
+                prepare(cache, secondJob, extractionResult(ProtocolVersion.TLS13));
+
+        assertSame(scanned, reused);
+        assertSame(firstJob.getCachedConfig(), secondJob.getCachedConfig());
+        assertEquals(
+                Map.of(
+                        WarmWorkerCache.CERTIFICATE_CHAINS, true,
+                        WarmWorkerCache.CONFIG, true,
+                        WarmWorkerCache.FEATURE_EXTRACTION, true),
+                cache.getJobStatus().get("hits"));
+        assertEquals(3L, cache.getJobStatus().get("totalHits"));
+    }
+
+    @Test
+    public void otherTargetStartsFromScratch() {
+        WarmWorkerCache cache = new WarmWorkerCache(2);
+        TlsAnvilConfig config = serverJob("localhost:4433");
+        prepare(cache, config, extractionResult(ProtocolVersion.TLS12));
+
+        // the worker reuses its config object for all jobs
+        config.getTestServerDelegate().setHost("localhost:4434");
+        cache.beginJob(config);
+
+        assertNull(config.getCachedConfig());
+        assertNull(cache.lookupFeatureExtractionResult(config));
+        // the artifacts of the previous target are kept for later jobs
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void changedFingerprintInvalidatesTheTarget() {
+        WarmWorkerCache cache = new WarmWorkerCache(2);
+        TlsAnvilConfig config = serverJob("localhost:4433");
+        prepare(cache, config, extractionResult(ProtocolVersion.TLS12));
+
+        // a fresh extraction, e.g. of a job ignoring the cache, finds another implementation
+        FeatureExtractionResult rescanned = extractionResult(ProtocolVersion.TLS13);
+        cache.storePreparedTarget(config, rescanned);
+
+        assertEquals(1L, cache.getJobStatus().get("invalidations"));
+        assertSame(rescanned, cache.lookupFeatureExtractionResult(serverJob("localhost:4433")));
+
+        cache.storePreparedTarget(config, extractionResult(ProtocolVersion.TLS13));
+        assertEquals(1L, cache.getJobStatus().get("invalidations"));
+    }
+
+    @Test
+    public void newerSharedCacheInvalidatesTheWarmHit() {
+        WarmWorkerCache cache = new WarmWorkerCache(2);
+        FeatureExtractionResult scanned = extractionResult(ProtocolVersion.TLS12);
+        prepare(cache, serverJob("localhost:4433"), scanned);
+        long later = System.currentTimeMillis() + 1000;
+
+        // the shared cache is only read if it has been written after the target was stored
+        assertSame(
+                scanned,
+                cache.lookupFeatureExtractionResult(
+                        serverJob("localhost:4433"),
+                        0,
+                        () -> extractionResult(ProtocolVersion.TLS13)));
+        assertSame(
+                scanned,
+                cache.lookupFeatureExtractionResult(
+                        serverJob("localhost:4433"),
+                        later,
+                        () -> extractionResult(ProtocolVersion.TLS12)));
+        assertEquals(0L, cache.getJobStatus().get("invalidations"));
+
+        // another process extracted the target anew and found another implementation
+        assertNull(
+                cache.lookupFeatureExtractionResult(
+                        serverJob("localhost:4433"),
+                        later + 1000,
+                        () -> extractionResult(ProtocolVersion.TLS13)));
+        assertEquals(1L, cache.getJobStatus().get("invalidations"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void evictsTheLeastRecentlyUsedTarget() {
+        WarmWorkerCache cache = new WarmWorkerCache(2);
+        prepare(cache, serverJob("a:443"), extractionResult(ProtocolVersion.TLS12));
+        prepare(cache, serverJob("b:443"), extractionResult(ProtocolVersion.TLS12));
+        prepare(cache, serverJob("a:443"), extractionResult(ProtocolVersion.TLS12));
+        prepare(cache, serverJob("c:443"), extractionResult(ProtocolVersion.TLS12));
+
+        assertEquals(2, cache.size());
+        assertNull(cache.lookupFeatureExtractionResult(serverJob("b:443")));
+    }
+}
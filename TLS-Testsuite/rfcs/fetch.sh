@@ -0,0 +1,21 @@
+#!/bin/bash
+# Downloads the RFC documents annotated by the test case extractor, so the
+# extraction does not depend on the IETF datatracker being reachable.
+# Usage: ./fetch.sh [RFC number...], defaults to all RFCs referenced in the
+# metadata of the test templates
+
+set -e
+
+cd "$(dirname $0)"
+
+METADATA=../src/main/resources/metadata.json
+
+RFCS="$*"
+if [ -z "$RFCS" ]; then
+    RFCS=$(grep -o '"number": *[0-9]*' "$METADATA" | grep -o '[0-9]*$' | sort -un)
+fi
+
+for rfc in $RFCS; do
+    curl -sSfL -o "rfc$rfc.html" "https://datatracker.ietf.org/doc/html/rfc$rfc"
+    echo "Fetched RFC $rfc"
+done
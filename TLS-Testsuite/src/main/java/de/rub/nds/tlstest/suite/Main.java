@@ -10,24 +10,59 @@ package de.rub.nds.tlstest.suite;
 import com.beust.jcommander.ParameterException;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import de.rub.nds.anvilcore.execution.TestRunner;
 import de.rub.nds.anvilcore.worker.WorkerClient;
 import de.rub.nds.tlsattacker.core.util.ProviderUtil;
 import de.rub.nds.tlstest.framework.TestContext;
 import de.rub.nds.tlstest.framework.anvil.TlsParameterIdentifierProvider;
+import de.rub.nds.tlstest.framework.config.TlsAnvilConfig;
+import de.rub.nds.tlstest.framework.config.delegates.BatchDelegate;
+import de.rub.nds.tlstest.framework.config.delegates.LocalizeFailuresDelegate;
+import de.rub.nds.tlstest.framework.config.delegates.MergeShardsDelegate;
+import de.rub.nds.tlstest.framework.config.delegates.WorkerDelegate;
+import de.rub.nds.tlstest.framework.escalation.StrengthEscalation;
 import de.rub.nds.tlstest.framework.extractor.TestCaseExtractor;
+import de.rub.nds.tlstest.framework.junitExtensions.DurationHistoryClassOrderer;
+import de.rub.nds.tlstest.framework.junitExtensions.DurationHistoryMethodOrderer;
+import de.rub.nds.tlstest.framework.localization.FailureLocalizationProcessor;
 import de.rub.nds.tlstest.framework.parameterExtensions.configurationOptionsExtension.ConfigurationOptionsDerivationManager;
+import de.rub.nds.tlstest.framework.sharding.ShardMerger;
+import de.rub.nds.tlstest.framework.testIndex.TestIndex;
+import de.rub.nds.tlstest.framework.worker.LocalWorkerController;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.ClassOrderer;
+import org.junit.jupiter.api.MethodOrderer;
 
 /** Main entrypoint for the TLS-Attacker testsuite. */
 public class Main {
     private static final Logger LOGGER = LogManager.getLogger();
-    private static boolean finished = false;
 
     static {
         System.setProperty("java.util.logging.manager", "org.apache.logging.log4j.jul.LogManager");
         ProviderUtil.addBouncyCastleProvider();
+        // JUnit falls back to the system properties for configuration parameters the launcher does
+        // not set, a junit-platform.properties would clash with the one of the unit tests
+        if (System.getProperty(ClassOrderer.DEFAULT_ORDER_PROPERTY_NAME) == null) {
+            System.setProperty(
+                    ClassOrderer.DEFAULT_ORDER_PROPERTY_NAME,
+                    DurationHistoryClassOrderer.class.getName());
+        }
+        if (System.getProperty(MethodOrderer.DEFAULT_ORDER_PROPERTY_NAME) == null) {
+            System.setProperty(
+                    MethodOrderer.DEFAULT_ORDER_PROPERTY_NAME,
+                    DurationHistoryMethodOrderer.class.getName());
+        }
     }
 
     /**
@@ -40,24 +75,6 @@ public class Main {
         // create the TLS-Anvil test context singleton
         TestContext testContext = TestContext.getInstance();
 
-        // runs in background, prints the ram usage every 2 seconds, when run in debug mode
-        new Thread(
-                        () -> {
-                            while (!finished) {
-                                LOGGER.debug(
-                                        "RAM: {}/{}",
-                                        (Runtime.getRuntime().totalMemory()
-                                                        - Runtime.getRuntime().freeMemory())
-                                                / 1000000,
-                                        Runtime.getRuntime().totalMemory() / 1000000);
-                                try {
-                                    Thread.sleep(2000);
-                                } catch (Exception ignored) {
-                                }
-                            }
-                        })
-                .start();
-
         try {
             // parse command line args into a TlsTestConfig object
             // this also fills an AnvilConfig object
@@ -69,10 +86,7 @@ public class Main {
                         testContext.getConfig().getAnvilTestConfig().getTestPackage());
             } else {
                 // set test package if not specified via command args
-                testContext
-                        .getConfig()
-                        .getAnvilTestConfig()
-                        .setTestPackage(Main.class.getPackageName());
+                testContext.getConfig().getAnvilTestConfig().setTestPackage(resolveTestPackage());
             }
 
             switch (testContext.getConfig().getParsedCommand()) {
@@ -86,6 +100,15 @@ public class Main {
                 case WORKER:
                     startWorkerClient(testContext);
                     break;
+                case MERGE_SHARDS:
+                    startShardMerge(testContext);
+                    break;
+                case BATCH:
+                    startBatch(testContext);
+                    break;
+                case LOCALIZE_FAILURES:
+                    startFailureLocalization(testContext);
+                    break;
                 default:
                     LOGGER.error("Command not recognized.");
             }
@@ -98,8 +121,27 @@ public class Main {
             LOGGER.error("Something went wrong", e);
             System.exit(1);
         }
+    }
 
-        finished = true;
+    /**
+     * Uses the bundled test index to narrow the package JUnit has to scan down to the tests
+     * matching the selected tags. Falls back to the whole testsuite if no index is available.
+     *
+     * @return the package selected for test discovery
+     */
+    private static String resolveTestPackage() {
+        String testPackage = Main.class.getPackageName();
+        List<String> tags = TestContext.getInstance().getConfig().getAnvilTestConfig().getTags();
+        if (tags == null || tags.isEmpty()) {
+            return testPackage;
+        }
+        String commonPackage =
+                TestIndex.getInstance().map(index -> index.getCommonPackage(tags)).orElse(null);
+        if (commonPackage != null && commonPackage.startsWith(testPackage)) {
+            LOGGER.debug("Restricting test discovery to package {}", commonPackage);
+            return commonPackage;
+        }
+        return testPackage;
     }
 
     /**
@@ -107,8 +149,64 @@ public class Main {
      *
      * @param testContext TLS-Anvils TestContext with filled AnvilConfig
      */
-    public static void startTestRunner(TestContext testContext) throws JsonProcessingException {
+    public static void startTestRunner(TestContext testContext) throws IOException {
         LOGGER.info("Started in testing mode.");
+        System.exit(runTests(testContext) ? 0 : 1);
+    }
+
+    /**
+     * Runs the tests against the target configured in the TestContext. With -escalationStrength,
+     * the templates with failures are executed again at the higher strength afterwards.
+     *
+     * @param testContext TLS-Anvils TestContext with filled AnvilConfig
+     * @return false if the results did not match the expected results
+     */
+    private static boolean runTests(TestContext testContext) throws IOException {
+        TlsAnvilConfig config = testContext.getConfig();
+        int strength = config.getAnvilTestConfig().getStrength();
+        if (config.getEscalationStrength() <= strength) {
+            if (config.getEscalationStrength() > 0) {
+                LOGGER.warn(
+                        "Ignoring -escalationStrength {} as it is not higher than the strength {}",
+                        config.getEscalationStrength(),
+                        strength);
+            }
+            return runPhase(testContext);
+        }
+
+        StrengthEscalation escalation =
+                new StrengthEscalation(strength, config.getEscalationStrength());
+        testContext.setStrengthEscalation(escalation);
+        boolean passed = runPhase(testContext);
+        if (escalation.plan().isEmpty()) {
+            return passed;
+        }
+
+        // the escalated templates are executed in a subfolder and merged afterwards
+        String outputFolder = config.getAnvilTestConfig().getOutputFolder();
+        config.getAnvilTestConfig()
+                .setOutputFolder(
+                        Paths.get(outputFolder, StrengthEscalation.FOLDER_NAME).toString());
+        config.getAnvilTestConfig().setStrength(escalation.getEscalatedStrength());
+        TestContext escalationContext = TestContext.startRun(config);
+        escalationContext.setStrengthEscalation(escalation);
+        try {
+            passed &= runPhase(escalationContext);
+        } finally {
+            config.getAnvilTestConfig().setOutputFolder(outputFolder);
+            config.getAnvilTestConfig().setStrength(strength);
+        }
+        escalation.mergeResults(Paths.get(outputFolder));
+        return passed;
+    }
+
+    /**
+     * Runs AnvilCore's TestRunner once.
+     *
+     * @param testContext TLS-Anvils TestContext with filled AnvilConfig
+     * @return false if the results did not match the expected results
+     */
+    private static boolean runPhase(TestContext testContext) throws JsonProcessingException {
         ObjectMapper mapper = new ObjectMapper();
         String additionalConfig = mapper.writeValueAsString(testContext.getConfig());
 
@@ -127,7 +225,58 @@ public class Main {
                     .getConfigurationOptionsBuildManager()
                     .onShutdown();
         }
-        System.exit(runner.isCheckPassed() || !runner.isCheckExecuted() ? 0 : 1);
+        return runner.isCheckPassed() || !runner.isCheckExecuted();
+    }
+
+    /**
+     * Tests the targets of the batch one after another in this JVM. Each target gets a fresh
+     * TestContext and its own output folder, target-independent data is cached across the targets.
+     *
+     * @param testContext TLS-Anvils TestContext with the parsed batch command
+     */
+    public static void startBatch(TestContext testContext) throws IOException {
+        LOGGER.info("Started in batch mode.");
+        BatchDelegate delegate = testContext.getConfig().getBatchDelegate();
+        Path batchFolder = Paths.get(delegate.getOutputFolder()).toAbsolutePath();
+        Files.createDirectories(batchFolder);
+
+        List<Map<String, Object>> summary = new ArrayList<>();
+        boolean allPassed = true;
+        for (String targetConfig : delegate.getTargetConfigs()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("config", targetConfig);
+            long start = System.currentTimeMillis();
+            try {
+                TlsAnvilConfig config = new TlsAnvilConfig();
+                config.setOutputParentFolder(batchFolder.toString());
+                config.parse(new String[] {"-tlsAnvilConfig", targetConfig});
+                TestContext targetContext = TestContext.startRun(config);
+                if (config.getAnvilTestConfig().getTestPackage() == null) {
+                    config.getAnvilTestConfig().setTestPackage(resolveTestPackage());
+                }
+                entry.put("identifier", config.getAnvilTestConfig().getIdentifier());
+                entry.put("outputFolder", config.getAnvilTestConfig().getOutputFolder());
+                LOGGER.info(
+                        "Testing {} ({} of {})",
+                        config.getAnvilTestConfig().getIdentifier(),
+                        summary.size() + 1,
+                        delegate.getTargetConfigs().size());
+                boolean passed = runTests(targetContext);
+                entry.put("passed", passed);
+                allPassed &= passed;
+            } catch (Exception e) {
+                LOGGER.error("Testing the target of {} failed", targetConfig, e);
+                entry.put("passed", false);
+                entry.put("error", e.toString());
+                allPassed = false;
+            }
+            entry.put("elapsedMillis", System.currentTimeMillis() - start);
+            summary.add(entry);
+        }
+        new ObjectMapper()
+                .writerWithDefaultPrettyPrinter()
+                .writeValue(batchFolder.resolve("batch_summary.json").toFile(), summary);
+        System.exit(allPassed ? 0 : 1);
     }
 
     /**
@@ -145,26 +294,97 @@ public class Main {
 
     /**
      * Starts the WorkerClient of AnvilCore with the supplied config in TLS-Anvils TestContext. The
-     * client connects to a backend and can start tests.
+     * client connects to a backend and can start tests. With -localJobs, the jobs are served by a
+     * local controller and the worker exits once all of them are completed.
      *
      * @param testContext TLS-Anvils TestContext with filled AnvilConfig
      */
-    public static void startWorkerClient(TestContext testContext) {
+    public static void startWorkerClient(TestContext testContext) throws IOException {
         LOGGER.info("Started in worker mode.");
+        WorkerDelegate workerDelegate = testContext.getConfig().getWorkerDelegate();
+        if (workerDelegate.getWarmCacheSize() > 0) {
+            testContext.enableWarmWorkerCache(workerDelegate.getWarmCacheSize());
+        }
+        LocalWorkerController localController = null;
+        if (workerDelegate.getLocalJobs() != null) {
+            localController = new LocalWorkerController();
+            int jobCount = localController.queueJobs(Paths.get(workerDelegate.getLocalJobs()));
+            localController.start();
+            workerDelegate.setController(localController.getAddress());
+            LOGGER.info("Queued {} local jobs", jobCount);
+        }
         WorkerClient workerClient =
                 new WorkerClient(
-                        testContext.getConfig().getWorkerDelegate().getController(),
+                        workerDelegate.getController(),
                         new TlsParameterIdentifierProvider(),
-                        testContext.getConfig().getWorkerDelegate().getWorkerName());
+                        workerDelegate.getWorkerName());
         // set the TLS-Anvil TestContext as listener for callbacks
         // the gotConfig callback is used to set config parameters before a test
         // the beforeStart callback is used to start the test preparation phase
         workerClient.setListener(testContext);
 
+        if (localController == null) {
+            try {
+                workerClient.run();
+            } catch (InterruptedException e) {
+                LOGGER.info("Worker interrupted, exiting.");
+            }
+            return;
+        }
+
+        Thread workerThread =
+                new Thread(
+                        () -> {
+                            try {
+                                workerClient.run();
+                            } catch (InterruptedException e) {
+                                LOGGER.info("Worker interrupted, exiting.");
+                            }
+                        },
+                        "local-worker");
+        workerThread.setDaemon(true);
+        workerThread.start();
         try {
-            workerClient.run();
+            localController.awaitCompletion(0);
+            LOGGER.info("All local jobs completed.");
         } catch (InterruptedException e) {
             LOGGER.info("Worker interrupted, exiting.");
         }
+        localController.stop();
+        System.exit(0);
+    }
+
+    /**
+     * Combines the output folders of the shards of a run into a single report.
+     *
+     * @param testContext TLS-Anvils TestContext with the parsed mergeShards command
+     */
+    public static void startShardMerge(TestContext testContext) throws IOException {
+        LOGGER.info("Started in merge mode.");
+        MergeShardsDelegate delegate = testContext.getConfig().getMergeShardsDelegate();
+        ObjectNode report =
+                new ShardMerger(
+                                delegate.getShardFolders().stream()
+                                        .map(Paths::get)
+                                        .collect(Collectors.toList()),
+                                Paths.get(delegate.getMergedFolder()))
+                        .merge();
+        LOGGER.info(
+                "Merged report: {} strictly succeeded, {} conceptually succeeded, {} partially failed, {} fully failed, {} disabled",
+                report.path("StrictlySucceededTests").asLong(),
+                report.path("ConceptuallySucceededTests").asLong(),
+                report.path("PartiallyFailedTests").asLong(),
+                report.path("FullyFailedTests").asLong(),
+                report.path("DisabledTests").asLong());
+    }
+
+    public static void startFailureLocalization(TestContext testContext) throws IOException {
+        LOGGER.info("Started in failure localization mode.");
+        LocalizeFailuresDelegate delegate = testContext.getConfig().getLocalizeFailuresDelegate();
+        FailureLocalizationProcessor processor =
+                new FailureLocalizationProcessor(delegate.getStrength());
+        for (String outputFolder : delegate.getOutputFolders()) {
+            processor.process(Paths.get(outputFolder));
+        }
     }
 }
@@ -23,6 +23,7 @@ import de.rub.nds.tlsattacker.core.workflow.action.ReceiveAction;
 import de.rub.nds.tlsattacker.core.workflow.action.SendAction;
 import de.rub.nds.tlsattacker.core.workflow.factory.WorkflowTraceType;
 import de.rub.nds.tlstest.framework.Validator;
+import de.rub.nds.tlstest.framework.annotations.ResumptionFastPath;
 import de.rub.nds.tlstest.framework.execution.WorkflowRunner;
 import de.rub.nds.tlstest.framework.testClasses.Tls12Test;
 import java.util.List;
@@ -30,6 +31,7 @@ import java.util.List;
 public class AEADCiphers extends Tls12Test {
 
     @AnvilTest(id = "5246-7JhgKXeTXv")
+    @ResumptionFastPath
     @ModelFromScope(modelType = "CERTIFICATE")
     @IncludeParameter("AUTH_TAG_BITMASK")
     @ValueConstraints({
@@ -63,6 +65,7 @@ public class AEADCiphers extends Tls12Test {
     }
 
     @AnvilTest(id = "5246-sYXZ8a3B4C")
+    @ResumptionFastPath
     @ModelFromScope(modelType = "CERTIFICATE")
     @IncludeParameters({
         @IncludeParameter("CIPHERTEXT_BITMASK"),
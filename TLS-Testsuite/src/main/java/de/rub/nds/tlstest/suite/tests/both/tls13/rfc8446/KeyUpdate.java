@@ -29,6 +29,7 @@ import de.rub.nds.tlsattacker.core.workflow.action.ReceiveAction;
 import de.rub.nds.tlsattacker.core.workflow.action.SendAction;
 import de.rub.nds.tlsattacker.core.workflow.factory.WorkflowTraceType;
 import de.rub.nds.tlstest.framework.Validator;
+import de.rub.nds.tlstest.framework.annotations.ResumptionFastPath;
 import de.rub.nds.tlstest.framework.execution.WorkflowRunner;
 import de.rub.nds.tlstest.framework.testClasses.Tls13Test;
 import org.junit.jupiter.api.Tag;
@@ -55,6 +56,7 @@ public class KeyUpdate extends Tls13Test {
     }
 
     @AnvilTest(id = "8446-Dy4H1oQ8bc")
+    @ResumptionFastPath
     @Tag("new")
     public void sendUnknownRequestMode(AnvilTestCase testCase, WorkflowRunner runner) {
         Config config = getPreparedConfig(runner);
@@ -72,6 +74,7 @@ public class KeyUpdate extends Tls13Test {
     }
 
     @AnvilTest(id = "8446-J6tVdjJCzF")
+    @ResumptionFastPath
     @Tag("new")
     public void respondsWithValidKeyUpdate(AnvilTestCase testCase, WorkflowRunner runner) {
         Config config = getPreparedConfig(runner);
@@ -101,6 +104,7 @@ public class KeyUpdate extends Tls13Test {
     }
 
     @AnvilTest(id = "8446-fFh7mHrXow")
+    @ResumptionFastPath
     @Tag("new")
     public void appDataUnderNewKeysSucceeds(WorkflowRunner runner) {
         Config config = getPreparedConfig(runner);